@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.benchmarks;
+
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.codegen.mybatis3.IntrospectedTableMyBatis3Impl;
+
+/**
+ * The MyBatis3 introspected table, with a way to discard the calculated generators
+ * so that they can be calculated again in the next benchmark invocation, and access
+ * to the generated mapper document.
+ */
+public class BenchmarkIntrospectedTable extends IntrospectedTableMyBatis3Impl {
+
+    public BenchmarkIntrospectedTable() {
+        super();
+    }
+
+    public void resetGenerators() {
+        javaModelGenerators.clear();
+        clientGenerators.clear();
+        xmlMapperGenerator = null;
+    }
+
+    /**
+     * Generates the XML mapper document of this table. The generators must have been
+     * calculated.
+     *
+     * @return the XML mapper document
+     */
+    public Document getXmlMapperDocument() {
+        return xmlMapperGenerator.getDocument();
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.ProgressCallback;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.internal.NullProgressCallback;
+import org.mybatis.generator.internal.ObjectFactory;
+import org.mybatis.generator.internal.db.DatabaseIntrospector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures IntrospectedTableMyBatis3Impl.calculateGenerators for every table of the
+ * schema.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculateGeneratorsBenchmark {
+
+    @Param({"10", "100"})
+    public int tableCount;
+
+    @Param({"10", "50"})
+    public int columnCount;
+
+    private SyntheticSchema schema;
+
+    private List<BenchmarkIntrospectedTable> introspectedTables;
+
+    private List<String> warnings;
+
+    private ProgressCallback callback;
+
+    @Setup
+    public void setUp() throws Exception {
+        schema = new SyntheticSchema(tableCount, columnCount);
+        schema.create();
+        Context context = schema.createConfiguration().getContexts().get(0);
+        warnings = new ArrayList<String>();
+        callback = new NullProgressCallback();
+
+        // creates the plugins of the context - there are no introspected tables yet
+        context.generateFiles(callback, new ArrayList<GeneratedJavaFile>(),
+                new ArrayList<GeneratedXmlFile>(), warnings);
+
+        DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(context,
+                schema.getConnection().getMetaData(),
+                ObjectFactory.createJavaTypeResolver(context, warnings), warnings);
+        introspectedTables = new ArrayList<BenchmarkIntrospectedTable>();
+        for (TableConfiguration tc : context.getTableConfigurations()) {
+            for (IntrospectedTable introspectedTable : databaseIntrospector
+                    .introspectTables(tc)) {
+                introspectedTable.initialize();
+                introspectedTables.add((BenchmarkIntrospectedTable) introspectedTable);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        schema.drop();
+    }
+
+    @Benchmark
+    public List<BenchmarkIntrospectedTable> calculateGenerators() {
+        for (BenchmarkIntrospectedTable introspectedTable : introspectedTables) {
+            introspectedTable.resetGenerators();
+            introspectedTable.calculateGenerators(warnings, callback);
+        }
+
+        warnings.clear();
+        return introspectedTables;
+    }
+}
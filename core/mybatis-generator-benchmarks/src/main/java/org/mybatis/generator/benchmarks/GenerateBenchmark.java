@@ -0,0 +1,79 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mybatis.generator.api.MyBatisGenerator;
+import org.mybatis.generator.config.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a complete run of MyBatisGenerator.generate for the schema - introspection
+ * and generation - without writing any files.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenerateBenchmark {
+
+    @Param({"10", "100"})
+    public int tableCount;
+
+    @Param({"10", "50"})
+    public int columnCount;
+
+    private SyntheticSchema schema;
+
+    private Configuration configuration;
+
+    @Setup
+    public void setUp() throws Exception {
+        schema = new SyntheticSchema(tableCount, columnCount);
+        schema.create();
+        configuration = schema.createConfiguration();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        schema.drop();
+    }
+
+    @Benchmark
+    public MyBatisGenerator generate() throws Exception {
+        List<String> warnings = new ArrayList<String>();
+        MyBatisGenerator myBatisGenerator = new MyBatisGenerator(configuration, null,
+                warnings);
+        myBatisGenerator.generate(null, null, null, false);
+        return myBatisGenerator;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.JavaTypeResolver;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.internal.ObjectFactory;
+import org.mybatis.generator.internal.db.DatabaseIntrospector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures DatabaseIntrospector.introspectTables for every table of the schema.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntrospectionBenchmark {
+
+    @Param({"10", "100"})
+    public int tableCount;
+
+    @Param({"10", "50"})
+    public int columnCount;
+
+    private SyntheticSchema schema;
+
+    private Context context;
+
+    private JavaTypeResolver javaTypeResolver;
+
+    private List<String> warnings;
+
+    @Setup
+    public void setUp() throws Exception {
+        schema = new SyntheticSchema(tableCount, columnCount);
+        schema.create();
+        context = schema.createConfiguration().getContexts().get(0);
+        warnings = new ArrayList<String>();
+        javaTypeResolver = ObjectFactory.createJavaTypeResolver(context, warnings);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        schema.drop();
+    }
+
+    @Benchmark
+    public List<IntrospectedTable> introspectTables() throws Exception {
+        DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(context,
+                schema.getConnection().getMetaData(), javaTypeResolver, warnings);
+
+        List<IntrospectedTable> answer = new ArrayList<IntrospectedTable>();
+        for (TableConfiguration tc : context.getTableConfigurations()) {
+            answer.addAll(databaseIntrospector.introspectTables(tc));
+        }
+
+        warnings.clear();
+        return answer;
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.config.xml.ConfigurationParser;
+import org.mybatis.generator.exception.XMLParserException;
+
+/**
+ * A synthetic schema in an in-memory HSQLDB database. Every table has an integer
+ * primary key, and the remaining columns cycle through the common JDBC types.
+ *
+ * <p>The database lives as long as the connection of the schema is open.
+ */
+public class SyntheticSchema {
+
+    private static final String DRIVER_CLASS = "org.hsqldb.jdbcDriver"; //$NON-NLS-1$
+
+    private static final String[] COLUMN_TYPES = {
+        "VARCHAR(50)", //$NON-NLS-1$
+        "INTEGER", //$NON-NLS-1$
+        "DECIMAL(15,2)", //$NON-NLS-1$
+        "TIMESTAMP", //$NON-NLS-1$
+        "BIGINT", //$NON-NLS-1$
+        "DATE", //$NON-NLS-1$
+        "CHAR(1)", //$NON-NLS-1$
+        "SMALLINT" //$NON-NLS-1$
+    };
+
+    /** Each schema gets its own database, so benchmarks cannot see each other's tables. */
+    private static final AtomicInteger DATABASE_NUMBER = new AtomicInteger();
+
+    private int tableCount;
+
+    private int columnCount;
+
+    private String url;
+
+    private Connection connection;
+
+    /**
+     * Instantiates a new synthetic schema.
+     *
+     * @param tableCount
+     *            the number of tables
+     * @param columnCount
+     *            the number of columns of each table, including the primary key
+     */
+    public SyntheticSchema(int tableCount, int columnCount) {
+        super();
+        this.tableCount = tableCount;
+        this.columnCount = columnCount;
+        url = "jdbc:hsqldb:mem:mbgbench" + DATABASE_NUMBER.incrementAndGet(); //$NON-NLS-1$
+    }
+
+    /**
+     * Creates the database and its tables.
+     *
+     * @throws SQLException
+     *             if the tables cannot be created
+     */
+    public void create() throws SQLException {
+        try {
+            Class.forName(DRIVER_CLASS);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException(e.getMessage());
+        }
+
+        connection = DriverManager.getConnection(url, "sa", ""); //$NON-NLS-1$ //$NON-NLS-2$
+        Statement statement = connection.createStatement();
+        try {
+            for (String tableName : getTableNames()) {
+                statement.execute(getCreateTableStatement(tableName));
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Shuts down the database.
+     *
+     * @throws SQLException
+     *             if the database cannot be shut down
+     */
+    public void drop() throws SQLException {
+        if (connection == null) {
+            return;
+        }
+
+        try {
+            Statement statement = connection.createStatement();
+            try {
+                statement.execute("SHUTDOWN"); //$NON-NLS-1$
+            } finally {
+                statement.close();
+            }
+        } finally {
+            connection.close();
+            connection = null;
+        }
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public List<String> getTableNames() {
+        List<String> answer = new ArrayList<String>();
+        for (int i = 0; i < tableCount; i++) {
+            answer.add(String.format("TABLE_%04d", i)); //$NON-NLS-1$
+        }
+        return answer;
+    }
+
+    private String getCreateTableStatement(String tableName) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("create table "); //$NON-NLS-1$
+        sb.append(tableName);
+        sb.append(" (ID INTEGER NOT NULL PRIMARY KEY"); //$NON-NLS-1$
+        for (int i = 1; i < columnCount; i++) {
+            sb.append(", "); //$NON-NLS-1$
+            sb.append(String.format("COLUMN_%04d ", i)); //$NON-NLS-1$
+            sb.append(COLUMN_TYPES[i % COLUMN_TYPES.length]);
+        }
+        sb.append(')');
+        return sb.toString();
+    }
+
+    /**
+     * Creates a MyBatis3 configuration with a single context that generates every table
+     * of the schema. The introspected tables are instances of BenchmarkIntrospectedTable.
+     *
+     * @return the configuration
+     * @throws IOException
+     *             if the configuration cannot be read
+     * @throws XMLParserException
+     *             if the configuration is invalid
+     */
+    public Configuration createConfiguration() throws IOException, XMLParserException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+        sb.append("<!DOCTYPE generatorConfiguration PUBLIC"); //$NON-NLS-1$
+        sb.append(" \"-//mybatis.org//DTD MyBatis Generator Configuration 1.0//EN\""); //$NON-NLS-1$
+        sb.append(" \"http://mybatis.org/dtd/mybatis-generator-config_1_0.dtd\">\n"); //$NON-NLS-1$
+        sb.append("<generatorConfiguration>\n"); //$NON-NLS-1$
+        sb.append("  <context id=\"benchmark\" targetRuntime=\""); //$NON-NLS-1$
+        sb.append(BenchmarkIntrospectedTable.class.getName());
+        sb.append("\">\n"); //$NON-NLS-1$
+        sb.append("    <commentGenerator>\n"); //$NON-NLS-1$
+        sb.append("      <property name=\"suppressDate\" value=\"true\" />\n"); //$NON-NLS-1$
+        sb.append("    </commentGenerator>\n"); //$NON-NLS-1$
+        sb.append("    <jdbcConnection driverClass=\""); //$NON-NLS-1$
+        sb.append(DRIVER_CLASS);
+        sb.append("\" connectionURL=\""); //$NON-NLS-1$
+        sb.append(url);
+        sb.append("\" userId=\"sa\" />\n"); //$NON-NLS-1$
+        sb.append("    <javaModelGenerator targetPackage=\"benchmark.model\" targetProject=\"target\" />\n"); //$NON-NLS-1$
+        sb.append("    <sqlMapGenerator targetPackage=\"benchmark.mapper\" targetProject=\"target\" />\n"); //$NON-NLS-1$
+        sb.append("    <javaClientGenerator type=\"XMLMAPPER\" targetPackage=\"benchmark.mapper\" targetProject=\"target\" />\n"); //$NON-NLS-1$
+        for (String tableName : getTableNames()) {
+            sb.append("    <table tableName=\""); //$NON-NLS-1$
+            sb.append(tableName);
+            sb.append("\" />\n"); //$NON-NLS-1$
+        }
+        sb.append("  </context>\n"); //$NON-NLS-1$
+        sb.append("</generatorConfiguration>\n"); //$NON-NLS-1$
+
+        ConfigurationParser cp = new ConfigurationParser(new ArrayList<String>());
+        return cp.parseConfiguration(new StringReader(sb.toString()));
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.MyBatisGenerator;
+import org.mybatis.generator.internal.XmlFileMergerJaxp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.InputSource;
+
+/**
+ * Measures XmlFileMergerJaxp.getMergedSource for all of the mapper files generated for
+ * the schema. Each existing file is the generated file with one custom element added,
+ * which the merge must keep. The files are merged both from disk, as they are during
+ * generation (streaming merge), and from strings with the DOM based merge.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlMergeBenchmark {
+
+    @Param({"10", "100"})
+    public int tableCount;
+
+    @Param({"10", "50"})
+    public int columnCount;
+
+    private SyntheticSchema schema;
+
+    private List<String> fileNames;
+
+    private List<String> newFiles;
+
+    private List<String> existingFiles;
+
+    private List<GeneratedXmlFile> generatedFiles;
+
+    private List<File> existingDiskFiles;
+
+    @Setup
+    public void setUp() throws Exception {
+        schema = new SyntheticSchema(tableCount, columnCount);
+        schema.create();
+
+        MyBatisGenerator myBatisGenerator = new MyBatisGenerator(
+                schema.createConfiguration(), null, new ArrayList<String>());
+        myBatisGenerator.generate(null, null, null, false);
+
+        fileNames = new ArrayList<String>();
+        newFiles = new ArrayList<String>();
+        existingFiles = new ArrayList<String>();
+        generatedFiles = new ArrayList<GeneratedXmlFile>();
+        existingDiskFiles = new ArrayList<File>();
+        for (GeneratedXmlFile gxf : myBatisGenerator.getGeneratedXmlFiles()) {
+            String content = gxf.getFormattedContent();
+            String existingContent = content.replace("</mapper>", //$NON-NLS-1$
+                    "  <select id=\"customQuery\" resultType=\"int\">\n" //$NON-NLS-1$
+                    + "    select count(*) from dual\n" //$NON-NLS-1$
+                    + "  </select>\n</mapper>"); //$NON-NLS-1$
+            fileNames.add(gxf.getFileName());
+            newFiles.add(content);
+            existingFiles.add(existingContent);
+            generatedFiles.add(gxf);
+            existingDiskFiles.add(writeTempFile(existingContent));
+        }
+    }
+
+    private static File writeTempFile(String content) throws IOException {
+        File file = File.createTempFile("mbg-merge", ".xml"); //$NON-NLS-1$ //$NON-NLS-2$
+        file.deleteOnExit();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8"); //$NON-NLS-1$
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        schema.drop();
+        for (File file : existingDiskFiles) {
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    public void mergeMapperFilesFromDisk(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < generatedFiles.size(); i++) {
+            blackhole.consume(XmlFileMergerJaxp.getMergedSource(
+                    generatedFiles.get(i), existingDiskFiles.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void mergeMapperFilesWithDom(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < newFiles.size(); i++) {
+            blackhole.consume(XmlFileMergerJaxp.getMergedSource(
+                    new InputSource(new StringReader(newFiles.get(i))),
+                    new InputSource(new StringReader(existingFiles.get(i))),
+                    fileNames.get(i)));
+        }
+    }
+}
@@ -17,6 +17,7 @@ package org.mybatis.generator.ant;
 
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.Task;
+import org.mybatis.generator.internal.MetricsCollector;
 import org.mybatis.generator.internal.NullProgressCallback;
 
 /**
@@ -32,6 +33,9 @@ public class AntProgressCallback extends NullProgressCallback {
     /** The verbose. */
     private boolean verbose;
 
+    /** The metrics collected during the run, if any. */
+    private MetricsCollector metrics;
+
     /**
      * Instantiates a new ant progress callback.
      *
@@ -55,4 +59,27 @@ public class AntProgressCallback extends NullProgressCallback {
             task.log(subTaskName, Project.MSG_VERBOSE);
         }
     }
+
+    /**
+     * Sets the metrics collector. If verbose logging is enabled, the metrics
+     * summary is logged when the generator is done.
+     *
+     * @param metrics
+     *            the metrics collector
+     */
+    public void setMetrics(MetricsCollector metrics) {
+        this.metrics = metrics;
+    }
+
+    /* (non-Javadoc)
+     * @see org.mybatis.generator.internal.NullProgressCallback#done()
+     */
+    @Override
+    public void done() {
+        if (verbose && metrics != null) {
+            for (String line : metrics.getSummary()) {
+                task.log(line, Project.MSG_VERBOSE);
+            }
+        }
+    }
 }
@@ -38,6 +38,7 @@ import org.mybatis.generator.config.xml.ConfigurationParser;
 import org.mybatis.generator.exception.InvalidConfigurationException;
 import org.mybatis.generator.exception.XMLParserException;
 import org.mybatis.generator.internal.DefaultShellCallback;
+import org.mybatis.generator.internal.MetricsCollector;
 
 /**
  * This is an Ant task that will run the generator. The following is a sample
@@ -72,6 +73,19 @@ import org.mybatis.generator.internal.DefaultShellCallback;
  * <li>"contextIds" - a comma delimited list of contaxtIds to use for this run</li>
  * <li>"fullyQualifiedTableNames" - a comma delimited list of fully qualified
  * table names to use for this run</li>
+ * <li>"snapshotDirectory" - a directory for introspection snapshots. If the
+ * database has not changed since the snapshot of a context was taken, the
+ * tables are introspected from the snapshot</li>
+ * <li>"offline" - if true, then the generator will introspect tables from the
+ * snapshots without connecting to the database. Requires "snapshotDirectory".
+ * Default is false</li>
+ * <li>"manifestFile" - a build manifest file for incremental generation. Tables
+ * that have not changed since the last run are not generated again</li>
+ * <li>"writeThreads" - the number of threads used to write the generated
+ * files. Default is 1</li>
+ * <li>"metricsFile" - a file the generation metrics (time and allocation per
+ * phase) are written to in JSON format. The metrics summary is also logged
+ * if "verbose" is true</li>
  * </ul>
  * 
  * 
@@ -85,6 +99,11 @@ public class GeneratorAntTask extends Task {
     private boolean verbose;
     private String contextIds;
     private String fullyQualifiedTableNames;
+    private String snapshotDirectory;
+    private boolean offline;
+    private String manifestFile;
+    private int writeThreads = 1;
+    private String metricsFile;
 
     /**
      * 
@@ -112,6 +131,10 @@ public class GeneratorAntTask extends Task {
                     "RuntimeError.1", configfile)); //$NON-NLS-1$
         }
 
+        if (offline && !stringHasValue(snapshotDirectory)) {
+            throw new BuildException(getString("RuntimeError.24")); //$NON-NLS-1$
+        }
+
         Set<String> fullyqualifiedTables = new HashSet<String>();
         if (stringHasValue(fullyQualifiedTableNames)) {
             StringTokenizer st = new StringTokenizer(fullyQualifiedTableNames,
@@ -145,10 +168,36 @@ public class GeneratorAntTask extends Task {
             DefaultShellCallback callback = new DefaultShellCallback(overwrite);
 
             MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, callback, warnings);
+            if (stringHasValue(snapshotDirectory)) {
+                myBatisGenerator.setSnapshotDirectory(new File(snapshotDirectory));
+            }
+            myBatisGenerator.setOffline(offline);
+            if (stringHasValue(manifestFile)) {
+                myBatisGenerator.setManifestFile(new File(manifestFile));
+            }
+            myBatisGenerator.setWriteThreads(writeThreads);
+
+            AntProgressCallback progressCallback = new AntProgressCallback(this, verbose);
+            MetricsCollector metrics = null;
+            if (verbose || stringHasValue(metricsFile)) {
+                metrics = new MetricsCollector();
+                myBatisGenerator.setMetricsListener(metrics);
+                progressCallback.setMetrics(metrics);
+            }
 
-            myBatisGenerator.generate(new AntProgressCallback(this, verbose), contexts,
+            myBatisGenerator.generate(progressCallback, contexts,
                     fullyqualifiedTables);
 
+            if (stringHasValue(metricsFile)) {
+                File file = new File(metricsFile);
+                try {
+                    metrics.writeJson(file);
+                } catch (IOException e) {
+                    warnings.add(getString("Warning.34", //$NON-NLS-1$
+                            file.getAbsolutePath(), e.getMessage()));
+                }
+            }
+
         } catch (XMLParserException e) {
             for (String error : e.getErrors()) {
                 log(error, Project.MSG_ERR);
@@ -238,4 +287,44 @@ public class GeneratorAntTask extends Task {
     public void setFullyQualifiedTableNames(String fullyQualifiedTableNames) {
         this.fullyQualifiedTableNames = fullyQualifiedTableNames;
     }
+
+    public String getSnapshotDirectory() {
+        return snapshotDirectory;
+    }
+
+    public void setSnapshotDirectory(String snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    public String getManifestFile() {
+        return manifestFile;
+    }
+
+    public void setManifestFile(String manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    public int getWriteThreads() {
+        return writeThreads;
+    }
+
+    public void setWriteThreads(int writeThreads) {
+        this.writeThreads = writeThreads;
+    }
+
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
 }
@@ -22,7 +22,10 @@ import java.util.Properties;
 public interface ConnectionFactory {
     /**
      * Should return a connection to the database in use for this context.
-     * The generator will call this method only one time for each context.
+     * The generator will call this method only one time for each context, unless
+     * the context specifies more than one introspection thread.  In that case the
+     * generator will call this method once for each introspection thread, possibly
+     * from different threads.
      * The generator will close the connection.
      * 
      * @return
@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api;
 
+import java.io.IOException;
 
 /**
  * Abstract class that holds information common to all generated files.
@@ -48,6 +49,21 @@ public abstract class GeneratedFile {
      */
     public abstract String getFormattedContent();
 
+    /**
+     * Writes the formatted content of this file to the specified output. Subclasses
+     * override this method to write the content directly to the output without building
+     * it in memory first. The default implementation writes the result of
+     * <code>getFormattedContent</code>.
+     *
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void render(Appendable out) throws IOException {
+        out.append(getFormattedContent());
+    }
+
     /**
      * Get the file name (without any path). Clients should use this method to
      * determine how to save the results.
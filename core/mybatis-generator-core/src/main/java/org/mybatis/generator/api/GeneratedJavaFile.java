@@ -15,6 +15,9 @@
  */
 package org.mybatis.generator.api;
 
+import java.io.IOException;
+
+import org.mybatis.generator.api.dom.DefaultJavaFormatter;
 import org.mybatis.generator.api.dom.java.CompilationUnit;
 
 /**
@@ -79,6 +82,20 @@ public class GeneratedJavaFile extends GeneratedFile {
         return javaFormatter.getFormattedContent(compilationUnit);
     }
 
+    /* (non-Javadoc)
+     * @see org.mybatis.generator.api.GeneratedFile#render(java.lang.Appendable)
+     */
+    @Override
+    public void render(Appendable out) throws IOException {
+        // only the default formatter itself is streamed - a subclass may change
+        // the formatted content
+        if (javaFormatter.getClass() == DefaultJavaFormatter.class) {
+            ((DefaultJavaFormatter) javaFormatter).render(compilationUnit, out);
+        } else {
+            super.render(out);
+        }
+    }
+
     /* (non-Javadoc)
      * @see org.mybatis.generator.api.GeneratedFile#getFileName()
      */
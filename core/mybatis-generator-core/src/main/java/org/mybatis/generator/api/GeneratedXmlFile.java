@@ -15,6 +15,9 @@
  */
 package org.mybatis.generator.api;
 
+import java.io.IOException;
+
+import org.mybatis.generator.api.dom.DefaultXmlFormatter;
 import org.mybatis.generator.api.dom.xml.Document;
 
 /**
@@ -74,6 +77,20 @@ public class GeneratedXmlFile extends GeneratedFile {
         return xmlFormatter.getFormattedContent(document);
     }
 
+    /* (non-Javadoc)
+     * @see org.mybatis.generator.api.GeneratedFile#render(java.lang.Appendable)
+     */
+    @Override
+    public void render(Appendable out) throws IOException {
+        // only the default formatter itself is streamed - a subclass may change
+        // the formatted content
+        if (xmlFormatter.getClass() == DefaultXmlFormatter.class) {
+            ((DefaultXmlFormatter) xmlFormatter).render(document, out);
+        } else {
+            super.render(out);
+        }
+    }
+
     /**
      * Gets the file name.
      *
@@ -0,0 +1,31 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api;
+
+/**
+ * Plugins implement this marker interface to declare that they use the indexes of
+ * the introspected tables (see {@link IntrospectedTable#getIndexes()}).
+ * <p>
+ * Reading the indexes is an extra metadata query for every table, so the indexes are
+ * only introspected if a plugin of the context implements this interface, or if the
+ * <code>unindexedCriteriaWarningRows</code> context property is enabled. The
+ * interface is checked on the configured plugin class before the plugins are
+ * created.
+ *
+ * @see Plugin
+ */
+public interface IndexAwarePlugin extends Plugin {
+}
@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api;
+
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds information about a foreign key of an introspected table, as
+ * returned from <code>DatabaseMetaData.getImportedKeys()</code>. The referenced
+ * table is only known if it is also introspected in the same context - see
+ * {@link #resolve(IntrospectedTable)}.
+ */
+public class IntrospectedForeignKey {
+
+    private String name;
+
+    private IntrospectedTable introspectedTable;
+
+    private String referencedCatalog;
+
+    private String referencedSchema;
+
+    private String referencedTableName;
+
+    private List<IntrospectedColumn> columns;
+
+    private List<String> referencedColumnNames;
+
+    private IntrospectedTable referencedTable;
+
+    private List<IntrospectedColumn> referencedColumns;
+
+    public IntrospectedForeignKey(String name, String referencedCatalog,
+            String referencedSchema, String referencedTableName) {
+        super();
+        this.name = name;
+        this.referencedCatalog = referencedCatalog;
+        this.referencedSchema = referencedSchema;
+        this.referencedTableName = referencedTableName;
+        columns = new ArrayList<IntrospectedColumn>();
+        referencedColumnNames = new ArrayList<String>();
+        referencedColumns = new ArrayList<IntrospectedColumn>();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the table that holds the foreign key.
+     *
+     * @return the table
+     */
+    public IntrospectedTable getIntrospectedTable() {
+        return introspectedTable;
+    }
+
+    public void setIntrospectedTable(IntrospectedTable introspectedTable) {
+        this.introspectedTable = introspectedTable;
+    }
+
+    /**
+     * Returns the foreign key columns in key sequence order.
+     *
+     * @return the columns
+     */
+    public List<IntrospectedColumn> getColumns() {
+        return columns;
+    }
+
+    public void addColumn(IntrospectedColumn introspectedColumn,
+            String referencedColumnName) {
+        columns.add(introspectedColumn);
+        referencedColumnNames.add(referencedColumnName);
+    }
+
+    /**
+     * Returns the referenced table, or null if the referenced table is not
+     * introspected in the same context.
+     *
+     * @return the referenced table
+     */
+    public IntrospectedTable getReferencedTable() {
+        return referencedTable;
+    }
+
+    /**
+     * Returns the referenced columns, in the same order as the foreign key
+     * columns. The list is empty until the foreign key is resolved.
+     *
+     * @return the referenced columns
+     */
+    public List<IntrospectedColumn> getReferencedColumns() {
+        return referencedColumns;
+    }
+
+    /**
+     * Resolves the foreign key if it references the specified table.
+     *
+     * @param table
+     *            an introspected table of the same context
+     * @return true if the foreign key references the table and all referenced
+     *         columns were found
+     */
+    public boolean resolve(IntrospectedTable table) {
+        FullyQualifiedTable fqt = table.getFullyQualifiedTable();
+        if (!referencedTableName.equals(fqt.getIntrospectedTableName())
+                || !matches(referencedSchema, fqt.getIntrospectedSchema())
+                || !matches(referencedCatalog, fqt.getIntrospectedCatalog())) {
+            return false;
+        }
+
+        List<IntrospectedColumn> resolvedColumns = new ArrayList<IntrospectedColumn>();
+        for (String columnName : referencedColumnNames) {
+            IntrospectedColumn introspectedColumn = table.getColumn(columnName);
+            if (introspectedColumn == null) {
+                return false;
+            }
+            resolvedColumns.add(introspectedColumn);
+        }
+
+        referencedTable = table;
+        referencedColumns = resolvedColumns;
+        return true;
+    }
+
+    private boolean matches(String referencedName, String introspectedName) {
+        return !stringHasValue(referencedName) || !stringHasValue(introspectedName)
+                || referencedName.equals(introspectedName);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds information about an index of an introspected table, as
+ * returned from <code>DatabaseMetaData.getIndexInfo()</code>. Only indexes
+ * made of plain columns of the table are introspected - indexes on
+ * expressions, or on columns that are ignored by the configuration, are
+ * skipped.
+ */
+public class IntrospectedIndex {
+
+    private String indexName;
+
+    private boolean unique;
+
+    private List<IntrospectedColumn> columns;
+
+    public IntrospectedIndex(String indexName, boolean unique) {
+        super();
+        this.indexName = indexName;
+        this.unique = unique;
+        columns = new ArrayList<IntrospectedColumn>();
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * Returns the columns of the index in index order.
+     *
+     * @return the columns
+     */
+    public List<IntrospectedColumn> getColumns() {
+        return columns;
+    }
+
+    public void addColumn(IntrospectedColumn introspectedColumn) {
+        columns.add(introspectedColumn);
+    }
+
+    /**
+     * Returns true if the specified column is the first column of this index,
+     * so that a condition on the column alone can use the index.
+     *
+     * @param introspectedColumn
+     *            the column
+     * @return true if the column is the leading column of the index
+     */
+    public boolean isLeadingColumn(IntrospectedColumn introspectedColumn) {
+        return !columns.isEmpty() && columns.get(0) == introspectedColumn;
+    }
+
+    @Override
+    public String toString() {
+        return indexName;
+    }
+}
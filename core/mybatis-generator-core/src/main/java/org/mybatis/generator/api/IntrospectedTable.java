@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import org.mybatis.generator.codegen.AbstractGenerator;
 import org.mybatis.generator.config.Context;
 import org.mybatis.generator.config.GeneratedKey;
 import org.mybatis.generator.config.JavaClientGeneratorConfiguration;
@@ -34,6 +35,7 @@ import org.mybatis.generator.config.PropertyHolder;
 import org.mybatis.generator.config.PropertyRegistry;
 import org.mybatis.generator.config.SqlMapGeneratorConfiguration;
 import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.internal.MetricsTimer;
 import org.mybatis.generator.internal.rules.ConditionalModelRules;
 import org.mybatis.generator.internal.rules.FlatModelRules;
 import org.mybatis.generator.internal.rules.HierarchicalModelRules;
@@ -152,6 +154,9 @@ public abstract class IntrospectedTable {
         /** The attr update by primary key selective statement id. */
         ATTR_UPDATE_BY_PRIMARY_KEY_SELECTIVE_STATEMENT_ID,
         
+        /** The attr update by primary key dirty statement id. */
+        ATTR_UPDATE_BY_PRIMARY_KEY_DIRTY_STATEMENT_ID,
+        
         /** The attr update by primary key with blobs statement id. */
         ATTR_UPDATE_BY_PRIMARY_KEY_WITH_BLOBS_STATEMENT_ID,
         
@@ -174,7 +179,10 @@ public abstract class IntrospectedTable {
         ATTR_MYBATIS3_UPDATE_BY_EXAMPLE_WHERE_CLAUSE_ID,
         
         /** The ATT r_ mybati s3_ sq l_ provide r_ type. */
-        ATTR_MYBATIS3_SQL_PROVIDER_TYPE
+        ATTR_MYBATIS3_SQL_PROVIDER_TYPE,
+        
+        /** The ATT r_ mybati s3_ asyn c_ facad e_ type. */
+        ATTR_MYBATIS3_ASYNC_FACADE_TYPE
     }
 
     /** The table configuration. */
@@ -220,6 +228,21 @@ public abstract class IntrospectedTable {
      */
     protected String tableType;
 
+    /** The indexes of the table, other than the primary key. */
+    protected List<IntrospectedIndex> indexes;
+
+    /**
+     * Estimated number of rows in the table, or -1 if the database did not
+     * report it.
+     */
+    protected long estimatedRowCount;
+
+    /** The foreign keys of the table. */
+    protected List<IntrospectedForeignKey> importedKeys;
+
+    /** The foreign keys of other tables of the context that reference this table. */
+    protected List<IntrospectedForeignKey> exportedKeys;
+
     /**
      * Instantiates a new introspected table.
      *
@@ -232,6 +255,10 @@ public abstract class IntrospectedTable {
         primaryKeyColumns = new ArrayList<IntrospectedColumn>();
         baseColumns = new ArrayList<IntrospectedColumn>();
         blobColumns = new ArrayList<IntrospectedColumn>();
+        indexes = new ArrayList<IntrospectedIndex>();
+        estimatedRowCount = -1L;
+        importedKeys = new ArrayList<IntrospectedForeignKey>();
+        exportedKeys = new ArrayList<IntrospectedForeignKey>();
         attributes = new HashMap<String, Object>();
         internalAttributes = new HashMap<IntrospectedTable.InternalAttribute, String>();
     }
@@ -800,6 +827,7 @@ public abstract class IntrospectedTable {
         setUpdateByExampleWithBLOBsStatementId("updateByExampleWithBLOBs"); //$NON-NLS-1$
         setUpdateByPrimaryKeyStatementId("updateByPrimaryKey"); //$NON-NLS-1$
         setUpdateByPrimaryKeySelectiveStatementId("updateByPrimaryKeySelective"); //$NON-NLS-1$
+        setUpdateByPrimaryKeyDirtyStatementId("updateByPrimaryKeyDirty"); //$NON-NLS-1$
         setUpdateByPrimaryKeyWithBLOBsStatementId("updateByPrimaryKeyWithBLOBs"); //$NON-NLS-1$
         setBaseResultMapId("BaseResultMap"); //$NON-NLS-1$
         setResultMapWithBLOBsId("ResultMapWithBLOBs"); //$NON-NLS-1$
@@ -900,6 +928,19 @@ public abstract class IntrospectedTable {
                         s);
     }
 
+    /**
+     * Sets the update by primary key dirty statement id.
+     *
+     * @param s
+     *            the new update by primary key dirty statement id
+     */
+    public void setUpdateByPrimaryKeyDirtyStatementId(String s) {
+        internalAttributes
+                .put(
+                        InternalAttribute.ATTR_UPDATE_BY_PRIMARY_KEY_DIRTY_STATEMENT_ID,
+                        s);
+    }
+
     /**
      * Sets the update by primary key statement id.
      *
@@ -1128,6 +1169,16 @@ public abstract class IntrospectedTable {
                 .get(InternalAttribute.ATTR_UPDATE_BY_PRIMARY_KEY_SELECTIVE_STATEMENT_ID);
     }
 
+    /**
+     * Gets the update by primary key dirty statement id.
+     *
+     * @return the update by primary key dirty statement id
+     */
+    public String getUpdateByPrimaryKeyDirtyStatementId() {
+        return internalAttributes
+                .get(InternalAttribute.ATTR_UPDATE_BY_PRIMARY_KEY_DIRTY_STATEMENT_ID);
+    }
+
     /**
      * Gets the update by primary key statement id.
      *
@@ -1356,6 +1407,8 @@ public abstract class IntrospectedTable {
             sb.append("SqlProvider"); //$NON-NLS-1$
         }
         setMyBatis3SqlProviderType(sb.toString());
+
+        setMyBatis3AsyncFacadeType(getMyBatis3JavaMapperType() + "Async"); //$NON-NLS-1$
     }
 
     /**
@@ -1534,6 +1587,25 @@ public abstract class IntrospectedTable {
                 .get(InternalAttribute.ATTR_ALIASED_FULLY_QUALIFIED_TABLE_NAME_AT_RUNTIME);
     }
 
+    /**
+     * Starts measuring the time a code generator takes to build the DOM of the files
+     * it generates for this table. Nothing is measured if the context has no metrics
+     * listener.
+     *
+     * @param generator
+     *            the generator
+     * @return the timer - call <code>stop()</code> when the generator is done
+     */
+    protected MetricsTimer startGeneratorTimer(AbstractGenerator generator) {
+        MetricsListener metricsListener = context.getMetricsListener();
+        if (metricsListener == null) {
+            return MetricsTimer.start(null, MetricsPhase.GENERATE, null);
+        }
+
+        return MetricsTimer.start(metricsListener, MetricsPhase.GENERATE,
+                fullyQualifiedTable + " " + generator.getClass().getSimpleName()); //$NON-NLS-1$
+    }
+
     /**
      * This method can be used to initialize the generators before they will be called.
      * 
@@ -1828,6 +1900,28 @@ public abstract class IntrospectedTable {
                 InternalAttribute.ATTR_MYBATIS3_SQL_PROVIDER_TYPE,
                 mybatis3SqlProviderType);
     }
+
+    /**
+     * Gets the my batis3 async facade type.
+     *
+     * @return the my batis3 async facade type
+     */
+    public String getMyBatis3AsyncFacadeType() {
+        return internalAttributes
+                .get(InternalAttribute.ATTR_MYBATIS3_ASYNC_FACADE_TYPE);
+    }
+
+    /**
+     * Sets the my batis3 async facade type.
+     *
+     * @param mybatis3AsyncFacadeType
+     *            the new my batis3 async facade type
+     */
+    public void setMyBatis3AsyncFacadeType(String mybatis3AsyncFacadeType) {
+        internalAttributes.put(
+                InternalAttribute.ATTR_MYBATIS3_ASYNC_FACADE_TYPE,
+                mybatis3AsyncFacadeType);
+    }
     
     /**
      * Gets the target runtime.
@@ -1855,6 +1949,46 @@ public abstract class IntrospectedTable {
         return isTrue(properties.getProperty(PropertyRegistry.ANY_IMMUTABLE));
     }
     
+    /**
+     * Checks if the model classes track the columns changed by setters. Immutable
+     * models have no setters, so they never track dirty fields.
+     *
+     * @return true, if dirty fields are tracked
+     */
+    public boolean isTrackDirtyFields() {
+        if (isImmutable()) {
+            return false;
+        }
+        
+        Properties properties;
+        
+        if (tableConfiguration.getProperties().containsKey(PropertyRegistry.ANY_TRACK_DIRTY_FIELDS)) {
+            properties = tableConfiguration.getProperties();
+        } else {
+            properties = context.getJavaModelGeneratorConfiguration().getProperties();
+        }
+        
+        return isTrue(properties.getProperty(PropertyRegistry.ANY_TRACK_DIRTY_FIELDS));
+    }
+    
+    /**
+     * Checks if the model classes store columns with primitive wrapper types in
+     * primitive fields, with a bit mask for the null values.
+     *
+     * @return true, if primitive fields are used
+     */
+    public boolean isPrimitiveFields() {
+        Properties properties;
+        
+        if (tableConfiguration.getProperties().containsKey(PropertyRegistry.ANY_PRIMITIVE_FIELDS)) {
+            properties = tableConfiguration.getProperties();
+        } else {
+            properties = context.getJavaModelGeneratorConfiguration().getProperties();
+        }
+        
+        return isTrue(properties.getProperty(PropertyRegistry.ANY_PRIMITIVE_FIELDS));
+    }
+    
     /**
      * Checks if is constructor based.
      *
@@ -1909,4 +2043,99 @@ public abstract class IntrospectedTable {
 	public void setTableType(String tableType) {
 		this.tableType = tableType;
 	}
+
+    /**
+     * Returns the indexes of the table, other than the primary key.
+     *
+     * @return the indexes
+     */
+    public List<IntrospectedIndex> getIndexes() {
+        return indexes;
+    }
+
+    public void addIndex(IntrospectedIndex introspectedIndex) {
+        indexes.add(introspectedIndex);
+    }
+
+    /**
+     * Checks if a condition on the specified column alone can use an index -
+     * that is, if the column is the first column of the primary key or of an
+     * index.
+     *
+     * @param introspectedColumn
+     *            the column
+     * @return true, if the column is indexed
+     */
+    public boolean isIndexedColumn(IntrospectedColumn introspectedColumn) {
+        if (!primaryKeyColumns.isEmpty()
+                && primaryKeyColumns.get(0) == introspectedColumn) {
+            return true;
+        }
+
+        for (IntrospectedIndex introspectedIndex : indexes) {
+            if (introspectedIndex.isLeadingColumn(introspectedColumn)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public long getEstimatedRowCount() {
+        return estimatedRowCount;
+    }
+
+    public void setEstimatedRowCount(long estimatedRowCount) {
+        this.estimatedRowCount = estimatedRowCount;
+    }
+
+    /**
+     * Returns the foreign keys of the table.
+     *
+     * @return the foreign keys
+     */
+    public List<IntrospectedForeignKey> getImportedKeys() {
+        return importedKeys;
+    }
+
+    public void addImportedKey(IntrospectedForeignKey introspectedForeignKey) {
+        introspectedForeignKey.setIntrospectedTable(this);
+        importedKeys.add(introspectedForeignKey);
+    }
+
+    /**
+     * Returns the resolved foreign keys of other tables in the same context
+     * that reference this table.
+     *
+     * @return the foreign keys
+     */
+    public List<IntrospectedForeignKey> getExportedKeys() {
+        return exportedKeys;
+    }
+
+    public void addExportedKey(IntrospectedForeignKey introspectedForeignKey) {
+        exportedKeys.add(introspectedForeignKey);
+    }
+
+    /**
+     * Checks if statements that fetch the referenced (parent) records with a
+     * join should be generated.
+     *
+     * @return true, if parents are fetched with joins
+     */
+    public boolean isJoinFetchParents() {
+        return isTrue(tableConfiguration
+                .getProperty(PropertyRegistry.TABLE_JOIN_FETCH_PARENTS));
+    }
+
+    /**
+     * Checks if statements that fetch the referencing (child) records with a
+     * join should be generated.
+     *
+     * @return true, if children are fetched with joins
+     */
+    public boolean isJoinFetchChildren() {
+        return isTrue(tableConfiguration
+                .getProperty(PropertyRegistry.TABLE_JOIN_FETCH_CHILDREN));
+    }
 }
@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api;
+
+/**
+ * This interface can be implemented to receive timing and allocation measurements
+ * from the generation process. Where ProgressCallback reports what the generator is
+ * doing, a MetricsListener reports how long each step took.
+ *
+ * <p>A measurement is reported when a step ends. When tables are introspected, generated
+ * or saved on several threads, measurements are reported from those threads - so
+ * implementations must be thread safe.
+ *
+ * @see MetricsPhase
+ * @see MyBatisGenerator#setMetricsListener(MetricsListener)
+ */
+public interface MetricsListener {
+
+    /**
+     * Called when a measured step ends.
+     *
+     * @param phase
+     *            the phase the step belongs to
+     * @param name
+     *            the name of the step - for example, a table name
+     * @param elapsedNanos
+     *            the wall time of the step, in nanoseconds
+     * @param allocatedBytes
+     *            the number of bytes allocated by the current thread during the step,
+     *            or -1 if the JVM cannot measure thread allocations
+     */
+    void stepCompleted(MetricsPhase phase, String name, long elapsedNanos,
+            long allocatedBytes);
+}
@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api;
+
+/**
+ * The phases of a generator run that are measured for a MetricsListener.
+ *
+ * @see MetricsListener
+ */
+public enum MetricsPhase {
+
+    /** Opening a database connection. The name is the context id. */
+    CONNECT("connect"), //$NON-NLS-1$
+
+    /** Reading the metadata of a configured table. The name is the table name. */
+    INTROSPECT("introspect"), //$NON-NLS-1$
+
+    /**
+     * Building the DOM of the generated files with one code generator. The name is the
+     * table name and the generator class.
+     */
+    GENERATE("generate"), //$NON-NLS-1$
+
+    /** Calling a plugin. The name is the plugin class and the plugin method. */
+    PLUGIN("plugin"), //$NON-NLS-1$
+
+    /**
+     * Formatting a generated file. Formatted files are streamed to disk, so this
+     * includes writing the file to a temporary file. The name is the file name.
+     */
+    FORMAT("format"), //$NON-NLS-1$
+
+    /** Merging a generated file with an existing file. The name is the file name. */
+    MERGE("merge"), //$NON-NLS-1$
+
+    /**
+     * Comparing a generated file with the existing file and moving it into place. The
+     * name is the file name.
+     */
+    WRITE("write"); //$NON-NLS-1$
+
+    private final String displayName;
+
+    private MetricsPhase(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -18,11 +18,8 @@ package org.mybatis.generator.api;
 import static org.mybatis.generator.internal.util.ClassloaderUtility.getCustomClassloader;
 import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -32,13 +29,12 @@ import java.util.Set;
 import org.mybatis.generator.codegen.RootClassInfo;
 import org.mybatis.generator.config.Configuration;
 import org.mybatis.generator.config.Context;
-import org.mybatis.generator.config.MergeConstants;
 import org.mybatis.generator.exception.InvalidConfigurationException;
-import org.mybatis.generator.exception.ShellException;
 import org.mybatis.generator.internal.DefaultShellCallback;
+import org.mybatis.generator.internal.GeneratedFileSaver;
+import org.mybatis.generator.internal.GenerationManifest;
 import org.mybatis.generator.internal.ObjectFactory;
 import org.mybatis.generator.internal.NullProgressCallback;
-import org.mybatis.generator.internal.XmlFileMergerJaxp;
 
 /**
  * This class is the main interface to MyBatis generator. A typical execution of the tool involves these steps:
@@ -73,6 +69,21 @@ public class MyBatisGenerator {
     /** The projects. */
     private Set<String> projects;
 
+    /** The directory for introspection snapshots, null if snapshots are not used. */
+    private File snapshotDirectory;
+
+    /** If true, tables are introspected from the snapshots without using the database. */
+    private boolean offline;
+
+    /** The build manifest file, null if every table is generated. */
+    private File manifestFile;
+
+    /** The number of threads used to write the generated files. */
+    private int writeThreads = 1;
+
+    /** The metrics listener, null if nothing is measured. */
+    private MetricsListener metricsListener;
+
     /**
      * Constructs a MyBatisGenerator object.
      * 
@@ -119,6 +130,69 @@ public class MyBatisGenerator {
         this.configuration.validate();
     }
 
+    /**
+     * Sets the directory for introspection snapshots. Each context is saved in a file
+     * named after the context id. If the database has not changed since a snapshot was
+     * taken, the tables of the context are introspected from the snapshot.
+     *
+     * @param snapshotDirectory
+     *            the snapshot directory, or <code>null</code> if snapshots should not be used
+     */
+    public void setSnapshotDirectory(File snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    /**
+     * Sets offline mode. In offline mode tables are introspected from the snapshots in
+     * the snapshot directory and no database connection is made.
+     *
+     * @param offline
+     *            true to generate code without connecting to the database
+     */
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    /**
+     * Sets the build manifest file for incremental generation. The manifest records a
+     * hash of the introspected metadata and effective configuration of every table. Tables
+     * that have not changed since the last run are not generated again. The manifest
+     * is only used when files are written.
+     *
+     * @param manifestFile
+     *            the manifest file, or <code>null</code> if every table should be generated
+     */
+    public void setManifestFile(File manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * Sets the number of threads used to write the generated files. With more than one
+     * thread the files are written concurrently, which can speed up writing a large
+     * number of files - especially to a network file system. The default is a single
+     * thread.
+     *
+     * @param writeThreads
+     *            the number of threads
+     */
+    public void setWriteThreads(int writeThreads) {
+        this.writeThreads = writeThreads < 1 ? 1 : writeThreads;
+    }
+
+    /**
+     * Sets a listener for timing and allocation measurements. The listener receives the
+     * time taken to connect to the database, to introspect each table, to build the
+     * files of each code generator, by every plugin call, and to format, merge and
+     * write each file.
+     *
+     * @param metricsListener
+     *            the metrics listener, or <code>null</code> if nothing should be measured
+     * @see org.mybatis.generator.internal.MetricsCollector
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
     /**
      * This is the main method for generating code. This method is long running, but progress can be provided and the
      * method can be canceled through the ProgressCallback interface. This version of the method runs all configured
@@ -218,6 +292,10 @@ public class MyBatisGenerator {
             Set<String> fullyQualifiedTableNames, boolean writeFiles) throws SQLException,
             IOException, InterruptedException {
 
+        if (offline && snapshotDirectory == null) {
+            throw new IllegalStateException(getString("RuntimeError.24")); //$NON-NLS-1$
+        }
+
         if (callback == null) {
             callback = new NullProgressCallback();
         }
@@ -240,6 +318,10 @@ public class MyBatisGenerator {
             }
         }
 
+        for (Context context : contextsToRun) {
+            context.setMetricsListener(metricsListener);
+        }
+
         // setup custom classloader if required
         if (configuration.getClassPathEntries().size() > 0) {
             ClassLoader classLoader = getCustomClassloader(configuration.getClassPathEntries());
@@ -254,8 +336,10 @@ public class MyBatisGenerator {
         callback.introspectionStarted(totalSteps);
 
         for (Context context : contextsToRun) {
+            File snapshotFile = snapshotDirectory == null ? null
+                    : new File(snapshotDirectory, context.getId() + ".snapshot"); //$NON-NLS-1$
             context.introspectTables(callback, warnings,
-                    fullyQualifiedTableNames);
+                    fullyQualifiedTableNames, snapshotFile, offline);
         }
 
         // now run the generates
@@ -265,9 +349,20 @@ public class MyBatisGenerator {
         }
         callback.generationStarted(totalSteps);
 
+        GenerationManifest manifest = null;
+        if (writeFiles && manifestFile != null) {
+            manifest = new GenerationManifest(manifestFile);
+            try {
+                manifest.load();
+            } catch (IOException e) {
+                warnings.add(getString("Warning.32", //$NON-NLS-1$
+                        manifestFile.getAbsolutePath(), e.getMessage()));
+            }
+        }
+
         for (Context context : contextsToRun) {
             context.generateFiles(callback, generatedJavaFiles,
-                    generatedXmlFiles, warnings);
+                    generatedXmlFiles, warnings, manifest);
         }
 
         // now save the files
@@ -277,155 +372,32 @@ public class MyBatisGenerator {
 
             for (GeneratedXmlFile gxf : generatedXmlFiles) {
                 projects.add(gxf.getTargetProject());
-                writeGeneratedXmlFile(gxf, callback);
             }
 
             for (GeneratedJavaFile gjf : generatedJavaFiles) {
                 projects.add(gjf.getTargetProject());
-                writeGeneratedJavaFile(gjf, callback);
             }
 
+            GeneratedFileSaver saver = new GeneratedFileSaver(shellCallback, writeThreads);
+            saver.setMetricsListener(metricsListener);
+            saver.saveFiles(generatedXmlFiles, generatedJavaFiles, callback,
+                    manifest, warnings);
+
             for (String project : projects) {
                 shellCallback.refreshProject(project);
             }
-        }
-
-        callback.done();
-    }
 
-    private void writeGeneratedJavaFile(GeneratedJavaFile gjf, ProgressCallback callback)
-            throws InterruptedException, IOException {
-        File targetFile;
-        String source;
-        try {
-            File directory = shellCallback.getDirectory(gjf
-                    .getTargetProject(), gjf.getTargetPackage());
-            targetFile = new File(directory, gjf.getFileName());
-            if (targetFile.exists()) {
-                if (shellCallback.isMergeSupported()) {
-                    source = shellCallback.mergeJavaFile(gjf
-                            .getFormattedContent(), targetFile,
-                            MergeConstants.OLD_ELEMENT_TAGS,
-                            gjf.getFileEncoding());
-                } else if (shellCallback.isOverwriteEnabled()) {
-                    source = gjf.getFormattedContent();
-                    warnings.add(getString("Warning.11", //$NON-NLS-1$
-                            targetFile.getAbsolutePath()));
-                } else {
-                    source = gjf.getFormattedContent();
-                    targetFile = getUniqueFileName(directory, gjf
-                            .getFileName());
-                    warnings.add(getString(
-                            "Warning.2", targetFile.getAbsolutePath())); //$NON-NLS-1$
+            if (manifest != null) {
+                try {
+                    manifest.save();
+                } catch (IOException e) {
+                    warnings.add(getString("Warning.33", //$NON-NLS-1$
+                            manifestFile.getAbsolutePath(), e.getMessage()));
                 }
-            } else {
-                source = gjf.getFormattedContent();
-            }
-
-            callback.checkCancel();
-            callback.startTask(getString(
-                    "Progress.15", targetFile.getName())); //$NON-NLS-1$
-            writeFile(targetFile, source, gjf.getFileEncoding());
-        } catch (ShellException e) {
-            warnings.add(e.getMessage());
-        }
-    }
-
-    private void writeGeneratedXmlFile(GeneratedXmlFile gxf, ProgressCallback callback)
-            throws InterruptedException, IOException {
-        File targetFile;
-        String source;
-        try {
-            File directory = shellCallback.getDirectory(gxf
-                    .getTargetProject(), gxf.getTargetPackage());
-            targetFile = new File(directory, gxf.getFileName());
-            if (targetFile.exists()) {
-                if (gxf.isMergeable()) {
-                    source = XmlFileMergerJaxp.getMergedSource(gxf,
-                            targetFile);
-                } else if (shellCallback.isOverwriteEnabled()) {
-                    source = gxf.getFormattedContent();
-                    warnings.add(getString("Warning.11", //$NON-NLS-1$
-                            targetFile.getAbsolutePath()));
-                } else {
-                    source = gxf.getFormattedContent();
-                    targetFile = getUniqueFileName(directory, gxf
-                            .getFileName());
-                    warnings.add(getString(
-                            "Warning.2", targetFile.getAbsolutePath())); //$NON-NLS-1$
-                }
-            } else {
-                source = gxf.getFormattedContent();
-            }
-
-            callback.checkCancel();
-            callback.startTask(getString(
-                    "Progress.15", targetFile.getName())); //$NON-NLS-1$
-            writeFile(targetFile, source, "UTF-8"); //$NON-NLS-1$
-        } catch (ShellException e) {
-            warnings.add(e.getMessage());
-        }
-    }
-    
-    /**
-     * Writes, or overwrites, the contents of the specified file.
-     *
-     * @param file
-     *            the file
-     * @param content
-     *            the content
-     * @param fileEncoding
-     *            the file encoding
-     * @throws IOException
-     *             Signals that an I/O exception has occurred.
-     */
-    private void writeFile(File file, String content, String fileEncoding) throws IOException {
-        FileOutputStream fos = new FileOutputStream(file, false);
-        OutputStreamWriter osw;
-        if (fileEncoding == null) {
-            osw = new OutputStreamWriter(fos);
-        } else {
-            osw = new OutputStreamWriter(fos, fileEncoding);
-        }
-        
-        BufferedWriter bw = new BufferedWriter(osw);
-        bw.write(content);
-        bw.close();
-    }
-
-    /**
-     * Gets the unique file name.
-     *
-     * @param directory
-     *            the directory
-     * @param fileName
-     *            the file name
-     * @return the unique file name
-     */
-    private File getUniqueFileName(File directory, String fileName) {
-        File answer = null;
-
-        // try up to 1000 times to generate a unique file name
-        StringBuilder sb = new StringBuilder();
-        for (int i = 1; i < 1000; i++) {
-            sb.setLength(0);
-            sb.append(fileName);
-            sb.append('.');
-            sb.append(i);
-
-            File testFile = new File(directory, sb.toString());
-            if (!testFile.exists()) {
-                answer = testFile;
-                break;
             }
         }
 
-        if (answer == null) {
-            throw new RuntimeException(getString(
-                    "RuntimeError.3", directory.getAbsolutePath())); //$NON-NLS-1$
-        }
-
-        return answer;
+        callback.done();
     }
 
     /**
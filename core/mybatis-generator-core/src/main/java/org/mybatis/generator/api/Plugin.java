@@ -60,6 +60,10 @@ import org.mybatis.generator.config.Context;
  * The clientXXX, modelXXX, and sqlMapXXX methods are called by the code
  * generators. If you replace the default code generators with other
  * implementations, these methods may not be called.
+ * <p>
+ * If the context generates its tables in parallel, the methods that are called
+ * for each introspected table may be called for several tables at once. Calls to
+ * a plugin are serialized unless the plugin implements {@link ThreadSafePlugin}.
  * 
  * @author Jeff Butler
  * @see PluginAdapter
@@ -199,6 +203,25 @@ public interface Plugin {
     boolean clientGenerated(Interface interfaze, TopLevelClass topLevelClass,
             IntrospectedTable introspectedTable);
 
+    /**
+     * This method is called when the async facade of a mapper interface has been
+     * generated. The facade is only generated if the
+     * <code>generateAsyncFacade</code> property of the java client generator is
+     * true.
+     * 
+     * @param topLevelClass
+     *            the generated facade
+     * @param introspectedTable
+     *            The class containing information about the table as
+     *            introspected from the database
+     * @return true if the facade should be generated, false if the generated
+     *         facade should be ignored. In the case of multiple plugins, the
+     *         first plugin returning false will disable the calling of further
+     *         plugins.
+     */
+    boolean clientAsyncFacadeGenerated(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable);
+
     /**
      * This method is called when the countByExample method has been generated
      * in the client implementation class.
@@ -788,6 +811,51 @@ public interface Plugin {
     boolean clientUpdateByPrimaryKeySelectiveMethodGenerated(Method method,
             Interface interfaze, IntrospectedTable introspectedTable);
 
+    /**
+     * This method is called when the updateByPrimaryKeyDirty method has been
+     * generated in the client interface.
+     * 
+     * @param method
+     *            the generated updateByPrimaryKeyDirty method
+     * @param interfaze
+     *            the partially implemented client interface. You can add
+     *            additional imported classes to the interface if
+     *            necessary.
+     * @param introspectedTable
+     *            The class containing information about the table as
+     *            introspected from the database
+     * @return true if the method should be generated, false if the generated
+     *         method should be ignored. In the case of multiple plugins, the
+     *         first plugin returning false will disable the calling of further
+     *         plugins.
+     */
+    boolean clientUpdateByPrimaryKeyDirtyMethodGenerated(Method method,
+            Interface interfaze, IntrospectedTable introspectedTable);
+
+    /**
+     * This method is called when a selectWith...ByExample method, that fetches
+     * related records with a join, has been generated in the client interface.
+     * 
+     * @param method
+     *            the generated selectWith...ByExample method
+     * @param interfaze
+     *            the partially implemented client interface. You can add
+     *            additional imported classes to the interface if
+     *            necessary.
+     * @param introspectedTable
+     *            The class containing information about the table as
+     *            introspected from the database
+     * @param foreignKey
+     *            the foreign key of the join
+     * @return true if the method should be generated, false if the generated
+     *         method should be ignored. In the case of multiple plugins, the
+     *         first plugin returning false will disable the calling of further
+     *         plugins.
+     */
+    boolean clientSelectWithJoinByExampleMethodGenerated(Method method,
+            Interface interfaze, IntrospectedTable introspectedTable,
+            IntrospectedForeignKey foreignKey);
+
     /**
      * This method is called when the updateByPrimaryKeyWithBLOBs method has
      * been generated in the client interface.
@@ -1329,6 +1397,61 @@ public interface Plugin {
     boolean sqlMapUpdateByPrimaryKeySelectiveElementGenerated(
             XmlElement element, IntrospectedTable introspectedTable);
 
+    /**
+     * This method is called when the updateByPrimaryKeyDirty element is
+     * generated.
+     * 
+     * @param element
+     *            the generated &lt;update&gt; element
+     * @param introspectedTable
+     *            The class containing information about the table as
+     *            introspected from the database
+     * @return true if the element should be generated, false if the generated
+     *         element should be ignored. In the case of multiple plugins, the
+     *         first plugin returning false will disable the calling of further
+     *         plugins.
+     */
+    boolean sqlMapUpdateByPrimaryKeyDirtyElementGenerated(
+            XmlElement element, IntrospectedTable introspectedTable);
+
+    /**
+     * This method is called when a result map for a join, with a nested
+     * &lt;association&gt; or &lt;collection&gt;, is generated.
+     * 
+     * @param element
+     *            the generated &lt;resultMap&gt; element
+     * @param introspectedTable
+     *            The class containing information about the table as
+     *            introspected from the database
+     * @param foreignKey
+     *            the foreign key of the join
+     * @return true if the element should be generated, false if the generated
+     *         element should be ignored. In the case of multiple plugins, the
+     *         first plugin returning false will disable the calling of further
+     *         plugins.
+     */
+    boolean sqlMapJoinResultMapElementGenerated(XmlElement element,
+            IntrospectedTable introspectedTable, IntrospectedForeignKey foreignKey);
+
+    /**
+     * This method is called when a selectWith...ByExample element, that fetches
+     * related records with a join, is generated.
+     * 
+     * @param element
+     *            the generated &lt;select&gt; element
+     * @param introspectedTable
+     *            The class containing information about the table as
+     *            introspected from the database
+     * @param foreignKey
+     *            the foreign key of the join
+     * @return true if the element should be generated, false if the generated
+     *         element should be ignored. In the case of multiple plugins, the
+     *         first plugin returning false will disable the calling of further
+     *         plugins.
+     */
+    boolean sqlMapSelectWithJoinByExampleElementGenerated(XmlElement element,
+            IntrospectedTable introspectedTable, IntrospectedForeignKey foreignKey);
+
     /**
      * This method is called when the updateByPrimaryKeyWithBLOBs element is
      * generated.
@@ -1590,4 +1713,25 @@ public interface Plugin {
      */
     boolean providerUpdateByPrimaryKeySelectiveMethodGenerated(Method method,
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable);
+
+    /**
+     * This method is called when the updateByPrimaryKeyDirty method has been
+     * generated in the SQL provider.
+     * 
+     * @param method
+     *            the generated updateByPrimaryKeyDirty method
+     * @param topLevelClass
+     *            the partially generated provider class
+     *            You can add additional imported classes to the class
+     *            if necessary.
+     * @param introspectedTable
+     *            The class containing information about the table as
+     *            introspected from the database
+     * @return true if the method should be generated, false if the generated
+     *         method should be ignored. In the case of multiple plugins, the
+     *         first plugin returning false will disable the calling of further
+     *         plugins.
+     */
+    boolean providerUpdateByPrimaryKeyDirtyMethodGenerated(Method method,
+            TopLevelClass topLevelClass, IntrospectedTable introspectedTable);
 }
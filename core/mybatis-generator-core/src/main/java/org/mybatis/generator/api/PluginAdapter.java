@@ -125,6 +125,11 @@ public abstract class PluginAdapter implements Plugin {
         return true;
     }
 
+    public boolean clientAsyncFacadeGenerated(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable) {
+        return true;
+    }
+
     public boolean clientSelectByExampleWithBLOBsMethodGenerated(Method method,
             Interface interfaze, IntrospectedTable introspectedTable) {
         return true;
@@ -190,6 +195,17 @@ public abstract class PluginAdapter implements Plugin {
         return true;
     }
 
+    public boolean clientUpdateByPrimaryKeyDirtyMethodGenerated(Method method,
+            Interface interfaze, IntrospectedTable introspectedTable) {
+        return true;
+    }
+
+    public boolean clientSelectWithJoinByExampleMethodGenerated(Method method,
+            Interface interfaze, IntrospectedTable introspectedTable,
+            IntrospectedForeignKey foreignKey) {
+        return true;
+    }
+
     public boolean clientUpdateByPrimaryKeySelectiveMethodGenerated(Method method,
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         return true;
@@ -338,6 +354,21 @@ public abstract class PluginAdapter implements Plugin {
         return true;
     }
 
+    public boolean sqlMapUpdateByPrimaryKeyDirtyElementGenerated(
+            XmlElement element, IntrospectedTable introspectedTable) {
+        return true;
+    }
+
+    public boolean sqlMapJoinResultMapElementGenerated(XmlElement element,
+            IntrospectedTable introspectedTable, IntrospectedForeignKey foreignKey) {
+        return true;
+    }
+
+    public boolean sqlMapSelectWithJoinByExampleElementGenerated(XmlElement element,
+            IntrospectedTable introspectedTable, IntrospectedForeignKey foreignKey) {
+        return true;
+    }
+
     public boolean sqlMapUpdateByPrimaryKeyWithBLOBsElementGenerated(
             XmlElement element, IntrospectedTable introspectedTable) {
         return true;
@@ -437,6 +468,12 @@ public abstract class PluginAdapter implements Plugin {
         return true;
     }
 
+    public boolean providerUpdateByPrimaryKeyDirtyMethodGenerated(
+            Method method, TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable) {
+        return true;
+    }
+
     public boolean clientSelectAllMethodGenerated(Method method,
             Interface interfaze, IntrospectedTable introspectedTable) {
         return true;
@@ -33,6 +33,7 @@ import org.mybatis.generator.config.xml.ConfigurationParser;
 import org.mybatis.generator.exception.InvalidConfigurationException;
 import org.mybatis.generator.exception.XMLParserException;
 import org.mybatis.generator.internal.DefaultShellCallback;
+import org.mybatis.generator.internal.MetricsCollector;
 import org.mybatis.generator.logging.LogFactory;
 
 /**
@@ -45,6 +46,11 @@ public class ShellRunner {
     private static final String OVERWRITE = "-overwrite"; //$NON-NLS-1$
     private static final String CONTEXT_IDS = "-contextids"; //$NON-NLS-1$
     private static final String TABLES = "-tables"; //$NON-NLS-1$
+    private static final String SNAPSHOT_DIR = "-snapshotdir"; //$NON-NLS-1$
+    private static final String OFFLINE = "-offline"; //$NON-NLS-1$
+    private static final String MANIFEST = "-manifest"; //$NON-NLS-1$
+    private static final String WRITE_THREADS = "-writethreads"; //$NON-NLS-1$
+    private static final String METRICS_FILE = "-metricsfile"; //$NON-NLS-1$
     private static final String VERBOSE = "-verbose"; //$NON-NLS-1$
     private static final String FORCE_JAVA_LOGGING = "-forceJavaLogging"; //$NON-NLS-1$
     private static final String HELP_1 = "-?"; //$NON-NLS-1$
@@ -79,6 +85,25 @@ public class ShellRunner {
             return;
         }
 
+        if (arguments.containsKey(OFFLINE) && !arguments.containsKey(SNAPSHOT_DIR)) {
+            writeLine(getString("RuntimeError.24")); //$NON-NLS-1$
+            return;
+        }
+
+        int writeThreads = 1;
+        if (arguments.containsKey(WRITE_THREADS)) {
+            try {
+                writeThreads = Integer.parseInt(arguments.get(WRITE_THREADS).trim());
+            } catch (NumberFormatException e) {
+                writeThreads = 0;
+            }
+
+            if (writeThreads < 1) {
+                writeLine(getString("RuntimeError.25", WRITE_THREADS)); //$NON-NLS-1$
+                return;
+            }
+        }
+
         Set<String> fullyqualifiedTables = new HashSet<String>();
         if (arguments.containsKey(TABLES)) {
             StringTokenizer st = new StringTokenizer(arguments.get(TABLES), ","); //$NON-NLS-1$
@@ -110,12 +135,42 @@ public class ShellRunner {
                     arguments.containsKey(OVERWRITE));
 
             MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config, shellCallback, warnings);
+            if (arguments.containsKey(SNAPSHOT_DIR)) {
+                myBatisGenerator.setSnapshotDirectory(new File(arguments.get(SNAPSHOT_DIR)));
+            }
+            myBatisGenerator.setOffline(arguments.containsKey(OFFLINE));
+            if (arguments.containsKey(MANIFEST)) {
+                myBatisGenerator.setManifestFile(new File(arguments.get(MANIFEST)));
+            }
+            myBatisGenerator.setWriteThreads(writeThreads);
+
+            MetricsCollector metrics = null;
+            if (arguments.containsKey(VERBOSE) || arguments.containsKey(METRICS_FILE)) {
+                metrics = new MetricsCollector();
+                myBatisGenerator.setMetricsListener(metrics);
+            }
 
             ProgressCallback progressCallback = arguments.containsKey(VERBOSE) ? new VerboseProgressCallback()
                     : null;
 
             myBatisGenerator.generate(progressCallback, contexts, fullyqualifiedTables);
 
+            if (arguments.containsKey(VERBOSE)) {
+                for (String line : metrics.getSummary()) {
+                    writeLine(line);
+                }
+            }
+
+            if (arguments.containsKey(METRICS_FILE)) {
+                File metricsFile = new File(arguments.get(METRICS_FILE));
+                try {
+                    metrics.writeJson(metricsFile);
+                } catch (IOException e) {
+                    warnings.add(getString("Warning.34", //$NON-NLS-1$
+                            metricsFile.getAbsolutePath(), e.getMessage()));
+                }
+            }
+
         } catch (XMLParserException e) {
             writeLine(getString("Progress.3")); //$NON-NLS-1$
             writeLine();
@@ -209,6 +264,36 @@ public class ShellRunner {
                     errors.add(getString("RuntimeError.19", TABLES)); //$NON-NLS-1$
                 }
                 i++;
+            } else if (SNAPSHOT_DIR.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(SNAPSHOT_DIR, args[i + 1]);
+                } else {
+                    errors.add(getString("RuntimeError.19", SNAPSHOT_DIR)); //$NON-NLS-1$
+                }
+                i++;
+            } else if (OFFLINE.equalsIgnoreCase(args[i])) {
+                arguments.put(OFFLINE, "Y"); //$NON-NLS-1$
+            } else if (MANIFEST.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(MANIFEST, args[i + 1]);
+                } else {
+                    errors.add(getString("RuntimeError.19", MANIFEST)); //$NON-NLS-1$
+                }
+                i++;
+            } else if (METRICS_FILE.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(METRICS_FILE, args[i + 1]);
+                } else {
+                    errors.add(getString("RuntimeError.19", METRICS_FILE)); //$NON-NLS-1$
+                }
+                i++;
+            } else if (WRITE_THREADS.equalsIgnoreCase(args[i])) {
+                if ((i + 1) < args.length) {
+                    arguments.put(WRITE_THREADS, args[i + 1]);
+                } else {
+                    errors.add(getString("RuntimeError.19", WRITE_THREADS)); //$NON-NLS-1$
+                }
+                i++;
             } else {
                 errors.add(getString("RuntimeError.20", args[i])); //$NON-NLS-1$
             }
@@ -0,0 +1,36 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api;
+
+/**
+ * Plugins implement this marker interface to declare that they may be called from
+ * several threads at once.
+ * <p>
+ * When a context generates its tables in parallel (see the
+ * <code>generationThreads</code> context property), the plugin methods that are
+ * called for each introspected table may be called concurrently for different tables.
+ * Calls to plugins that do not implement this interface are serialized, so that no
+ * two threads are ever inside the same plugin at the same time - but the tables may
+ * still reach the plugin in any order. The setXXX, validate, and
+ * contextGenerateAdditionalXXXFiles() methods are always called from a single thread.
+ * <p>
+ * A plugin that holds no state beyond what it reads from its properties during
+ * setProperties and validate is usually thread safe.
+ *
+ * @see Plugin
+ */
+public interface ThreadSafePlugin extends Plugin {
+}
@@ -15,8 +15,13 @@
  */
 package org.mybatis.generator.api.dom;
 
+import java.io.IOException;
+
 import org.mybatis.generator.api.JavaFormatter;
 import org.mybatis.generator.api.dom.java.CompilationUnit;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.api.dom.java.TopLevelEnumeration;
 import org.mybatis.generator.config.Context;
 
 /**
@@ -33,6 +38,30 @@ public class DefaultJavaFormatter implements JavaFormatter {
         return compilationUnit.getFormattedContent();
     }
 
+    /**
+     * Writes the formatted compilation unit directly to the specified output. The
+     * DOM classes of MBG are streamed, any other compilation unit is written with
+     * its formatted content.
+     *
+     * @param compilationUnit
+     *            the compilation unit
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void render(CompilationUnit compilationUnit, Appendable out) throws IOException {
+        if (compilationUnit instanceof TopLevelClass) {
+            ((TopLevelClass) compilationUnit).render(out);
+        } else if (compilationUnit instanceof Interface) {
+            ((Interface) compilationUnit).render(out);
+        } else if (compilationUnit instanceof TopLevelEnumeration) {
+            ((TopLevelEnumeration) compilationUnit).render(out);
+        } else {
+            out.append(compilationUnit.getFormattedContent());
+        }
+    }
+
     public void setContext(Context context) {
         this.context = context;
     }
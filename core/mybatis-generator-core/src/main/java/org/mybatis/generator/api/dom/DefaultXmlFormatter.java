@@ -15,6 +15,8 @@
  */
 package org.mybatis.generator.api.dom;
 
+import java.io.IOException;
+
 import org.mybatis.generator.api.XmlFormatter;
 import org.mybatis.generator.api.dom.xml.Document;
 import org.mybatis.generator.config.Context;
@@ -33,6 +35,20 @@ public class DefaultXmlFormatter implements XmlFormatter {
         return document.getFormattedContent();
     }
 
+    /**
+     * Writes the formatted document directly to the specified output.
+     *
+     * @param document
+     *            the document
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void render(Document document, Appendable out) throws IOException {
+        document.render(out);
+    }
+
     public void setContext(Context context) {
         this.context = context;
     }
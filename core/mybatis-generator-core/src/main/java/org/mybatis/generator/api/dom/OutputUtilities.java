@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.api.dom;
 
+import java.io.IOException;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -85,6 +86,22 @@ public class OutputUtilities {
         sb.append(lineSeparator);
     }
 
+    public static void javaIndent(Appendable out, int indentLevel) throws IOException {
+        for (int i = 0; i < indentLevel; i++) {
+            out.append("    "); //$NON-NLS-1$
+        }
+    }
+
+    public static void xmlIndent(Appendable out, int indentLevel) throws IOException {
+        for (int i = 0; i < indentLevel; i++) {
+            out.append("  "); //$NON-NLS-1$
+        }
+    }
+
+    public static void newLine(Appendable out) throws IOException {
+        out.append(lineSeparator);
+    }
+
     /**
      * returns a unique set of "import xxx;" Strings for the set of types.
      *
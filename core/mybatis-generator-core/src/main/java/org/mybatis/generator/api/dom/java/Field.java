@@ -15,6 +15,10 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import static org.mybatis.generator.internal.util.OverrideUtility.isOverridden;
+
+import java.io.IOException;
+
 import org.mybatis.generator.api.dom.OutputUtilities;
 
 /**
@@ -95,42 +99,76 @@ public class Field extends JavaElement {
 
     public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, indentLevel, compilationUnit);
+        } catch (IOException e) {
+            // cannot happen - StringBuilder does not throw IOException
+            throw new RuntimeException(e);
+        }
 
-        addFormattedJavadoc(sb, indentLevel);
-        addFormattedAnnotations(sb, indentLevel);
+        return sb.toString();
+    }
 
-        OutputUtilities.javaIndent(sb, indentLevel);
-        sb.append(getVisibility().getValue());
+    /**
+     * Writes the formatted content to the specified output. Nested elements are
+     * written directly to the same output, so no intermediate strings are built.
+     * If a subclass overrides <code>getFormattedContent</code>, the result of that
+     * method is written instead.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param compilationUnit
+     *            the compilation unit
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void render(Appendable out, int indentLevel, CompilationUnit compilationUnit)
+            throws IOException {
+        if (isOverridden(getClass(), Field.class,
+                "getFormattedContent", int.class, CompilationUnit.class)) { //$NON-NLS-1$
+            out.append(getFormattedContent(indentLevel, compilationUnit));
+        } else {
+            renderContent(out, indentLevel, compilationUnit);
+        }
+    }
+
+    private void renderContent(Appendable out, int indentLevel, CompilationUnit compilationUnit)
+            throws IOException {
+        renderJavadoc(out, indentLevel);
+        renderAnnotations(out, indentLevel);
+
+        OutputUtilities.javaIndent(out, indentLevel);
+        out.append(getVisibility().getValue());
 
         if (isStatic()) {
-            sb.append("static "); //$NON-NLS-1$
+            out.append("static "); //$NON-NLS-1$
         }
 
         if (isFinal()) {
-            sb.append("final "); //$NON-NLS-1$
+            out.append("final "); //$NON-NLS-1$
         }
 
         if (isTransient()) {
-            sb.append("transient "); //$NON-NLS-1$
+            out.append("transient "); //$NON-NLS-1$
         }
         
         if (isVolatile()) {
-            sb.append("volatile "); //$NON-NLS-1$
+            out.append("volatile "); //$NON-NLS-1$
         }
         
-        sb.append(JavaDomUtils.calculateTypeName(compilationUnit, type));
+        out.append(JavaDomUtils.calculateTypeName(compilationUnit, type));
 
-        sb.append(' ');
-        sb.append(name);
+        out.append(' ');
+        out.append(name);
 
         if (initializationString != null && initializationString.length() > 0) {
-            sb.append(" = "); //$NON-NLS-1$
-            sb.append(initializationString);
+            out.append(" = "); //$NON-NLS-1$
+            out.append(initializationString);
         }
 
-        sb.append(';');
-
-        return sb.toString();
+        out.append(';');
     }
 
     public boolean isTransient() {
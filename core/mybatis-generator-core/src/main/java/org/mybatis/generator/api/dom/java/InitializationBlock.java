@@ -15,6 +15,9 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import static org.mybatis.generator.internal.util.OverrideUtility.isOverridden;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -76,20 +79,52 @@ public class InitializationBlock {
     
     public String getFormattedContent(int indentLevel) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, indentLevel);
+        } catch (IOException e) {
+            // cannot happen - StringBuilder does not throw IOException
+            throw new RuntimeException(e);
+        }
+
+        return sb.toString();
+    }
 
+    /**
+     * Writes the formatted content to the specified output. Nested elements are
+     * written directly to the same output, so no intermediate strings are built.
+     * If a subclass overrides <code>getFormattedContent</code>, the result of that
+     * method is written instead.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void render(Appendable out, int indentLevel) throws IOException {
+        if (isOverridden(getClass(), InitializationBlock.class,
+                "getFormattedContent", int.class)) { //$NON-NLS-1$
+            out.append(getFormattedContent(indentLevel));
+        } else {
+            renderContent(out, indentLevel);
+        }
+    }
+
+    private void renderContent(Appendable out, int indentLevel) throws IOException {
         for (String javaDocLine : javaDocLines) {
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(javaDocLine);
-            OutputUtilities.newLine(sb);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append(javaDocLine);
+            OutputUtilities.newLine(out);
         }
 
-        OutputUtilities.javaIndent(sb, indentLevel);
+        OutputUtilities.javaIndent(out, indentLevel);
 
         if (isStatic) {
-            sb.append("static "); //$NON-NLS-1$
+            out.append("static "); //$NON-NLS-1$
         }
 
-        sb.append('{');
+        out.append('{');
         indentLevel++;
 
         ListIterator<String> listIter = bodyLines.listIterator();
@@ -99,9 +134,9 @@ public class InitializationBlock {
                 indentLevel--;
             }
 
-            OutputUtilities.newLine(sb);
-            OutputUtilities.javaIndent(sb, indentLevel);
-            sb.append(line);
+            OutputUtilities.newLine(out);
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append(line);
 
             if ((line.endsWith("{") && !line.startsWith("switch")) //$NON-NLS-1$ //$NON-NLS-2$
                     || line.endsWith(":")) { //$NON-NLS-1$
@@ -124,10 +159,8 @@ public class InitializationBlock {
         }
 
         indentLevel--;
-        OutputUtilities.newLine(sb);
-        OutputUtilities.javaIndent(sb, indentLevel);
-        sb.append('}');
-
-        return sb.toString();
+        OutputUtilities.newLine(out);
+        OutputUtilities.javaIndent(out, indentLevel);
+        out.append('}');
     }
 }
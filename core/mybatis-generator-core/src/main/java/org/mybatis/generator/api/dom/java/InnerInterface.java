@@ -15,6 +15,9 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import static org.mybatis.generator.internal.util.OverrideUtility.isOverridden;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -90,82 +93,116 @@ public class InnerInterface extends JavaElement {
      */
     public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderInterface(sb, indentLevel, compilationUnit);
+        } catch (IOException e) {
+            // cannot happen - StringBuilder does not throw IOException
+            throw new RuntimeException(e);
+        }
 
-        addFormattedJavadoc(sb, indentLevel);
-        addFormattedAnnotations(sb, indentLevel);
+        return sb.toString();
+    }
 
-        javaIndent(sb, indentLevel);
-        sb.append(getVisibility().getValue());
+    /**
+     * Writes the formatted content to the specified output. Nested elements are
+     * written directly to the same output, so no intermediate strings are built.
+     * If a subclass overrides <code>getFormattedContent</code>, the result of that
+     * method is written instead.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param compilationUnit
+     *            the compilation unit
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void render(Appendable out, int indentLevel, CompilationUnit compilationUnit)
+            throws IOException {
+        if (isOverridden(getClass(), InnerInterface.class,
+                "getFormattedContent", int.class, CompilationUnit.class)) { //$NON-NLS-1$
+            out.append(getFormattedContent(indentLevel, compilationUnit));
+        } else {
+            renderInterface(out, indentLevel, compilationUnit);
+        }
+    }
+
+    void renderInterface(Appendable out, int indentLevel, CompilationUnit compilationUnit)
+            throws IOException {
+        renderJavadoc(out, indentLevel);
+        renderAnnotations(out, indentLevel);
+
+        javaIndent(out, indentLevel);
+        out.append(getVisibility().getValue());
 
         if (isStatic()) {
-            sb.append("static "); //$NON-NLS-1$
+            out.append("static "); //$NON-NLS-1$
         }
 
         if (isFinal()) {
-            sb.append("final "); //$NON-NLS-1$
+            out.append("final "); //$NON-NLS-1$
         }
 
-        sb.append("interface "); //$NON-NLS-1$
-        sb.append(getType().getShortName());
+        out.append("interface "); //$NON-NLS-1$
+        out.append(getType().getShortName());
 
         if (getSuperInterfaceTypes().size() > 0) {
-            sb.append(" extends "); //$NON-NLS-1$
+            out.append(" extends "); //$NON-NLS-1$
 
             boolean comma = false;
             for (FullyQualifiedJavaType fqjt : getSuperInterfaceTypes()) {
                 if (comma) {
-                    sb.append(", "); //$NON-NLS-1$
+                    out.append(", "); //$NON-NLS-1$
                 } else {
                     comma = true;
                 }
 
-                sb.append(JavaDomUtils.calculateTypeName(compilationUnit, fqjt));
+                out.append(JavaDomUtils.calculateTypeName(compilationUnit, fqjt));
             }
         }
 
-        sb.append(" {"); //$NON-NLS-1$
+        out.append(" {"); //$NON-NLS-1$
         indentLevel++;
 
         Iterator<Field> fldIter = fields.iterator();
         while (fldIter.hasNext()) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
             Field field = fldIter.next();
-            sb.append(field.getFormattedContent(indentLevel, compilationUnit));
+            field.render(out, indentLevel, compilationUnit);
         }
 
         if (fields.size() > 0 && methods.size() > 0) {
-            OutputUtilities.newLine(sb);
+            OutputUtilities.newLine(out);
         }
         
         Iterator<Method> mtdIter = getMethods().iterator();
         while (mtdIter.hasNext()) {
-            newLine(sb);
+            newLine(out);
             Method method = mtdIter.next();
-            sb.append(method.getFormattedContent(indentLevel, true, compilationUnit));
+            method.render(out, indentLevel, true, compilationUnit);
             if (mtdIter.hasNext()) {
-                newLine(sb);
+                newLine(out);
             }
         }
 
         if (innerInterfaces.size() > 0) {
-            newLine(sb);
+            newLine(out);
         }
         Iterator<InnerInterface> iiIter = innerInterfaces.iterator();
         while (iiIter.hasNext()) {
-            newLine(sb);
+            newLine(out);
             InnerInterface innerInterface = iiIter.next();
-            sb.append(innerInterface.getFormattedContent(indentLevel, compilationUnit));
+            innerInterface.render(out, indentLevel, compilationUnit);
             if (iiIter.hasNext()) {
-                newLine(sb);
+                newLine(out);
             }
         }
 
         indentLevel--;
-        newLine(sb);
-        javaIndent(sb, indentLevel);
-        sb.append('}');
-
-        return sb.toString();
+        newLine(out);
+        javaIndent(out, indentLevel);
+        out.append('}');
     }
 
     /**
@@ -17,8 +17,10 @@ package org.mybatis.generator.api.dom.java;
 
 import static org.mybatis.generator.api.dom.OutputUtilities.calculateImports;
 import static org.mybatis.generator.api.dom.OutputUtilities.newLine;
+import static org.mybatis.generator.internal.util.OverrideUtility.isOverridden;
 import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -89,6 +91,25 @@ public class Interface extends InnerInterface implements CompilationUnit {
         return getFormattedContent(0, this);
     }
 
+    /**
+     * Writes the formatted content to the specified output. Nested elements are
+     * written directly to the same output, so no intermediate strings are built.
+     * If a subclass overrides <code>getFormattedContent</code>, the result of that
+     * method is written instead.
+     *
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void render(Appendable out) throws IOException {
+        if (isOverridden(getClass(), Interface.class, "getFormattedContent")) { //$NON-NLS-1$
+            out.append(getFormattedContent());
+        } else {
+            render(out, 0, this);
+        }
+    }
+
     /**
      * Gets the formatted content.
      *
@@ -99,44 +120,78 @@ public class Interface extends InnerInterface implements CompilationUnit {
      */
     public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, indentLevel, compilationUnit);
+        } catch (IOException e) {
+            // cannot happen - StringBuilder does not throw IOException
+            throw new RuntimeException(e);
+        }
+
+        return sb.toString();
+    }
 
+    /**
+     * Writes the formatted content to the specified output. Nested elements are
+     * written directly to the same output, so no intermediate strings are built.
+     * If a subclass overrides <code>getFormattedContent</code>, the result of that
+     * method is written instead.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @param compilationUnit
+     *            the compilation unit
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void render(Appendable out, int indentLevel, CompilationUnit compilationUnit)
+            throws IOException {
+        if (isOverridden(getClass(), Interface.class,
+                "getFormattedContent", int.class, CompilationUnit.class)) { //$NON-NLS-1$
+            out.append(getFormattedContent(indentLevel, compilationUnit));
+        } else {
+            renderContent(out, indentLevel, compilationUnit);
+        }
+    }
+
+    private void renderContent(Appendable out, int indentLevel, CompilationUnit compilationUnit)
+            throws IOException {
         for (String commentLine : fileCommentLines) {
-            sb.append(commentLine);
-            newLine(sb);
+            out.append(commentLine);
+            newLine(out);
         }
 
         if (stringHasValue(getType().getPackageName())) {
-            sb.append("package "); //$NON-NLS-1$
-            sb.append(getType().getPackageName());
-            sb.append(';');
-            newLine(sb);
-            newLine(sb);
+            out.append("package "); //$NON-NLS-1$
+            out.append(getType().getPackageName());
+            out.append(';');
+            newLine(out);
+            newLine(out);
         }
 
         for (String staticImport : staticImports) {
-            sb.append("import static "); //$NON-NLS-1$
-            sb.append(staticImport);
-            sb.append(';');
-            newLine(sb);
+            out.append("import static "); //$NON-NLS-1$
+            out.append(staticImport);
+            out.append(';');
+            newLine(out);
         }
         
         if (staticImports.size() > 0) {
-            newLine(sb);
+            newLine(out);
         }
         
         Set<String> importStrings = calculateImports(importedTypes);
         for (String importString : importStrings) {
-            sb.append(importString);
-            newLine(sb);
+            out.append(importString);
+            newLine(out);
         }
 
         if (importStrings.size() > 0) {
-            newLine(sb);
+            newLine(out);
         }
 
-        sb.append(super.getFormattedContent(0, this));
-
-        return sb.toString();
+        renderInterface(out, 0, this);
     }
 
     /* (non-Javadoc)
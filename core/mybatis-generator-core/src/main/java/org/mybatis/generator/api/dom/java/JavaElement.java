@@ -15,6 +15,9 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import static org.mybatis.generator.internal.util.OverrideUtility.isOverridden;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -146,6 +149,33 @@ public abstract class JavaElement {
         }
     }
 
+    /**
+     * Writes the formatted javadoc to the specified output. If a subclass overrides
+     * <code>addFormattedJavadoc</code>, the result of that method is written instead.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void renderJavadoc(Appendable out, int indentLevel) throws IOException {
+        if (isOverridden(getClass(), JavaElement.class, "addFormattedJavadoc", //$NON-NLS-1$
+                StringBuilder.class, int.class)) {
+            StringBuilder sb = new StringBuilder();
+            addFormattedJavadoc(sb, indentLevel);
+            out.append(sb);
+            return;
+        }
+
+        for (String javaDocLine : javaDocLines) {
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append(javaDocLine);
+            OutputUtilities.newLine(out);
+        }
+    }
+
     /**
      * Adds the formatted annotations.
      *
@@ -162,6 +192,33 @@ public abstract class JavaElement {
         }
     }
 
+    /**
+     * Writes the formatted annotations to the specified output. If a subclass overrides
+     * <code>addFormattedAnnotations</code>, the result of that method is written instead.
+     *
+     * @param out
+     *            the output
+     * @param indentLevel
+     *            the indent level
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void renderAnnotations(Appendable out, int indentLevel) throws IOException {
+        if (isOverridden(getClass(), JavaElement.class, "addFormattedAnnotations", //$NON-NLS-1$
+                StringBuilder.class, int.class)) {
+            StringBuilder sb = new StringBuilder();
+            addFormattedAnnotations(sb, indentLevel);
+            out.append(sb);
+            return;
+        }
+
+        for (String annotation : annotations) {
+            OutputUtilities.javaIndent(out, indentLevel);
+            out.append(annotation);
+            OutputUtilities.newLine(out);
+        }
+    }
+
     /**
      * Checks if is final.
      *
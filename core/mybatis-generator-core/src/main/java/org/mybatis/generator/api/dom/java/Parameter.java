@@ -15,6 +15,9 @@
  */
 package org.mybatis.generator.api.dom.java;
 
+import static org.mybatis.generator.internal.util.OverrideUtility.isOverridden;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -74,21 +77,51 @@ public class Parameter {
 
     public String getFormattedContent(CompilationUnit compilationUnit) {
         StringBuilder sb = new StringBuilder();
+        try {
+            renderContent(sb, compilationUnit);
+        } catch (IOException e) {
+            // cannot happen - StringBuilder does not throw IOException
+            throw new RuntimeException(e);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Writes the formatted content to the specified output. Nested elements are
+     * written directly to the same output, so no intermediate strings are built.
+     * If a subclass overrides <code>getFormattedContent</code>, the result of that
+     * method is written instead.
+     *
+     * @param out
+     *            the output
+     * @param compilationUnit
+     *            the compilation unit
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void render(Appendable out, CompilationUnit compilationUnit) throws IOException {
+        if (isOverridden(getClass(), Parameter.class,
+                "getFormattedContent", CompilationUnit.class)) { //$NON-NLS-1$
+            out.append(getFormattedContent(compilationUnit));
+        } else {
+            renderContent(out, compilationUnit);
+        }
+    }
 
+    private void renderContent(Appendable out, CompilationUnit compilationUnit) throws IOException {
         for (String annotation : annotations) {
-            sb.append(annotation);
-            sb.append(' ');
+            out.append(annotation);
+            out.append(' ');
         }
 
-        sb.append(JavaDomUtils.calculateTypeName(compilationUnit, type));
+        out.append(JavaDomUtils.calculateTypeName(compilationUnit, type));
         
-        sb.append(' ');
+        out.append(' ');
         if (isVarargs) {
-            sb.append("... "); //$NON-NLS-1$
+            out.append("... "); //$NON-NLS-1$
         }
-        sb.append(name);
-
-        return sb.toString();
+        out.append(name);
     }
 
     @Override
@@ -15,6 +15,10 @@
  */
 package org.mybatis.generator.api.dom.xml;
 
+import static org.mybatis.generator.internal.util.OverrideUtility.isOverridden;
+
+import java.io.IOException;
+
 /**
  * The Class Attribute.
  *
@@ -67,14 +71,39 @@ public class Attribute implements Comparable<Attribute>{
      */
     public String getFormattedContent() {
         StringBuilder sb = new StringBuilder();
-        sb.append(name);
-        sb.append("=\""); //$NON-NLS-1$
-        sb.append(value);
-        sb.append('\"');
+        try {
+            renderContent(sb);
+        } catch (IOException e) {
+            // cannot happen - StringBuilder does not throw IOException
+            throw new RuntimeException(e);
+        }
 
         return sb.toString();
     }
 
+    /**
+     * Writes the formatted content to the specified output.
+     *
+     * @param out
+     *            the output
+     * @throws IOException
+     *             if the output throws an IOException
+     */
+    public void render(Appendable out) throws IOException {
+        if (isOverridden(getClass(), Attribute.class, "getFormattedContent")) { //$NON-NLS-1$
+            out.append(getFormattedContent());
+        } else {
+            renderContent(out);
+        }
+    }
+
+    private void renderContent(Appendable out) throws IOException {
+        out.append(name);
+        out.append("=\""); //$NON-NLS-1$
+        out.append(value);
+        out.append('\"');
+    }
+
     @Override
     public int compareTo(Attribute o) {
         if (this.name == null) {
@@ -15,6 +15,10 @@
  */
 package org.mybatis.generator.api.dom.xml;
 
+import static org.mybatis.generator.internal.util.OverrideUtility.isOverridden;
+
+import java.io.IOException;
+
 import org.mybatis.generator.api.dom.OutputUtilities;
 
 /**
@@ -49,6 +53,24 @@ public class TextElement extends Element {
         return sb.toString();
     }
 
+    /* (non-Javadoc)
+     * @see org.mybatis.generator.api.dom.xml.Element#render(java.lang.Appendable, int)
+     */
+    @Override
+    public void render(Appendable out, int indentLevel) throws IOException {
+        if (isOverridden(getClass(), TextElement.class,
+                "getFormattedContent", int.class)) { //$NON-NLS-1$
+            out.append(getFormattedContent(indentLevel));
+        } else {
+            renderContent(out, indentLevel);
+        }
+    }
+
+    private void renderContent(Appendable out, int indentLevel) throws IOException {
+        OutputUtilities.xmlIndent(out, indentLevel);
+        out.append(content);
+    }
+
     /**
      * Gets the content.
      *
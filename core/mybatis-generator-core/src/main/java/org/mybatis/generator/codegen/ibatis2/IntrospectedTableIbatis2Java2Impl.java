@@ -38,6 +38,7 @@ import org.mybatis.generator.codegen.ibatis2.model.PrimaryKeyGenerator;
 import org.mybatis.generator.codegen.ibatis2.model.RecordWithBLOBsGenerator;
 import org.mybatis.generator.codegen.ibatis2.sqlmap.SqlMapGenerator;
 import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.internal.MetricsTimer;
 import org.mybatis.generator.internal.ObjectFactory;
 
 /**
@@ -147,8 +148,10 @@ public class IntrospectedTableIbatis2Java2Impl extends IntrospectedTable {
         List<GeneratedJavaFile> answer = new ArrayList<GeneratedJavaFile>();
 
         for (AbstractJavaGenerator javaGenerator : javaModelGenerators) {
+            MetricsTimer timer = startGeneratorTimer(javaGenerator);
             List<CompilationUnit> compilationUnits = javaGenerator
                     .getCompilationUnits();
+            timer.stop();
             for (CompilationUnit compilationUnit : compilationUnits) {
                 GeneratedJavaFile gjf = new GeneratedJavaFile(compilationUnit,
                         context.getJavaModelGeneratorConfiguration()
@@ -160,8 +163,10 @@ public class IntrospectedTableIbatis2Java2Impl extends IntrospectedTable {
         }
 
         for (AbstractJavaGenerator javaGenerator : daoGenerators) {
+            MetricsTimer timer = startGeneratorTimer(javaGenerator);
             List<CompilationUnit> compilationUnits = javaGenerator
                     .getCompilationUnits();
+            timer.stop();
             for (CompilationUnit compilationUnit : compilationUnits) {
                 GeneratedJavaFile gjf = new GeneratedJavaFile(compilationUnit,
                         context.getJavaClientGeneratorConfiguration()
@@ -179,7 +184,9 @@ public class IntrospectedTableIbatis2Java2Impl extends IntrospectedTable {
     public List<GeneratedXmlFile> getGeneratedXmlFiles() {
         List<GeneratedXmlFile> answer = new ArrayList<GeneratedXmlFile>();
 
+        MetricsTimer timer = startGeneratorTimer(sqlMapGenerator);
         Document document = sqlMapGenerator.getDocument();
+        timer.stop();
         GeneratedXmlFile gxf = new GeneratedXmlFile(document,
                 getIbatis2SqlMapFileName(), getIbatis2SqlMapPackage(), context
                         .getSqlMapGeneratorConfiguration().getTargetProject(),
@@ -0,0 +1,133 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.codegen.mybatis3;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.Plugin;
+import org.mybatis.generator.api.dom.java.Field;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.internal.rules.Rules;
+
+/**
+ * Utility methods for models that track dirty fields. The topmost generated
+ * model class holds a <code>long[]</code> mask with one bit for each column
+ * of the table, and every setter marks the bit of its column. The bit of a
+ * column is its index in {@link IntrospectedTable#getAllColumns()}.
+ */
+public class DirtyFieldUtilities {
+
+    public static final String IS_DIRTY_METHOD = "isDirty"; //$NON-NLS-1$
+
+    private static final String MARK_DIRTY_METHOD = "markDirty"; //$NON-NLS-1$
+
+    private static final String DIRTY_MASK_FIELD = "dirtyMask"; //$NON-NLS-1$
+
+    private DirtyFieldUtilities() {
+    }
+
+    /**
+     * Returns true if the model class of the specified type is the topmost
+     * generated class, and so holds the dirty mask.
+     */
+    public static boolean isDirtyMaskClass(IntrospectedTable introspectedTable,
+            Plugin.ModelClassType modelClassType) {
+        Rules rules = introspectedTable.getRules();
+        if (rules.generatePrimaryKeyClass()) {
+            return modelClassType == Plugin.ModelClassType.PRIMARY_KEY;
+        } else if (rules.generateBaseRecordClass()) {
+            return modelClassType == Plugin.ModelClassType.BASE_RECORD;
+        } else {
+            return modelClassType == Plugin.ModelClassType.RECORD_WITH_BLOBS;
+        }
+    }
+
+    public static int getColumnIndex(IntrospectedTable introspectedTable,
+            IntrospectedColumn introspectedColumn) {
+        return introspectedTable.getAllColumns().indexOf(introspectedColumn);
+    }
+
+    /**
+     * Returns an expression that is true if the column is dirty in the
+     * specified record.
+     */
+    public static String getIsDirtyExpression(String record,
+            IntrospectedTable introspectedTable,
+            IntrospectedColumn introspectedColumn) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(record);
+        sb.append('.');
+        sb.append(IS_DIRTY_METHOD);
+        sb.append('(');
+        sb.append(getColumnIndex(introspectedTable, introspectedColumn));
+        sb.append(')');
+        return sb.toString();
+    }
+
+    /**
+     * Adds the dirty mask field, and the methods that mark, test and clear
+     * the bits of the mask.
+     */
+    public static void addDirtyMaskElements(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable, Context context) {
+        int words = (introspectedTable.getAllColumns().size() + 63) / 64;
+        FullyQualifiedJavaType intType = FullyQualifiedJavaType.getIntInstance();
+
+        Field field = new Field(DIRTY_MASK_FIELD, new FullyQualifiedJavaType("long[]")); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setInitializationString("new long[" + words + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        topLevelClass.addField(field);
+
+        Method method = new Method(MARK_DIRTY_METHOD);
+        method.setVisibility(JavaVisibility.PROTECTED);
+        method.addParameter(new Parameter(intType, "column")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine(DIRTY_MASK_FIELD + "[column >>> 6] |= 1L << column;"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method(IS_DIRTY_METHOD);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(FullyQualifiedJavaType.getBooleanPrimitiveInstance());
+        method.addParameter(new Parameter(intType, "column")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("return (" + DIRTY_MASK_FIELD + "[column >>> 6] & (1L << column)) != 0;"); //$NON-NLS-1$ //$NON-NLS-2$
+        topLevelClass.addMethod(method);
+
+        method = new Method("clearDirty"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("for (int i = 0; i < " + DIRTY_MASK_FIELD + ".length; i++) {"); //$NON-NLS-1$ //$NON-NLS-2$
+        method.addBodyLine(DIRTY_MASK_FIELD + "[i] = 0L;"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+    }
+
+    /**
+     * Adds the line that marks the column dirty to a setter.
+     */
+    public static void addMarkDirtyLine(Method setter,
+            IntrospectedTable introspectedTable,
+            IntrospectedColumn introspectedColumn) {
+        setter.addBodyLine(MARK_DIRTY_METHOD + "(" //$NON-NLS-1$
+                + getColumnIndex(introspectedTable, introspectedColumn) + ");"); //$NON-NLS-1$
+    }
+}
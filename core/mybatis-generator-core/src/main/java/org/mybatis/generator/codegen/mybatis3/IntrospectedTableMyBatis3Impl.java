@@ -37,6 +37,7 @@ import org.mybatis.generator.codegen.mybatis3.model.PrimaryKeyGenerator;
 import org.mybatis.generator.codegen.mybatis3.model.RecordWithBLOBsGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.XMLMapperGenerator;
 import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.internal.MetricsTimer;
 import org.mybatis.generator.internal.ObjectFactory;
 
 /**
@@ -229,8 +230,10 @@ public class IntrospectedTableMyBatis3Impl extends IntrospectedTable {
         List<GeneratedJavaFile> answer = new ArrayList<GeneratedJavaFile>();
 
         for (AbstractJavaGenerator javaGenerator : javaModelGenerators) {
+            MetricsTimer timer = startGeneratorTimer(javaGenerator);
             List<CompilationUnit> compilationUnits = javaGenerator
                     .getCompilationUnits();
+            timer.stop();
             for (CompilationUnit compilationUnit : compilationUnits) {
                 GeneratedJavaFile gjf = new GeneratedJavaFile(compilationUnit,
                         context.getJavaModelGeneratorConfiguration()
@@ -242,8 +245,10 @@ public class IntrospectedTableMyBatis3Impl extends IntrospectedTable {
         }
 
         for (AbstractJavaGenerator javaGenerator : clientGenerators) {
+            MetricsTimer timer = startGeneratorTimer(javaGenerator);
             List<CompilationUnit> compilationUnits = javaGenerator
                     .getCompilationUnits();
+            timer.stop();
             for (CompilationUnit compilationUnit : compilationUnits) {
                 GeneratedJavaFile gjf = new GeneratedJavaFile(compilationUnit,
                         context.getJavaClientGeneratorConfiguration()
@@ -265,7 +270,9 @@ public class IntrospectedTableMyBatis3Impl extends IntrospectedTable {
         List<GeneratedXmlFile> answer = new ArrayList<GeneratedXmlFile>();
 
         if (xmlMapperGenerator != null) {
+            MetricsTimer timer = startGeneratorTimer(xmlMapperGenerator);
             Document document = xmlMapperGenerator.getDocument();
+            timer.stop();
             GeneratedXmlFile gxf = new GeneratedXmlFile(document,
                 getMyBatis3XmlMapperFileName(), getMyBatis3XmlMapperPackage(),
                 context.getSqlMapGeneratorConfiguration().getTargetProject(),
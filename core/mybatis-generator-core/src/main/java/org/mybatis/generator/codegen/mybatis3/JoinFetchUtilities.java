@@ -0,0 +1,256 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.codegen.mybatis3;
+
+import static org.mybatis.generator.internal.util.JavaBeansUtil.getGetterMethodName;
+import static org.mybatis.generator.internal.util.JavaBeansUtil.getSetterMethodName;
+import static org.mybatis.generator.internal.util.JavaBeansUtil.getValidPropertyName;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedForeignKey;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.Plugin;
+import org.mybatis.generator.api.dom.java.Field;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.internal.rules.Rules;
+
+/**
+ * Utility methods for the statements that fetch related records with a join.
+ * A join is generated for a foreign key if both tables are generated in the same
+ * context, and the tables have different aliases so that the columns of the two
+ * tables have different names in the result set.
+ * <p>
+ * The related records are held by a property of the model class that holds all
+ * fields. The property of a parent is named after the parent domain object, the
+ * property of the children after the child domain object with a
+ * <code>List</code> suffix. If a table has several foreign keys to the same
+ * table, the names of the foreign key properties are appended.
+ */
+public class JoinFetchUtilities {
+
+    private JoinFetchUtilities() {
+    }
+
+    /**
+     * Returns the foreign keys of the table whose parent records are fetched with
+     * a join.
+     *
+     * @param introspectedTable
+     *            the table
+     * @param warnings
+     *            if not null, a warning is added for each foreign key that
+     *            cannot be joined because the tables have no distinct aliases
+     * @return the foreign keys
+     */
+    public static List<IntrospectedForeignKey> getParentKeys(
+            IntrospectedTable introspectedTable, List<String> warnings) {
+        List<IntrospectedForeignKey> answer = new ArrayList<IntrospectedForeignKey>();
+        if (introspectedTable.isJoinFetchParents()) {
+            for (IntrospectedForeignKey foreignKey : introspectedTable.getImportedKeys()) {
+                if (canJoin(introspectedTable, foreignKey.getReferencedTable(), warnings)) {
+                    answer.add(foreignKey);
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the foreign keys of other tables whose records are fetched as
+     * children of the table with a join.
+     *
+     * @param introspectedTable
+     *            the table
+     * @param warnings
+     *            if not null, a warning is added for each foreign key that
+     *            cannot be joined because the tables have no distinct aliases
+     * @return the foreign keys
+     */
+    public static List<IntrospectedForeignKey> getChildKeys(
+            IntrospectedTable introspectedTable, List<String> warnings) {
+        List<IntrospectedForeignKey> answer = new ArrayList<IntrospectedForeignKey>();
+        if (introspectedTable.isJoinFetchChildren()) {
+            for (IntrospectedForeignKey foreignKey : introspectedTable.getExportedKeys()) {
+                if (canJoin(introspectedTable, foreignKey.getIntrospectedTable(), warnings)) {
+                    answer.add(foreignKey);
+                }
+            }
+        }
+        return answer;
+    }
+
+    private static boolean canJoin(IntrospectedTable introspectedTable,
+            IntrospectedTable joinedTable, List<String> warnings) {
+        if (joinedTable == null || joinedTable == introspectedTable
+                || !introspectedTable.requiresXMLGenerator()
+                || !introspectedTable.getRules().generateSelectByExampleWithoutBLOBs()
+                || !joinedTable.getRules().generateBaseColumnList()) {
+            return false;
+        }
+
+        String alias = introspectedTable.getFullyQualifiedTable().getAlias();
+        String joinedAlias = joinedTable.getFullyQualifiedTable().getAlias();
+        if (!stringHasValue(alias) || !stringHasValue(joinedAlias)
+                || alias.equalsIgnoreCase(joinedAlias)) {
+            if (warnings != null) {
+                warnings.add(getString("Warning.36", //$NON-NLS-1$
+                        introspectedTable.getFullyQualifiedTable().toString(),
+                        joinedTable.getFullyQualifiedTable().toString()));
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the name of the property that holds the parent record of the
+     * foreign key.
+     */
+    public static String getParentPropertyName(IntrospectedForeignKey foreignKey) {
+        IntrospectedTable parentTable = foreignKey.getReferencedTable();
+        String name = getValidPropertyName(parentTable.getFullyQualifiedTable()
+                .getDomainObjectName());
+        int count = 0;
+        for (IntrospectedForeignKey other : foreignKey.getIntrospectedTable().getImportedKeys()) {
+            if (other.getReferencedTable() == parentTable) {
+                count++;
+            }
+        }
+        return count > 1 ? name + getColumnSuffix(foreignKey) : name;
+    }
+
+    /**
+     * Returns the name of the property that holds the child records of the
+     * foreign key.
+     */
+    public static String getChildPropertyName(IntrospectedForeignKey foreignKey) {
+        IntrospectedTable childTable = foreignKey.getIntrospectedTable();
+        String name = getValidPropertyName(childTable.getFullyQualifiedTable()
+                .getDomainObjectName()) + "List"; //$NON-NLS-1$
+        int count = 0;
+        for (IntrospectedForeignKey other : foreignKey.getReferencedTable().getExportedKeys()) {
+            if (other.getIntrospectedTable() == childTable) {
+                count++;
+            }
+        }
+        return count > 1 ? name + getColumnSuffix(foreignKey) : name;
+    }
+
+    private static String getColumnSuffix(IntrospectedForeignKey foreignKey) {
+        StringBuilder sb = new StringBuilder("By"); //$NON-NLS-1$
+        boolean and = false;
+        for (IntrospectedColumn introspectedColumn : foreignKey.getColumns()) {
+            if (and) {
+                sb.append("And"); //$NON-NLS-1$
+            } else {
+                and = true;
+            }
+            sb.append(capitalize(introspectedColumn.getJavaProperty()));
+        }
+        return sb.toString();
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    public static String getResultMapId(String propertyName) {
+        return "ResultMapWith" + capitalize(propertyName); //$NON-NLS-1$
+    }
+
+    public static String getStatementId(String propertyName) {
+        return "selectWith" + capitalize(propertyName) + "ByExample"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Returns true if the model class of the specified type holds all fields of
+     * the table, and so holds the properties for joined records.
+     */
+    public static boolean isAllFieldsClass(IntrospectedTable introspectedTable,
+            Plugin.ModelClassType modelClassType) {
+        Rules rules = introspectedTable.getRules();
+        if (rules.generateRecordWithBLOBsClass()) {
+            return modelClassType == Plugin.ModelClassType.RECORD_WITH_BLOBS;
+        } else if (rules.generateBaseRecordClass()) {
+            return modelClassType == Plugin.ModelClassType.BASE_RECORD;
+        } else {
+            return modelClassType == Plugin.ModelClassType.PRIMARY_KEY;
+        }
+    }
+
+    /**
+     * Adds the properties for the parent and child records that are fetched
+     * with joins. Immutable models get no setters - MyBatis sets the fields
+     * directly.
+     */
+    public static void addJoinProperties(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable, Context context) {
+        for (IntrospectedForeignKey foreignKey : getParentKeys(introspectedTable, null)) {
+            FullyQualifiedJavaType type = foreignKey.getReferencedTable().getRules()
+                    .calculateAllFieldsClass();
+            addProperty(topLevelClass, introspectedTable, context,
+                    getParentPropertyName(foreignKey), type, type);
+        }
+
+        for (IntrospectedForeignKey foreignKey : getChildKeys(introspectedTable, null)) {
+            FullyQualifiedJavaType recordType = foreignKey.getIntrospectedTable().getRules()
+                    .calculateAllFieldsClass();
+            FullyQualifiedJavaType type = FullyQualifiedJavaType.getNewListInstance();
+            type.addTypeArgument(recordType);
+            topLevelClass.addImportedType(FullyQualifiedJavaType.getNewListInstance());
+            addProperty(topLevelClass, introspectedTable, context,
+                    getChildPropertyName(foreignKey), type, recordType);
+        }
+    }
+
+    private static void addProperty(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable, Context context, String property,
+            FullyQualifiedJavaType type, FullyQualifiedJavaType importedType) {
+        topLevelClass.addImportedType(importedType);
+
+        Field field = new Field(property, type);
+        field.setVisibility(JavaVisibility.PRIVATE);
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        topLevelClass.addField(field);
+
+        Method method = new Method(getGetterMethodName(property, type));
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(type);
+        method.addBodyLine("return " + property + ';'); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        topLevelClass.addMethod(method);
+
+        if (!introspectedTable.isImmutable()) {
+            method = new Method(getSetterMethodName(property));
+            method.setVisibility(JavaVisibility.PUBLIC);
+            method.addParameter(new Parameter(type, property));
+            method.addBodyLine("this." + property + " = " + property + ';'); //$NON-NLS-1$ //$NON-NLS-2$
+            context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+            topLevelClass.addMethod(method);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.codegen.mybatis3;
+
+import static org.mybatis.generator.internal.util.JavaBeansUtil.getGetterMethodName;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.Plugin;
+import org.mybatis.generator.api.dom.java.Field;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.config.Context;
+
+/**
+ * Utility methods for models with primitive fields. Columns with a primitive
+ * wrapper type are stored in primitive fields, and the topmost generated model
+ * class holds a null mask with one bit for each of these columns. The mask is
+ * a <code>long</code>, or a <code>long[]</code> for tables with more than 64
+ * such columns. The bit of a column is its index in
+ * {@link #getPrimitiveColumns(IntrospectedTable)}.
+ *
+ * <p>Getters and setters keep the wrapper types, so MyBatis maps the
+ * properties with its usual type handlers and the generated mappers and
+ * example classes are unchanged.
+ */
+public class NullMaskUtilities {
+
+    private static final String IS_NULL_METHOD = "isNull"; //$NON-NLS-1$
+
+    private static final String SET_NULL_METHOD = "setNull"; //$NON-NLS-1$
+
+    private static final String NULL_MASK_FIELD = "nullMask"; //$NON-NLS-1$
+
+    private static final Map<String, String> PRIMITIVE_TYPES;
+
+    private static final Map<String, String> DEFAULT_VALUES;
+
+    static {
+        PRIMITIVE_TYPES = new HashMap<String, String>();
+        PRIMITIVE_TYPES.put("java.lang.Boolean", "boolean"); //$NON-NLS-1$ //$NON-NLS-2$
+        PRIMITIVE_TYPES.put("java.lang.Byte", "byte"); //$NON-NLS-1$ //$NON-NLS-2$
+        PRIMITIVE_TYPES.put("java.lang.Short", "short"); //$NON-NLS-1$ //$NON-NLS-2$
+        PRIMITIVE_TYPES.put("java.lang.Integer", "int"); //$NON-NLS-1$ //$NON-NLS-2$
+        PRIMITIVE_TYPES.put("java.lang.Long", "long"); //$NON-NLS-1$ //$NON-NLS-2$
+        PRIMITIVE_TYPES.put("java.lang.Float", "float"); //$NON-NLS-1$ //$NON-NLS-2$
+        PRIMITIVE_TYPES.put("java.lang.Double", "double"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        DEFAULT_VALUES = new HashMap<String, String>();
+        DEFAULT_VALUES.put("java.lang.Boolean", "false"); //$NON-NLS-1$ //$NON-NLS-2$
+        DEFAULT_VALUES.put("java.lang.Byte", "0"); //$NON-NLS-1$ //$NON-NLS-2$
+        DEFAULT_VALUES.put("java.lang.Short", "0"); //$NON-NLS-1$ //$NON-NLS-2$
+        DEFAULT_VALUES.put("java.lang.Integer", "0"); //$NON-NLS-1$ //$NON-NLS-2$
+        DEFAULT_VALUES.put("java.lang.Long", "0L"); //$NON-NLS-1$ //$NON-NLS-2$
+        DEFAULT_VALUES.put("java.lang.Float", "0F"); //$NON-NLS-1$ //$NON-NLS-2$
+        DEFAULT_VALUES.put("java.lang.Double", "0D"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private NullMaskUtilities() {
+    }
+
+    /**
+     * Returns true if the model class of the specified type is the topmost
+     * generated class, and so holds the null mask.
+     */
+    public static boolean isNullMaskClass(IntrospectedTable introspectedTable,
+            Plugin.ModelClassType modelClassType) {
+        return introspectedTable.isPrimitiveFields()
+                && !getPrimitiveColumns(introspectedTable).isEmpty()
+                && DirtyFieldUtilities.isDirtyMaskClass(introspectedTable,
+                        modelClassType);
+    }
+
+    /**
+     * Returns true if the column is stored in a primitive field.
+     */
+    public static boolean isPrimitiveColumn(IntrospectedTable introspectedTable,
+            IntrospectedColumn introspectedColumn) {
+        return introspectedTable.isPrimitiveFields()
+                && PRIMITIVE_TYPES.containsKey(introspectedColumn
+                        .getFullyQualifiedJavaType().getFullyQualifiedName());
+    }
+
+    public static List<IntrospectedColumn> getPrimitiveColumns(
+            IntrospectedTable introspectedTable) {
+        List<IntrospectedColumn> answer = new ArrayList<IntrospectedColumn>();
+        for (IntrospectedColumn introspectedColumn : introspectedTable.getAllColumns()) {
+            if (isPrimitiveColumn(introspectedTable, introspectedColumn)) {
+                answer.add(introspectedColumn);
+            }
+        }
+        return answer;
+    }
+
+    private static int getColumnIndex(IntrospectedTable introspectedTable,
+            IntrospectedColumn introspectedColumn) {
+        return getPrimitiveColumns(introspectedTable).indexOf(introspectedColumn);
+    }
+
+    /**
+     * Adds the null mask field, and the methods that set and test the bits of
+     * the mask. Every bit is set initially, because a new record has no
+     * values.
+     */
+    public static void addNullMaskElements(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable, Context context) {
+        int columns = getPrimitiveColumns(introspectedTable).size();
+        FullyQualifiedJavaType intType = FullyQualifiedJavaType.getIntInstance();
+        FullyQualifiedJavaType booleanType = FullyQualifiedJavaType.getBooleanPrimitiveInstance();
+
+        String word;
+        Field field;
+        if (columns <= 64) {
+            word = NULL_MASK_FIELD;
+            field = new Field(NULL_MASK_FIELD, new FullyQualifiedJavaType("long")); //$NON-NLS-1$
+            field.setInitializationString(getMaskLiteral(columns));
+        } else {
+            word = NULL_MASK_FIELD + "[column >>> 6]"; //$NON-NLS-1$
+            field = new Field(NULL_MASK_FIELD, new FullyQualifiedJavaType("long[]")); //$NON-NLS-1$
+            StringBuilder sb = new StringBuilder();
+            sb.append("new long[] { "); //$NON-NLS-1$
+            for (int i = 0; i < columns; i += 64) {
+                if (i > 0) {
+                    sb.append(", "); //$NON-NLS-1$
+                }
+                sb.append(getMaskLiteral(Math.min(64, columns - i)));
+            }
+            sb.append(" }"); //$NON-NLS-1$
+            field.setInitializationString(sb.toString());
+        }
+        field.setVisibility(JavaVisibility.PRIVATE);
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        topLevelClass.addField(field);
+
+        Method method = new Method(SET_NULL_METHOD);
+        method.setVisibility(JavaVisibility.PROTECTED);
+        method.addParameter(new Parameter(intType, "column")); //$NON-NLS-1$
+        method.addParameter(new Parameter(booleanType, "isNull")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("if (isNull) {"); //$NON-NLS-1$
+        method.addBodyLine(word + " |= 1L << column;"); //$NON-NLS-1$
+        method.addBodyLine("} else {"); //$NON-NLS-1$
+        method.addBodyLine(word + " &= ~(1L << column);"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method(IS_NULL_METHOD);
+        method.setVisibility(JavaVisibility.PROTECTED);
+        method.setReturnType(booleanType);
+        method.addParameter(new Parameter(intType, "column")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("return (" + word + " & (1L << column)) != 0;"); //$NON-NLS-1$ //$NON-NLS-2$
+        topLevelClass.addMethod(method);
+    }
+
+    private static String getMaskLiteral(int bits) {
+        if (bits == 64) {
+            return "-1L"; //$NON-NLS-1$
+        }
+        return "0x" + Long.toHexString((1L << bits) - 1) + 'L'; //$NON-NLS-1$
+    }
+
+    /**
+     * Changes the type of a field to the primitive type.
+     */
+    public static void makeFieldPrimitive(Field field,
+            IntrospectedColumn introspectedColumn) {
+        field.setType(getPrimitiveType(introspectedColumn));
+    }
+
+    /**
+     * Replaces the body of a getter with one that returns null when the
+     * column is null.
+     */
+    public static void makeGetterNullAware(Method getter,
+            IntrospectedTable introspectedTable,
+            IntrospectedColumn introspectedColumn) {
+        getter.getBodyLines().clear();
+        getter.addBodyLine("return " + IS_NULL_METHOD + "(" //$NON-NLS-1$ //$NON-NLS-2$
+                + getColumnIndex(introspectedTable, introspectedColumn)
+                + ") ? null : " //$NON-NLS-1$
+                + introspectedColumn.getJavaProperty() + ';');
+    }
+
+    /**
+     * Replaces the body of a setter with one that stores the value and the
+     * null bit of the column.
+     */
+    public static void makeSetterNullAware(Method setter,
+            IntrospectedTable introspectedTable,
+            IntrospectedColumn introspectedColumn) {
+        setter.getBodyLines().clear();
+        addAssignmentLines(setter, introspectedTable, introspectedColumn);
+    }
+
+    /**
+     * Adds the lines that assign the parameter of the same name to the field
+     * of a column, to a setter or constructor.
+     */
+    public static void addAssignmentLines(Method method,
+            IntrospectedTable introspectedTable,
+            IntrospectedColumn introspectedColumn) {
+        String property = introspectedColumn.getJavaProperty();
+        StringBuilder sb = new StringBuilder();
+        sb.append("this."); //$NON-NLS-1$
+        sb.append(property);
+        sb.append(" = "); //$NON-NLS-1$
+        sb.append(property);
+        if (isPrimitiveColumn(introspectedTable, introspectedColumn)) {
+            sb.append(" == null ? "); //$NON-NLS-1$
+            sb.append(DEFAULT_VALUES.get(introspectedColumn
+                    .getFullyQualifiedJavaType().getFullyQualifiedName()));
+            sb.append(" : "); //$NON-NLS-1$
+            sb.append(property);
+            sb.append(';');
+            method.addBodyLine(sb.toString());
+
+            sb.setLength(0);
+            sb.append(SET_NULL_METHOD);
+            sb.append('(');
+            sb.append(getColumnIndex(introspectedTable, introspectedColumn));
+            sb.append(", "); //$NON-NLS-1$
+            sb.append(property);
+            sb.append(" == null);"); //$NON-NLS-1$
+        } else {
+            sb.append(';');
+        }
+        method.addBodyLine(sb.toString());
+    }
+
+    /**
+     * Adds the public method that tests the null bit of a column, for example
+     * <code>isAmountNull()</code>.
+     */
+    public static void addIsColumnNullMethod(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable,
+            IntrospectedColumn introspectedColumn, Context context) {
+        Method method = new Method(getGetterMethodName(
+                introspectedColumn.getJavaProperty(),
+                FullyQualifiedJavaType.getBooleanPrimitiveInstance()) + "Null"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(FullyQualifiedJavaType.getBooleanPrimitiveInstance());
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("return " + IS_NULL_METHOD + "(" //$NON-NLS-1$ //$NON-NLS-2$
+                + getColumnIndex(introspectedTable, introspectedColumn) + ");"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+    }
+
+    private static FullyQualifiedJavaType getPrimitiveType(
+            IntrospectedColumn introspectedColumn) {
+        return new FullyQualifiedJavaType(PRIMITIVE_TYPES.get(introspectedColumn
+                .getFullyQualifiedJavaType().getFullyQualifiedName()));
+    }
+}
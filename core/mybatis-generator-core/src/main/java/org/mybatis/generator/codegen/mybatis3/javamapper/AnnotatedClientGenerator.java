@@ -32,6 +32,7 @@ import org.mybatis.generator.codegen.mybatis3.javamapper.elements.annotated.Anno
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.annotated.AnnotatedUpdateByExampleSelectiveMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.annotated.AnnotatedUpdateByExampleWithBLOBsMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.annotated.AnnotatedUpdateByExampleWithoutBLOBsMethodGenerator;
+import org.mybatis.generator.codegen.mybatis3.javamapper.elements.annotated.AnnotatedUpdateByPrimaryKeyDirtyMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.annotated.AnnotatedUpdateByPrimaryKeySelectiveMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.annotated.AnnotatedUpdateByPrimaryKeyWithBLOBsMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.annotated.AnnotatedUpdateByPrimaryKeyWithoutBLOBsMethodGenerator;
@@ -140,6 +141,14 @@ public class AnnotatedClientGenerator extends JavaMapperGenerator {
         }
     }
 
+    @Override
+    protected void addUpdateByPrimaryKeyDirtyMethod(Interface interfaze) {
+        if (introspectedTable.getRules().generateUpdateByPrimaryKeyDirty()) {
+            AbstractJavaMapperMethodGenerator methodGenerator = new AnnotatedUpdateByPrimaryKeyDirtyMethodGenerator();
+            initializeAndExecuteGenerator(methodGenerator, interfaze);
+        }
+    }
+
     @Override
     protected void addUpdateByPrimaryKeyWithBLOBsMethod(Interface interfaze) {
         if (introspectedTable.getRules().generateUpdateByPrimaryKeyWithBLOBs()) {
@@ -165,7 +174,13 @@ public class AnnotatedClientGenerator extends JavaMapperGenerator {
     	if (StringUtility.stringHasValue(prop)) {
     		useLegacyBuilder = Boolean.valueOf(prop);
     	}
-        SqlProviderGenerator sqlProviderGenerator = new SqlProviderGenerator(useLegacyBuilder);
+
+    	boolean usePrecomputedSql = false;
+    	prop = context.getJavaClientGeneratorConfiguration().getProperty(PropertyRegistry.CLIENT_USE_PRECOMPUTED_PROVIDER_SQL);
+    	if (StringUtility.stringHasValue(prop)) {
+    		usePrecomputedSql = Boolean.valueOf(prop);
+    	}
+        SqlProviderGenerator sqlProviderGenerator = new SqlProviderGenerator(useLegacyBuilder, usePrecomputedSql);
         sqlProviderGenerator.setContext(context);
         sqlProviderGenerator.setIntrospectedTable(introspectedTable);
         sqlProviderGenerator.setProgressCallback(progressCallback);
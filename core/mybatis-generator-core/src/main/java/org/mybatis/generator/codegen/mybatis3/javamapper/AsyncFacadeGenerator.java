@@ -0,0 +1,289 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.codegen.mybatis3.javamapper;
+
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mybatis.generator.api.CommentGenerator;
+import org.mybatis.generator.api.dom.java.CompilationUnit;
+import org.mybatis.generator.api.dom.java.Field;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.api.dom.java.TypeParameter;
+import org.mybatis.generator.codegen.AbstractJavaGenerator;
+
+/**
+ * Generates an asynchronous facade for a mapper interface. Every non static
+ * method of the mapper is mirrored by a method returning a
+ * <code>CompletableFuture</code>. Each call runs on the facade's executor in
+ * its own <code>SqlSession</code> - the session is opened, used, committed and
+ * closed on the executing thread, so sessions are never shared between threads.
+ * Work that must share a transaction can be grouped with the
+ * <code>inTransaction</code> method.
+ *
+ * <p>Methods returning a <code>Cursor</code> are not mirrored because a cursor
+ * cannot outlive the session that opened it.
+ *
+ * <p>Unless an executor is supplied, the facade uses a virtual thread per task
+ * executor when running on JDK 21 or later, and a bounded pool of daemon
+ * threads otherwise.
+ */
+public class AsyncFacadeGenerator extends AbstractJavaGenerator {
+
+    private static final FullyQualifiedJavaType SQL_SESSION = new FullyQualifiedJavaType(
+            "org.apache.ibatis.session.SqlSession"); //$NON-NLS-1$
+
+    private static final FullyQualifiedJavaType SQL_SESSION_FACTORY = new FullyQualifiedJavaType(
+            "org.apache.ibatis.session.SqlSessionFactory"); //$NON-NLS-1$
+
+    private static final FullyQualifiedJavaType COMPLETABLE_FUTURE = new FullyQualifiedJavaType(
+            "java.util.concurrent.CompletableFuture"); //$NON-NLS-1$
+
+    private static final FullyQualifiedJavaType EXECUTOR = new FullyQualifiedJavaType(
+            "java.util.concurrent.Executor"); //$NON-NLS-1$
+
+    private static final FullyQualifiedJavaType EXECUTORS = new FullyQualifiedJavaType(
+            "java.util.concurrent.Executors"); //$NON-NLS-1$
+
+    private static final String CURSOR = "org.apache.ibatis.cursor.Cursor"; //$NON-NLS-1$
+
+    private Interface mapper;
+
+    public AsyncFacadeGenerator(Interface mapper) {
+        super();
+        this.mapper = mapper;
+    }
+
+    @Override
+    public List<CompilationUnit> getCompilationUnits() {
+        progressCallback.startTask(getString("Progress.25", //$NON-NLS-1$
+                introspectedTable.getFullyQualifiedTable().toString()));
+        CommentGenerator commentGenerator = context.getCommentGenerator();
+
+        FullyQualifiedJavaType type = new FullyQualifiedJavaType(
+                introspectedTable.getMyBatis3AsyncFacadeType());
+        TopLevelClass topLevelClass = new TopLevelClass(type);
+        topLevelClass.setVisibility(JavaVisibility.PUBLIC);
+        commentGenerator.addJavaFileComment(topLevelClass);
+
+        topLevelClass.addImportedType(mapper.getType());
+        topLevelClass.addImportedType(SQL_SESSION);
+        topLevelClass.addImportedType(SQL_SESSION_FACTORY);
+        topLevelClass.addImportedType(COMPLETABLE_FUTURE);
+        topLevelClass.addImportedType(EXECUTOR);
+        topLevelClass.addImportedType(EXECUTORS);
+
+        addFields(topLevelClass);
+        addConstructors(topLevelClass);
+        addCreateDefaultExecutorMethod(topLevelClass);
+        addInTransactionMethod(topLevelClass);
+
+        for (Method method : mapper.getMethods()) {
+            if (method.isStatic() || isCursor(method.getReturnType())) {
+                continue;
+            }
+
+            addAsyncMethod(topLevelClass, method);
+        }
+
+        List<CompilationUnit> answer = new ArrayList<CompilationUnit>();
+        if (context.getPlugins().clientAsyncFacadeGenerated(topLevelClass,
+                introspectedTable)) {
+            answer.add(topLevelClass);
+        }
+
+        return answer;
+    }
+
+    protected void addFields(TopLevelClass topLevelClass) {
+        Field field = new Field("DEFAULT_EXECUTOR", EXECUTOR); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setStatic(true);
+        field.setFinal(true);
+        field.setInitializationString("createDefaultExecutor()"); //$NON-NLS-1$
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        topLevelClass.addField(field);
+
+        field = new Field("sqlSessionFactory", SQL_SESSION_FACTORY); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setFinal(true);
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        topLevelClass.addField(field);
+
+        field = new Field("executor", EXECUTOR); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setFinal(true);
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        topLevelClass.addField(field);
+    }
+
+    protected void addConstructors(TopLevelClass topLevelClass) {
+        Method method = new Method(topLevelClass.getType().getShortName());
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setConstructor(true);
+        method.addParameter(new Parameter(SQL_SESSION_FACTORY, "sqlSessionFactory")); //$NON-NLS-1$
+        method.addBodyLine("this(sqlSessionFactory, DEFAULT_EXECUTOR);"); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        topLevelClass.addMethod(method);
+
+        method = new Method(topLevelClass.getType().getShortName());
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setConstructor(true);
+        method.addParameter(new Parameter(SQL_SESSION_FACTORY, "sqlSessionFactory")); //$NON-NLS-1$
+        method.addParameter(new Parameter(EXECUTOR, "executor")); //$NON-NLS-1$
+        method.addBodyLine("this.sqlSessionFactory = sqlSessionFactory;"); //$NON-NLS-1$
+        method.addBodyLine("this.executor = executor;"); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        topLevelClass.addMethod(method);
+    }
+
+    protected void addCreateDefaultExecutorMethod(TopLevelClass topLevelClass) {
+        Method method = new Method("createDefaultExecutor"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PRIVATE);
+        method.setStatic(true);
+        method.setReturnType(EXECUTOR);
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+
+        // newVirtualThreadPerTaskExecutor only exists on JDK 21+, so it is
+        // looked up reflectively to keep the facade compiling on JDK 8
+        method.addBodyLine("try {"); //$NON-NLS-1$
+        method.addBodyLine("return (Executor) Executors.class.getMethod(\"newVirtualThreadPerTaskExecutor\").invoke(null);"); //$NON-NLS-1$
+        method.addBodyLine("} catch (ReflectiveOperationException e) {"); //$NON-NLS-1$
+        method.addBodyLine("int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);"); //$NON-NLS-1$
+        method.addBodyLine("return Executors.newFixedThreadPool(threads, runnable -> {"); //$NON-NLS-1$
+        method.addBodyLine(String.format("Thread thread = new Thread(runnable, \"%s\");", //$NON-NLS-1$
+                topLevelClass.getType().getShortName()));
+        method.addBodyLine("thread.setDaemon(true);"); //$NON-NLS-1$
+        method.addBodyLine("return thread;"); //$NON-NLS-1$
+        method.addBodyLine("});"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+    }
+
+    protected void addInTransactionMethod(TopLevelClass topLevelClass) {
+        topLevelClass.addImportedType("java.util.function.Function"); //$NON-NLS-1$
+        FullyQualifiedJavaType function = new FullyQualifiedJavaType(
+                "java.util.function.Function"); //$NON-NLS-1$
+        function.addTypeArgument(mapper.getType());
+        function.addTypeArgument(new FullyQualifiedJavaType("T")); //$NON-NLS-1$
+
+        FullyQualifiedJavaType returnType = new FullyQualifiedJavaType(
+                COMPLETABLE_FUTURE.getFullyQualifiedName());
+        returnType.addTypeArgument(new FullyQualifiedJavaType("T")); //$NON-NLS-1$
+
+        Method method = new Method("inTransaction"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addTypeParameter(new TypeParameter("T")); //$NON-NLS-1$
+        method.setReturnType(returnType);
+        method.addParameter(new Parameter(function, "work")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+
+        String mapperName = mapper.getType().getShortName();
+        method.addBodyLine("return CompletableFuture.supplyAsync(() -> {"); //$NON-NLS-1$
+        method.addBodyLine("try (SqlSession session = sqlSessionFactory.openSession()) {"); //$NON-NLS-1$
+        method.addBodyLine(String.format("T result = work.apply(session.getMapper(%s.class));", //$NON-NLS-1$
+                mapperName));
+        method.addBodyLine("session.commit();"); //$NON-NLS-1$
+        method.addBodyLine("return result;"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("}, executor);"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+    }
+
+    protected void addAsyncMethod(TopLevelClass topLevelClass, Method mapperMethod) {
+        FullyQualifiedJavaType resultType;
+        boolean isVoid = mapperMethod.getReturnType() == null;
+        if (isVoid) {
+            resultType = new FullyQualifiedJavaType("java.lang.Void"); //$NON-NLS-1$
+        } else if (mapperMethod.getReturnType().isPrimitive()) {
+            resultType = mapperMethod.getReturnType().getPrimitiveTypeWrapper();
+        } else {
+            resultType = mapperMethod.getReturnType();
+            addImportedTypes(topLevelClass, resultType);
+        }
+
+        FullyQualifiedJavaType returnType = new FullyQualifiedJavaType(
+                COMPLETABLE_FUTURE.getFullyQualifiedName());
+        returnType.addTypeArgument(resultType);
+
+        Method method = new Method(mapperMethod.getName());
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(returnType);
+        for (TypeParameter typeParameter : mapperMethod.getTypeParameters()) {
+            method.addTypeParameter(typeParameter);
+        }
+
+        StringBuilder arguments = new StringBuilder();
+        for (Parameter parameter : mapperMethod.getParameters()) {
+            method.addParameter(new Parameter(parameter.getType(),
+                    parameter.getName(), parameter.isVarargs()));
+            addImportedTypes(topLevelClass, parameter.getType());
+            if (arguments.length() > 0) {
+                arguments.append(", "); //$NON-NLS-1$
+            }
+            arguments.append(parameter.getName());
+        }
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+
+        StringBuilder call = new StringBuilder();
+        call.append("session.getMapper("); //$NON-NLS-1$
+        call.append(mapper.getType().getShortName());
+        call.append(".class)."); //$NON-NLS-1$
+        call.append(mapperMethod.getName());
+        call.append('(');
+        call.append(arguments);
+        call.append(')');
+
+        if (isVoid) {
+            method.addBodyLine("return CompletableFuture.runAsync(() -> {"); //$NON-NLS-1$
+            method.addBodyLine("try (SqlSession session = sqlSessionFactory.openSession()) {"); //$NON-NLS-1$
+            method.addBodyLine(call.toString() + ';');
+            method.addBodyLine("session.commit();"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            method.addBodyLine("}, executor);"); //$NON-NLS-1$
+        } else {
+            method.addBodyLine("return CompletableFuture.supplyAsync(() -> {"); //$NON-NLS-1$
+            method.addBodyLine("try (SqlSession session = sqlSessionFactory.openSession()) {"); //$NON-NLS-1$
+            method.addBodyLine(String.format("%s result = %s;", //$NON-NLS-1$
+                    resultType.getShortName(), call));
+            method.addBodyLine("session.commit();"); //$NON-NLS-1$
+            method.addBodyLine("return result;"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            method.addBodyLine("}, executor);"); //$NON-NLS-1$
+        }
+
+        topLevelClass.addMethod(method);
+    }
+
+    private void addImportedTypes(TopLevelClass topLevelClass, FullyQualifiedJavaType type) {
+        topLevelClass.addImportedType(type.getFullyQualifiedNameWithoutTypeParameters());
+        for (FullyQualifiedJavaType typeArgument : type.getTypeArguments()) {
+            addImportedTypes(topLevelClass, typeArgument);
+        }
+    }
+
+    private boolean isCursor(FullyQualifiedJavaType type) {
+        return type != null
+                && CURSOR.equals(type.getFullyQualifiedNameWithoutTypeParameters());
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.mybatis.generator.codegen.mybatis3.javamapper;
 
+import static org.mybatis.generator.internal.util.StringUtility.isTrue;
 import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
 import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
@@ -22,12 +23,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.mybatis.generator.api.CommentGenerator;
+import org.mybatis.generator.api.IntrospectedForeignKey;
 import org.mybatis.generator.api.dom.java.CompilationUnit;
 import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
 import org.mybatis.generator.api.dom.java.Interface;
 import org.mybatis.generator.api.dom.java.JavaVisibility;
 import org.mybatis.generator.codegen.AbstractJavaClientGenerator;
 import org.mybatis.generator.codegen.AbstractXmlGenerator;
+import org.mybatis.generator.codegen.mybatis3.JoinFetchUtilities;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.AbstractJavaMapperMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.CountByExampleMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.DeleteByExampleMethodGenerator;
@@ -37,9 +40,11 @@ import org.mybatis.generator.codegen.mybatis3.javamapper.elements.InsertSelectiv
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.SelectByExampleWithBLOBsMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.SelectByExampleWithoutBLOBsMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.SelectByPrimaryKeyMethodGenerator;
+import org.mybatis.generator.codegen.mybatis3.javamapper.elements.SelectWithJoinByExampleMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.UpdateByExampleSelectiveMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.UpdateByExampleWithBLOBsMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.UpdateByExampleWithoutBLOBsMethodGenerator;
+import org.mybatis.generator.codegen.mybatis3.javamapper.elements.UpdateByPrimaryKeyDirtyMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.UpdateByPrimaryKeySelectiveMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.UpdateByPrimaryKeyWithBLOBsMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.UpdateByPrimaryKeyWithoutBLOBsMethodGenerator;
@@ -101,13 +106,20 @@ public class JavaMapperGenerator extends AbstractJavaClientGenerator {
         addUpdateByExampleWithBLOBsMethod(interfaze);
         addUpdateByExampleWithoutBLOBsMethod(interfaze);
         addUpdateByPrimaryKeySelectiveMethod(interfaze);
+        addUpdateByPrimaryKeyDirtyMethod(interfaze);
         addUpdateByPrimaryKeyWithBLOBsMethod(interfaze);
         addUpdateByPrimaryKeyWithoutBLOBsMethod(interfaze);
+        addJoinFetchMethods(interfaze);
 
         List<CompilationUnit> answer = new ArrayList<CompilationUnit>();
         if (context.getPlugins().clientGenerated(interfaze, null,
                 introspectedTable)) {
             answer.add(interfaze);
+
+            if (isTrue(context.getJavaClientGeneratorConfiguration()
+                    .getProperty(PropertyRegistry.CLIENT_GENERATE_ASYNC_FACADE))) {
+                answer.addAll(getAsyncFacadeCompilationUnits(interfaze));
+            }
         }
         
         List<CompilationUnit> extraCompilationUnits = getExtraCompilationUnits();
@@ -118,6 +130,15 @@ public class JavaMapperGenerator extends AbstractJavaClientGenerator {
         return answer;
     }
 
+    protected List<CompilationUnit> getAsyncFacadeCompilationUnits(Interface interfaze) {
+        AsyncFacadeGenerator asyncFacadeGenerator = new AsyncFacadeGenerator(interfaze);
+        asyncFacadeGenerator.setContext(context);
+        asyncFacadeGenerator.setIntrospectedTable(introspectedTable);
+        asyncFacadeGenerator.setProgressCallback(progressCallback);
+        asyncFacadeGenerator.setWarnings(warnings);
+        return asyncFacadeGenerator.getCompilationUnits();
+    }
+
     protected void addCountByExampleMethod(Interface interfaze) {
         if (introspectedTable.getRules().generateCountByExample()) {
             AbstractJavaMapperMethodGenerator methodGenerator = new CountByExampleMethodGenerator();
@@ -202,6 +223,13 @@ public class JavaMapperGenerator extends AbstractJavaClientGenerator {
         }
     }
 
+    protected void addUpdateByPrimaryKeyDirtyMethod(Interface interfaze) {
+        if (introspectedTable.getRules().generateUpdateByPrimaryKeyDirty()) {
+            AbstractJavaMapperMethodGenerator methodGenerator = new UpdateByPrimaryKeyDirtyMethodGenerator();
+            initializeAndExecuteGenerator(methodGenerator, interfaze);
+        }
+    }
+
     protected void addUpdateByPrimaryKeyWithBLOBsMethod(Interface interfaze) {
         if (introspectedTable.getRules().generateUpdateByPrimaryKeyWithBLOBs()) {
             AbstractJavaMapperMethodGenerator methodGenerator = new UpdateByPrimaryKeyWithBLOBsMethodGenerator();
@@ -217,6 +245,20 @@ public class JavaMapperGenerator extends AbstractJavaClientGenerator {
         }
     }
 
+    protected void addJoinFetchMethods(Interface interfaze) {
+        for (IntrospectedForeignKey foreignKey : JoinFetchUtilities.getParentKeys(
+                introspectedTable, null)) {
+            initializeAndExecuteGenerator(new SelectWithJoinByExampleMethodGenerator(
+                    foreignKey, true), interfaze);
+        }
+
+        for (IntrospectedForeignKey foreignKey : JoinFetchUtilities.getChildKeys(
+                introspectedTable, null)) {
+            initializeAndExecuteGenerator(new SelectWithJoinByExampleMethodGenerator(
+                    foreignKey, false), interfaze);
+        }
+    }
+
     protected void initializeAndExecuteGenerator(
             AbstractJavaMapperMethodGenerator methodGenerator,
             Interface interfaze) {
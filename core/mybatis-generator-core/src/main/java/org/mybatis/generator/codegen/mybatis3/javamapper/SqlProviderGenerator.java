@@ -36,6 +36,7 @@ import org.mybatis.generator.codegen.mybatis3.javamapper.elements.sqlprovider.Pr
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.sqlprovider.ProviderUpdateByExampleSelectiveMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.sqlprovider.ProviderUpdateByExampleWithBLOBsMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.sqlprovider.ProviderUpdateByExampleWithoutBLOBsMethodGenerator;
+import org.mybatis.generator.codegen.mybatis3.javamapper.elements.sqlprovider.ProviderUpdateByPrimaryKeyDirtyMethodGenerator;
 import org.mybatis.generator.codegen.mybatis3.javamapper.elements.sqlprovider.ProviderUpdateByPrimaryKeySelectiveMethodGenerator;
 
 /**
@@ -46,10 +47,17 @@ import org.mybatis.generator.codegen.mybatis3.javamapper.elements.sqlprovider.Pr
 public class SqlProviderGenerator extends AbstractJavaGenerator {
 
 	private boolean useLegacyBuilder;
+
+    private boolean usePrecomputedSql;
 	
     public SqlProviderGenerator(boolean useLegacyBuilder) {
+        this(useLegacyBuilder, false);
+    }
+
+    public SqlProviderGenerator(boolean useLegacyBuilder, boolean usePrecomputedSql) {
         super();
         this.useLegacyBuilder = useLegacyBuilder;
+        this.usePrecomputedSql = usePrecomputedSql;
     }
 
     @Override
@@ -74,6 +82,7 @@ public class SqlProviderGenerator extends AbstractJavaGenerator {
         addApplyWhereMethod |= addUpdateByExampleWithBLOBsMethod(topLevelClass);
         addApplyWhereMethod |= addUpdateByExampleWithoutBLOBsMethod(topLevelClass);
         addUpdateByPrimaryKeySelectiveMethod(topLevelClass);
+        addUpdateByPrimaryKeyDirtyMethod(topLevelClass);
 
         if (addApplyWhereMethod) {
             addApplyWhereMethod(topLevelClass);
@@ -113,7 +122,7 @@ public class SqlProviderGenerator extends AbstractJavaGenerator {
 
     protected void addInsertSelectiveMethod(TopLevelClass topLevelClass) {
         if (introspectedTable.getRules().generateInsertSelective()) {
-            AbstractJavaProviderMethodGenerator methodGenerator = new ProviderInsertSelectiveMethodGenerator(useLegacyBuilder);
+            AbstractJavaProviderMethodGenerator methodGenerator = new ProviderInsertSelectiveMethodGenerator(useLegacyBuilder, usePrecomputedSql);
             initializeAndExecuteGenerator(methodGenerator, topLevelClass);
         }
     }
@@ -181,13 +190,21 @@ public class SqlProviderGenerator extends AbstractJavaGenerator {
     protected void addUpdateByPrimaryKeySelectiveMethod(
             TopLevelClass topLevelClass) {
         if (introspectedTable.getRules().generateUpdateByPrimaryKeySelective()) {
-            AbstractJavaProviderMethodGenerator methodGenerator = new ProviderUpdateByPrimaryKeySelectiveMethodGenerator(useLegacyBuilder);
+            AbstractJavaProviderMethodGenerator methodGenerator = new ProviderUpdateByPrimaryKeySelectiveMethodGenerator(useLegacyBuilder, usePrecomputedSql);
+            initializeAndExecuteGenerator(methodGenerator, topLevelClass);
+        }
+    }
+
+    protected void addUpdateByPrimaryKeyDirtyMethod(
+            TopLevelClass topLevelClass) {
+        if (introspectedTable.getRules().generateUpdateByPrimaryKeyDirty()) {
+            AbstractJavaProviderMethodGenerator methodGenerator = new ProviderUpdateByPrimaryKeyDirtyMethodGenerator(useLegacyBuilder, usePrecomputedSql);
             initializeAndExecuteGenerator(methodGenerator, topLevelClass);
         }
     }
 
     protected void addApplyWhereMethod(TopLevelClass topLevelClass) {
-        AbstractJavaProviderMethodGenerator methodGenerator = new ProviderApplyWhereMethodGenerator(useLegacyBuilder);
+        AbstractJavaProviderMethodGenerator methodGenerator = new ProviderApplyWhereMethodGenerator(useLegacyBuilder, usePrecomputedSql);
         initializeAndExecuteGenerator(methodGenerator, topLevelClass);
     }
 
@@ -0,0 +1,88 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.codegen.mybatis3.javamapper.elements;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.mybatis.generator.api.IntrospectedForeignKey;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.codegen.mybatis3.JoinFetchUtilities;
+
+/**
+ * Generates the method for a select by example that fetches the parent record
+ * of a foreign key, or the child records, with a join.
+ */
+public class SelectWithJoinByExampleMethodGenerator extends
+        AbstractJavaMapperMethodGenerator {
+
+    private IntrospectedForeignKey foreignKey;
+
+    private boolean parent;
+
+    /**
+     * @param foreignKey
+     *            the foreign key of the join
+     * @param parent
+     *            true if the parent record of the foreign key is fetched,
+     *            false if the child records are fetched
+     */
+    public SelectWithJoinByExampleMethodGenerator(
+            IntrospectedForeignKey foreignKey, boolean parent) {
+        super();
+        this.foreignKey = foreignKey;
+        this.parent = parent;
+    }
+
+    @Override
+    public void addInterfaceElements(Interface interfaze) {
+        Set<FullyQualifiedJavaType> importedTypes = new TreeSet<FullyQualifiedJavaType>();
+        FullyQualifiedJavaType type = new FullyQualifiedJavaType(
+                introspectedTable.getExampleType());
+        importedTypes.add(type);
+        importedTypes.add(FullyQualifiedJavaType.getNewListInstance());
+
+        Method method = new Method();
+        method.setVisibility(JavaVisibility.PUBLIC);
+
+        FullyQualifiedJavaType returnType = FullyQualifiedJavaType
+                .getNewListInstance();
+        FullyQualifiedJavaType listType = introspectedTable.getRules()
+                .calculateAllFieldsClass();
+        importedTypes.add(listType);
+        returnType.addTypeArgument(listType);
+        method.setReturnType(returnType);
+
+        String property = parent ? JoinFetchUtilities.getParentPropertyName(foreignKey)
+                : JoinFetchUtilities.getChildPropertyName(foreignKey);
+        method.setName(JoinFetchUtilities.getStatementId(property));
+        method.addParameter(new Parameter(type, "example")); //$NON-NLS-1$
+
+        context.getCommentGenerator().addGeneralMethodComment(method,
+                introspectedTable);
+
+        if (context.getPlugins()
+                .clientSelectWithJoinByExampleMethodGenerated(method,
+                        interfaze, introspectedTable, foreignKey)) {
+            interfaze.addImportedTypes(importedTypes);
+            interfaze.addMethod(method);
+        }
+    }
+}
@@ -15,7 +15,10 @@
  */
 package org.mybatis.generator.codegen.mybatis3.javamapper.elements.sqlprovider;
 
+import org.mybatis.generator.api.dom.java.Field;
 import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 import org.mybatis.generator.codegen.AbstractGenerator;
 
@@ -27,12 +30,27 @@ public abstract class AbstractJavaProviderMethodGenerator extends
         AbstractGenerator {
 
     protected static final FullyQualifiedJavaType NEW_BUILDER_IMPORT = new FullyQualifiedJavaType("org.apache.ibatis.jdbc.SQL"); //$NON-NLS-1$
+    protected static final FullyQualifiedJavaType SQL_CACHE_IMPORT = new FullyQualifiedJavaType("java.util.concurrent.ConcurrentMap"); //$NON-NLS-1$
+    protected static final FullyQualifiedJavaType SQL_CACHE_IMPL_IMPORT = new FullyQualifiedJavaType("java.util.concurrent.ConcurrentHashMap"); //$NON-NLS-1$
+
+    /**
+     * The null column bitmask of precomputed statements is a long, so tables with
+     * more columns fall back to the SQL builder.
+     */
+    protected static final int MAX_PRECOMPUTED_COLUMNS = 64;
+
     protected boolean useLegacyBuilder;
+    protected boolean usePrecomputedSql;
     protected final String builderPrefix;
     
     public AbstractJavaProviderMethodGenerator(boolean useLegacyBuilder) {
+        this(useLegacyBuilder, false);
+    }
+
+    public AbstractJavaProviderMethodGenerator(boolean useLegacyBuilder, boolean usePrecomputedSql) {
         super();
         this.useLegacyBuilder = useLegacyBuilder;
+        this.usePrecomputedSql = usePrecomputedSql;
         if (useLegacyBuilder) {
         	builderPrefix = ""; //$NON-NLS-1$
         } else {
@@ -41,4 +59,55 @@ public abstract class AbstractJavaProviderMethodGenerator extends
     }
     
     public abstract void addClassElements(TopLevelClass topLevelClass);
+
+    /**
+     * Returns the literal of the mask bit for the column at the specified index.
+     */
+    protected String getColumnBit(int index) {
+        return "0x" + Long.toHexString(1L << index) + "L"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Returns the static field caching the SQL of the statement by null column
+     * bitmask, for example <code>INSERT_SELECTIVE_SQL</code> for the
+     * <code>insertSelective</code> statement.
+     */
+    protected Field getSqlCacheField(String statementId) {
+        FullyQualifiedJavaType cacheType = new FullyQualifiedJavaType(
+                "java.util.concurrent.ConcurrentMap<java.lang.Long, java.lang.String>"); //$NON-NLS-1$
+        Field field = new Field(getSqlCacheFieldName(statementId), cacheType);
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setStatic(true);
+        field.setFinal(true);
+        field.setInitializationString("new ConcurrentHashMap<Long, String>()"); //$NON-NLS-1$
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        return field;
+    }
+
+    /**
+     * Adds the lines that return the cached SQL for the <code>mask</code>
+     * variable, building the SQL with the specified method on the first call.
+     */
+    protected void addSqlCacheLookupLines(Method method, String statementId, String buildMethodName) {
+        String cacheName = getSqlCacheFieldName(statementId);
+        method.addBodyLine(String.format("String sql = %s.get(mask);", cacheName)); //$NON-NLS-1$
+        method.addBodyLine("if (sql == null) {"); //$NON-NLS-1$
+        method.addBodyLine(String.format("sql = %s(mask);", buildMethodName)); //$NON-NLS-1$
+        method.addBodyLine(String.format("%s.putIfAbsent(mask, sql);", cacheName)); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("return sql;"); //$NON-NLS-1$
+    }
+
+    private String getSqlCacheFieldName(String statementId) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < statementId.length(); i++) {
+            char c = statementId.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                sb.append('_');
+            }
+            sb.append(Character.toUpperCase(c));
+        }
+        sb.append("_SQL"); //$NON-NLS-1$
+        return sb.toString();
+    }
 }
@@ -117,6 +117,81 @@ public class ProviderApplyWhereMethodGenerator extends
         "" //$NON-NLS-1$
     };
     
+    /**
+     * Appends the parameter phrases piece by piece instead of formatting them, so
+     * no format strings are parsed when the where clause is built.
+     */
+    private static final String[] PRECOMPUTED_BEGINNING_METHOD_LINES = {
+        "if (example == null) {", //$NON-NLS-1$
+        "return;", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "", //$NON-NLS-1$
+        "String parmPrefix = includeExamplePhrase ? \"#{example.oredCriteria[\" : \"#{oredCriteria[\";", //$NON-NLS-1$
+        "", //$NON-NLS-1$
+        "StringBuilder sb = new StringBuilder();", //$NON-NLS-1$
+        "List<Criteria> oredCriteria = example.getOredCriteria();", //$NON-NLS-1$
+        "boolean firstCriteria = true;", //$NON-NLS-1$
+        "for (int i = 0; i < oredCriteria.size(); i++) {", //$NON-NLS-1$
+        "Criteria criteria = oredCriteria.get(i);", //$NON-NLS-1$
+        "if (criteria.isValid()) {", //$NON-NLS-1$
+        "if (firstCriteria) {", //$NON-NLS-1$
+        "firstCriteria = false;", //$NON-NLS-1$
+        "} else {", //$NON-NLS-1$
+        "sb.append(\" or \");", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "", //$NON-NLS-1$
+        "sb.append('(');", //$NON-NLS-1$
+        "List<Criterion> criterions = criteria.getAllCriteria();", //$NON-NLS-1$
+        "boolean firstCriterion = true;", //$NON-NLS-1$
+        "for (int j = 0; j < criterions.size(); j++) {", //$NON-NLS-1$
+        "Criterion criterion = criterions.get(j);", //$NON-NLS-1$
+        "if (firstCriterion) {", //$NON-NLS-1$
+        "firstCriterion = false;", //$NON-NLS-1$
+        "} else {", //$NON-NLS-1$
+        "sb.append(\" and \");", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "", //$NON-NLS-1$
+        "String typeHandler = criterion.getTypeHandler();", //$NON-NLS-1$
+        "if (criterion.isNoValue()) {", //$NON-NLS-1$
+        "sb.append(criterion.getCondition());", //$NON-NLS-1$
+        "} else if (criterion.isSingleValue() || criterion.isBetweenValue()) {", //$NON-NLS-1$
+        "sb.append(criterion.getCondition()).append(' ');", //$NON-NLS-1$
+        "sb.append(parmPrefix).append(i).append(\"].allCriteria[\").append(j).append(\"].value\");", //$NON-NLS-1$
+        "if (typeHandler != null) {", //$NON-NLS-1$
+        "sb.append(\",typeHandler=\").append(typeHandler);", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "sb.append('}');", //$NON-NLS-1$
+        "if (criterion.isBetweenValue()) {", //$NON-NLS-1$
+        "sb.append(\" and \");", //$NON-NLS-1$
+        "sb.append(parmPrefix).append(i).append(\"].criteria[\").append(j).append(\"].secondValue\");", //$NON-NLS-1$
+        "if (typeHandler != null) {", //$NON-NLS-1$
+        "sb.append(\",typeHandler=\").append(typeHandler);", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "sb.append('}');", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "} else if (criterion.isListValue()) {", //$NON-NLS-1$
+        "sb.append(criterion.getCondition());", //$NON-NLS-1$
+        "sb.append(\" (\");", //$NON-NLS-1$
+        "List<?> listItems = (List<?>) criterion.getValue();", //$NON-NLS-1$
+        "for (int k = 0; k < listItems.size(); k++) {", //$NON-NLS-1$
+        "if (k > 0) {", //$NON-NLS-1$
+        "sb.append(\", \");", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "sb.append(parmPrefix).append(i).append(\"].allCriteria[\").append(j).append(\"].value[\").append(k).append(']');", //$NON-NLS-1$
+        "if (typeHandler != null) {", //$NON-NLS-1$
+        "sb.append(\",typeHandler=\").append(typeHandler);", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "sb.append('}');", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "sb.append(')');", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "sb.append(')');", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "}", //$NON-NLS-1$
+        "" //$NON-NLS-1$
+    };
+
     private static final String[] LEGACY_ENDING_METHOD_LINES = {
         "if (sb.length() > 0) {", //$NON-NLS-1$
         "WHERE(sb.toString());", //$NON-NLS-1$
@@ -133,6 +208,10 @@ public class ProviderApplyWhereMethodGenerator extends
         super(useLegacyBuilder);
     }
 
+    public ProviderApplyWhereMethodGenerator(boolean useLegacyBuilder, boolean usePrecomputedSql) {
+        super(useLegacyBuilder, usePrecomputedSql);
+    }
+
     @Override
     public void addClassElements(TopLevelClass topLevelClass) {
         Set<String> staticImports = new TreeSet<String>();
@@ -165,7 +244,7 @@ public class ProviderApplyWhereMethodGenerator extends
         context.getCommentGenerator().addGeneralMethodComment(method,
                 introspectedTable);
         
-        for (String methodLine : BEGINNING_METHOD_LINES) {
+        for (String methodLine : usePrecomputedSql ? PRECOMPUTED_BEGINNING_METHOD_LINES : BEGINNING_METHOD_LINES) {
             method.addBodyLine(methodLine);
         }
         
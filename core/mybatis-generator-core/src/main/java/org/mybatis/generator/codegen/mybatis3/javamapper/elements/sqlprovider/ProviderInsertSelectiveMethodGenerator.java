@@ -20,6 +20,7 @@ import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities
 import static org.mybatis.generator.internal.util.JavaBeansUtil.getGetterMethodName;
 import static org.mybatis.generator.internal.util.StringUtility.escapeStringForJava;
 
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -43,8 +44,18 @@ public class ProviderInsertSelectiveMethodGenerator extends
         super(useLegacyBuilder);
     }
 
+    public ProviderInsertSelectiveMethodGenerator(boolean useLegacyBuilder, boolean usePrecomputedSql) {
+        super(useLegacyBuilder, usePrecomputedSql);
+    }
+
     @Override
     public void addClassElements(TopLevelClass topLevelClass) {
+        List<IntrospectedColumn> columns = ListUtilities.removeIdentityAndGeneratedAlwaysColumns(introspectedTable.getAllColumns());
+        if (usePrecomputedSql && columns.size() <= MAX_PRECOMPUTED_COLUMNS) {
+            addPrecomputedClassElements(topLevelClass, columns);
+            return;
+        }
+
         Set<String> staticImports = new TreeSet<String>();
         Set<FullyQualifiedJavaType> importedTypes = new TreeSet<FullyQualifiedJavaType>();
         
@@ -80,7 +91,7 @@ public class ProviderInsertSelectiveMethodGenerator extends
                 builderPrefix,
     			escapeStringForJava(introspectedTable.getFullyQualifiedTableNameAtRuntime())));
     	
-        for (IntrospectedColumn introspectedColumn : ListUtilities.removeIdentityAndGeneratedAlwaysColumns(introspectedTable.getAllColumns())) {
+        for (IntrospectedColumn introspectedColumn : columns) {
             
             method.addBodyLine(""); //$NON-NLS-1$
             if (!introspectedColumn.getFullyQualifiedJavaType().isPrimitive()
@@ -114,4 +125,87 @@ public class ProviderInsertSelectiveMethodGenerator extends
             topLevelClass.addMethod(method);
         }
     }
+
+    /**
+     * Generates a method that caches the statement for each combination of null
+     * columns, so the SQL is only built once per combination.
+     */
+    private void addPrecomputedClassElements(TopLevelClass topLevelClass,
+            List<IntrospectedColumn> columns) {
+        Set<FullyQualifiedJavaType> importedTypes = new TreeSet<FullyQualifiedJavaType>();
+        importedTypes.add(SQL_CACHE_IMPORT);
+        importedTypes.add(SQL_CACHE_IMPL_IMPORT);
+
+        FullyQualifiedJavaType fqjt = introspectedTable.getRules()
+            .calculateAllFieldsClass();
+        importedTypes.add(fqjt);
+
+        String statementId = introspectedTable.getInsertSelectiveStatementId();
+        String buildMethodName = "build" + Character.toUpperCase(statementId.charAt(0)) //$NON-NLS-1$
+                + statementId.substring(1) + "Sql"; //$NON-NLS-1$
+
+        Method method = new Method(statementId);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(FullyQualifiedJavaType.getStringInstance());
+        method.addParameter(new Parameter(fqjt, "record")); //$NON-NLS-1$
+
+        context.getCommentGenerator().addGeneralMethodComment(method,
+                introspectedTable);
+
+        Method buildMethod = new Method(buildMethodName);
+        buildMethod.setVisibility(JavaVisibility.PRIVATE);
+        buildMethod.setStatic(true);
+        buildMethod.setReturnType(FullyQualifiedJavaType.getStringInstance());
+        buildMethod.addParameter(new Parameter(new FullyQualifiedJavaType("long"), "mask")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        context.getCommentGenerator().addGeneralMethodComment(buildMethod,
+                introspectedTable);
+
+        buildMethod.addBodyLine("StringBuilder columns = new StringBuilder();"); //$NON-NLS-1$
+        buildMethod.addBodyLine("StringBuilder values = new StringBuilder();"); //$NON-NLS-1$
+
+        long alwaysInserted = 0L;
+        for (int i = 0; i < columns.size(); i++) {
+            IntrospectedColumn introspectedColumn = columns.get(i);
+            String bit = getColumnBit(i);
+
+            if (introspectedColumn.getFullyQualifiedJavaType().isPrimitive()
+                    || introspectedColumn.isSequenceColumn()) {
+                alwaysInserted |= 1L << i;
+            } else {
+                method.addBodyLine(String.format("if (record.%s() != null) {", //$NON-NLS-1$
+                    getGetterMethodName(introspectedColumn.getJavaProperty(),
+                            introspectedColumn.getFullyQualifiedJavaType())));
+                method.addBodyLine(String.format("mask |= %s;", bit)); //$NON-NLS-1$
+                method.addBodyLine("}"); //$NON-NLS-1$
+            }
+
+            buildMethod.addBodyLine(""); //$NON-NLS-1$
+            buildMethod.addBodyLine(String.format("if ((mask & %s) != 0) {", bit)); //$NON-NLS-1$
+            buildMethod.addBodyLine(String.format("columns.append(\"%s, \");", //$NON-NLS-1$
+                    escapeStringForJava(getEscapedColumnName(introspectedColumn))));
+            buildMethod.addBodyLine(String.format("values.append(\"%s, \");", //$NON-NLS-1$
+                    getParameterClause(introspectedColumn)));
+            buildMethod.addBodyLine("}"); //$NON-NLS-1$
+        }
+
+        method.getBodyLines().add(0, String.format("long mask = 0x%sL;", //$NON-NLS-1$
+                Long.toHexString(alwaysInserted)));
+        method.addBodyLine(""); //$NON-NLS-1$
+        addSqlCacheLookupLines(method, statementId, buildMethodName);
+
+        buildMethod.addBodyLine(""); //$NON-NLS-1$
+        buildMethod.addBodyLine("columns.setLength(Math.max(0, columns.length() - 2));"); //$NON-NLS-1$
+        buildMethod.addBodyLine("values.setLength(Math.max(0, values.length() - 2));"); //$NON-NLS-1$
+        buildMethod.addBodyLine(String.format("return \"insert into %s (\" + columns + \") values (\" + values + ')';", //$NON-NLS-1$
+                escapeStringForJava(introspectedTable.getFullyQualifiedTableNameAtRuntime())));
+
+        if (context.getPlugins().providerInsertSelectiveMethodGenerated(method, topLevelClass,
+                introspectedTable)) {
+            topLevelClass.addImportedTypes(importedTypes);
+            topLevelClass.addField(getSqlCacheField(statementId));
+            topLevelClass.addMethod(method);
+            topLevelClass.addMethod(buildMethod);
+        }
+    }
 }
@@ -0,0 +1,55 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.codegen.mybatis3.javamapper.elements.sqlprovider;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.codegen.mybatis3.DirtyFieldUtilities;
+
+/**
+ * Generates the provider method for the updateByPrimaryKeyDirty statement.
+ * The statement sets the columns marked dirty by the setters of the record,
+ * whether or not the new values are null.
+ */
+public class ProviderUpdateByPrimaryKeyDirtyMethodGenerator extends
+        ProviderUpdateByPrimaryKeySelectiveMethodGenerator {
+
+    public ProviderUpdateByPrimaryKeyDirtyMethodGenerator(boolean useLegacyBuilder) {
+        super(useLegacyBuilder);
+    }
+
+    public ProviderUpdateByPrimaryKeyDirtyMethodGenerator(boolean useLegacyBuilder, boolean usePrecomputedSql) {
+        super(useLegacyBuilder, usePrecomputedSql);
+    }
+
+    @Override
+    protected String getStatementId() {
+        return introspectedTable.getUpdateByPrimaryKeyDirtyStatementId();
+    }
+
+    @Override
+    protected String getColumnCondition(IntrospectedColumn introspectedColumn) {
+        return DirtyFieldUtilities.getIsDirtyExpression("record", //$NON-NLS-1$
+                introspectedTable, introspectedColumn);
+    }
+
+    @Override
+    protected boolean isMethodGenerated(Method method, TopLevelClass topLevelClass) {
+        return context.getPlugins().providerUpdateByPrimaryKeyDirtyMethodGenerated(method, topLevelClass,
+                introspectedTable);
+    }
+}
@@ -20,6 +20,7 @@ import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities
 import static org.mybatis.generator.internal.util.JavaBeansUtil.getGetterMethodName;
 import static org.mybatis.generator.internal.util.StringUtility.escapeStringForJava;
 
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -43,8 +44,18 @@ public class ProviderUpdateByPrimaryKeySelectiveMethodGenerator extends
         super(useLegacyBuilder);
     }
 
+    public ProviderUpdateByPrimaryKeySelectiveMethodGenerator(boolean useLegacyBuilder, boolean usePrecomputedSql) {
+        super(useLegacyBuilder, usePrecomputedSql);
+    }
+
     @Override
     public void addClassElements(TopLevelClass topLevelClass) {
+        List<IntrospectedColumn> columns = ListUtilities.removeGeneratedAlwaysColumns(introspectedTable.getNonPrimaryKeyColumns());
+        if (usePrecomputedSql && columns.size() <= MAX_PRECOMPUTED_COLUMNS) {
+            addPrecomputedClassElements(topLevelClass, columns);
+            return;
+        }
+
         Set<String> staticImports = new TreeSet<String>();
         Set<FullyQualifiedJavaType> importedTypes = new TreeSet<FullyQualifiedJavaType>();
 
@@ -61,7 +72,7 @@ public class ProviderUpdateByPrimaryKeySelectiveMethodGenerator extends
         FullyQualifiedJavaType fqjt = introspectedTable.getRules().calculateAllFieldsClass();
         importedTypes.add(fqjt);
         
-        Method method = new Method(introspectedTable.getUpdateByPrimaryKeySelectiveStatementId());
+        Method method = new Method(getStatementId());
         method.setReturnType(FullyQualifiedJavaType.getStringInstance());
         method.setVisibility(JavaVisibility.PUBLIC);
         method.addParameter(new Parameter(fqjt, "record")); //$NON-NLS-1$
@@ -80,11 +91,10 @@ public class ProviderUpdateByPrimaryKeySelectiveMethodGenerator extends
         		escapeStringForJava(introspectedTable.getFullyQualifiedTableNameAtRuntime())));
         method.addBodyLine(""); //$NON-NLS-1$
         
-        for (IntrospectedColumn introspectedColumn : ListUtilities.removeGeneratedAlwaysColumns(introspectedTable.getNonPrimaryKeyColumns())) {
-            if (!introspectedColumn.getFullyQualifiedJavaType().isPrimitive()) {
-                method.addBodyLine(String.format("if (record.%s() != null) {", //$NON-NLS-1$
-                    getGetterMethodName(introspectedColumn.getJavaProperty(),
-                            introspectedColumn.getFullyQualifiedJavaType())));
+        for (IntrospectedColumn introspectedColumn : columns) {
+            String condition = getColumnCondition(introspectedColumn);
+            if (condition != null) {
+                method.addBodyLine(String.format("if (%s) {", condition)); //$NON-NLS-1$
             }
 
             method.addBodyLine(String.format("%sSET(\"%s = %s\");", //$NON-NLS-1$
@@ -92,7 +102,7 @@ public class ProviderUpdateByPrimaryKeySelectiveMethodGenerator extends
             		escapeStringForJava(getEscapedColumnName(introspectedColumn)),
                     getParameterClause(introspectedColumn)));
                 
-            if (!introspectedColumn.getFullyQualifiedJavaType().isPrimitive()) {
+            if (condition != null) {
                 method.addBodyLine("}"); //$NON-NLS-1$
             }
 
@@ -114,11 +124,118 @@ public class ProviderUpdateByPrimaryKeySelectiveMethodGenerator extends
         	method.addBodyLine("return sql.toString();"); //$NON-NLS-1$
         }
 
-        if (context.getPlugins().providerUpdateByPrimaryKeySelectiveMethodGenerated(method, topLevelClass,
-                introspectedTable)) {
+        if (isMethodGenerated(method, topLevelClass)) {
             topLevelClass.addStaticImports(staticImports);
             topLevelClass.addImportedTypes(importedTypes);
             topLevelClass.addMethod(method);
         }
     }
+
+    /**
+     * Generates a method that caches the statement for each combination of set
+     * columns, so the SQL is only built once per combination.
+     */
+    private void addPrecomputedClassElements(TopLevelClass topLevelClass,
+            List<IntrospectedColumn> columns) {
+        Set<FullyQualifiedJavaType> importedTypes = new TreeSet<FullyQualifiedJavaType>();
+        importedTypes.add(SQL_CACHE_IMPORT);
+        importedTypes.add(SQL_CACHE_IMPL_IMPORT);
+
+        FullyQualifiedJavaType fqjt = introspectedTable.getRules().calculateAllFieldsClass();
+        importedTypes.add(fqjt);
+
+        String statementId = getStatementId();
+        String buildMethodName = "build" + Character.toUpperCase(statementId.charAt(0)) //$NON-NLS-1$
+                + statementId.substring(1) + "Sql"; //$NON-NLS-1$
+
+        Method method = new Method(statementId);
+        method.setReturnType(FullyQualifiedJavaType.getStringInstance());
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addParameter(new Parameter(fqjt, "record")); //$NON-NLS-1$
+
+        context.getCommentGenerator().addGeneralMethodComment(method,
+                introspectedTable);
+
+        Method buildMethod = new Method(buildMethodName);
+        buildMethod.setVisibility(JavaVisibility.PRIVATE);
+        buildMethod.setStatic(true);
+        buildMethod.setReturnType(FullyQualifiedJavaType.getStringInstance());
+        buildMethod.addParameter(new Parameter(new FullyQualifiedJavaType("long"), "mask")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        context.getCommentGenerator().addGeneralMethodComment(buildMethod,
+                introspectedTable);
+
+        buildMethod.addBodyLine("StringBuilder sb = new StringBuilder();"); //$NON-NLS-1$
+
+        long alwaysSet = 0L;
+        for (int i = 0; i < columns.size(); i++) {
+            IntrospectedColumn introspectedColumn = columns.get(i);
+            String bit = getColumnBit(i);
+
+            String condition = getColumnCondition(introspectedColumn);
+            if (condition == null) {
+                alwaysSet |= 1L << i;
+            } else {
+                method.addBodyLine(String.format("if (%s) {", condition)); //$NON-NLS-1$
+                method.addBodyLine(String.format("mask |= %s;", bit)); //$NON-NLS-1$
+                method.addBodyLine("}"); //$NON-NLS-1$
+            }
+
+            buildMethod.addBodyLine(""); //$NON-NLS-1$
+            buildMethod.addBodyLine(String.format("if ((mask & %s) != 0) {", bit)); //$NON-NLS-1$
+            buildMethod.addBodyLine(String.format("sb.append(\"%s = %s, \");", //$NON-NLS-1$
+                    escapeStringForJava(getEscapedColumnName(introspectedColumn)),
+                    getParameterClause(introspectedColumn)));
+            buildMethod.addBodyLine("}"); //$NON-NLS-1$
+        }
+
+        method.getBodyLines().add(0, String.format("long mask = 0x%sL;", //$NON-NLS-1$
+                Long.toHexString(alwaysSet)));
+        method.addBodyLine(""); //$NON-NLS-1$
+        addSqlCacheLookupLines(method, statementId, buildMethodName);
+
+        StringBuilder where = new StringBuilder();
+        for (IntrospectedColumn introspectedColumn : introspectedTable.getPrimaryKeyColumns()) {
+            where.append(where.length() == 0 ? " where " : " and "); //$NON-NLS-1$ //$NON-NLS-2$
+            where.append(escapeStringForJava(getEscapedColumnName(introspectedColumn)));
+            where.append(" = "); //$NON-NLS-1$
+            where.append(getParameterClause(introspectedColumn));
+        }
+
+        buildMethod.addBodyLine(""); //$NON-NLS-1$
+        buildMethod.addBodyLine("sb.setLength(Math.max(0, sb.length() - 2));"); //$NON-NLS-1$
+        buildMethod.addBodyLine(String.format("return \"update %s set \" + sb + \"%s\";", //$NON-NLS-1$
+                escapeStringForJava(introspectedTable.getFullyQualifiedTableNameAtRuntime()),
+                where.toString()));
+
+        if (isMethodGenerated(method, topLevelClass)) {
+            topLevelClass.addImportedTypes(importedTypes);
+            topLevelClass.addField(getSqlCacheField(statementId));
+            topLevelClass.addMethod(method);
+            topLevelClass.addMethod(buildMethod);
+        }
+    }
+
+    protected String getStatementId() {
+        return introspectedTable.getUpdateByPrimaryKeySelectiveStatementId();
+    }
+
+    /**
+     * Returns the condition under which the column is set, or null if the
+     * column is always set.
+     */
+    protected String getColumnCondition(IntrospectedColumn introspectedColumn) {
+        if (introspectedColumn.getFullyQualifiedJavaType().isPrimitive()) {
+            return null;
+        }
+
+        return String.format("record.%s() != null", //$NON-NLS-1$
+                getGetterMethodName(introspectedColumn.getJavaProperty(),
+                        introspectedColumn.getFullyQualifiedJavaType()));
+    }
+
+    protected boolean isMethodGenerated(Method method, TopLevelClass topLevelClass) {
+        return context.getPlugins().providerUpdateByPrimaryKeySelectiveMethodGenerated(method, topLevelClass,
+                introspectedTable);
+    }
 }
@@ -36,6 +36,9 @@ import org.mybatis.generator.api.dom.java.Parameter;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 import org.mybatis.generator.codegen.AbstractJavaGenerator;
 import org.mybatis.generator.codegen.RootClassInfo;
+import org.mybatis.generator.codegen.mybatis3.DirtyFieldUtilities;
+import org.mybatis.generator.codegen.mybatis3.JoinFetchUtilities;
+import org.mybatis.generator.codegen.mybatis3.NullMaskUtilities;
 
 /**
  * 
@@ -79,6 +82,19 @@ public class BaseRecordGenerator extends AbstractJavaGenerator {
             }
         }
         
+        if (introspectedTable.isTrackDirtyFields()
+                && DirtyFieldUtilities.isDirtyMaskClass(introspectedTable,
+                        Plugin.ModelClassType.BASE_RECORD)) {
+            DirtyFieldUtilities.addDirtyMaskElements(topLevelClass,
+                    introspectedTable, context);
+        }
+
+        if (NullMaskUtilities.isNullMaskClass(introspectedTable,
+                Plugin.ModelClassType.BASE_RECORD)) {
+            NullMaskUtilities.addNullMaskElements(topLevelClass,
+                    introspectedTable, context);
+        }
+
         String rootClass = getRootClass();
         for (IntrospectedColumn introspectedColumn : introspectedColumns) {
             if (RootClassInfo.getInstance(rootClass, warnings)
@@ -87,6 +103,11 @@ public class BaseRecordGenerator extends AbstractJavaGenerator {
             }
 
             Field field = getJavaBeansField(introspectedColumn, context, introspectedTable);
+            boolean primitive = NullMaskUtilities.isPrimitiveColumn(
+                    introspectedTable, introspectedColumn);
+            if (primitive) {
+                NullMaskUtilities.makeFieldPrimitive(field, introspectedColumn);
+            }
             if (plugins.modelFieldGenerated(field, topLevelClass,
                     introspectedColumn, introspectedTable,
                     Plugin.ModelClassType.BASE_RECORD)) {
@@ -95,6 +116,10 @@ public class BaseRecordGenerator extends AbstractJavaGenerator {
             }
 
             Method method = getJavaBeansGetter(introspectedColumn, context, introspectedTable);
+            if (primitive) {
+                NullMaskUtilities.makeGetterNullAware(method,
+                        introspectedTable, introspectedColumn);
+            }
             if (plugins.modelGetterMethodGenerated(method, topLevelClass,
                     introspectedColumn, introspectedTable,
                     Plugin.ModelClassType.BASE_RECORD)) {
@@ -103,12 +128,31 @@ public class BaseRecordGenerator extends AbstractJavaGenerator {
 
             if (!introspectedTable.isImmutable()) {
                 method = getJavaBeansSetter(introspectedColumn, context, introspectedTable);
+                if (primitive) {
+                    NullMaskUtilities.makeSetterNullAware(method,
+                            introspectedTable, introspectedColumn);
+                }
+                if (introspectedTable.isTrackDirtyFields()) {
+                    DirtyFieldUtilities.addMarkDirtyLine(method,
+                            introspectedTable, introspectedColumn);
+                }
                 if (plugins.modelSetterMethodGenerated(method, topLevelClass,
                         introspectedColumn, introspectedTable,
                         Plugin.ModelClassType.BASE_RECORD)) {
                     topLevelClass.addMethod(method);
                 }
             }
+
+            if (primitive) {
+                NullMaskUtilities.addIsColumnNullMethod(topLevelClass,
+                        introspectedTable, introspectedColumn, context);
+            }
+        }
+
+        if (JoinFetchUtilities.isAllFieldsClass(introspectedTable,
+                Plugin.ModelClassType.BASE_RECORD)) {
+            JoinFetchUtilities.addJoinProperties(topLevelClass,
+                    introspectedTable, context);
         }
 
         List<CompilationUnit> answer = new ArrayList<CompilationUnit>();
@@ -183,13 +227,8 @@ public class BaseRecordGenerator extends AbstractJavaGenerator {
         List<IntrospectedColumn> introspectedColumns = getColumnsInThisClass();
         
         for (IntrospectedColumn introspectedColumn : introspectedColumns) {
-            sb.setLength(0);
-            sb.append("this."); //$NON-NLS-1$
-            sb.append(introspectedColumn.getJavaProperty());
-            sb.append(" = "); //$NON-NLS-1$
-            sb.append(introspectedColumn.getJavaProperty());
-            sb.append(';');
-            method.addBodyLine(sb.toString());
+            NullMaskUtilities.addAssignmentLines(method,
+                    introspectedTable, introspectedColumn);
         }
 
         topLevelClass.addMethod(method);
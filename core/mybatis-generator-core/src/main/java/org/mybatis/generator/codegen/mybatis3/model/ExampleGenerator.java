@@ -55,6 +55,7 @@ public class ExampleGenerator extends AbstractJavaGenerator {
         progressCallback.startTask(getString(
                 "Progress.6", table.toString())); //$NON-NLS-1$
         CommentGenerator commentGenerator = context.getCommentGenerator();
+        checkIndexedColumns();
 
         FullyQualifiedJavaType type = new FullyQualifiedJavaType(
                 introspectedTable.getExampleType());
@@ -207,6 +208,37 @@ public class ExampleGenerator extends AbstractJavaGenerator {
         return answer;
     }
 
+    /**
+     * Adds a warning if the table is large and the Example class has criteria
+     * methods for columns that are not the leading column of an index. The row
+     * count is the estimate returned with the index statistics, so the check is
+     * skipped for databases that do not report it.
+     */
+    private void checkIndexedColumns() {
+        long threshold = context.getUnindexedCriteriaWarningRows();
+        long rowCount = introspectedTable.getEstimatedRowCount();
+        if (threshold < 1 || rowCount < threshold) {
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (IntrospectedColumn introspectedColumn : introspectedTable
+                .getNonBLOBColumns()) {
+            if (!introspectedTable.isIndexedColumn(introspectedColumn)) {
+                if (sb.length() > 0) {
+                    sb.append(", "); //$NON-NLS-1$
+                }
+                sb.append(introspectedColumn.getActualColumnName());
+            }
+        }
+
+        if (sb.length() > 0) {
+            warnings.add(getString("Warning.35", //$NON-NLS-1$
+                    introspectedTable.getFullyQualifiedTable().toString(),
+                    Long.toString(rowCount), sb.toString()));
+        }
+    }
+
     private InnerClass getCriterionInnerClass() {
         Field field;
         Method method;
@@ -36,6 +36,9 @@ import org.mybatis.generator.api.dom.java.Parameter;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 import org.mybatis.generator.codegen.AbstractJavaGenerator;
 import org.mybatis.generator.codegen.RootClassInfo;
+import org.mybatis.generator.codegen.mybatis3.DirtyFieldUtilities;
+import org.mybatis.generator.codegen.mybatis3.JoinFetchUtilities;
+import org.mybatis.generator.codegen.mybatis3.NullMaskUtilities;
 
 /**
  * 
@@ -61,6 +64,19 @@ public class PrimaryKeyGenerator extends AbstractJavaGenerator {
         topLevelClass.setVisibility(JavaVisibility.PUBLIC);
         commentGenerator.addJavaFileComment(topLevelClass);
 
+        if (introspectedTable.isTrackDirtyFields()
+                && DirtyFieldUtilities.isDirtyMaskClass(introspectedTable,
+                        Plugin.ModelClassType.PRIMARY_KEY)) {
+            DirtyFieldUtilities.addDirtyMaskElements(topLevelClass,
+                    introspectedTable, context);
+        }
+
+        if (NullMaskUtilities.isNullMaskClass(introspectedTable,
+                Plugin.ModelClassType.PRIMARY_KEY)) {
+            NullMaskUtilities.addNullMaskElements(topLevelClass,
+                    introspectedTable, context);
+        }
+
         String rootClass = getRootClass();
         if (rootClass != null) {
             topLevelClass.setSuperClass(new FullyQualifiedJavaType(rootClass));
@@ -85,6 +101,11 @@ public class PrimaryKeyGenerator extends AbstractJavaGenerator {
             }
 
             Field field = getJavaBeansField(introspectedColumn, context, introspectedTable);
+            boolean primitive = NullMaskUtilities.isPrimitiveColumn(
+                    introspectedTable, introspectedColumn);
+            if (primitive) {
+                NullMaskUtilities.makeFieldPrimitive(field, introspectedColumn);
+            }
             if (plugins.modelFieldGenerated(field, topLevelClass,
                     introspectedColumn, introspectedTable,
                     Plugin.ModelClassType.PRIMARY_KEY)) {
@@ -93,6 +114,10 @@ public class PrimaryKeyGenerator extends AbstractJavaGenerator {
             }
 
             Method method = getJavaBeansGetter(introspectedColumn, context, introspectedTable);
+            if (primitive) {
+                NullMaskUtilities.makeGetterNullAware(method,
+                        introspectedTable, introspectedColumn);
+            }
             if (plugins.modelGetterMethodGenerated(method, topLevelClass,
                     introspectedColumn, introspectedTable,
                     Plugin.ModelClassType.PRIMARY_KEY)) {
@@ -101,12 +126,31 @@ public class PrimaryKeyGenerator extends AbstractJavaGenerator {
 
             if (!introspectedTable.isImmutable()) {
                 method = getJavaBeansSetter(introspectedColumn, context, introspectedTable);
+                if (primitive) {
+                    NullMaskUtilities.makeSetterNullAware(method,
+                            introspectedTable, introspectedColumn);
+                }
+                if (introspectedTable.isTrackDirtyFields()) {
+                    DirtyFieldUtilities.addMarkDirtyLine(method,
+                            introspectedTable, introspectedColumn);
+                }
                 if (plugins.modelSetterMethodGenerated(method, topLevelClass,
                         introspectedColumn, introspectedTable,
                         Plugin.ModelClassType.PRIMARY_KEY)) {
                     topLevelClass.addMethod(method);
                 }
             }
+
+            if (primitive) {
+                NullMaskUtilities.addIsColumnNullMethod(topLevelClass,
+                        introspectedTable, introspectedColumn, context);
+            }
+        }
+
+        if (JoinFetchUtilities.isAllFieldsClass(introspectedTable,
+                Plugin.ModelClassType.PRIMARY_KEY)) {
+            JoinFetchUtilities.addJoinProperties(topLevelClass,
+                    introspectedTable, context);
         }
 
         List<CompilationUnit> answer = new ArrayList<CompilationUnit>();
@@ -124,18 +168,12 @@ public class PrimaryKeyGenerator extends AbstractJavaGenerator {
         method.setName(topLevelClass.getType().getShortName());
         context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
         
-        StringBuilder sb = new StringBuilder();
         for (IntrospectedColumn introspectedColumn : introspectedTable
                 .getPrimaryKeyColumns()) {
             method.addParameter(new Parameter(introspectedColumn.getFullyQualifiedJavaType(),
                     introspectedColumn.getJavaProperty()));
-            sb.setLength(0);
-            sb.append("this."); //$NON-NLS-1$
-            sb.append(introspectedColumn.getJavaProperty());
-            sb.append(" = "); //$NON-NLS-1$
-            sb.append(introspectedColumn.getJavaProperty());
-            sb.append(';');
-            method.addBodyLine(sb.toString());
+            NullMaskUtilities.addAssignmentLines(method,
+                    introspectedTable, introspectedColumn);
         }
         
         topLevelClass.addMethod(method);
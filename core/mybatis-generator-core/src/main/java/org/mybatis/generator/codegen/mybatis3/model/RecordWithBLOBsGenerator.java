@@ -35,6 +35,9 @@ import org.mybatis.generator.api.dom.java.Parameter;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 import org.mybatis.generator.codegen.AbstractJavaGenerator;
 import org.mybatis.generator.codegen.RootClassInfo;
+import org.mybatis.generator.codegen.mybatis3.DirtyFieldUtilities;
+import org.mybatis.generator.codegen.mybatis3.JoinFetchUtilities;
+import org.mybatis.generator.codegen.mybatis3.NullMaskUtilities;
 
 /**
  * 
@@ -60,6 +63,19 @@ public class RecordWithBLOBsGenerator extends AbstractJavaGenerator {
         topLevelClass.setVisibility(JavaVisibility.PUBLIC);
         commentGenerator.addJavaFileComment(topLevelClass);
 
+        if (introspectedTable.isTrackDirtyFields()
+                && DirtyFieldUtilities.isDirtyMaskClass(introspectedTable,
+                        Plugin.ModelClassType.RECORD_WITH_BLOBS)) {
+            DirtyFieldUtilities.addDirtyMaskElements(topLevelClass,
+                    introspectedTable, context);
+        }
+
+        if (NullMaskUtilities.isNullMaskClass(introspectedTable,
+                Plugin.ModelClassType.RECORD_WITH_BLOBS)) {
+            NullMaskUtilities.addNullMaskElements(topLevelClass,
+                    introspectedTable, context);
+        }
+
         String rootClass = getRootClass();
         if (introspectedTable.getRules().generateBaseRecordClass()) {
             topLevelClass.setSuperClass(introspectedTable.getBaseRecordType());
@@ -84,6 +100,11 @@ public class RecordWithBLOBsGenerator extends AbstractJavaGenerator {
             }
 
             Field field = getJavaBeansField(introspectedColumn, context, introspectedTable);
+            boolean primitive = NullMaskUtilities.isPrimitiveColumn(
+                    introspectedTable, introspectedColumn);
+            if (primitive) {
+                NullMaskUtilities.makeFieldPrimitive(field, introspectedColumn);
+            }
             if (plugins.modelFieldGenerated(field, topLevelClass,
                     introspectedColumn, introspectedTable,
                     Plugin.ModelClassType.RECORD_WITH_BLOBS)) {
@@ -92,6 +113,10 @@ public class RecordWithBLOBsGenerator extends AbstractJavaGenerator {
             }
 
             Method method = getJavaBeansGetter(introspectedColumn, context, introspectedTable);
+            if (primitive) {
+                NullMaskUtilities.makeGetterNullAware(method,
+                        introspectedTable, introspectedColumn);
+            }
             if (plugins.modelGetterMethodGenerated(method, topLevelClass,
                     introspectedColumn, introspectedTable,
                     Plugin.ModelClassType.RECORD_WITH_BLOBS)) {
@@ -100,12 +125,31 @@ public class RecordWithBLOBsGenerator extends AbstractJavaGenerator {
 
             if (!introspectedTable.isImmutable()) {
                 method = getJavaBeansSetter(introspectedColumn, context, introspectedTable);
+                if (primitive) {
+                    NullMaskUtilities.makeSetterNullAware(method,
+                            introspectedTable, introspectedColumn);
+                }
+                if (introspectedTable.isTrackDirtyFields()) {
+                    DirtyFieldUtilities.addMarkDirtyLine(method,
+                            introspectedTable, introspectedColumn);
+                }
                 if (plugins.modelSetterMethodGenerated(method, topLevelClass,
                         introspectedColumn, introspectedTable,
                         Plugin.ModelClassType.RECORD_WITH_BLOBS)) {
                     topLevelClass.addMethod(method);
                 }
             }
+
+            if (primitive) {
+                NullMaskUtilities.addIsColumnNullMethod(topLevelClass,
+                        introspectedTable, introspectedColumn, context);
+            }
+        }
+
+        if (JoinFetchUtilities.isAllFieldsClass(introspectedTable,
+                Plugin.ModelClassType.RECORD_WITH_BLOBS)) {
+            JoinFetchUtilities.addJoinProperties(topLevelClass,
+                    introspectedTable, context);
         }
 
         List<CompilationUnit> answer = new ArrayList<CompilationUnit>();
@@ -147,13 +191,8 @@ public class RecordWithBLOBsGenerator extends AbstractJavaGenerator {
         
         for (IntrospectedColumn introspectedColumn : introspectedTable
                 .getBLOBColumns()) {
-            sb.setLength(0);
-            sb.append("this."); //$NON-NLS-1$
-            sb.append(introspectedColumn.getJavaProperty());
-            sb.append(" = "); //$NON-NLS-1$
-            sb.append(introspectedColumn.getJavaProperty());
-            sb.append(';');
-            method.addBodyLine(sb.toString());
+            NullMaskUtilities.addAssignmentLines(method,
+                    introspectedTable, introspectedColumn);
         }
 
         topLevelClass.addMethod(method);
@@ -36,6 +36,7 @@ import org.mybatis.generator.api.dom.java.Parameter;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 import org.mybatis.generator.codegen.AbstractJavaGenerator;
 import org.mybatis.generator.codegen.RootClassInfo;
+import org.mybatis.generator.codegen.mybatis3.NullMaskUtilities;
 
 /**
  * 
@@ -79,6 +80,12 @@ public class SimpleModelGenerator extends AbstractJavaGenerator {
             }
         }
 
+        if (NullMaskUtilities.isNullMaskClass(introspectedTable,
+                Plugin.ModelClassType.BASE_RECORD)) {
+            NullMaskUtilities.addNullMaskElements(topLevelClass,
+                    introspectedTable, context);
+        }
+
         String rootClass = getRootClass();
         for (IntrospectedColumn introspectedColumn : introspectedColumns) {
             if (RootClassInfo.getInstance(rootClass, warnings)
@@ -87,6 +94,11 @@ public class SimpleModelGenerator extends AbstractJavaGenerator {
             }
 
             Field field = getJavaBeansField(introspectedColumn, context, introspectedTable);
+            boolean primitive = NullMaskUtilities.isPrimitiveColumn(
+                    introspectedTable, introspectedColumn);
+            if (primitive) {
+                NullMaskUtilities.makeFieldPrimitive(field, introspectedColumn);
+            }
             if (plugins.modelFieldGenerated(field, topLevelClass,
                     introspectedColumn, introspectedTable,
                     Plugin.ModelClassType.BASE_RECORD)) {
@@ -95,6 +107,10 @@ public class SimpleModelGenerator extends AbstractJavaGenerator {
             }
 
             Method method = getJavaBeansGetter(introspectedColumn, context, introspectedTable);
+            if (primitive) {
+                NullMaskUtilities.makeGetterNullAware(method,
+                        introspectedTable, introspectedColumn);
+            }
             if (plugins.modelGetterMethodGenerated(method, topLevelClass,
                     introspectedColumn, introspectedTable,
                     Plugin.ModelClassType.BASE_RECORD)) {
@@ -103,12 +119,21 @@ public class SimpleModelGenerator extends AbstractJavaGenerator {
 
             if (!introspectedTable.isImmutable()) {
                 method = getJavaBeansSetter(introspectedColumn, context, introspectedTable);
+                if (primitive) {
+                    NullMaskUtilities.makeSetterNullAware(method,
+                            introspectedTable, introspectedColumn);
+                }
                 if (plugins.modelSetterMethodGenerated(method, topLevelClass,
                         introspectedColumn, introspectedTable,
                         Plugin.ModelClassType.BASE_RECORD)) {
                     topLevelClass.addMethod(method);
                 }
             }
+
+            if (primitive) {
+                NullMaskUtilities.addIsColumnNullMethod(topLevelClass,
+                        introspectedTable, introspectedColumn, context);
+            }
         }
 
         List<CompilationUnit> answer = new ArrayList<CompilationUnit>();
@@ -168,13 +193,8 @@ public class SimpleModelGenerator extends AbstractJavaGenerator {
         List<IntrospectedColumn> introspectedColumns = introspectedTable.getAllColumns();
 
         for (IntrospectedColumn introspectedColumn : introspectedColumns) {
-            sb.setLength(0);
-            sb.append("this."); //$NON-NLS-1$
-            sb.append(introspectedColumn.getJavaProperty());
-            sb.append(" = "); //$NON-NLS-1$
-            sb.append(introspectedColumn.getJavaProperty());
-            sb.append(';');
-            method.addBodyLine(sb.toString());
+            NullMaskUtilities.addAssignmentLines(method,
+                    introspectedTable, introspectedColumn);
         }
 
         topLevelClass.addMethod(method);
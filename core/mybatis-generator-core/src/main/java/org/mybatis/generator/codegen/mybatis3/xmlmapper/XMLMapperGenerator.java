@@ -18,11 +18,13 @@ package org.mybatis.generator.codegen.mybatis3.xmlmapper;
 import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
 import org.mybatis.generator.api.FullyQualifiedTable;
+import org.mybatis.generator.api.IntrospectedForeignKey;
 import org.mybatis.generator.api.dom.xml.Attribute;
 import org.mybatis.generator.api.dom.xml.Document;
 import org.mybatis.generator.api.dom.xml.XmlElement;
 import org.mybatis.generator.codegen.AbstractXmlGenerator;
 import org.mybatis.generator.codegen.XmlConstants;
+import org.mybatis.generator.codegen.mybatis3.JoinFetchUtilities;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.AbstractXmlElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.BaseColumnListElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.BlobColumnListElementGenerator;
@@ -32,14 +34,17 @@ import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.DeleteByPrimary
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.ExampleWhereClauseElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.InsertElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.InsertSelectiveElementGenerator;
+import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.JoinResultMapElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.ResultMapWithBLOBsElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.ResultMapWithoutBLOBsElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.SelectByExampleWithBLOBsElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.SelectByExampleWithoutBLOBsElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.SelectByPrimaryKeyElementGenerator;
+import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.SelectWithJoinByExampleElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.UpdateByExampleSelectiveElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.UpdateByExampleWithBLOBsElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.UpdateByExampleWithoutBLOBsElementGenerator;
+import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.UpdateByPrimaryKeyDirtyElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.UpdateByPrimaryKeySelectiveElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.UpdateByPrimaryKeyWithBLOBsElementGenerator;
 import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.UpdateByPrimaryKeyWithoutBLOBsElementGenerator;
@@ -84,8 +89,10 @@ public class XMLMapperGenerator extends AbstractXmlGenerator {
         addUpdateByExampleWithBLOBsElement(answer);
         addUpdateByExampleWithoutBLOBsElement(answer);
         addUpdateByPrimaryKeySelectiveElement(answer);
+        addUpdateByPrimaryKeyDirtyElement(answer);
         addUpdateByPrimaryKeyWithBLOBsElement(answer);
         addUpdateByPrimaryKeyWithoutBLOBsElement(answer);
+        addJoinFetchElements(answer);
 
         return answer;
     }
@@ -223,6 +230,14 @@ public class XMLMapperGenerator extends AbstractXmlGenerator {
         }
     }
 
+    protected void addUpdateByPrimaryKeyDirtyElement(
+            XmlElement parentElement) {
+        if (introspectedTable.getRules().generateUpdateByPrimaryKeyDirty()) {
+            AbstractXmlElementGenerator elementGenerator = new UpdateByPrimaryKeyDirtyElementGenerator();
+            initializeAndExecuteGenerator(elementGenerator, parentElement);
+        }
+    }
+
     protected void addUpdateByPrimaryKeyWithBLOBsElement(
             XmlElement parentElement) {
         if (introspectedTable.getRules().generateUpdateByPrimaryKeyWithBLOBs()) {
@@ -240,6 +255,24 @@ public class XMLMapperGenerator extends AbstractXmlGenerator {
         }
     }
 
+    protected void addJoinFetchElements(XmlElement parentElement) {
+        for (IntrospectedForeignKey foreignKey : JoinFetchUtilities.getParentKeys(
+                introspectedTable, warnings)) {
+            initializeAndExecuteGenerator(new JoinResultMapElementGenerator(
+                    foreignKey, true), parentElement);
+            initializeAndExecuteGenerator(new SelectWithJoinByExampleElementGenerator(
+                    foreignKey, true), parentElement);
+        }
+
+        for (IntrospectedForeignKey foreignKey : JoinFetchUtilities.getChildKeys(
+                introspectedTable, warnings)) {
+            initializeAndExecuteGenerator(new JoinResultMapElementGenerator(
+                    foreignKey, false), parentElement);
+            initializeAndExecuteGenerator(new SelectWithJoinByExampleElementGenerator(
+                    foreignKey, false), parentElement);
+        }
+    }
+
     protected void initializeAndExecuteGenerator(
             AbstractXmlElementGenerator elementGenerator,
             XmlElement parentElement) {
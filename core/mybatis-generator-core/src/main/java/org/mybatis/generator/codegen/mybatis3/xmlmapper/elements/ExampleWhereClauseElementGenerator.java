@@ -54,7 +54,23 @@ public class ExampleWhereClauseElementGenerator extends
 
         XmlElement whereElement = new XmlElement("where"); //$NON-NLS-1$
         answer.addElement(whereElement);
+        whereElement.addElement(getOredCriteriaForEachElement());
 
+        if (context.getPlugins()
+                .sqlMapExampleWhereClauseElementGenerated(answer,
+                        introspectedTable)) {
+            parentElement.addElement(answer);
+        }
+    }
+
+    /**
+     * Returns the foreach element that renders the ored criteria of the example,
+     * without the enclosing where element. For the update by example variant the
+     * example is expected in the "example" parameter.
+     *
+     * @return the foreach element
+     */
+    public XmlElement getOredCriteriaForEachElement() {
         XmlElement outerForEachElement = new XmlElement("foreach"); //$NON-NLS-1$
         if (isForUpdateByExample) {
             outerForEachElement.addAttribute(new Attribute(
@@ -65,7 +81,6 @@ public class ExampleWhereClauseElementGenerator extends
         }
         outerForEachElement.addAttribute(new Attribute("item", "criteria")); //$NON-NLS-1$ //$NON-NLS-2$
         outerForEachElement.addAttribute(new Attribute("separator", "or")); //$NON-NLS-1$ //$NON-NLS-2$
-        whereElement.addElement(outerForEachElement);
 
         XmlElement ifElement = new XmlElement("if"); //$NON-NLS-1$
         ifElement.addAttribute(new Attribute("test", "criteria.valid")); //$NON-NLS-1$ //$NON-NLS-2$
@@ -89,11 +104,7 @@ public class ExampleWhereClauseElementGenerator extends
             }
         }
 
-        if (context.getPlugins()
-                .sqlMapExampleWhereClauseElementGenerated(answer,
-                        introspectedTable)) {
-            parentElement.addElement(answer);
-        }
+        return outerForEachElement;
     }
 
     private XmlElement getMiddleForEachElement(
@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.codegen.mybatis3.xmlmapper.elements;
+
+import org.mybatis.generator.api.IntrospectedForeignKey;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.codegen.mybatis3.JoinFetchUtilities;
+
+/**
+ * Generates a result map that extends the result map of the table with an
+ * &lt;association&gt; for the parent record of a foreign key, or a
+ * &lt;collection&gt; for the child records. The nested result map is the one
+ * of the joined table, referenced by its namespace.
+ */
+public class JoinResultMapElementGenerator extends AbstractXmlElementGenerator {
+
+    private IntrospectedForeignKey foreignKey;
+
+    private boolean parent;
+
+    /**
+     * @param foreignKey
+     *            the foreign key of the join
+     * @param parent
+     *            true if the parent record of the foreign key is fetched,
+     *            false if the child records are fetched
+     */
+    public JoinResultMapElementGenerator(IntrospectedForeignKey foreignKey,
+            boolean parent) {
+        super();
+        this.foreignKey = foreignKey;
+        this.parent = parent;
+    }
+
+    @Override
+    public void addElements(XmlElement parentElement) {
+        IntrospectedTable joinedTable;
+        String property;
+        XmlElement joinElement;
+        if (parent) {
+            joinedTable = foreignKey.getReferencedTable();
+            property = JoinFetchUtilities.getParentPropertyName(foreignKey);
+            joinElement = new XmlElement("association"); //$NON-NLS-1$
+            joinElement.addAttribute(new Attribute("property", property)); //$NON-NLS-1$
+            joinElement.addAttribute(new Attribute("javaType", //$NON-NLS-1$
+                    joinedTable.getRules().calculateAllFieldsClass()
+                            .getFullyQualifiedName()));
+        } else {
+            joinedTable = foreignKey.getIntrospectedTable();
+            property = JoinFetchUtilities.getChildPropertyName(foreignKey);
+            joinElement = new XmlElement("collection"); //$NON-NLS-1$
+            joinElement.addAttribute(new Attribute("property", property)); //$NON-NLS-1$
+            joinElement.addAttribute(new Attribute("ofType", //$NON-NLS-1$
+                    joinedTable.getRules().calculateAllFieldsClass()
+                            .getFullyQualifiedName()));
+        }
+        joinElement.addAttribute(new Attribute("resultMap", //$NON-NLS-1$
+                joinedTable.getMyBatis3SqlMapNamespace() + '.'
+                        + getResultMapId(joinedTable)));
+
+        XmlElement answer = new XmlElement("resultMap"); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("id", //$NON-NLS-1$
+                JoinFetchUtilities.getResultMapId(property)));
+        answer.addAttribute(new Attribute("type", //$NON-NLS-1$
+                introspectedTable.getRules().calculateAllFieldsClass()
+                        .getFullyQualifiedName()));
+        answer.addAttribute(new Attribute("extends", //$NON-NLS-1$
+                getResultMapId(introspectedTable)));
+
+        context.getCommentGenerator().addComment(answer);
+
+        answer.addElement(joinElement);
+
+        if (context.getPlugins().sqlMapJoinResultMapElementGenerated(answer,
+                introspectedTable, foreignKey)) {
+            parentElement.addElement(answer);
+        }
+    }
+
+    private String getResultMapId(IntrospectedTable table) {
+        if (table.getRules().generateResultMapWithBLOBs()) {
+            return table.getResultMapWithBLOBsId();
+        } else {
+            return table.getBaseResultMapId();
+        }
+    }
+}
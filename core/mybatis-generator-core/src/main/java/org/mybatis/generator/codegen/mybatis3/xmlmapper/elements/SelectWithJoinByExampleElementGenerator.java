@@ -0,0 +1,141 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.codegen.mybatis3.xmlmapper.elements;
+
+import java.util.List;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedForeignKey;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.codegen.mybatis3.JoinFetchUtilities;
+import org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities;
+
+/**
+ * Generates a select by example that fetches the parent record of a foreign key,
+ * or the child records, with a left join in the same statement. The columns of
+ * the joined table are selected with the column lists of its own mapper.
+ */
+public class SelectWithJoinByExampleElementGenerator extends
+        AbstractXmlElementGenerator {
+
+    private IntrospectedForeignKey foreignKey;
+
+    private boolean parent;
+
+    /**
+     * @param foreignKey
+     *            the foreign key of the join
+     * @param parent
+     *            true if the parent record of the foreign key is fetched,
+     *            false if the child records are fetched
+     */
+    public SelectWithJoinByExampleElementGenerator(
+            IntrospectedForeignKey foreignKey, boolean parent) {
+        super();
+        this.foreignKey = foreignKey;
+        this.parent = parent;
+    }
+
+    @Override
+    public void addElements(XmlElement parentElement) {
+        IntrospectedTable joinedTable;
+        String property;
+        if (parent) {
+            joinedTable = foreignKey.getReferencedTable();
+            property = JoinFetchUtilities.getParentPropertyName(foreignKey);
+        } else {
+            joinedTable = foreignKey.getIntrospectedTable();
+            property = JoinFetchUtilities.getChildPropertyName(foreignKey);
+        }
+
+        XmlElement answer = new XmlElement("select"); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("id", //$NON-NLS-1$
+                JoinFetchUtilities.getStatementId(property)));
+        answer.addAttribute(new Attribute("resultMap", //$NON-NLS-1$
+                JoinFetchUtilities.getResultMapId(property)));
+        answer.addAttribute(new Attribute("parameterType", //$NON-NLS-1$
+                introspectedTable.getExampleType()));
+
+        context.getCommentGenerator().addComment(answer);
+
+        answer.addElement(new TextElement("select")); //$NON-NLS-1$
+        XmlElement ifElement = new XmlElement("if"); //$NON-NLS-1$
+        ifElement.addAttribute(new Attribute("test", "distinct")); //$NON-NLS-1$ //$NON-NLS-2$
+        ifElement.addElement(new TextElement("distinct")); //$NON-NLS-1$
+        answer.addElement(ifElement);
+
+        answer.addElement(getBaseColumnListElement());
+        if (introspectedTable.getRules().generateBlobColumnList()) {
+            answer.addElement(new TextElement(",")); //$NON-NLS-1$
+            answer.addElement(getBlobColumnListElement());
+        }
+        answer.addElement(new TextElement(",")); //$NON-NLS-1$
+        answer.addElement(getIncludeElement(joinedTable,
+                joinedTable.getBaseColumnListId()));
+        if (joinedTable.getRules().generateBlobColumnList()) {
+            answer.addElement(new TextElement(",")); //$NON-NLS-1$
+            answer.addElement(getIncludeElement(joinedTable,
+                    joinedTable.getBlobColumnListId()));
+        }
+
+        answer.addElement(new TextElement("from " //$NON-NLS-1$
+                + introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime()));
+        answer.addElement(new TextElement(getJoinClause(joinedTable)));
+        answer.addElement(getExampleIncludeElement());
+
+        ifElement = new XmlElement("if"); //$NON-NLS-1$
+        ifElement.addAttribute(new Attribute("test", "orderByClause != null")); //$NON-NLS-1$ //$NON-NLS-2$
+        ifElement.addElement(new TextElement("order by ${orderByClause}")); //$NON-NLS-1$
+        answer.addElement(ifElement);
+
+        if (context.getPlugins().sqlMapSelectWithJoinByExampleElementGenerated(
+                answer, introspectedTable, foreignKey)) {
+            parentElement.addElement(answer);
+        }
+    }
+
+    private XmlElement getIncludeElement(IntrospectedTable table, String id) {
+        XmlElement answer = new XmlElement("include"); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("refid", //$NON-NLS-1$
+                table.getMyBatis3SqlMapNamespace() + '.' + id));
+        return answer;
+    }
+
+    private String getJoinClause(IntrospectedTable joinedTable) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("left join "); //$NON-NLS-1$
+        sb.append(joinedTable.getAliasedFullyQualifiedTableNameAtRuntime());
+        sb.append(" on "); //$NON-NLS-1$
+
+        List<IntrospectedColumn> columns = foreignKey.getColumns();
+        List<IntrospectedColumn> referencedColumns = foreignKey.getReferencedColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sb.append(" and "); //$NON-NLS-1$
+            }
+            sb.append(MyBatis3FormattingUtilities
+                    .getAliasedEscapedColumnName(columns.get(i)));
+            sb.append(" = "); //$NON-NLS-1$
+            sb.append(MyBatis3FormattingUtilities
+                    .getAliasedEscapedColumnName(referencedColumns.get(i)));
+        }
+
+        return sb.toString();
+    }
+}
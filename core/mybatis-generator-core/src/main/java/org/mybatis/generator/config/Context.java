@@ -20,28 +20,45 @@ import static org.mybatis.generator.internal.util.StringUtility.isTrue;
 import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
 import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.mybatis.generator.api.CommentGenerator;
 import org.mybatis.generator.api.ConnectionFactory;
+import org.mybatis.generator.api.GeneratedFile;
 import org.mybatis.generator.api.GeneratedJavaFile;
 import org.mybatis.generator.api.GeneratedXmlFile;
 import org.mybatis.generator.api.JavaFormatter;
 import org.mybatis.generator.api.Plugin;
+import org.mybatis.generator.api.IndexAwarePlugin;
+import org.mybatis.generator.api.IntrospectedForeignKey;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.JavaTypeResolver;
+import org.mybatis.generator.api.MetricsListener;
+import org.mybatis.generator.api.MetricsPhase;
 import org.mybatis.generator.api.ProgressCallback;
+import org.mybatis.generator.api.ThreadSafePlugin;
 import org.mybatis.generator.api.XmlFormatter;
 import org.mybatis.generator.api.dom.xml.Attribute;
 import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.internal.GenerationManifest;
 import org.mybatis.generator.internal.JDBCConnectionFactory;
+import org.mybatis.generator.internal.MetricsTimer;
 import org.mybatis.generator.internal.ObjectFactory;
+import org.mybatis.generator.internal.ParallelTableGenerator;
 import org.mybatis.generator.internal.PluginAggregator;
+import org.mybatis.generator.internal.SynchronizedPlugin;
+import org.mybatis.generator.internal.TimedPlugin;
 import org.mybatis.generator.internal.db.DatabaseIntrospector;
+import org.mybatis.generator.internal.db.IntrospectionSnapshot;
+import org.mybatis.generator.internal.db.ParallelTableIntrospector;
 
 /**
  * The Class Context.
@@ -108,6 +125,9 @@ public class Context extends PropertyHolder {
     
     /** The xml formatter. */
     private XmlFormatter xmlFormatter;
+
+    /** The metrics listener, null if nothing is measured. */
+    private MetricsListener metricsListener;
     
     /**
      * Constructs a Context object.
@@ -256,6 +276,37 @@ public class Context extends PropertyHolder {
         for (PluginConfiguration pluginConfiguration : pluginConfigurations) {
             pluginConfiguration.validate(errors, id);
         }
+
+        validateThreadCount(PropertyRegistry.CONTEXT_INTROSPECTION_THREADS, errors);
+        validateThreadCount(PropertyRegistry.CONTEXT_GENERATION_THREADS, errors);
+
+        String rows = getProperty(PropertyRegistry.CONTEXT_UNINDEXED_CRITERIA_WARNING_ROWS);
+        if (stringHasValue(rows)) {
+            try {
+                if (Long.parseLong(rows.trim()) < 0) {
+                    errors.add(getString("ValidationError.30", //$NON-NLS-1$
+                            PropertyRegistry.CONTEXT_UNINDEXED_CRITERIA_WARNING_ROWS, id));
+                }
+            } catch (NumberFormatException e) {
+                errors.add(getString("ValidationError.30", //$NON-NLS-1$
+                        PropertyRegistry.CONTEXT_UNINDEXED_CRITERIA_WARNING_ROWS, id));
+            }
+        }
+    }
+
+    private void validateThreadCount(String property, List<String> errors) {
+        String threads = getProperty(property);
+        if (stringHasValue(threads)) {
+            try {
+                if (Integer.parseInt(threads.trim()) < 1) {
+                    errors.add(getString("ValidationError.28", //$NON-NLS-1$
+                            property, id));
+                }
+            } catch (NumberFormatException e) {
+                errors.add(getString("ValidationError.28", //$NON-NLS-1$
+                        property, id));
+            }
+        }
     }
 
     /**
@@ -619,47 +670,310 @@ public class Context extends PropertyHolder {
     public void introspectTables(ProgressCallback callback,
             List<String> warnings, Set<String> fullyQualifiedTableNames)
             throws SQLException, InterruptedException {
+        introspectTables(callback, warnings, fullyQualifiedTableNames, null, false);
+    }
+
+    /**
+     * Introspect tables based on the configuration specified in the
+     * constructor, using an introspection snapshot. This method is long running.
+     *
+     * <p>If the snapshot file exists and the fingerprint of the database matches the
+     * fingerprint in the snapshot, the tables are introspected from the snapshot.
+     * Otherwise the database is introspected and a new snapshot is written. In offline
+     * mode the database is never used and the snapshot must exist.
+     *
+     * @param callback
+     *            a progress callback if progress information is desired, or
+     *            <code>null</code>
+     * @param warnings
+     *            any warning generated from this method will be added to the
+     *            List. Warnings are always Strings.
+     * @param fullyQualifiedTableNames
+     *            a set of table names to generate. If the Set is null or empty,
+     *            then all tables in the configuration will be used for code
+     *            generation.
+     * @param snapshotFile
+     *            the introspection snapshot file, or <code>null</code> if no
+     *            snapshot should be used
+     * @param offline
+     *            if true, tables are introspected from the snapshot file only. A
+     *            snapshot file is required in offline mode.
+     *
+     * @throws SQLException
+     *             if some error arises while introspecting the specified
+     *             database tables, or if there is no snapshot in offline mode.
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     */
+    public void introspectTables(ProgressCallback callback,
+            List<String> warnings, Set<String> fullyQualifiedTableNames,
+            File snapshotFile, boolean offline)
+            throws SQLException, InterruptedException {
+
+        if (offline && snapshotFile == null) {
+            throw new IllegalArgumentException(getString("RuntimeError.24")); //$NON-NLS-1$
+        }
 
         introspectedTables = new ArrayList<IntrospectedTable>();
-        JavaTypeResolver javaTypeResolver = ObjectFactory
-                .createJavaTypeResolver(this, warnings);
 
+        List<TableConfiguration> tablesToIntrospect = new ArrayList<TableConfiguration>();
+        for (TableConfiguration tc : tableConfigurations) {
+            String tableName = composeFullyQualifiedTableName(tc.getCatalog(), tc
+                            .getSchema(), tc.getTableName(), '.');
+
+            if (fullyQualifiedTableNames != null
+                    && fullyQualifiedTableNames.size() > 0
+                    && !fullyQualifiedTableNames.contains(tableName)) {
+                continue;
+            }
+
+            if (!tc.areAnyStatementsEnabled()) {
+                warnings.add(getString("Warning.0", tableName)); //$NON-NLS-1$
+                continue;
+            }
+
+            tablesToIntrospect.add(tc);
+        }
+
+        IntrospectionSnapshot previousSnapshot = null;
+        if (snapshotFile != null) {
+            previousSnapshot = readSnapshot(snapshotFile, warnings);
+        }
+
+        if (offline) {
+            if (previousSnapshot == null) {
+                throw new SQLException(getString("RuntimeError.23", //$NON-NLS-1$
+                        snapshotFile.getAbsolutePath()));
+            }
+
+            callback.startTask(getString("Progress.19", snapshotFile.getAbsolutePath())); //$NON-NLS-1$
+            introspectTablesFromSnapshot(previousSnapshot, tablesToIntrospect,
+                    callback, warnings);
+            return;
+        }
+
+        IntrospectionSnapshot snapshot = null;
         Connection connection = null;
 
         try {
             callback.startTask(getString("Progress.0")); //$NON-NLS-1$
             connection = getConnection();
 
-            DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
-                    this, connection.getMetaData(), javaTypeResolver, warnings);
+            if (snapshotFile != null) {
+                String fingerprint = IntrospectionSnapshot.calculateFingerprint(
+                        connection, this);
+                snapshot = new IntrospectionSnapshot(fingerprint);
+                if (previousSnapshot != null
+                        && fingerprint.equals(previousSnapshot.getFingerprint())) {
+                    if (previousSnapshot.containsTables(tablesToIntrospect)) {
+                        callback.startTask(getString("Progress.19", snapshotFile.getAbsolutePath())); //$NON-NLS-1$
+                        introspectTablesFromSnapshot(previousSnapshot,
+                                tablesToIntrospect, callback, warnings);
+                        return;
+                    }
+
+                    // keep the tables that are not introspected in this run
+                    snapshot.copyMissingTables(previousSnapshot);
+                }
+            }
 
-            for (TableConfiguration tc : tableConfigurations) {
-                String tableName = composeFullyQualifiedTableName(tc.getCatalog(), tc
-                                .getSchema(), tc.getTableName(), '.');
+            int introspectionThreads = getIntrospectionThreads();
+            if (introspectionThreads > 1 && tablesToIntrospect.size() > 1) {
+                closeConnection(connection);
+                connection = null;
+
+                ParallelTableIntrospector parallelTableIntrospector = new ParallelTableIntrospector(
+                        this, getConnectionFactory(), introspectionThreads);
+                parallelTableIntrospector.setIntrospectionSnapshot(snapshot);
+                introspectedTables.addAll(parallelTableIntrospector
+                        .introspectTables(tablesToIntrospect, callback, warnings));
+                resolveForeignKeys();
+            } else {
+                JavaTypeResolver javaTypeResolver = ObjectFactory
+                        .createJavaTypeResolver(this, warnings);
 
-                if (fullyQualifiedTableNames != null
-                        && fullyQualifiedTableNames.size() > 0
-                        && !fullyQualifiedTableNames.contains(tableName)) {
-                    continue;
+                DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
+                        this, connection.getMetaData(), javaTypeResolver, warnings);
+                if (snapshot != null) {
+                    databaseIntrospector.setIntrospectionSnapshot(snapshot, false);
                 }
 
-                if (!tc.areAnyStatementsEnabled()) {
-                    warnings.add(getString("Warning.0", tableName)); //$NON-NLS-1$
-                    continue;
+                introspectTables(databaseIntrospector, tablesToIntrospect, callback);
+            }
+        } finally {
+            closeConnection(connection);
+        }
+
+        if (snapshot != null) {
+            try {
+                snapshot.write(snapshotFile);
+            } catch (IOException e) {
+                warnings.add(getString("Warning.31", //$NON-NLS-1$
+                        snapshotFile.getAbsolutePath(), e.getMessage()));
+            }
+        }
+    }
+
+    private void introspectTablesFromSnapshot(IntrospectionSnapshot snapshot,
+            List<TableConfiguration> tablesToIntrospect,
+            ProgressCallback callback, List<String> warnings)
+            throws SQLException, InterruptedException {
+        JavaTypeResolver javaTypeResolver = ObjectFactory
+                .createJavaTypeResolver(this, warnings);
+
+        DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
+                this, null, javaTypeResolver, warnings, null);
+        databaseIntrospector.setIntrospectionSnapshot(snapshot, true);
+
+        introspectTables(databaseIntrospector, tablesToIntrospect, callback);
+    }
+
+    private void introspectTables(DatabaseIntrospector databaseIntrospector,
+            List<TableConfiguration> tablesToIntrospect,
+            ProgressCallback callback) throws SQLException,
+            InterruptedException {
+        for (TableConfiguration tc : tablesToIntrospect) {
+            String tableName = composeFullyQualifiedTableName(tc.getCatalog(), tc
+                            .getSchema(), tc.getTableName(), '.');
+
+            callback.startTask(getString("Progress.1", tableName)); //$NON-NLS-1$
+            List<IntrospectedTable> tables = databaseIntrospector
+                    .introspectTables(tc);
+
+            if (tables != null) {
+                introspectedTables.addAll(tables);
+            }
+
+            callback.checkCancel();
+        }
+
+        resolveForeignKeys();
+    }
+
+    /**
+     * Links the foreign keys of the introspected tables to the tables they reference.
+     * Foreign keys that reference tables outside of this context stay unresolved.
+     */
+    private void resolveForeignKeys() {
+        for (IntrospectedTable introspectedTable : introspectedTables) {
+            for (IntrospectedForeignKey introspectedForeignKey : introspectedTable
+                    .getImportedKeys()) {
+                for (IntrospectedTable referencedTable : introspectedTables) {
+                    if (introspectedForeignKey.resolve(referencedTable)) {
+                        referencedTable.addExportedKey(introspectedForeignKey);
+                        break;
+                    }
                 }
+            }
+        }
+    }
+
+    private IntrospectionSnapshot readSnapshot(File snapshotFile,
+            List<String> warnings) {
+        try {
+            return IntrospectionSnapshot.read(snapshotFile);
+        } catch (IOException e) {
+            warnings.add(getString("Warning.30", //$NON-NLS-1$
+                    snapshotFile.getAbsolutePath(), e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of threads to use for table introspection. Anything less
+     * than two means introspection is done sequentially on a single connection.
+     *
+     * @return the number of introspection threads
+     */
+    public int getIntrospectionThreads() {
+        return getThreadCount(PropertyRegistry.CONTEXT_INTROSPECTION_THREADS);
+    }
+
+    /**
+     * Returns the number of threads to use for code generation. Anything less than
+     * two means tables are generated sequentially.
+     *
+     * @return the number of generation threads
+     */
+    public int getGenerationThreads() {
+        return getThreadCount(PropertyRegistry.CONTEXT_GENERATION_THREADS);
+    }
+
+    /**
+     * Returns the estimated number of rows from which a table is large enough that
+     * Example criteria on unindexed columns are reported. The default is 100000. Zero
+     * means the check is disabled.
+     *
+     * @return the number of rows
+     */
+    public long getUnindexedCriteriaWarningRows() {
+        String value = getProperty(PropertyRegistry.CONTEXT_UNINDEXED_CRITERIA_WARNING_ROWS);
+        if (!stringHasValue(value)) {
+            return 100000L;
+        }
 
-                callback.startTask(getString("Progress.1", tableName)); //$NON-NLS-1$
-                List<IntrospectedTable> tables = databaseIntrospector
-                        .introspectTables(tc);
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Returns true if the indexes of the tables must be introspected - because a
+     * configured plugin implements {@link IndexAwarePlugin}, or because Example
+     * criteria on unindexed columns are reported. Reading the indexes is an extra query for every table.
+     *
+     * @return true if the indexes are used
+     */
+    public boolean isIndexIntrospectionRequired() {
+        if (getUnindexedCriteriaWarningRows() > 0) {
+            return true;
+        }
 
-                if (tables != null) {
-                    introspectedTables.addAll(tables);
+        for (PluginConfiguration pluginConfiguration : pluginConfigurations) {
+            try {
+                Class<?> pluginClass = ObjectFactory.internalClassForName(
+                        pluginConfiguration.getConfigurationType());
+                if (IndexAwarePlugin.class.isAssignableFrom(pluginClass)) {
+                    return true;
                 }
+            } catch (ClassNotFoundException e) {
+                // reported when the plugins are created
+            }
+        }
 
-                callback.checkCancel();
+        return false;
+    }
+
+    /**
+     * Returns true if the foreign keys of the tables must be introspected - because a
+     * table of this context fetches its parents or children with joins. The foreign
+     * keys of a child table are needed for the parent, so they are read for every table.
+     *
+     * @return true if the foreign keys are used
+     */
+    public boolean isForeignKeyIntrospectionRequired() {
+        for (TableConfiguration tc : tableConfigurations) {
+            if (isTrue(tc.getProperty(PropertyRegistry.TABLE_JOIN_FETCH_PARENTS))
+                    || isTrue(tc.getProperty(PropertyRegistry.TABLE_JOIN_FETCH_CHILDREN))) {
+                return true;
             }
-        } finally {
-            closeConnection(connection);
+        }
+
+        return false;
+    }
+
+    private int getThreadCount(String property) {
+        String value = getProperty(property);
+        if (!stringHasValue(value)) {
+            return 1;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 1;
         }
     }
 
@@ -698,12 +1012,55 @@ public class Context extends PropertyHolder {
             List<GeneratedJavaFile> generatedJavaFiles,
             List<GeneratedXmlFile> generatedXmlFiles, List<String> warnings)
             throws InterruptedException {
+        generateFiles(callback, generatedJavaFiles, generatedXmlFiles, warnings, null);
+    }
+
+    /**
+     * Generate files, skipping tables that have not changed since the build manifest
+     * was recorded.
+     *
+     * <p>If no table of this context has changed, nothing is generated. Otherwise, if
+     * plugins generated files for the context as a whole in the previous run, every
+     * table is generated so that those plugins see all of the tables. If not, only the
+     * changed tables are generated.
+     *
+     * @param callback
+     *            the callback
+     * @param generatedJavaFiles
+     *            the generated java files
+     * @param generatedXmlFiles
+     *            the generated xml files
+     * @param warnings
+     *            the warnings
+     * @param manifest
+     *            the build manifest, or <code>null</code> if every table should be
+     *            generated
+     * @throws InterruptedException
+     *             the interrupted exception
+     */
+    public void generateFiles(ProgressCallback callback,
+            List<GeneratedJavaFile> generatedJavaFiles,
+            List<GeneratedXmlFile> generatedXmlFiles, List<String> warnings,
+            GenerationManifest manifest)
+            throws InterruptedException {
+
+        int generationThreads = getGenerationThreads();
 
         pluginAggregator = new PluginAggregator();
         for (PluginConfiguration pluginConfiguration : pluginConfigurations) {
             Plugin plugin = ObjectFactory.createPlugin(this,
                     pluginConfiguration);
             if (plugin.validate(warnings)) {
+                boolean threadSafe = plugin instanceof ThreadSafePlugin;
+                // the timer is inside the lock, so the time waiting for the lock
+                // is not reported as time spent in the plugin
+                if (metricsListener != null) {
+                    plugin = TimedPlugin.timedPlugin(plugin,
+                            plugin.getClass().getSimpleName(), metricsListener);
+                }
+                if (generationThreads > 1 && !threadSafe) {
+                    plugin = SynchronizedPlugin.synchronizedPlugin(plugin);
+                }
                 pluginAggregator.addPlugin(plugin);
             } else {
                 warnings.add(getString("Warning.24", //$NON-NLS-1$
@@ -711,28 +1068,141 @@ public class Context extends PropertyHolder {
             }
         }
 
+        String contextKey = null;
+        String contextHash = null;
+        Map<IntrospectedTable, String> tableHashes = null;
+        boolean skipUnchangedTables = false;
+        if (manifest != null) {
+            contextKey = GenerationManifest.getContextKey(this);
+            contextHash = manifest.getContextHash(this);
+            tableHashes = new HashMap<IntrospectedTable, String>();
+            int unchangedTables = 0;
+            if (introspectedTables != null) {
+                for (IntrospectedTable introspectedTable : introspectedTables) {
+                    String hash = manifest.calculateHash(introspectedTable);
+                    tableHashes.put(introspectedTable, hash);
+                    if (manifest.isUnchanged(
+                            GenerationManifest.getTableKey(introspectedTable), hash)) {
+                        unchangedTables++;
+                    }
+                }
+            }
+
+            if (unchangedTables > 0 && unchangedTables == tableHashes.size()
+                    && manifest.isUnchanged(contextKey, contextHash)) {
+                callback.startTask(getString("Progress.20", id)); //$NON-NLS-1$
+                return;
+            }
+
+            skipUnchangedTables = !manifest.hasFiles(contextKey);
+        }
+
+        List<IntrospectedTable> tablesToGenerate = new ArrayList<IntrospectedTable>();
         if (introspectedTables != null) {
             for (IntrospectedTable introspectedTable : introspectedTables) {
-                callback.checkCancel();
+                if (skipUnchangedTables && manifest.isUnchanged(
+                        GenerationManifest.getTableKey(introspectedTable),
+                        tableHashes.get(introspectedTable))) {
+                    continue;
+                }
 
+                tablesToGenerate.add(introspectedTable);
+            }
+        }
+
+        // tables refer to each other through foreign keys, so every table is
+        // initialized before any files are generated
+        if (introspectedTables != null) {
+            for (IntrospectedTable introspectedTable : introspectedTables) {
                 introspectedTable.initialize();
-                introspectedTable.calculateGenerators(warnings, callback);
-                generatedJavaFiles.addAll(introspectedTable
-                        .getGeneratedJavaFiles());
-                generatedXmlFiles.addAll(introspectedTable
-                        .getGeneratedXmlFiles());
-
-                generatedJavaFiles.addAll(pluginAggregator
-                        .contextGenerateAdditionalJavaFiles(introspectedTable));
-                generatedXmlFiles.addAll(pluginAggregator
-                        .contextGenerateAdditionalXmlFiles(introspectedTable));
             }
         }
 
+        List<ParallelTableGenerator.TableFiles> generatedTables;
+        if (generationThreads > 1 && tablesToGenerate.size() > 1) {
+            // create the shared generators before the workers can race to do it
+            getCommentGenerator();
+            getJavaFormatter();
+            getXmlFormatter();
+
+            ParallelTableGenerator parallelTableGenerator = new ParallelTableGenerator(
+                    this, generationThreads);
+            generatedTables = parallelTableGenerator.generateFiles(
+                    tablesToGenerate, callback, warnings);
+        } else {
+            generatedTables = new ArrayList<ParallelTableGenerator.TableFiles>();
+            for (IntrospectedTable introspectedTable : tablesToGenerate) {
+                callback.checkCancel();
+
+                ParallelTableGenerator.TableFiles tableFiles = new ParallelTableGenerator.TableFiles();
+                generateTableFiles(introspectedTable, callback,
+                        tableFiles.getJavaFiles(), tableFiles.getXmlFiles(), warnings);
+                generatedTables.add(tableFiles);
+            }
+        }
+
+        for (int i = 0; i < tablesToGenerate.size(); i++) {
+            IntrospectedTable introspectedTable = tablesToGenerate.get(i);
+            ParallelTableGenerator.TableFiles tableFiles = generatedTables.get(i);
+
+            generatedJavaFiles.addAll(tableFiles.getJavaFiles());
+            generatedXmlFiles.addAll(tableFiles.getXmlFiles());
+
+            if (manifest != null) {
+                List<GeneratedFile> files = new ArrayList<GeneratedFile>();
+                files.addAll(tableFiles.getJavaFiles());
+                files.addAll(tableFiles.getXmlFiles());
+                manifest.entryGenerated(
+                        GenerationManifest.getTableKey(introspectedTable),
+                        tableHashes.get(introspectedTable), files);
+            }
+        }
+
+        List<GeneratedJavaFile> contextJavaFiles = pluginAggregator
+                .contextGenerateAdditionalJavaFiles();
+        List<GeneratedXmlFile> contextXmlFiles = pluginAggregator
+                .contextGenerateAdditionalXmlFiles();
+        generatedJavaFiles.addAll(contextJavaFiles);
+        generatedXmlFiles.addAll(contextXmlFiles);
+
+        if (manifest != null) {
+            List<GeneratedFile> contextFiles = new ArrayList<GeneratedFile>();
+            contextFiles.addAll(contextJavaFiles);
+            contextFiles.addAll(contextXmlFiles);
+            manifest.entryGenerated(contextKey, contextHash, contextFiles);
+        }
+    }
+
+    /**
+     * Generates the files for a single introspected table. This method may be called
+     * from several threads at once when the tables of this context are generated in
+     * parallel. The table must be initialized.
+     *
+     * @param introspectedTable
+     *            the introspected table
+     * @param callback
+     *            the callback
+     * @param generatedJavaFiles
+     *            the generated java files
+     * @param generatedXmlFiles
+     *            the generated xml files
+     * @param warnings
+     *            the warnings
+     */
+    public void generateTableFiles(IntrospectedTable introspectedTable,
+            ProgressCallback callback,
+            List<GeneratedJavaFile> generatedJavaFiles,
+            List<GeneratedXmlFile> generatedXmlFiles, List<String> warnings) {
+        introspectedTable.calculateGenerators(warnings, callback);
+        generatedJavaFiles.addAll(introspectedTable
+                .getGeneratedJavaFiles());
+        generatedXmlFiles.addAll(introspectedTable
+                .getGeneratedXmlFiles());
+
         generatedJavaFiles.addAll(pluginAggregator
-                .contextGenerateAdditionalJavaFiles());
+                .contextGenerateAdditionalJavaFiles(introspectedTable));
         generatedXmlFiles.addAll(pluginAggregator
-                .contextGenerateAdditionalXmlFiles());
+                .contextGenerateAdditionalXmlFiles(introspectedTable));
     }
 
     /**
@@ -743,14 +1213,26 @@ public class Context extends PropertyHolder {
      *             the SQL exception
      */
     private Connection getConnection() throws SQLException {
+        MetricsTimer timer = MetricsTimer.start(metricsListener, MetricsPhase.CONNECT, id);
+        Connection connection = getConnectionFactory().getConnection();
+        timer.stop();
+        return connection;
+    }
+
+    /**
+     * Gets the connection factory configured for this context.
+     *
+     * @return the connection factory
+     */
+    private ConnectionFactory getConnectionFactory() {
         ConnectionFactory connectionFactory;
         if (jdbcConnectionConfiguration != null) {
             connectionFactory = new JDBCConnectionFactory(jdbcConnectionConfiguration);
         } else {
             connectionFactory = ObjectFactory.createConnectionFactory(this);
         }
-        
-        return connectionFactory.getConnection();
+
+        return connectionFactory;
     }
 
     /**
@@ -786,4 +1268,18 @@ public class Context extends PropertyHolder {
     public void setConnectionFactoryConfiguration(ConnectionFactoryConfiguration connectionFactoryConfiguration) {
         this.connectionFactoryConfiguration = connectionFactoryConfiguration;
     }
+
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Sets the listener for timing and allocation measurements of this context.
+     *
+     * @param metricsListener
+     *            the metrics listener, or <code>null</code> if nothing should be measured
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
 }
@@ -32,6 +32,8 @@ public class PropertyRegistry {
     public static final String ANY_ROOT_CLASS = "rootClass"; //$NON-NLS-1$
     public static final String ANY_IMMUTABLE = "immutable"; //$NON-NLS-1$
     public static final String ANY_CONSTRUCTOR_BASED = "constructorBased"; //$NON-NLS-1$
+    public static final String ANY_TRACK_DIRTY_FIELDS = "trackDirtyFields"; //$NON-NLS-1$
+    public static final String ANY_PRIMITIVE_FIELDS = "primitiveFields"; //$NON-NLS-1$
 
     /**
      * recognized by table and java client generator
@@ -47,6 +49,8 @@ public class PropertyRegistry {
     public static final String TABLE_RUNTIME_TABLE_NAME = "runtimeTableName"; //$NON-NLS-1$
     public static final String TABLE_MODEL_ONLY = "modelOnly"; //$NON-NLS-1$
     public static final String TABLE_SELECT_ALL_ORDER_BY_CLAUSE = "selectAllOrderByClause"; //$NON-NLS-1$
+    public static final String TABLE_JOIN_FETCH_PARENTS = "joinFetchParents"; //$NON-NLS-1$
+    public static final String TABLE_JOIN_FETCH_CHILDREN = "joinFetchChildren"; //$NON-NLS-1$
 
     public static final String CONTEXT_BEGINNING_DELIMITER = "beginningDelimiter"; //$NON-NLS-1$
     public static final String CONTEXT_ENDING_DELIMITER = "endingDelimiter"; //$NON-NLS-1$
@@ -54,8 +58,15 @@ public class PropertyRegistry {
     public static final String CONTEXT_JAVA_FILE_ENCODING = "javaFileEncoding"; //$NON-NLS-1$
     public static final String CONTEXT_JAVA_FORMATTER = "javaFormatter"; //$NON-NLS-1$
     public static final String CONTEXT_XML_FORMATTER = "xmlFormatter"; //$NON-NLS-1$
+    public static final String CONTEXT_INTROSPECTION_THREADS = "introspectionThreads"; //$NON-NLS-1$
+    public static final String CONTEXT_GENERATION_THREADS = "generationThreads"; //$NON-NLS-1$
+    public static final String CONTEXT_BULK_INTROSPECTION = "bulkIntrospection"; //$NON-NLS-1$
+    public static final String CONTEXT_SNAPSHOT_FINGERPRINT_QUERY = "snapshotFingerprintQuery"; //$NON-NLS-1$
+    public static final String CONTEXT_UNINDEXED_CRITERIA_WARNING_ROWS = "unindexedCriteriaWarningRows"; //$NON-NLS-1$
 
     public static final String CLIENT_USE_LEGACY_BUILDER = "useLegacyBuilder"; //$NON-NLS-1$
+    public static final String CLIENT_USE_PRECOMPUTED_PROVIDER_SQL = "usePrecomputedProviderSql"; //$NON-NLS-1$
+    public static final String CLIENT_GENERATE_ASYNC_FACADE = "generateAsyncFacade"; //$NON-NLS-1$
     
     public static final String DAO_EXAMPLE_METHOD_VISIBILITY = "exampleMethodVisibility"; //$NON-NLS-1$
     public static final String DAO_METHOD_NAME_CALCULATOR = "methodNameCalculator"; //$NON-NLS-1$
@@ -0,0 +1,551 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mybatis.generator.api.GeneratedFile;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.MetricsListener;
+import org.mybatis.generator.api.MetricsPhase;
+import org.mybatis.generator.api.ProgressCallback;
+import org.mybatis.generator.api.ShellCallback;
+import org.mybatis.generator.config.MergeConstants;
+import org.mybatis.generator.exception.ShellException;
+import org.mybatis.generator.internal.util.FileUtility;
+
+/**
+ * This class is for internal use only. It writes generated files to disk.
+ *
+ * <p>Every file is first written to a temporary file in its target directory, and
+ * then moved over the target file with {@link FileUtility#replaceFile(File, File)}.
+ * An interrupted run therefore never leaves a half written file behind. If the target
+ * file already holds exactly the same content it is left untouched, and it is not
+ * reported as written. Target directories are resolved through the shell callback
+ * only once for every project and package.
+ *
+ * <p>If more than one thread is configured, the files are written on a fixed number of
+ * worker threads. Files with the same target are always written by the same worker, in
+ * order. Warnings and progress messages are reported from the calling thread in the
+ * order of the generated files, so the results are the same as with a single thread.
+ */
+public class GeneratedFileSaver {
+
+    /** How long the calling thread waits for a result before polling for a cancel. */
+    private static final long CANCEL_POLL_MILLIS = 250L;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ShellCallback shellCallback;
+
+    private int threads;
+
+    /** The resolved directory for each project and package - or the warning. */
+    private Map<String, Object> directories;
+
+    /** Encoders are not thread safe, so each worker keeps its own. */
+    private ThreadLocal<Map<String, CharsetEncoder>> encoders;
+
+    private MetricsListener metricsListener;
+
+    /**
+     * Instantiates a new generated file saver.
+     *
+     * @param shellCallback
+     *            the shell callback
+     * @param threads
+     *            the maximum number of workers
+     */
+    public GeneratedFileSaver(ShellCallback shellCallback, int threads) {
+        super();
+        this.shellCallback = shellCallback;
+        this.threads = threads;
+        directories = new HashMap<String, Object>();
+        encoders = new ThreadLocal<Map<String, CharsetEncoder>>() {
+            @Override
+            protected Map<String, CharsetEncoder> initialValue() {
+                return new HashMap<String, CharsetEncoder>();
+            }
+        };
+    }
+
+    /**
+     * Sets the listener for timing and allocation measurements of formatting, merging
+     * and writing the files.
+     *
+     * @param metricsListener
+     *            the metrics listener, or <code>null</code> if nothing should be measured
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * Writes the generated files. This method is long running.
+     *
+     * @param generatedXmlFiles
+     *            the generated XML files
+     * @param generatedJavaFiles
+     *            the generated Java files
+     * @param callback
+     *            the progress callback
+     * @param manifest
+     *            the build manifest, or <code>null</code>
+     * @param warnings
+     *            warnings are added to this list, in file order
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     * @throws IOException
+     *             if a file cannot be written
+     */
+    public void saveFiles(List<GeneratedXmlFile> generatedXmlFiles,
+            List<GeneratedJavaFile> generatedJavaFiles, ProgressCallback callback,
+            GenerationManifest manifest, List<String> warnings)
+            throws InterruptedException, IOException {
+
+        List<SaveEntry> entries = new ArrayList<SaveEntry>();
+        for (GeneratedXmlFile gxf : generatedXmlFiles) {
+            entries.add(createEntry(gxf, "UTF-8")); //$NON-NLS-1$
+        }
+        for (GeneratedJavaFile gjf : generatedJavaFiles) {
+            entries.add(createEntry(gjf, gjf.getFileEncoding()));
+        }
+
+        // files with the same target must be written in order
+        Map<String, List<SaveEntry>> groups = new LinkedHashMap<String, List<SaveEntry>>();
+        for (SaveEntry entry : entries) {
+            if (entry.directory == null) {
+                continue;
+            }
+
+            String key = new File(entry.directory,
+                    entry.generatedFile.getFileName()).getAbsolutePath();
+            List<SaveEntry> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<SaveEntry>();
+                groups.put(key, group);
+            }
+            group.add(entry);
+        }
+
+        if (threads > 1 && groups.size() > 1) {
+            saveInParallel(groups, callback);
+            for (SaveEntry entry : entries) {
+                reportEntry(entry, callback, manifest, warnings);
+            }
+        } else {
+            for (SaveEntry entry : entries) {
+                callback.checkCancel();
+                saveEntry(entry);
+                reportEntry(entry, callback, manifest, warnings);
+            }
+        }
+    }
+
+    private SaveEntry createEntry(GeneratedFile generatedFile, String fileEncoding) {
+        SaveEntry entry = new SaveEntry(generatedFile, fileEncoding);
+
+        String key = generatedFile.getTargetProject() + '|' + generatedFile.getTargetPackage();
+        Object directory = directories.get(key);
+        if (directory == null) {
+            try {
+                directory = shellCallback.getDirectory(generatedFile.getTargetProject(),
+                        generatedFile.getTargetPackage());
+            } catch (ShellException e) {
+                directory = e.getMessage();
+            }
+            directories.put(key, directory);
+        }
+
+        if (directory instanceof File) {
+            entry.directory = (File) directory;
+        } else {
+            entry.warnings.add((String) directory);
+        }
+
+        return entry;
+    }
+
+    private void reportEntry(SaveEntry entry, ProgressCallback callback,
+            GenerationManifest manifest, List<String> warnings) {
+        warnings.addAll(entry.warnings);
+        if (entry.written) {
+            callback.startTask(getString(
+                    "Progress.15", entry.targetFile.getName())); //$NON-NLS-1$
+        }
+        if (entry.targetFile != null && manifest != null) {
+            // an unchanged file is still current
+            manifest.fileWritten(entry.generatedFile, entry.targetFile);
+        }
+    }
+
+    private void saveInParallel(Map<String, List<SaveEntry>> groups,
+            ProgressCallback callback) throws InterruptedException, IOException {
+        int poolSize = Math.min(threads, groups.size());
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize,
+                new SaveThreadFactory());
+
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        try {
+            for (List<SaveEntry> group : groups.values()) {
+                futures.add(executor.submit(new SaveTask(group)));
+            }
+            executor.shutdown();
+
+            for (Future<Void> future : futures) {
+                waitForResult(future, callback);
+            }
+        } finally {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+            executor.shutdownNow();
+            executor.awaitTermination(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void waitForResult(Future<Void> future, ProgressCallback callback)
+            throws InterruptedException, IOException {
+        while (true) {
+            try {
+                future.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                callback.checkCancel();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof InterruptedException) {
+                    throw (InterruptedException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new RuntimeException(cause);
+                }
+            }
+        }
+    }
+
+    private void saveEntry(SaveEntry entry) throws IOException {
+        if (entry.directory == null) {
+            return;
+        }
+
+        GeneratedFile generatedFile = entry.generatedFile;
+        File targetFile = new File(entry.directory, generatedFile.getFileName());
+        boolean merged = targetFile.exists() && isMergeable(generatedFile);
+
+        File tempFile;
+        if (merged) {
+            String source;
+            MetricsTimer timer = MetricsTimer.start(metricsListener, MetricsPhase.MERGE,
+                    generatedFile.getFileName());
+            try {
+                source = getMergedSource(generatedFile, targetFile);
+            } catch (ShellException e) {
+                entry.warnings.add(e.getMessage());
+                return;
+            } finally {
+                timer.stop();
+            }
+            tempFile = writeTempFile(entry.directory, generatedFile.getFileName(),
+                    entry.fileEncoding, null, source);
+        } else {
+            MetricsTimer timer = MetricsTimer.start(metricsListener, MetricsPhase.FORMAT,
+                    generatedFile.getFileName());
+            tempFile = writeTempFile(entry.directory, generatedFile.getFileName(),
+                    entry.fileEncoding, generatedFile, null);
+            timer.stop();
+        }
+
+        MetricsTimer timer = MetricsTimer.start(metricsListener, MetricsPhase.WRITE,
+                generatedFile.getFileName());
+        try {
+            boolean sameContent = targetFile.exists()
+                    && hasSameContent(targetFile, tempFile);
+            if (targetFile.exists() && !sameContent && !merged) {
+                if (shellCallback.isOverwriteEnabled()) {
+                    entry.warnings.add(getString("Warning.11", //$NON-NLS-1$
+                            targetFile.getAbsolutePath()));
+                } else {
+                    targetFile = getUniqueFileName(entry.directory,
+                            generatedFile.getFileName());
+                    entry.warnings.add(getString(
+                            "Warning.2", targetFile.getAbsolutePath())); //$NON-NLS-1$
+                }
+            }
+
+            if (!sameContent) {
+                FileUtility.replaceFile(tempFile, targetFile);
+                entry.written = true;
+            }
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+            timer.stop();
+        }
+
+        entry.targetFile = targetFile;
+    }
+
+    private boolean isMergeable(GeneratedFile generatedFile) {
+        if (generatedFile instanceof GeneratedXmlFile) {
+            return ((GeneratedXmlFile) generatedFile).isMergeable();
+        } else {
+            return shellCallback.isMergeSupported();
+        }
+    }
+
+    private String getMergedSource(GeneratedFile generatedFile, File targetFile)
+            throws ShellException {
+        if (generatedFile instanceof GeneratedXmlFile) {
+            return XmlFileMergerJaxp.getMergedSource((GeneratedXmlFile) generatedFile,
+                    targetFile);
+        }
+
+        GeneratedJavaFile gjf = (GeneratedJavaFile) generatedFile;
+        String newFileSource = gjf.getFormattedContent();
+        // shell callbacks are not required to be thread safe
+        synchronized (shellCallback) {
+            return shellCallback.mergeJavaFile(newFileSource, targetFile,
+                    MergeConstants.OLD_ELEMENT_TAGS, gjf.getFileEncoding());
+        }
+    }
+
+    /**
+     * Writes the content to a new temporary file in the target directory. The content
+     * is either rendered from the generated file, or taken from the source string.
+     */
+    private File writeTempFile(File directory, String fileName, String fileEncoding,
+            GeneratedFile generatedFile, String source) throws IOException {
+        CharsetEncoder encoder = getEncoder(fileEncoding);
+        File tempFile = File.createTempFile(fileName + '.', ".tmp", directory); //$NON-NLS-1$
+        boolean written = false;
+        try {
+            FileOutputStream fos = new FileOutputStream(tempFile, false);
+            try {
+                encoder.reset();
+                Writer writer = new BufferedWriter(
+                        Channels.newWriter(fos.getChannel(), encoder, BUFFER_SIZE),
+                        BUFFER_SIZE);
+                if (generatedFile == null) {
+                    writer.write(source);
+                } else {
+                    generatedFile.render(writer);
+                }
+                writer.close();
+            } finally {
+                fos.close();
+            }
+            written = true;
+        } finally {
+            if (!written) {
+                tempFile.delete();
+            }
+        }
+
+        return tempFile;
+    }
+
+    private CharsetEncoder getEncoder(String fileEncoding) throws IOException {
+        Map<String, CharsetEncoder> threadEncoders = encoders.get();
+        CharsetEncoder encoder = threadEncoders.get(fileEncoding);
+        if (encoder == null) {
+            Charset charset;
+            if (fileEncoding == null) {
+                charset = Charset.defaultCharset();
+            } else {
+                try {
+                    charset = Charset.forName(fileEncoding);
+                } catch (IllegalArgumentException e) {
+                    throw new UnsupportedEncodingException(fileEncoding);
+                }
+            }
+
+            // same as OutputStreamWriter
+            encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            threadEncoders.put(fileEncoding, encoder);
+        }
+
+        return encoder;
+    }
+
+    private boolean hasSameContent(File file, File otherFile) throws IOException {
+        if (!file.isFile() || file.length() != otherFile.length()) {
+            return false;
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] otherBuffer = new byte[BUFFER_SIZE];
+        InputStream is = new FileInputStream(file);
+        try {
+            InputStream otherIs = new FileInputStream(otherFile);
+            try {
+                int length;
+                while ((length = read(is, buffer)) > 0) {
+                    if (read(otherIs, otherBuffer) != length) {
+                        return false;
+                    }
+                    for (int i = 0; i < length; i++) {
+                        if (buffer[i] != otherBuffer[i]) {
+                            return false;
+                        }
+                    }
+                }
+                return read(otherIs, otherBuffer) == 0;
+            } finally {
+                otherIs.close();
+            }
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Fills the buffer unless the end of the stream is reached first.
+     */
+    private int read(InputStream is, byte[] buffer) throws IOException {
+        int length = 0;
+        while (length < buffer.length) {
+            int count = is.read(buffer, length, buffer.length - length);
+            if (count == -1) {
+                break;
+            }
+            length += count;
+        }
+        return length;
+    }
+
+    /**
+     * Gets the unique file name.
+     *
+     * @param directory
+     *            the directory
+     * @param fileName
+     *            the file name
+     * @return the unique file name
+     */
+    private File getUniqueFileName(File directory, String fileName) {
+        File answer = null;
+
+        // try up to 1000 times to generate a unique file name
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i < 1000; i++) {
+            sb.setLength(0);
+            sb.append(fileName);
+            sb.append('.');
+            sb.append(i);
+
+            File testFile = new File(directory, sb.toString());
+            if (!testFile.exists()) {
+                answer = testFile;
+                break;
+            }
+        }
+
+        if (answer == null) {
+            throw new RuntimeException(getString(
+                    "RuntimeError.3", directory.getAbsolutePath())); //$NON-NLS-1$
+        }
+
+        return answer;
+    }
+
+    /**
+     * A generated file, its resolved target, and the results of writing it.
+     */
+    private static class SaveEntry {
+        private GeneratedFile generatedFile;
+        private String fileEncoding;
+        private File directory;
+        private File targetFile;
+        private boolean written;
+        private List<String> warnings = new ArrayList<String>();
+
+        SaveEntry(GeneratedFile generatedFile, String fileEncoding) {
+            this.generatedFile = generatedFile;
+            this.fileEncoding = fileEncoding;
+        }
+    }
+
+    /**
+     * Writes all files with the same target, in order.
+     */
+    private class SaveTask implements Callable<Void> {
+        private List<SaveEntry> entries;
+
+        SaveTask(List<SaveEntry> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public Void call() throws InterruptedException, IOException {
+            for (SaveEntry entry : entries) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                saveEntry(entry);
+            }
+            return null;
+        }
+    }
+
+    private static class SaveThreadFactory implements ThreadFactory {
+        private AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mbg-save-" //$NON-NLS-1$
+                    + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,458 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.StringTokenizer;
+import java.util.TreeSet;
+
+import org.mybatis.generator.api.GeneratedFile;
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedForeignKey;
+import org.mybatis.generator.api.IntrospectedIndex;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.MyBatisGenerator;
+import org.mybatis.generator.api.dom.xml.Element;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.internal.util.FileUtility;
+
+/**
+ * This class is for internal use only. It holds the build manifest used for
+ * incremental generation.
+ * <p>
+ * For every introspected table the manifest records a hash of the introspected
+ * metadata and of the effective configuration of the table and its context
+ * (including the plugins), together with the files that were written for the
+ * table. If the hash of a table has not changed and all of its files still exist,
+ * there is no need to generate the table again. The files that plugins generate
+ * for a context as a whole are recorded in the same way.
+ *
+ */
+public class GenerationManifest {
+
+    /** Changing the manifest format, or the hash calculation, must change this value. */
+    private static final String FORMAT_VERSION = "1"; //$NON-NLS-1$
+
+    private static final String HASH_SUFFIX = ".hash"; //$NON-NLS-1$
+
+    private static final String FILES_SUFFIX = ".files"; //$NON-NLS-1$
+
+    private static final String VERSION_KEY = "version"; //$NON-NLS-1$
+
+    private static final String CHECKSUM_KEY = "checksum"; //$NON-NLS-1$
+
+    private File file;
+
+    /** The manifest as it was read from disk. */
+    private Properties previousEntries;
+
+    /** The manifest that will be saved - starts as a copy of the previous manifest. */
+    private Properties currentEntries;
+
+    /** The key of the manifest entry that each generated file belongs to. */
+    private Map<GeneratedFile, String> fileKeys;
+
+    /** The configuration hash of each context, excluding the tables. */
+    private Map<Context, String> contextHashes;
+
+    public GenerationManifest(File file) {
+        super();
+        this.file = file;
+        previousEntries = new Properties();
+        currentEntries = new Properties();
+        fileKeys = new IdentityHashMap<GeneratedFile, String>();
+        contextHashes = new IdentityHashMap<Context, String>();
+    }
+
+    /**
+     * Reads the manifest from disk. If the file does not exist, the manifest is empty
+     * and every table will be generated. The same applies if the file cannot be
+     * parsed, was written by another version, or does not match its checksum - for
+     * example because an earlier run was interrupted while writing it.
+     *
+     * @throws IOException
+     *             if the file exists but cannot be read
+     */
+    public void load() throws IOException {
+        previousEntries.clear();
+        currentEntries.clear();
+
+        if (!file.exists()) {
+            return;
+        }
+
+        InputStream is = new BufferedInputStream(new FileInputStream(file));
+        try {
+            previousEntries.load(is);
+        } catch (IllegalArgumentException e) {
+            // a malformed escape sequence
+            previousEntries.clear();
+        } finally {
+            is.close();
+        }
+
+        if (!FORMAT_VERSION.equals(previousEntries.getProperty(VERSION_KEY))
+                || !calculateChecksum(previousEntries).equals(
+                        previousEntries.getProperty(CHECKSUM_KEY))) {
+            previousEntries.clear();
+        }
+        previousEntries.remove(CHECKSUM_KEY);
+
+        currentEntries.putAll(previousEntries);
+    }
+
+    /**
+     * Writes the manifest to disk. The manifest is written to a temporary file first,
+     * and then moved over the manifest file, so an interrupted write does not leave a
+     * damaged manifest behind.
+     *
+     * @throws IOException
+     *             if the manifest cannot be written
+     */
+    public void save() throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException(directory.getAbsolutePath());
+        }
+
+        currentEntries.setProperty(VERSION_KEY, FORMAT_VERSION);
+        Properties entries = new Properties();
+        entries.putAll(currentEntries);
+        entries.setProperty(CHECKSUM_KEY, calculateChecksum(currentEntries));
+
+        File tempFile = File.createTempFile(file.getName() + '.', ".tmp", directory); //$NON-NLS-1$
+        try {
+            OutputStream os = new BufferedOutputStream(new FileOutputStream(tempFile, false));
+            try {
+                entries.store(os, "MyBatis Generator build manifest"); //$NON-NLS-1$
+            } finally {
+                os.close();
+            }
+
+            FileUtility.replaceFile(tempFile, file);
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Calculates the checksum of the entries, excluding the checksum entry itself.
+     */
+    private static String calculateChecksum(Properties entries) {
+        StringBuilder sb = new StringBuilder();
+        for (String key : new TreeSet<String>(entries.stringPropertyNames())) {
+            if (!CHECKSUM_KEY.equals(key)) {
+                sb.append(key);
+                sb.append('=');
+                sb.append(entries.getProperty(key));
+                sb.append('\n');
+            }
+        }
+        return digest(sb.toString());
+    }
+
+    public static String getTableKey(IntrospectedTable introspectedTable) {
+        return "table." + introspectedTable.getContext().getId() //$NON-NLS-1$
+                + '.' + introspectedTable.getFullyQualifiedTable();
+    }
+
+    public static String getContextKey(Context context) {
+        return "context." + context.getId(); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns true if the entry was recorded with the same hash, and all of the files
+     * written for the entry still exist.
+     *
+     * @param key
+     *            the entry key
+     * @param hash
+     *            the current hash
+     * @return true if the entry is unchanged
+     */
+    public boolean isUnchanged(String key, String hash) {
+        if (!hash.equals(previousEntries.getProperty(key + HASH_SUFFIX))) {
+            return false;
+        }
+
+        String files = previousEntries.getProperty(key + FILES_SUFFIX);
+        if (files == null) {
+            return false;
+        }
+
+        StringTokenizer st = new StringTokenizer(files, File.pathSeparator);
+        while (st.hasMoreTokens()) {
+            if (!new File(st.nextToken()).exists()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if any files were written for the entry in the previous run.
+     *
+     * @param key
+     *            the entry key
+     * @return true if files were recorded for the entry
+     */
+    public boolean hasFiles(String key) {
+        return stringHasValue(previousEntries.getProperty(key + FILES_SUFFIX));
+    }
+
+    /**
+     * Records that an entry has been generated. The files are added to the entry as
+     * they are written.
+     *
+     * @param key
+     *            the entry key
+     * @param hash
+     *            the current hash
+     * @param generatedFiles
+     *            the files generated for the entry
+     */
+    public void entryGenerated(String key, String hash,
+            List<? extends GeneratedFile> generatedFiles) {
+        currentEntries.setProperty(key + HASH_SUFFIX, hash);
+        currentEntries.setProperty(key + FILES_SUFFIX, ""); //$NON-NLS-1$
+        for (GeneratedFile generatedFile : generatedFiles) {
+            fileKeys.put(generatedFile, key);
+        }
+    }
+
+    /**
+     * Records the location a generated file was written to.
+     *
+     * @param generatedFile
+     *            the generated file
+     * @param targetFile
+     *            the file on disk
+     */
+    public void fileWritten(GeneratedFile generatedFile, File targetFile) {
+        String key = fileKeys.get(generatedFile);
+        if (key == null) {
+            return;
+        }
+
+        String files = currentEntries.getProperty(key + FILES_SUFFIX);
+        if (stringHasValue(files)) {
+            files = files + File.pathSeparator + targetFile.getAbsolutePath();
+        } else {
+            files = targetFile.getAbsolutePath();
+        }
+        currentEntries.setProperty(key + FILES_SUFFIX, files);
+    }
+
+    /**
+     * Calculates the hash of an introspected table. The hash covers the introspected
+     * metadata, the configuration of the table, the configuration of its context
+     * (excluding the other tables), and the generator version.
+     *
+     * @param introspectedTable
+     *            the introspected table
+     * @return the hash
+     */
+    public String calculateHash(IntrospectedTable introspectedTable) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getContextHash(introspectedTable.getContext()));
+        sb.append('\n');
+        appendTable(sb, introspectedTable);
+
+        for (IntrospectedIndex introspectedIndex : introspectedTable.getIndexes()) {
+            sb.append(introspectedIndex.getIndexName());
+            sb.append('|');
+            sb.append(introspectedIndex.isUnique());
+            for (IntrospectedColumn introspectedColumn : introspectedIndex.getColumns()) {
+                sb.append('|');
+                sb.append(introspectedColumn.getActualColumnName());
+            }
+            sb.append('\n');
+        }
+
+        // the joins of related tables are generated into this table's files
+        for (IntrospectedForeignKey foreignKey : introspectedTable.getImportedKeys()) {
+            appendForeignKey(sb, foreignKey);
+        }
+        for (IntrospectedForeignKey foreignKey : introspectedTable.getExportedKeys()) {
+            appendForeignKey(sb, foreignKey);
+        }
+
+        return digest(sb.toString());
+    }
+
+    private void appendForeignKey(StringBuilder sb, IntrospectedForeignKey foreignKey) {
+        sb.append(foreignKey.getName());
+        sb.append('|');
+        appendTable(sb, foreignKey.getIntrospectedTable());
+        sb.append('|');
+        appendTable(sb, foreignKey.getReferencedTable());
+        for (IntrospectedColumn introspectedColumn : foreignKey.getColumns()) {
+            sb.append('|');
+            sb.append(introspectedColumn.getActualColumnName());
+        }
+        for (IntrospectedColumn introspectedColumn : foreignKey.getReferencedColumns()) {
+            sb.append('|');
+            sb.append(introspectedColumn.getActualColumnName());
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * Appends the configuration, the column metadata and the model classes of a
+     * table. Related tables are appended in full, because their columns and model
+     * classes are generated into the joins of this table.
+     */
+    private void appendTable(StringBuilder sb, IntrospectedTable introspectedTable) {
+        if (introspectedTable == null) {
+            return;
+        }
+
+        sb.append(introspectedTable.getTableConfiguration().toXmlElement()
+                .getFormattedContent(0));
+        sb.append('\n');
+        sb.append(introspectedTable.getClass().getName());
+        sb.append('|');
+        sb.append(introspectedTable.getFullyQualifiedTable());
+        sb.append('|');
+        sb.append(introspectedTable.getRemarks());
+        sb.append('|');
+        sb.append(introspectedTable.getTableType());
+        sb.append('\n');
+
+        for (IntrospectedColumn introspectedColumn : introspectedTable.getPrimaryKeyColumns()) {
+            sb.append(introspectedColumn.getActualColumnName());
+            sb.append('|');
+        }
+        sb.append('\n');
+
+        for (IntrospectedColumn introspectedColumn : introspectedTable.getAllColumns()) {
+            sb.append(introspectedColumn.getActualColumnName());
+            sb.append('|');
+            sb.append(introspectedColumn.getJdbcType());
+            sb.append('|');
+            sb.append(introspectedColumn.getJdbcTypeName());
+            sb.append('|');
+            sb.append(introspectedColumn.getLength());
+            sb.append('|');
+            sb.append(introspectedColumn.getScale());
+            sb.append('|');
+            sb.append(introspectedColumn.isNullable());
+            sb.append('|');
+            sb.append(introspectedColumn.isIdentity());
+            sb.append('|');
+            sb.append(introspectedColumn.isSequenceColumn());
+            sb.append('|');
+            sb.append(introspectedColumn.isAutoIncrement());
+            sb.append('|');
+            sb.append(introspectedColumn.isGeneratedColumn());
+            sb.append('|');
+            sb.append(introspectedColumn.isColumnNameDelimited());
+            sb.append('|');
+            sb.append(introspectedColumn.getDefaultValue());
+            sb.append('|');
+            sb.append(introspectedColumn.getRemarks());
+            sb.append('|');
+            sb.append(introspectedColumn.getJavaProperty());
+            sb.append('|');
+            sb.append(introspectedColumn.getFullyQualifiedJavaType());
+            sb.append('|');
+            sb.append(introspectedColumn.getTypeHandler());
+            sb.append('|');
+            sb.append(introspectedColumn.getProperties());
+            sb.append('|');
+            sb.append(introspectedColumn.isBLOBColumn());
+            sb.append('\n');
+        }
+
+        sb.append(introspectedTable.getBaseRecordType());
+        sb.append('|');
+        sb.append(introspectedTable.getRecordWithBLOBsType());
+        sb.append('|');
+        sb.append(introspectedTable.getPrimaryKeyType());
+        sb.append('\n');
+    }
+
+    /**
+     * Calculates the hash of the configuration of a context, excluding the tables.
+     *
+     * @param context
+     *            the context
+     * @return the hash
+     */
+    public String getContextHash(Context context) {
+        String hash = contextHashes.get(context);
+        if (hash == null) {
+            XmlElement xmlElement = context.toXmlElement();
+            Iterator<Element> iter = xmlElement.getElements().iterator();
+            while (iter.hasNext()) {
+                Element element = iter.next();
+                if (element instanceof XmlElement
+                        && "table".equals(((XmlElement) element).getName())) { //$NON-NLS-1$
+                    iter.remove();
+                }
+            }
+
+            hash = digest(FORMAT_VERSION + '|'
+                    + MyBatisGenerator.class.getPackage().getImplementationVersion()
+                    + '\n' + xmlElement.getFormattedContent(0));
+            contextHashes.put(context, hash);
+        }
+
+        return hash;
+    }
+
+    private static String digest(String value) {
+        byte[] bytes;
+        try {
+            bytes = MessageDigest.getInstance("SHA-1") //$NON-NLS-1$
+                    .digest(value.getBytes("UTF-8")); //$NON-NLS-1$
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new RuntimeException(e);
+        } catch (UnsupportedEncodingException e) {
+            // every Java platform is required to support UTF-8
+            throw new RuntimeException(e);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,238 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.mybatis.generator.api.MetricsListener;
+import org.mybatis.generator.api.MetricsPhase;
+
+/**
+ * A MetricsListener that adds up the measurements of a generator run. The totals can
+ * be reported as a short human readable summary, or written as JSON.
+ *
+ * <p>Measurements with the same phase and name are added together - for example all
+ * calls of the same plugin method.
+ */
+public class MetricsCollector implements MetricsListener {
+
+    /** The number of slowest steps listed for each phase in the summary. */
+    private static final int SLOWEST_STEPS = 5;
+
+    private Map<MetricsPhase, Map<String, Totals>> phases;
+
+    public MetricsCollector() {
+        super();
+        phases = new EnumMap<MetricsPhase, Map<String, Totals>>(MetricsPhase.class);
+    }
+
+    public synchronized void stepCompleted(MetricsPhase phase, String name,
+            long elapsedNanos, long allocatedBytes) {
+        Map<String, Totals> steps = phases.get(phase);
+        if (steps == null) {
+            steps = new LinkedHashMap<String, Totals>();
+            phases.put(phase, steps);
+        }
+
+        Totals totals = steps.get(name);
+        if (totals == null) {
+            totals = new Totals(name);
+            steps.put(name, totals);
+        }
+
+        totals.add(elapsedNanos, allocatedBytes);
+    }
+
+    /**
+     * Returns a summary of the measurements: the totals of each phase, and the slowest
+     * steps of each phase.
+     *
+     * @return the lines of the summary
+     */
+    public synchronized List<String> getSummary() {
+        List<String> answer = new ArrayList<String>();
+        answer.add(getString("Progress.21")); //$NON-NLS-1$
+
+        for (Map.Entry<MetricsPhase, Map<String, Totals>> phase : phases.entrySet()) {
+            Totals phaseTotals = new Totals(phase.getKey().getDisplayName());
+            for (Totals totals : phase.getValue().values()) {
+                phaseTotals.addAll(totals);
+            }
+
+            if (phaseTotals.allocatedBytes == -1L) {
+                answer.add(getString("Progress.22", //$NON-NLS-1$
+                        phaseTotals.name, Long.toString(phaseTotals.count),
+                        formatMillis(phaseTotals.elapsedNanos)));
+            } else {
+                answer.add(getString("Progress.23", //$NON-NLS-1$
+                        phaseTotals.name, Long.toString(phaseTotals.count),
+                        formatMillis(phaseTotals.elapsedNanos),
+                        Long.toString(phaseTotals.allocatedBytes / 1024L)));
+            }
+
+            List<Totals> slowest = new ArrayList<Totals>(phase.getValue().values());
+            Collections.sort(slowest, new Comparator<Totals>() {
+                public int compare(Totals o1, Totals o2) {
+                    if (o1.elapsedNanos == o2.elapsedNanos) {
+                        return 0;
+                    }
+                    return o1.elapsedNanos > o2.elapsedNanos ? -1 : 1;
+                }
+            });
+            for (Totals totals : slowest.subList(0, Math.min(SLOWEST_STEPS, slowest.size()))) {
+                answer.add(getString("Progress.24", //$NON-NLS-1$
+                        totals.name, formatMillis(totals.elapsedNanos)));
+            }
+        }
+
+        return answer;
+    }
+
+    /**
+     * Writes all measurements as a JSON document. Times are in nanoseconds, and
+     * allocations in bytes. An allocation of -1 means that allocations could not be
+     * measured.
+     *
+     * @param writer
+     *            the writer
+     * @throws IOException
+     *             if the writer throws an IOException
+     */
+    public synchronized void writeJson(Writer writer) throws IOException {
+        writer.write("{\n  \"phases\": ["); //$NON-NLS-1$
+        boolean firstPhase = true;
+        for (Map.Entry<MetricsPhase, Map<String, Totals>> phase : phases.entrySet()) {
+            if (!firstPhase) {
+                writer.write(',');
+            }
+            firstPhase = false;
+
+            writer.write("\n    {\n      \"phase\": "); //$NON-NLS-1$
+            writeJsonString(writer, phase.getKey().getDisplayName());
+            writer.write(",\n      \"steps\": ["); //$NON-NLS-1$
+            boolean firstStep = true;
+            for (Totals totals : phase.getValue().values()) {
+                if (!firstStep) {
+                    writer.write(',');
+                }
+                firstStep = false;
+
+                writer.write("\n        {\"name\": "); //$NON-NLS-1$
+                writeJsonString(writer, totals.name);
+                writer.write(", \"count\": "); //$NON-NLS-1$
+                writer.write(Long.toString(totals.count));
+                writer.write(", \"elapsedNanos\": "); //$NON-NLS-1$
+                writer.write(Long.toString(totals.elapsedNanos));
+                writer.write(", \"maxNanos\": "); //$NON-NLS-1$
+                writer.write(Long.toString(totals.maxNanos));
+                writer.write(", \"allocatedBytes\": "); //$NON-NLS-1$
+                writer.write(Long.toString(totals.allocatedBytes));
+                writer.write('}');
+            }
+            writer.write("\n      ]\n    }"); //$NON-NLS-1$
+        }
+        writer.write("\n  ]\n}\n"); //$NON-NLS-1$
+    }
+
+    /**
+     * Writes all measurements as a JSON document to a UTF-8 encoded file.
+     *
+     * @param file
+     *            the file
+     * @throws IOException
+     *             if the file cannot be written
+     * @see #writeJson(Writer)
+     */
+    public void writeJson(File file) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file, false), "UTF-8")); //$NON-NLS-1$
+        try {
+            writeJson(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < ' ') {
+                writer.write(String.format("\\u%04x", (int) c)); //$NON-NLS-1$
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ENGLISH, "%.1f", nanos / 1000000.0); //$NON-NLS-1$
+    }
+
+    /**
+     * The sum of all measurements of a single step.
+     */
+    private static class Totals {
+        private String name;
+        private long count;
+        private long elapsedNanos;
+        private long maxNanos;
+        private long allocatedBytes;
+
+        Totals(String name) {
+            this.name = name;
+        }
+
+        void add(long elapsedNanos, long allocatedBytes) {
+            add(1L, elapsedNanos, elapsedNanos, allocatedBytes);
+        }
+
+        void addAll(Totals totals) {
+            add(totals.count, totals.elapsedNanos, totals.maxNanos, totals.allocatedBytes);
+        }
+
+        private void add(long count, long elapsedNanos, long maxNanos, long allocatedBytes) {
+            // once an allocation could not be measured, the total is unknown
+            if (allocatedBytes == -1L || (this.count > 0L && this.allocatedBytes == -1L)) {
+                this.allocatedBytes = -1L;
+            } else {
+                this.allocatedBytes += allocatedBytes;
+            }
+            this.count += count;
+            this.elapsedNanos += elapsedNanos;
+            this.maxNanos = Math.max(this.maxNanos, maxNanos);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+import org.mybatis.generator.api.MetricsListener;
+import org.mybatis.generator.api.MetricsPhase;
+
+/**
+ * This class is for internal use only. It measures a single step for a
+ * MetricsListener. If there is no listener, nothing is measured.
+ *
+ * <p>Allocations are measured through com.sun.management.ThreadMXBean where the JVM
+ * provides it. The class is accessed reflectively because it is not part of the Java
+ * platform.
+ */
+public class MetricsTimer {
+
+    private static final MetricsTimer DISABLED = new MetricsTimer(null, null, null);
+
+    private static final Object THREAD_MX_BEAN;
+
+    private static final Method GET_THREAD_ALLOCATED_BYTES;
+
+    static {
+        Object threadMXBean = null;
+        Method getThreadAllocatedBytes = null;
+        try {
+            Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean"); //$NON-NLS-1$
+            Object bean = ManagementFactory.getThreadMXBean();
+            if (beanClass.isInstance(bean)) {
+                Method isSupported = beanClass.getMethod("isThreadAllocatedMemorySupported"); //$NON-NLS-1$
+                Method isEnabled = beanClass.getMethod("isThreadAllocatedMemoryEnabled"); //$NON-NLS-1$
+                if (Boolean.TRUE.equals(isSupported.invoke(bean))
+                        && Boolean.TRUE.equals(isEnabled.invoke(bean))) {
+                    threadMXBean = bean;
+                    getThreadAllocatedBytes = beanClass.getMethod(
+                            "getThreadAllocatedBytes", long.class); //$NON-NLS-1$
+                }
+            }
+        } catch (Exception e) {
+            // not a HotSpot JVM - allocations are not measured
+            threadMXBean = null;
+            getThreadAllocatedBytes = null;
+        }
+        THREAD_MX_BEAN = threadMXBean;
+        GET_THREAD_ALLOCATED_BYTES = getThreadAllocatedBytes;
+    }
+
+    private MetricsListener listener;
+
+    private MetricsPhase phase;
+
+    private String name;
+
+    private long startNanos;
+
+    private long startBytes;
+
+    private MetricsTimer(MetricsListener listener, MetricsPhase phase, String name) {
+        super();
+        this.listener = listener;
+        this.phase = phase;
+        this.name = name;
+    }
+
+    /**
+     * Starts measuring a step.
+     *
+     * @param listener
+     *            the listener, or <code>null</code> if nothing should be measured
+     * @param phase
+     *            the phase
+     * @param name
+     *            the name of the step
+     * @return the timer - call <code>stop()</code> when the step ends
+     */
+    public static MetricsTimer start(MetricsListener listener, MetricsPhase phase,
+            String name) {
+        if (listener == null) {
+            return DISABLED;
+        }
+
+        MetricsTimer timer = new MetricsTimer(listener, phase, name);
+        timer.startBytes = getAllocatedBytes();
+        timer.startNanos = System.nanoTime();
+        return timer;
+    }
+
+    /**
+     * Ends the step and reports it to the listener.
+     */
+    public void stop() {
+        if (listener == null) {
+            return;
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = startBytes == -1L ? -1L : getAllocatedBytes() - startBytes;
+        listener.stepCompleted(phase, name, elapsedNanos, allocatedBytes);
+    }
+
+    private static long getAllocatedBytes() {
+        if (GET_THREAD_ALLOCATED_BYTES == null) {
+            return -1L;
+        }
+
+        try {
+            Long bytes = (Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_MX_BEAN,
+                    Thread.currentThread().getId());
+            return bytes.longValue();
+        } catch (Exception e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.ProgressCallback;
+import org.mybatis.generator.config.Context;
+
+/**
+ * This class is for internal use only. It generates the files for the introspected
+ * tables of a context on a fixed number of worker threads.
+ *
+ * <p>Generated files and warnings are merged in the order of the introspected tables,
+ * so the output is the same as with sequential generation. The progress callback is
+ * only ever called from the calling thread - the progress messages of each table are
+ * replayed when its files are merged.
+ */
+public class ParallelTableGenerator {
+
+    /** How long the calling thread waits for a result before polling for a cancel. */
+    private static final long CANCEL_POLL_MILLIS = 250L;
+
+    private Context context;
+
+    private int threads;
+
+    /**
+     * Instantiates a new parallel table generator.
+     *
+     * @param context
+     *            the context
+     * @param threads
+     *            the maximum number of workers
+     */
+    public ParallelTableGenerator(Context context, int threads) {
+        super();
+        this.context = context;
+        this.threads = threads;
+    }
+
+    /**
+     * Generates the files for the specified tables. This method is long running.
+     *
+     * @param introspectedTables
+     *            the tables to generate
+     * @param callback
+     *            the progress callback
+     * @param warnings
+     *            warnings are added to this list, in table order
+     * @return the files generated for each table, in table order
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     */
+    public List<TableFiles> generateFiles(
+            List<IntrospectedTable> introspectedTables,
+            ProgressCallback callback, List<String> warnings)
+            throws InterruptedException {
+
+        int poolSize = Math.min(threads, introspectedTables.size());
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize,
+                new GenerationThreadFactory(context.getId()));
+
+        List<Future<TableFiles>> futures = new ArrayList<Future<TableFiles>>();
+        try {
+            for (IntrospectedTable introspectedTable : introspectedTables) {
+                futures.add(executor.submit(new GenerationTask(introspectedTable)));
+            }
+            executor.shutdown();
+
+            List<TableFiles> answer = new ArrayList<TableFiles>();
+            for (Future<TableFiles> future : futures) {
+                TableFiles result = waitForResult(future, callback);
+                for (String taskName : result.taskNames) {
+                    callback.startTask(taskName);
+                }
+                warnings.addAll(result.warnings);
+                answer.add(result);
+
+                callback.checkCancel();
+            }
+
+            return answer;
+        } finally {
+            for (Future<TableFiles> future : futures) {
+                future.cancel(true);
+            }
+            executor.shutdownNow();
+            executor.awaitTermination(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private TableFiles waitForResult(Future<TableFiles> future,
+            ProgressCallback callback) throws InterruptedException {
+        while (true) {
+            try {
+                return future.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                callback.checkCancel();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof InterruptedException) {
+                    throw (InterruptedException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new RuntimeException(cause);
+                }
+            }
+        }
+    }
+
+    /**
+     * The files and warnings generated for a single introspected table.
+     */
+    public static class TableFiles {
+        private List<GeneratedJavaFile> javaFiles = new ArrayList<GeneratedJavaFile>();
+        private List<GeneratedXmlFile> xmlFiles = new ArrayList<GeneratedXmlFile>();
+        private List<String> warnings = new ArrayList<String>();
+        private List<String> taskNames = new ArrayList<String>();
+
+        public List<GeneratedJavaFile> getJavaFiles() {
+            return javaFiles;
+        }
+
+        public List<GeneratedXmlFile> getXmlFiles() {
+            return xmlFiles;
+        }
+    }
+
+    /**
+     * Generates the files of a single table. Warnings and progress messages are
+     * collected locally so they can be merged in table order.
+     */
+    private class GenerationTask implements Callable<TableFiles> {
+        private IntrospectedTable introspectedTable;
+
+        GenerationTask(IntrospectedTable introspectedTable) {
+            this.introspectedTable = introspectedTable;
+        }
+
+        @Override
+        public TableFiles call() throws InterruptedException {
+            TableFiles result = new TableFiles();
+            context.generateTableFiles(introspectedTable,
+                    new TaskProgressCallback(result.taskNames),
+                    result.javaFiles, result.xmlFiles, result.warnings);
+            return result;
+        }
+    }
+
+    /**
+     * Records the progress messages of a worker, and reports a cancel when the
+     * worker is interrupted.
+     */
+    private static class TaskProgressCallback extends NullProgressCallback {
+        private List<String> taskNames;
+
+        TaskProgressCallback(List<String> taskNames) {
+            this.taskNames = taskNames;
+        }
+
+        @Override
+        public void startTask(String taskName) {
+            taskNames.add(taskName);
+        }
+
+        @Override
+        public void checkCancel() throws InterruptedException {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private static class GenerationThreadFactory implements ThreadFactory {
+        private String contextId;
+        private AtomicInteger threadNumber = new AtomicInteger(1);
+
+        GenerationThreadFactory(String contextId) {
+            this.contextId = contextId;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mbg-generate-" + contextId //$NON-NLS-1$
+                    + "-" + threadNumber.getAndIncrement()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.mybatis.generator.api.GeneratedJavaFile;
 import org.mybatis.generator.api.GeneratedXmlFile;
 import org.mybatis.generator.api.Plugin;
 import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedForeignKey;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.dom.java.Field;
 import org.mybatis.generator.api.dom.java.Interface;
@@ -372,6 +373,51 @@ public final class PluginAggregator implements Plugin {
         return rc;
     }
 
+    public boolean sqlMapUpdateByPrimaryKeyDirtyElementGenerated(
+            XmlElement element, IntrospectedTable introspectedTable) {
+        boolean rc = true;
+
+        for (Plugin plugin : plugins) {
+            if (!plugin.sqlMapUpdateByPrimaryKeyDirtyElementGenerated(
+                    element, introspectedTable)) {
+                rc = false;
+                break;
+            }
+        }
+
+        return rc;
+    }
+
+    public boolean sqlMapJoinResultMapElementGenerated(XmlElement element,
+            IntrospectedTable introspectedTable, IntrospectedForeignKey foreignKey) {
+        boolean rc = true;
+
+        for (Plugin plugin : plugins) {
+            if (!plugin.sqlMapJoinResultMapElementGenerated(element,
+                    introspectedTable, foreignKey)) {
+                rc = false;
+                break;
+            }
+        }
+
+        return rc;
+    }
+
+    public boolean sqlMapSelectWithJoinByExampleElementGenerated(XmlElement element,
+            IntrospectedTable introspectedTable, IntrospectedForeignKey foreignKey) {
+        boolean rc = true;
+
+        for (Plugin plugin : plugins) {
+            if (!plugin.sqlMapSelectWithJoinByExampleElementGenerated(element,
+                    introspectedTable, foreignKey)) {
+                rc = false;
+                break;
+            }
+        }
+
+        return rc;
+    }
+
     public boolean sqlMapUpdateByPrimaryKeyWithBLOBsElementGenerated(
             XmlElement element, IntrospectedTable introspectedTable) {
         boolean rc = true;
@@ -537,6 +583,20 @@ public final class PluginAggregator implements Plugin {
         return rc;
     }
 
+    public boolean clientAsyncFacadeGenerated(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable) {
+        boolean rc = true;
+
+        for (Plugin plugin : plugins) {
+            if (!plugin.clientAsyncFacadeGenerated(topLevelClass, introspectedTable)) {
+                rc = false;
+                break;
+            }
+        }
+
+        return rc;
+    }
+
     public boolean clientSelectAllMethodGenerated(Method method,
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
@@ -762,6 +822,37 @@ public final class PluginAggregator implements Plugin {
         return rc;
     }
 
+    public boolean clientUpdateByPrimaryKeyDirtyMethodGenerated(Method method,
+            Interface interfaze, IntrospectedTable introspectedTable) {
+        boolean rc = true;
+
+        for (Plugin plugin : plugins) {
+            if (!plugin.clientUpdateByPrimaryKeyDirtyMethodGenerated(method,
+                    interfaze, introspectedTable)) {
+                rc = false;
+                break;
+            }
+        }
+
+        return rc;
+    }
+
+    public boolean clientSelectWithJoinByExampleMethodGenerated(Method method,
+            Interface interfaze, IntrospectedTable introspectedTable,
+            IntrospectedForeignKey foreignKey) {
+        boolean rc = true;
+
+        for (Plugin plugin : plugins) {
+            if (!plugin.clientSelectWithJoinByExampleMethodGenerated(method,
+                    interfaze, introspectedTable, foreignKey)) {
+                rc = false;
+                break;
+            }
+        }
+
+        return rc;
+    }
+
     public boolean clientUpdateByPrimaryKeySelectiveMethodGenerated(Method method,
             TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
         boolean rc = true;
@@ -1179,6 +1270,22 @@ public final class PluginAggregator implements Plugin {
         return rc;
     }
 
+    public boolean providerUpdateByPrimaryKeyDirtyMethodGenerated(
+            Method method, TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable) {
+        boolean rc = true;
+
+        for (Plugin plugin : plugins) {
+            if (!plugin.providerUpdateByPrimaryKeyDirtyMethodGenerated(method,
+                    topLevelClass, introspectedTable)) {
+                rc = false;
+                break;
+            }
+        }
+
+        return rc;
+    }
+
     public boolean sqlMapSelectAllElementGenerated(XmlElement element,
             IntrospectedTable introspectedTable) {
         boolean rc = true;
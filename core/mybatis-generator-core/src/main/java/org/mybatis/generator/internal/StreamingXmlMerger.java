@@ -0,0 +1,563 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.io.ByteArrayInputStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.mybatis.generator.config.MergeConstants;
+import org.mybatis.generator.exception.ShellException;
+
+/**
+ * This class is for internal use only. It merges a generated XML file into an
+ * existing XML file with a StAX parser, without building a DOM for either file.
+ * <p>
+ * The result is the same as the DOM based merge in {@link XmlFileMergerJaxp}: the
+ * root element takes the attributes of the new root element, the children of the
+ * new root element are placed first, and the generated elements of the existing
+ * file are removed together with the white space before them. The output is
+ * written with the escaping rules of {@link DomWriter}.
+ * <p>
+ * Files that cannot be merged in this way (no DOCTYPE, an internal DTD subset, or
+ * unexpanded entity references) are reported by returning null, and the caller
+ * falls back to the DOM based merge.
+ */
+class StreamingXmlMerger extends DomWriter {
+
+    private static final String REPORT_CDATA_EVENT =
+            "http://java.sun.com/xml/stream/properties/report-cdata-event"; //$NON-NLS-1$
+
+    private static final Pattern DOCTYPE_PATTERN = Pattern.compile(
+            "<!DOCTYPE\\s+([^\\s>\\[]+)" //$NON-NLS-1$
+            + "(?:\\s+PUBLIC\\s+(?:\"([^\"]*)\"|'([^']*)')\\s+(?:\"([^\"]*)\"|'([^']*)')" //$NON-NLS-1$
+            + "|\\s+SYSTEM\\s+(?:\"([^\"]*)\"|'([^']*)'))?\\s*>"); //$NON-NLS-1$
+
+    private static final XMLInputFactory INPUT_FACTORY = newInputFactory();
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        if (factory.isPropertySupported(REPORT_CDATA_EVENT)) {
+            factory.setProperty(REPORT_CDATA_EVENT, Boolean.TRUE);
+        }
+        factory.setXMLResolver(new XMLResolver() {
+            // don't read the DTD - see XmlFileMergerJaxp.NullEntityResolver
+            public Object resolveEntity(String publicID, String systemID,
+                    String baseURI, String namespace) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+        });
+        return factory;
+    }
+
+    /**
+     * Signals that a file uses a construct that is not supported by the streaming
+     * merge.
+     */
+    private static class UnsupportedContentException extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /** A comment or a run of text read ahead while looking for the generated tag. */
+    private static class LookaheadEvent {
+        private int eventType;
+        private String text;
+
+        LookaheadEvent(int eventType, String text) {
+            this.eventType = eventType;
+            this.text = text;
+        }
+    }
+
+    private static class DocType {
+        private String name;
+        private String publicId;
+        private String systemId;
+    }
+
+    /** True if the start tag of the last element written has not been closed. */
+    private boolean startTagOpen;
+
+    StreamingXmlMerger() {
+        super();
+    }
+
+    /**
+     * Merges the new file into the existing file.
+     *
+     * @param newFile
+     *            the generated file
+     * @param existingFile
+     *            the existing file
+     * @param existingFileName
+     *            the name of the existing file, for error messages
+     * @return the merged source, or null if the files must be merged with the DOM
+     *         based merge
+     * @throws XMLStreamException
+     *             if either file cannot be parsed
+     * @throws ShellException
+     *             if the files have different document types
+     */
+    public String merge(Reader newFile, Reader existingFile,
+            String existingFileName) throws XMLStreamException, ShellException {
+        try {
+            return mergeFiles(newFile, existingFile, existingFileName);
+        } catch (UnsupportedContentException e) {
+            return null;
+        }
+    }
+
+    private String mergeFiles(Reader newFile, Reader existingFile,
+            String existingFileName) throws XMLStreamException, ShellException,
+            UnsupportedContentException {
+        StringWriter sw = new StringWriter();
+        printWriter = new PrintWriter(sw);
+
+        // read the new file first - its root attributes and children are needed
+        // as soon as the existing root element is reached
+        XMLStreamReader reader = createReader(newFile);
+        isXML11 = "1.1".equals(reader.getVersion()); //$NON-NLS-1$
+        DocType newDocType;
+        Map<String, String> newRootAttributes;
+        String newChildren;
+        try {
+            newDocType = readToRootElement(reader);
+            newRootAttributes = getSortedAttributes(reader);
+            newChildren = copyNewChildren(reader);
+        } finally {
+            reader.close();
+        }
+
+        reader = createReader(existingFile);
+        try {
+            if (isXML11 != "1.1".equals(reader.getVersion())) { //$NON-NLS-1$
+                // the new children have been written with the escaping rules
+                // of the other XML version
+                throw new UnsupportedContentException();
+            }
+            DocType existingDocType = readToRootElement(reader);
+
+            if (!newDocType.name.equals(existingDocType.name)) {
+                throw new ShellException(getString("Warning.12", //$NON-NLS-1$
+                        existingFileName));
+            }
+
+            if (isXML11) {
+                printWriter.println("<?xml version=\"1.1\" encoding=\"UTF-8\"?>"); //$NON-NLS-1$
+            } else {
+                printWriter.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"); //$NON-NLS-1$
+            }
+            writeDocType(existingDocType);
+
+            writeStartTag(getQualifiedName(reader.getPrefix(), reader.getLocalName()),
+                    newRootAttributes);
+            if (newChildren.length() > 0) {
+                closeStartTag();
+                printWriter.print(newChildren);
+            }
+            copyExistingChildren(reader);
+        } finally {
+            reader.close();
+        }
+
+        printWriter.flush();
+        return sw.toString();
+    }
+
+    private static XMLStreamReader createReader(Reader reader) throws XMLStreamException {
+        // XMLInputFactory is not guaranteed to be thread safe
+        synchronized (INPUT_FACTORY) {
+            return INPUT_FACTORY.createXMLStreamReader(reader);
+        }
+    }
+
+    /**
+     * Reads up to the start of the root element. Comments and processing
+     * instructions outside the root element are dropped, as they are by the DOM
+     * based merge.
+     */
+    private static DocType readToRootElement(XMLStreamReader reader)
+            throws XMLStreamException, UnsupportedContentException {
+        DocType docType = null;
+        while (reader.hasNext()) {
+            int eventType = reader.next();
+            if (eventType == XMLStreamConstants.DTD) {
+                docType = parseDocType(reader.getText());
+            } else if (eventType == XMLStreamConstants.START_ELEMENT) {
+                if (docType == null) {
+                    throw new UnsupportedContentException();
+                }
+                return docType;
+            }
+        }
+
+        throw new UnsupportedContentException();
+    }
+
+    private static DocType parseDocType(String text) throws UnsupportedContentException {
+        Matcher matcher = DOCTYPE_PATTERN.matcher(text.trim());
+        if (!matcher.matches()) {
+            // most likely an internal subset
+            throw new UnsupportedContentException();
+        }
+
+        DocType docType = new DocType();
+        docType.name = matcher.group(1);
+        if (matcher.group(2) != null || matcher.group(3) != null) {
+            docType.publicId = matcher.group(2) == null ? matcher.group(3) : matcher.group(2);
+            docType.systemId = matcher.group(4) == null ? matcher.group(5) : matcher.group(4);
+        } else if (matcher.group(6) != null || matcher.group(7) != null) {
+            docType.systemId = matcher.group(6) == null ? matcher.group(7) : matcher.group(6);
+        }
+        return docType;
+    }
+
+    private void writeDocType(DocType docType) {
+        printWriter.print("<!DOCTYPE "); //$NON-NLS-1$
+        printWriter.print(docType.name);
+        if (docType.publicId != null) {
+            printWriter.print(" PUBLIC \""); //$NON-NLS-1$
+            printWriter.print(docType.publicId);
+            printWriter.print("\" \""); //$NON-NLS-1$
+            printWriter.print(docType.systemId);
+            printWriter.print('\"');
+        } else if (docType.systemId != null) {
+            printWriter.print(" SYSTEM \""); //$NON-NLS-1$
+            printWriter.print(docType.systemId);
+            printWriter.print('"');
+        }
+        printWriter.println('>');
+    }
+
+    /**
+     * Renders the children of the new root element, except for trailing white
+     * space. The reader is positioned on the start of the root element.
+     */
+    private String copyNewChildren(XMLStreamReader reader) throws XMLStreamException,
+            UnsupportedContentException {
+        PrintWriter documentWriter = printWriter;
+        StringWriter sw = new StringWriter();
+        printWriter = new PrintWriter(sw);
+
+        StringBuilder pendingText = new StringBuilder();
+        int depth = 0;
+        int eventType = reader.next();
+        while (depth > 0 || eventType != XMLStreamConstants.END_ELEMENT) {
+            if (depth == 0 && isText(eventType)) {
+                pendingText.append(reader.getText());
+            } else {
+                writeText(pendingText);
+                pendingText.setLength(0);
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+                copyEvent(reader);
+            }
+            eventType = reader.next();
+        }
+
+        if (!isWhiteSpace(pendingText)) {
+            writeText(pendingText);
+        }
+
+        printWriter.flush();
+        printWriter = documentWriter;
+        return sw.toString();
+    }
+
+    /**
+     * Copies the children of the existing root element, except for the generated
+     * elements and the white space before them. The reader is positioned on the
+     * start of the root element.
+     */
+    private void copyExistingChildren(XMLStreamReader reader) throws XMLStreamException,
+            UnsupportedContentException {
+        StringBuilder pendingText = new StringBuilder();
+        int eventType = reader.next();
+        while (eventType != XMLStreamConstants.END_ELEMENT) {
+            if (isText(eventType)) {
+                pendingText.append(reader.getText());
+            } else if (eventType == XMLStreamConstants.START_ELEMENT) {
+                copyOrSkipElement(reader, pendingText);
+                pendingText.setLength(0);
+            } else {
+                writeText(pendingText);
+                pendingText.setLength(0);
+                copyEvent(reader);
+            }
+            eventType = reader.next();
+        }
+
+        writeText(pendingText);
+        writeEndTag(getQualifiedName(reader.getPrefix(), reader.getLocalName()));
+    }
+
+    private void copyOrSkipElement(XMLStreamReader reader, StringBuilder pendingText)
+            throws XMLStreamException, UnsupportedContentException {
+        String name = getQualifiedName(reader.getPrefix(), reader.getLocalName());
+        Map<String, String> attributes = getSortedAttributes(reader);
+        boolean generated = isGeneratedId(attributes.get("id")); //$NON-NLS-1$
+
+        // check for new node format - if the first non-whitespace node
+        // is an XML comment, and the comment includes
+        // one of the old element tags,
+        // then it is a generated node
+        List<LookaheadEvent> lookahead = new ArrayList<LookaheadEvent>();
+        int eventType = reader.next();
+        while (!generated) {
+            if (eventType == XMLStreamConstants.COMMENT) {
+                String comment = reader.getText();
+                lookahead.add(new LookaheadEvent(eventType, comment));
+                generated = isGeneratedComment(comment);
+            } else if (isText(eventType) && isWhiteSpace(reader.getText())) {
+                lookahead.add(new LookaheadEvent(eventType, reader.getText()));
+            } else {
+                break;
+            }
+            eventType = reader.next();
+        }
+
+        if (generated) {
+            if (!isWhiteSpace(pendingText)) {
+                writeText(pendingText);
+            }
+            skipElement(reader);
+            return;
+        }
+
+        writeText(pendingText);
+        writeStartTag(name, attributes);
+        for (LookaheadEvent event : lookahead) {
+            if (event.eventType == XMLStreamConstants.COMMENT) {
+                writeComment(event.text);
+            } else {
+                writeText(event.text);
+            }
+        }
+
+        // the reader is on the first event that was not read ahead
+        int depth = 1;
+        while (true) {
+            if (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (reader.getEventType() == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+            copyEvent(reader);
+            if (depth == 0) {
+                break;
+            }
+            reader.next();
+        }
+    }
+
+    /**
+     * Skips the rest of an element. The reader is positioned anywhere inside the
+     * element, at the same depth as its direct children.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (true) {
+            if (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (reader.getEventType() == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                if (depth == 0) {
+                    return;
+                }
+            }
+            reader.next();
+        }
+    }
+
+    private void copyEvent(XMLStreamReader reader) throws UnsupportedContentException {
+        switch (reader.getEventType()) {
+        case XMLStreamConstants.START_ELEMENT:
+            writeStartTag(getQualifiedName(reader.getPrefix(), reader.getLocalName()),
+                    getSortedAttributes(reader));
+            break;
+
+        case XMLStreamConstants.END_ELEMENT:
+            writeEndTag(getQualifiedName(reader.getPrefix(), reader.getLocalName()));
+            break;
+
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+            writeText(reader.getText());
+            break;
+
+        case XMLStreamConstants.CDATA:
+            writeCData(reader.getText());
+            break;
+
+        case XMLStreamConstants.COMMENT:
+            writeComment(reader.getText());
+            break;
+
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+            writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+            break;
+
+        default:
+            // entity references are kept unexpanded by the DOM based merge
+            throw new UnsupportedContentException();
+        }
+    }
+
+    private void writeStartTag(String name, Map<String, String> attributes) {
+        closeStartTag();
+        printWriter.print('<');
+        printWriter.print(name);
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            printWriter.print(' ');
+            printWriter.print(attribute.getKey());
+            printWriter.print("=\""); //$NON-NLS-1$
+            normalizeAndPrint(attribute.getValue(), true);
+            printWriter.print('"');
+        }
+        startTagOpen = true;
+    }
+
+    private void closeStartTag() {
+        if (startTagOpen) {
+            printWriter.print('>');
+            startTagOpen = false;
+        }
+    }
+
+    private void writeEndTag(String name) {
+        if (startTagOpen) {
+            printWriter.print(" />"); //$NON-NLS-1$
+            startTagOpen = false;
+        } else {
+            printWriter.print("</"); //$NON-NLS-1$
+            printWriter.print(name);
+            printWriter.print('>');
+        }
+    }
+
+    private void writeText(CharSequence text) {
+        if (text.length() > 0) {
+            closeStartTag();
+            normalizeAndPrint(text.toString(), false);
+        }
+    }
+
+    private void writeCData(String data) {
+        closeStartTag();
+        printWriter.print("<![CDATA["); //$NON-NLS-1$
+        // write line endings as they were in the original - see DomWriter
+        int len = data.length();
+        for (int i = 0; i < len; i++) {
+            char c = data.charAt(i);
+            if (c == '\n') {
+                printWriter.print(System.getProperty("line.separator")); //$NON-NLS-1$
+            } else {
+                printWriter.print(c);
+            }
+        }
+        printWriter.print("]]>"); //$NON-NLS-1$
+    }
+
+    private void writeComment(String comment) {
+        closeStartTag();
+        printWriter.print("<!--"); //$NON-NLS-1$
+        normalizeAndPrint(comment, false);
+        printWriter.print("-->"); //$NON-NLS-1$
+    }
+
+    private void writeProcessingInstruction(String target, String data) {
+        closeStartTag();
+        printWriter.print("<?"); //$NON-NLS-1$
+        printWriter.print(target);
+        if (data != null && data.length() > 0) {
+            printWriter.print(' ');
+            printWriter.print(data);
+        }
+        printWriter.print("?>"); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the attributes of the current element sorted by name, the order they
+     * are written in by {@link DomWriter}.
+     */
+    private static Map<String, String> getSortedAttributes(XMLStreamReader reader) {
+        Map<String, String> attributes = new TreeMap<String, String>();
+        int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            attributes.put(getQualifiedName(reader.getAttributePrefix(i),
+                    reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+        }
+        return attributes;
+    }
+
+    private static String getQualifiedName(String prefix, String localName) {
+        if (prefix == null || prefix.length() == 0) {
+            return localName;
+        }
+        return prefix + ':' + localName;
+    }
+
+    private static boolean isText(int eventType) {
+        return eventType == XMLStreamConstants.CHARACTERS
+                || eventType == XMLStreamConstants.SPACE;
+    }
+
+    private static boolean isWhiteSpace(CharSequence text) {
+        return text.toString().trim().length() == 0;
+    }
+
+    private static boolean isGeneratedId(String id) {
+        if (id != null) {
+            for (String prefix : MergeConstants.OLD_XML_ELEMENT_PREFIXES) {
+                if (id.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isGeneratedComment(String comment) {
+        for (String tag : MergeConstants.OLD_ELEMENT_TAGS) {
+            if (comment.contains(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.mybatis.generator.api.Plugin;
+
+/**
+ * This class is for internal use only. It wraps a plugin that is not thread safe
+ * so that every call to the plugin is synchronized on the plugin instance. It is
+ * used when the tables of a context are generated in parallel.
+ */
+public class SynchronizedPlugin implements InvocationHandler {
+
+    private Plugin plugin;
+
+    private SynchronizedPlugin(Plugin plugin) {
+        super();
+        this.plugin = plugin;
+    }
+
+    /**
+     * Returns a plugin that forwards every call to the specified plugin while
+     * holding the lock of that plugin.
+     *
+     * @param plugin
+     *            the plugin
+     * @return the synchronized plugin
+     */
+    public static Plugin synchronizedPlugin(Plugin plugin) {
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(),
+                new Class<?>[] { Plugin.class }, new SynchronizedPlugin(plugin));
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable {
+        synchronized (plugin) {
+            try {
+                return method.invoke(plugin, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.mybatis.generator.api.MetricsListener;
+import org.mybatis.generator.api.MetricsPhase;
+import org.mybatis.generator.api.Plugin;
+
+/**
+ * This class is for internal use only. It wraps a plugin so that the time spent in
+ * every call to the plugin is reported to a MetricsListener.
+ */
+public class TimedPlugin implements InvocationHandler {
+
+    private Plugin plugin;
+
+    private String pluginName;
+
+    private MetricsListener listener;
+
+    private TimedPlugin(Plugin plugin, String pluginName, MetricsListener listener) {
+        super();
+        this.plugin = plugin;
+        this.pluginName = pluginName;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns a plugin that forwards every call to the specified plugin and reports
+     * the time of the call.
+     *
+     * @param plugin
+     *            the plugin
+     * @param pluginName
+     *            the name the calls are reported under
+     * @param listener
+     *            the metrics listener
+     * @return the timed plugin
+     */
+    public static Plugin timedPlugin(Plugin plugin, String pluginName,
+            MetricsListener listener) {
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(),
+                new Class<?>[] { Plugin.class },
+                new TimedPlugin(plugin, pluginName, listener));
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable {
+        MetricsTimer timer = MetricsTimer.start(listener, MetricsPhase.PLUGIN,
+                pluginName + '.' + method.getName());
+        try {
+            return method.invoke(plugin, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            timer.stop();
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
@@ -28,6 +29,7 @@ import java.util.List;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 
 import org.mybatis.generator.api.GeneratedXmlFile;
 import org.mybatis.generator.config.MergeConstants;
@@ -65,6 +67,16 @@ public class XmlFileMergerJaxp {
         }
     }
 
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY =
+            newDocumentBuilderFactory();
+
+    /**
+     * Creating a DocumentBuilder is expensive, so every thread keeps its own
+     * builder and resets it before each merge.
+     */
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS =
+            new ThreadLocal<DocumentBuilder>();
+
     /**
      * Utility class - no instances allowed
      */
@@ -72,11 +84,54 @@ public class XmlFileMergerJaxp {
         super();
     }
 
+    private static DocumentBuilderFactory newDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setExpandEntityReferences(false);
+        return factory;
+    }
+
+    private static DocumentBuilder getDocumentBuilder()
+            throws ParserConfigurationException {
+        DocumentBuilder builder = DOCUMENT_BUILDERS.get();
+        if (builder == null) {
+            // DocumentBuilderFactory is not guaranteed to be thread safe
+            synchronized (DOCUMENT_BUILDER_FACTORY) {
+                builder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+            }
+            DOCUMENT_BUILDERS.set(builder);
+        } else {
+            builder.reset();
+        }
+
+        // reset() removes the entity resolver
+        builder.setEntityResolver(new NullEntityResolver());
+        return builder;
+    }
+
+    /**
+     * Merges the generated file into the existing file. The files are merged with a
+     * streaming parser if possible, and with DOM otherwise. Both produce the same
+     * result.
+     *
+     * @param generatedXmlFile
+     *            the generated file
+     * @param existingFile
+     *            the existing file
+     * @return the merged source
+     * @throws ShellException
+     *             if the files cannot be merged
+     */
     public static String getMergedSource(GeneratedXmlFile generatedXmlFile,
             File existingFile) throws ShellException {
 
+        String newContent = generatedXmlFile.getFormattedContent();
         try {
-            return getMergedSource(new InputSource(new StringReader(generatedXmlFile.getFormattedContent())),
+            String mergedSource = getStreamingMergedSource(newContent, existingFile);
+            if (mergedSource != null) {
+                return mergedSource;
+            }
+
+            return getMergedSource(new InputSource(new StringReader(newContent)),
                 new InputSource(new InputStreamReader(new FileInputStream(existingFile), "UTF-8")), //$NON-NLS-1$
                 existingFile.getName());
         } catch (IOException e) {
@@ -90,16 +145,30 @@ public class XmlFileMergerJaxp {
                     existingFile.getName()), e);
         }
     }
-    
+
+    /**
+     * Returns null if the files must be merged with DOM. This is also the case if
+     * either file cannot be parsed, so that the DOM parser reports the error.
+     */
+    private static String getStreamingMergedSource(String newContent, File existingFile)
+            throws IOException, ShellException {
+        Reader existingReader = new InputStreamReader(
+                new FileInputStream(existingFile), "UTF-8"); //$NON-NLS-1$
+        try {
+            return new StreamingXmlMerger().merge(new StringReader(newContent),
+                    existingReader, existingFile.getName());
+        } catch (XMLStreamException e) {
+            return null;
+        } finally {
+            existingReader.close();
+        }
+    }
+
     public static String getMergedSource(InputSource newFile,
             InputSource existingFile, String existingFileName) throws IOException, SAXException,
             ParserConfigurationException, ShellException {
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory
-                .newInstance();
-        factory.setExpandEntityReferences(false);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        builder.setEntityResolver(new NullEntityResolver());
+        DocumentBuilder builder = getDocumentBuilder();
 
         Document existingDocument = builder.parse(existingFile);
         Document newDocument = builder.parse(newFile);
@@ -17,6 +17,8 @@ package org.mybatis.generator.internal.db;
 
 import static org.mybatis.generator.internal.util.StringUtility.composeFullyQualifiedTableName;
 
+import java.io.Serializable;
+
 /**
  * This class holds the actual catalog, schema, and table name returned from the
  * database introspection.
@@ -24,7 +26,9 @@ import static org.mybatis.generator.internal.util.StringUtility.composeFullyQual
  * @author Jeff Butler
  * 
  */
-public class ActualTableName {
+public class ActualTableName implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String tableName;
     private String catalog;
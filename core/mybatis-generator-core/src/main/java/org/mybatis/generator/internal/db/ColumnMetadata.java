@@ -0,0 +1,143 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.io.Serializable;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+
+/**
+ * This class holds one row returned from <code>DatabaseMetaData.getColumns()</code>.
+ * Rows are captured in this form so they can be cached and used to build a fresh
+ * IntrospectedColumn for every table configuration that refers to the table, and
+ * so they can be saved in an introspection snapshot.
+ */
+public class ColumnMetadata implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private ActualTableName actualTableName;
+    private int jdbcType;
+    private int length;
+    private String columnName;
+    private boolean nullable;
+    private int scale;
+    private String remarks;
+    private String defaultValue;
+    private Boolean autoIncrement;
+    private Boolean generatedColumn;
+
+    /**
+     * Reads the current row of a result set returned from <code>DatabaseMetaData.getColumns()</code>.
+     *
+     * @param rs
+     *            the result set, positioned on a row
+     * @param supportsIsAutoIncrement
+     *            true if the result set has an IS_AUTOINCREMENT column
+     * @param supportsIsGeneratedColumn
+     *            true if the result set has an IS_GENERATEDCOLUMN column
+     * @throws SQLException
+     *             if the row cannot be read
+     */
+    public ColumnMetadata(ResultSet rs, boolean supportsIsAutoIncrement,
+            boolean supportsIsGeneratedColumn) throws SQLException {
+        super();
+        jdbcType = rs.getInt("DATA_TYPE"); //$NON-NLS-1$
+        length = rs.getInt("COLUMN_SIZE"); //$NON-NLS-1$
+        columnName = rs.getString("COLUMN_NAME"); //$NON-NLS-1$
+        nullable = rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable; //$NON-NLS-1$
+        scale = rs.getInt("DECIMAL_DIGITS"); //$NON-NLS-1$
+        remarks = rs.getString("REMARKS"); //$NON-NLS-1$
+        defaultValue = rs.getString("COLUMN_DEF"); //$NON-NLS-1$
+
+        if (supportsIsAutoIncrement) {
+            autoIncrement = "YES".equals(rs.getString("IS_AUTOINCREMENT")); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        if (supportsIsGeneratedColumn) {
+            generatedColumn = "YES".equals(rs.getString("IS_GENERATEDCOLUMN")); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        actualTableName = new ActualTableName(
+                rs.getString("TABLE_CAT"), //$NON-NLS-1$
+                rs.getString("TABLE_SCHEM"), //$NON-NLS-1$
+                rs.getString("TABLE_NAME")); //$NON-NLS-1$
+    }
+
+    public ActualTableName getActualTableName() {
+        return actualTableName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public int getJdbcType() {
+        return jdbcType;
+    }
+
+    /**
+     * Copies the database metadata into the introspected column.
+     *
+     * @param introspectedColumn
+     *            the introspected column
+     */
+    public void applyTo(IntrospectedColumn introspectedColumn) {
+        introspectedColumn.setJdbcType(jdbcType);
+        introspectedColumn.setLength(length);
+        introspectedColumn.setActualColumnName(columnName);
+        introspectedColumn.setNullable(nullable);
+        introspectedColumn.setScale(scale);
+        introspectedColumn.setRemarks(remarks);
+        introspectedColumn.setDefaultValue(defaultValue);
+
+        if (autoIncrement != null) {
+            introspectedColumn.setAutoIncrement(autoIncrement);
+        }
+
+        if (generatedColumn != null) {
+            introspectedColumn.setGeneratedColumn(generatedColumn);
+        }
+    }
+
+    /**
+     * Returns true if the result set returned from <code>DatabaseMetaData.getColumns()</code>
+     * contains the named column. Some drivers do not return the newer columns.
+     *
+     * @param rsmd
+     *            the result set meta data
+     * @param name
+     *            the column name
+     * @return true if the column is present
+     * @throws SQLException
+     *             if the meta data cannot be read
+     */
+    public static boolean hasColumn(ResultSetMetaData rsmd, String name)
+            throws SQLException {
+        int colCount = rsmd.getColumnCount();
+        for (int i = 1; i <= colCount; i++) {
+            if (name.equals(rsmd.getColumnName(i))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
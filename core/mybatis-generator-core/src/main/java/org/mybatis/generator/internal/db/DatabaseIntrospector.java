@@ -26,13 +26,15 @@ import static org.mybatis.generator.internal.util.messages.Messages.getString;
 
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.regex.Matcher;
@@ -40,8 +42,11 @@ import java.util.regex.Pattern;
 
 import org.mybatis.generator.api.FullyQualifiedTable;
 import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedForeignKey;
+import org.mybatis.generator.api.IntrospectedIndex;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.JavaTypeResolver;
+import org.mybatis.generator.api.MetricsPhase;
 import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
 import org.mybatis.generator.api.dom.java.JavaReservedWords;
 import org.mybatis.generator.config.ColumnOverride;
@@ -49,6 +54,7 @@ import org.mybatis.generator.config.Context;
 import org.mybatis.generator.config.GeneratedKey;
 import org.mybatis.generator.config.PropertyRegistry;
 import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.internal.MetricsTimer;
 import org.mybatis.generator.internal.ObjectFactory;
 import org.mybatis.generator.logging.Log;
 import org.mybatis.generator.logging.LogFactory;
@@ -75,6 +81,24 @@ public class DatabaseIntrospector {
     /** The logger. */
     private Log logger;
 
+    /** The bulk metadata cache, null if bulk introspection is not enabled. */
+    private SchemaMetadataCache schemaMetadataCache;
+
+    /** The schema metadata that served each table read through the bulk metadata cache. */
+    private Map<ActualTableName, SchemaMetadataCache.SchemaMetadata> bulkTables;
+
+    /** The introspection snapshot, null if no snapshot is recorded or replayed. */
+    private IntrospectionSnapshot snapshot;
+
+    /** If true, metadata is read from the snapshot instead of the database. */
+    private boolean replaySnapshot;
+
+    /** If true, the indexes of the tables are used by the configuration. */
+    private boolean introspectIndexes;
+
+    /** If true, the foreign keys of the tables are used by the configuration. */
+    private boolean introspectForeignKeys;
+
     /**
      * Instantiates a new database introspector.
      *
@@ -90,24 +114,110 @@ public class DatabaseIntrospector {
     public DatabaseIntrospector(Context context,
             DatabaseMetaData databaseMetaData,
             JavaTypeResolver javaTypeResolver, List<String> warnings) {
+        this(context, databaseMetaData, javaTypeResolver, warnings,
+                isTrue(context.getProperty(PropertyRegistry.CONTEXT_BULK_INTROSPECTION))
+                        ? new SchemaMetadataCache() : null);
+    }
+
+    /**
+     * Instantiates a new database introspector that reads table metadata through the
+     * specified bulk metadata cache. The cache may be shared with other introspectors.
+     *
+     * @param context
+     *            the context
+     * @param databaseMetaData
+     *            the database meta data
+     * @param javaTypeResolver
+     *            the java type resolver
+     * @param warnings
+     *            the warnings
+     * @param schemaMetadataCache
+     *            the bulk metadata cache, or null to read the metadata of each table
+     *            with separate queries
+     */
+    public DatabaseIntrospector(Context context,
+            DatabaseMetaData databaseMetaData,
+            JavaTypeResolver javaTypeResolver, List<String> warnings,
+            SchemaMetadataCache schemaMetadataCache) {
         super();
         this.context = context;
         this.databaseMetaData = databaseMetaData;
         this.javaTypeResolver = javaTypeResolver;
         this.warnings = warnings;
+        this.schemaMetadataCache = schemaMetadataCache;
+        bulkTables = new HashMap<ActualTableName, SchemaMetadataCache.SchemaMetadata>();
+        introspectIndexes = context.isIndexIntrospectionRequired();
+        introspectForeignKeys = context.isForeignKeyIntrospectionRequired();
         logger = LogFactory.getLog(getClass());
     }
 
+    /**
+     * Sets the introspection snapshot. When recording, all metadata read from the
+     * database is also added to the snapshot. When replaying, all metadata is read from
+     * the snapshot and the database meta data is never used (it may be null).
+     *
+     * @param snapshot
+     *            the snapshot
+     * @param replay
+     *            true to read metadata from the snapshot, false to record metadata in it
+     */
+    public void setIntrospectionSnapshot(IntrospectionSnapshot snapshot,
+            boolean replay) {
+        this.snapshot = snapshot;
+        this.replaySnapshot = replay;
+    }
+
+    private boolean isRecordingSnapshot() {
+        return snapshot != null && !replaySnapshot;
+    }
+
     /**
      * Calculate primary key.
      *
+     * @param actualTableName
+     *            the actual table name
      * @param table
      *            the table
      * @param introspectedTable
      *            the introspected table
      */
-    private void calculatePrimaryKey(FullyQualifiedTable table,
-            IntrospectedTable introspectedTable) {
+    private void calculatePrimaryKey(ActualTableName actualTableName,
+            FullyQualifiedTable table, IntrospectedTable introspectedTable) {
+        List<String> keyColumns = null;
+        if (replaySnapshot) {
+            keyColumns = snapshot.getPrimaryKeyColumns(actualTableName);
+        } else {
+            SchemaMetadataCache.SchemaMetadata schemaMetadata = bulkTables.get(actualTableName);
+            if (schemaMetadata != null) {
+                keyColumns = schemaMetadata.getPrimaryKeyColumns(actualTableName);
+            }
+
+            if (keyColumns == null) {
+                keyColumns = readPrimaryKeyColumns(table);
+                if (keyColumns == null) {
+                    return;
+                }
+            }
+
+            if (isRecordingSnapshot()) {
+                snapshot.setPrimaryKeyColumns(actualTableName, keyColumns);
+            }
+        }
+
+        for (String columnName : keyColumns) {
+            introspectedTable.addPrimaryKeyColumn(columnName);
+        }
+    }
+
+    /**
+     * Reads the primary key columns of a table from the database.
+     *
+     * @param table
+     *            the table
+     * @return the primary key columns in key sequence order, or null if the primary
+     *         key could not be read
+     */
+    private List<String> readPrimaryKeyColumns(FullyQualifiedTable table) {
         ResultSet rs = null;
 
         try {
@@ -118,7 +228,7 @@ public class DatabaseIntrospector {
         } catch (SQLException e) {
             closeResultSet(rs);
             warnings.add(getString("Warning.15")); //$NON-NLS-1$
-            return;
+            return null;
         }
 
         try {
@@ -130,11 +240,255 @@ public class DatabaseIntrospector {
                 keyColumns.put(keySeq, columnName);
             }
             
-            for (String columnName : keyColumns.values()) {
-                introspectedTable.addPrimaryKeyColumn(columnName);
-            }
+            return new ArrayList<String>(keyColumns.values());
         } catch (SQLException e) {
             // ignore the primary key if there's any error
+            return new ArrayList<String>();
+        } finally {
+            closeResultSet(rs);
+        }
+    }
+
+    /**
+     * Calculates the indexes of a table, and the estimated number of rows in the table
+     * if the database reports it.
+     *
+     * @param actualTableName
+     *            the actual table name
+     * @param table
+     *            the table
+     * @param introspectedTable
+     *            the introspected table
+     */
+    private void calculateIndexes(ActualTableName actualTableName,
+            FullyQualifiedTable table, IntrospectedTable introspectedTable) {
+        // a snapshot holds the indexes even if they are not used, so that it can be
+        // replayed after the configuration changed
+        if (!introspectIndexes && !isRecordingSnapshot()) {
+            return;
+        }
+
+        List<IndexMetadata> indexes;
+        if (replaySnapshot) {
+            indexes = snapshot.getIndexes(actualTableName);
+            introspectedTable.setEstimatedRowCount(snapshot.getRowCount(actualTableName));
+        } else {
+            indexes = readIndexes(table, introspectedTable);
+            if (isRecordingSnapshot()) {
+                snapshot.setIndexes(actualTableName, indexes,
+                        introspectedTable.getEstimatedRowCount());
+            }
+        }
+
+        if (!introspectIndexes) {
+            return;
+        }
+
+        Set<List<IntrospectedColumn>> indexedColumns = new HashSet<List<IntrospectedColumn>>();
+        indexedColumns.add(introspectedTable.getPrimaryKeyColumns());
+        for (IndexMetadata indexMetadata : indexes) {
+            IntrospectedIndex introspectedIndex = new IntrospectedIndex(
+                    indexMetadata.getIndexName(), indexMetadata.isUnique());
+            for (String columnName : indexMetadata.getColumnNames()) {
+                IntrospectedColumn introspectedColumn = introspectedTable.getColumn(columnName);
+                if (introspectedColumn == null) {
+                    // an expression, or an ignored column
+                    introspectedIndex = null;
+                    break;
+                }
+                introspectedIndex.addColumn(introspectedColumn);
+            }
+
+            // skip the index of the primary key, and indexes on the same columns as an
+            // index that was already added
+            if (introspectedIndex != null
+                    && indexedColumns.add(introspectedIndex.getColumns())) {
+                introspectedTable.addIndex(introspectedIndex);
+            }
+        }
+    }
+
+    /**
+     * Reads the indexes of a table from the database. The estimated number of rows in
+     * the table is set in the introspected table if the database reports it.
+     *
+     * @param table
+     *            the table
+     * @param introspectedTable
+     *            the introspected table
+     * @return the indexes, or an empty list if the indexes could not be read
+     */
+    private List<IndexMetadata> readIndexes(FullyQualifiedTable table,
+            IntrospectedTable introspectedTable) {
+        ResultSet rs = null;
+
+        try {
+            // approximate statistics, so the driver does not analyze the table
+            rs = databaseMetaData.getIndexInfo(
+                    table.getIntrospectedCatalog(), table
+                            .getIntrospectedSchema(), table
+                            .getIntrospectedTableName(), false, true);
+        } catch (SQLException e) {
+            // views and some table types have no index information
+            closeResultSet(rs);
+            return new ArrayList<IndexMetadata>();
+        }
+
+        try {
+            Map<String, IndexMetadata> indexes = new LinkedHashMap<String, IndexMetadata>();
+            Map<String, Map<Short, String>> indexColumns = new HashMap<String, Map<Short, String>>();
+            while (rs.next()) {
+                if (rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) { //$NON-NLS-1$
+                    introspectedTable.setEstimatedRowCount(rs.getLong("CARDINALITY")); //$NON-NLS-1$
+                    continue;
+                }
+
+                String indexName = rs.getString("INDEX_NAME"); //$NON-NLS-1$
+                if (indexName == null) {
+                    continue;
+                }
+
+                IndexMetadata indexMetadata = indexes.get(indexName);
+                if (indexMetadata == null) {
+                    indexMetadata = new IndexMetadata(indexName,
+                            !rs.getBoolean("NON_UNIQUE")); //$NON-NLS-1$
+                    indexes.put(indexName, indexMetadata);
+                    indexColumns.put(indexName, new TreeMap<Short, String>());
+                }
+
+                indexColumns.get(indexName).put(rs.getShort("ORDINAL_POSITION"), //$NON-NLS-1$
+                        rs.getString("COLUMN_NAME")); //$NON-NLS-1$
+            }
+
+            for (IndexMetadata indexMetadata : indexes.values()) {
+                for (String columnName : indexColumns.get(indexMetadata.getIndexName()).values()) {
+                    indexMetadata.addColumnName(columnName);
+                }
+            }
+
+            return new ArrayList<IndexMetadata>(indexes.values());
+        } catch (SQLException e) {
+            // ignore the indexes if there's any error
+            return new ArrayList<IndexMetadata>();
+        } finally {
+            closeResultSet(rs);
+        }
+    }
+
+    /**
+     * Calculates the foreign keys of a table. Foreign keys are only resolved against
+     * the referenced table once all tables of the context are introspected.
+     *
+     * @param actualTableName
+     *            the actual table name
+     * @param table
+     *            the table
+     * @param introspectedTable
+     *            the introspected table
+     */
+    private void calculateForeignKeys(ActualTableName actualTableName,
+            FullyQualifiedTable table, IntrospectedTable introspectedTable) {
+        // as with the indexes, a snapshot holds the foreign keys even if they are not used
+        if (!introspectForeignKeys && !isRecordingSnapshot()) {
+            return;
+        }
+
+        List<ForeignKeyMetadata> foreignKeys;
+        if (replaySnapshot) {
+            foreignKeys = snapshot.getForeignKeys(actualTableName);
+        } else {
+            foreignKeys = readForeignKeys(table);
+            if (isRecordingSnapshot()) {
+                snapshot.setForeignKeys(actualTableName, foreignKeys);
+            }
+        }
+
+        if (!introspectForeignKeys) {
+            return;
+        }
+
+        for (ForeignKeyMetadata foreignKeyMetadata : foreignKeys) {
+            IntrospectedForeignKey introspectedForeignKey = new IntrospectedForeignKey(
+                    foreignKeyMetadata.getName(),
+                    foreignKeyMetadata.getReferencedCatalog(),
+                    foreignKeyMetadata.getReferencedSchema(),
+                    foreignKeyMetadata.getReferencedTableName());
+            for (int i = 0; i < foreignKeyMetadata.getColumnNames().size(); i++) {
+                IntrospectedColumn introspectedColumn = introspectedTable
+                        .getColumn(foreignKeyMetadata.getColumnNames().get(i));
+                if (introspectedColumn == null) {
+                    // an ignored column
+                    introspectedForeignKey = null;
+                    break;
+                }
+                introspectedForeignKey.addColumn(introspectedColumn,
+                        foreignKeyMetadata.getReferencedColumnNames().get(i));
+            }
+
+            if (introspectedForeignKey != null) {
+                introspectedTable.addImportedKey(introspectedForeignKey);
+            }
+        }
+    }
+
+    /**
+     * Reads the foreign keys of a table from the database.
+     *
+     * @param table
+     *            the table
+     * @return the foreign keys, or an empty list if the foreign keys could not be read
+     */
+    private List<ForeignKeyMetadata> readForeignKeys(FullyQualifiedTable table) {
+        ResultSet rs = null;
+
+        try {
+            rs = databaseMetaData.getImportedKeys(
+                    table.getIntrospectedCatalog(), table
+                            .getIntrospectedSchema(), table
+                            .getIntrospectedTableName());
+        } catch (SQLException e) {
+            closeResultSet(rs);
+            return new ArrayList<ForeignKeyMetadata>();
+        }
+
+        try {
+            // rows are ordered by the referenced table and KEY_SEQ, so the columns of
+            // several keys that reference the same table are interleaved. The rows are
+            // grouped by FK_NAME. Some databases return no FK_NAME, then a new key
+            // starts at every KEY_SEQ of 1
+            List<ForeignKeyMetadata> answer = new ArrayList<ForeignKeyMetadata>();
+            Map<String, ForeignKeyMetadata> namedKeys = new HashMap<String, ForeignKeyMetadata>();
+            ForeignKeyMetadata unnamedKey = null;
+            while (rs.next()) {
+                String name = rs.getString("FK_NAME"); //$NON-NLS-1$
+                ForeignKeyMetadata foreignKeyMetadata;
+                if (name == null) {
+                    foreignKeyMetadata = rs.getShort("KEY_SEQ") == 1 ? null : unnamedKey; //$NON-NLS-1$
+                } else {
+                    foreignKeyMetadata = namedKeys.get(name);
+                }
+
+                if (foreignKeyMetadata == null) {
+                    foreignKeyMetadata = new ForeignKeyMetadata(name,
+                            rs.getString("PKTABLE_CAT"), //$NON-NLS-1$
+                            rs.getString("PKTABLE_SCHEM"), //$NON-NLS-1$
+                            rs.getString("PKTABLE_NAME")); //$NON-NLS-1$
+                    answer.add(foreignKeyMetadata);
+                    if (name == null) {
+                        unnamedKey = foreignKeyMetadata;
+                    } else {
+                        namedKeys.put(name, foreignKeyMetadata);
+                    }
+                }
+
+                foreignKeyMetadata.addColumnName(rs.getString("FKCOLUMN_NAME"), //$NON-NLS-1$
+                        rs.getString("PKCOLUMN_NAME")); //$NON-NLS-1$
+            }
+
+            return answer;
+        } catch (SQLException e) {
+            // ignore the foreign keys if there's any error
+            return new ArrayList<ForeignKeyMetadata>();
         } finally {
             closeResultSet(rs);
         }
@@ -217,6 +571,25 @@ public class DatabaseIntrospector {
      */
     public List<IntrospectedTable> introspectTables(TableConfiguration tc)
             throws SQLException {
+        MetricsTimer timer = MetricsTimer.start(context.getMetricsListener(),
+                MetricsPhase.INTROSPECT, composeFullyQualifiedTableName(tc.getCatalog(),
+                        tc.getSchema(), tc.getTableName(), '.'));
+        try {
+            return introspectConfiguredTables(tc);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private List<IntrospectedTable> introspectConfiguredTables(TableConfiguration tc)
+            throws SQLException {
+
+        if (replaySnapshot && !snapshot.containsTable(tc)) {
+            warnings.add(getString("Warning.29", //$NON-NLS-1$
+                    composeFullyQualifiedTableName(tc.getCatalog(),
+                            tc.getSchema(), tc.getTableName(), '.')));
+            return null;
+        }
 
         // get the raw columns from the DB
         Map<ActualTableName, List<IntrospectedColumn>> columns = getColumns(tc);
@@ -527,6 +900,14 @@ public class DatabaseIntrospector {
      */
     private Map<ActualTableName, List<IntrospectedColumn>> getColumns(
             TableConfiguration tc) throws SQLException {
+        if (replaySnapshot) {
+            Map<ActualTableName, List<IntrospectedColumn>> answer = new HashMap<ActualTableName, List<IntrospectedColumn>>();
+            for (ColumnMetadata columnMetadata : snapshot.getColumns(tc)) {
+                addColumn(tc, columnMetadata, answer);
+            }
+            return answer;
+        }
+
         String localCatalog;
         String localSchema;
         String localTableName;
@@ -560,35 +941,11 @@ public class DatabaseIntrospector {
             localTableName = tc.getTableName();
         }
 
+        String unescapedTableName = localTableName;
         if (tc.isWildcardEscapingEnabled()) {
             String escapeString = databaseMetaData.getSearchStringEscape();
-
-            StringBuilder sb = new StringBuilder();
-            StringTokenizer st;
-            if (localSchema != null) {
-                st = new StringTokenizer(localSchema, "_%", true); //$NON-NLS-1$
-                while (st.hasMoreTokens()) {
-                    String token = st.nextToken();
-                    if (token.equals("_") //$NON-NLS-1$
-                            || token.equals("%")) { //$NON-NLS-1$
-                        sb.append(escapeString);
-                    }
-                    sb.append(token);
-                }
-                localSchema = sb.toString();
-            }
-
-            sb.setLength(0);
-            st = new StringTokenizer(localTableName, "_%", true); //$NON-NLS-1$
-            while (st.hasMoreTokens()) {
-                String token = st.nextToken();
-                if (token.equals("_") //$NON-NLS-1$
-                        || token.equals("%")) { //$NON-NLS-1$
-                    sb.append(escapeString);
-                }
-                sb.append(token);
-            }
-            localTableName = sb.toString();
+            localSchema = escapeWildcards(localSchema, escapeString);
+            localTableName = escapeWildcards(localTableName, escapeString);
         }
 
         Map<ActualTableName, List<IntrospectedColumn>> answer = new HashMap<ActualTableName, List<IntrospectedColumn>>();
@@ -599,67 +956,45 @@ public class DatabaseIntrospector {
             logger.debug(getString("Tracing.1", fullTableName)); //$NON-NLS-1$
         }
 
-        ResultSet rs = databaseMetaData.getColumns(localCatalog, localSchema,
-                localTableName, "%"); //$NON-NLS-1$
-        
-        boolean supportsIsAutoIncrement = false;
-        boolean supportsIsGeneratedColumn = false;
-        ResultSetMetaData rsmd = rs.getMetaData();
-        int colCount = rsmd.getColumnCount();
-        for (int i = 1; i <= colCount; i++) {
-            if ("IS_AUTOINCREMENT".equals(rsmd.getColumnName(i))) { //$NON-NLS-1$
-                supportsIsAutoIncrement = true;
-            }
-            if ("IS_GENERATEDCOLUMN".equals(rsmd.getColumnName(i))) { //$NON-NLS-1$
-                supportsIsGeneratedColumn = true;
-            }
-        }
-
-        while (rs.next()) {
-            IntrospectedColumn introspectedColumn = ObjectFactory
-                    .createIntrospectedColumn(context);
-
-            introspectedColumn.setTableAlias(tc.getAlias());
-            introspectedColumn.setJdbcType(rs.getInt("DATA_TYPE")); //$NON-NLS-1$
-            introspectedColumn.setLength(rs.getInt("COLUMN_SIZE")); //$NON-NLS-1$
-            introspectedColumn.setActualColumnName(rs.getString("COLUMN_NAME")); //$NON-NLS-1$
-            introspectedColumn
-                    .setNullable(rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable); //$NON-NLS-1$
-            introspectedColumn.setScale(rs.getInt("DECIMAL_DIGITS")); //$NON-NLS-1$
-            introspectedColumn.setRemarks(rs.getString("REMARKS")); //$NON-NLS-1$
-            introspectedColumn.setDefaultValue(rs.getString("COLUMN_DEF")); //$NON-NLS-1$
-            
-            if (supportsIsAutoIncrement) {
-                introspectedColumn.setAutoIncrement("YES".equals(rs.getString("IS_AUTOINCREMENT"))); //$NON-NLS-1$ //$NON-NLS-2$
-            }
-            
-            if (supportsIsGeneratedColumn) {
-                introspectedColumn.setGeneratedColumn("YES".equals(rs.getString("IS_GENERATEDCOLUMN"))); //$NON-NLS-1$ //$NON-NLS-2$
-            }
+        if (isRecordingSnapshot()) {
+            snapshot.startTable(tc);
+        }
 
-            ActualTableName atn = new ActualTableName(
-                    rs.getString("TABLE_CAT"), //$NON-NLS-1$
-                    rs.getString("TABLE_SCHEM"), //$NON-NLS-1$
-                    rs.getString("TABLE_NAME")); //$NON-NLS-1$
+        Map<ActualTableName, List<ColumnMetadata>> bulkColumns = null;
+        if (isBulkIntrospectionPossible(delimitIdentifiers, localCatalog,
+                localSchema, unescapedTableName)) {
+            SchemaMetadataCache.SchemaMetadata schemaMetadata = schemaMetadataCache
+                    .getSchemaMetadata(databaseMetaData, localCatalog, localSchema);
+            bulkColumns = schemaMetadata.getColumns(unescapedTableName);
+            for (ActualTableName atn : bulkColumns.keySet()) {
+                bulkTables.put(atn, schemaMetadata);
+            }
+        }
 
-            List<IntrospectedColumn> columns = answer.get(atn);
-            if (columns == null) {
-                columns = new ArrayList<IntrospectedColumn>();
-                answer.put(atn, columns);
+        if (bulkColumns != null && !bulkColumns.isEmpty()) {
+            for (List<ColumnMetadata> tableColumns : bulkColumns.values()) {
+                for (ColumnMetadata columnMetadata : tableColumns) {
+                    addColumn(tc, columnMetadata, answer);
+                }
             }
+        } else {
+            // the table was not found in the bulk metadata (possibly because the
+            // database matches names without regard to case), so ask for it directly
+            ResultSet rs = databaseMetaData.getColumns(localCatalog, localSchema,
+                    localTableName, "%"); //$NON-NLS-1$
 
-            columns.add(introspectedColumn);
+            boolean supportsIsAutoIncrement = ColumnMetadata.hasColumn(
+                    rs.getMetaData(), "IS_AUTOINCREMENT"); //$NON-NLS-1$
+            boolean supportsIsGeneratedColumn = ColumnMetadata.hasColumn(
+                    rs.getMetaData(), "IS_GENERATEDCOLUMN"); //$NON-NLS-1$
 
-            if (logger.isDebugEnabled()) {
-                logger.debug(getString(
-                        "Tracing.2", //$NON-NLS-1$
-                        introspectedColumn.getActualColumnName(), Integer
-                                .toString(introspectedColumn.getJdbcType()),
-                        atn.toString()));
+            while (rs.next()) {
+                addColumn(tc, new ColumnMetadata(rs, supportsIsAutoIncrement,
+                        supportsIsGeneratedColumn), answer);
             }
-        }
 
-        closeResultSet(rs);
+            closeResultSet(rs);
+        }
 
         if (answer.size() > 1
                 && !stringContainsSQLWildcard(localSchema)
@@ -687,6 +1022,106 @@ public class DatabaseIntrospector {
         return answer;
     }
 
+    /**
+     * Creates an introspected column from database metadata and adds it to the
+     * columns of its table.
+     *
+     * @param tc
+     *            the tc
+     * @param columnMetadata
+     *            the column metadata
+     * @param answer
+     *            the columns found so far
+     */
+    private void addColumn(TableConfiguration tc, ColumnMetadata columnMetadata,
+            Map<ActualTableName, List<IntrospectedColumn>> answer) {
+        IntrospectedColumn introspectedColumn = ObjectFactory
+                .createIntrospectedColumn(context);
+
+        introspectedColumn.setTableAlias(tc.getAlias());
+        columnMetadata.applyTo(introspectedColumn);
+
+        ActualTableName atn = columnMetadata.getActualTableName();
+
+        List<IntrospectedColumn> columns = answer.get(atn);
+        if (columns == null) {
+            columns = new ArrayList<IntrospectedColumn>();
+            answer.put(atn, columns);
+        }
+
+        columns.add(introspectedColumn);
+
+        if (isRecordingSnapshot()) {
+            snapshot.addColumn(tc, columnMetadata);
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(getString(
+                    "Tracing.2", //$NON-NLS-1$
+                    introspectedColumn.getActualColumnName(), Integer
+                            .toString(introspectedColumn.getJdbcType()),
+                    atn.toString()));
+        }
+    }
+
+    /**
+     * Bulk introspection is only used when the table can be found unambiguously in
+     * the bulk metadata. Delimited identifiers, explicit "%" wildcards, and
+     * configurations that do not name a catalog or schema (which would mean reading
+     * the entire database) are introspected table by table. Underscores in table
+     * names are matched literally.
+     *
+     * @param delimitIdentifiers
+     *            true if the identifiers of the table configuration are delimited
+     * @param localCatalog
+     *            the catalog, as it is stored in the database
+     * @param localSchema
+     *            the schema, as it is stored in the database
+     * @param localTableName
+     *            the unescaped table name, as it is stored in the database
+     * @return true if the bulk metadata cache can be used for the table
+     */
+    private boolean isBulkIntrospectionPossible(boolean delimitIdentifiers,
+            String localCatalog, String localSchema, String localTableName) {
+        return schemaMetadataCache != null
+                && !delimitIdentifiers
+                && (stringHasValue(localCatalog) || stringHasValue(localSchema))
+                && !stringContainsPercent(localCatalog)
+                && !stringContainsPercent(localSchema)
+                && !stringContainsPercent(localTableName);
+    }
+
+    private static boolean stringContainsPercent(String s) {
+        return s != null && s.indexOf('%') != -1;
+    }
+
+    /**
+     * Escapes the SQL wildcard characters in a metadata search string.
+     *
+     * @param s
+     *            the search string - may be null
+     * @param escapeString
+     *            the escape string of the database
+     * @return the escaped search string
+     */
+    private String escapeWildcards(String s, String escapeString) {
+        if (s == null) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        StringTokenizer st = new StringTokenizer(s, "_%", true); //$NON-NLS-1$
+        while (st.hasMoreTokens()) {
+            String token = st.nextToken();
+            if (token.equals("_") //$NON-NLS-1$
+                    || token.equals("%")) { //$NON-NLS-1$
+                sb.append(escapeString);
+            }
+            sb.append(token);
+        }
+        return sb.toString();
+    }
+
     /**
      * Calculate introspected tables.
      *
@@ -738,9 +1173,13 @@ public class DatabaseIntrospector {
                 introspectedTable.addColumn(introspectedColumn);
             }
 
-            calculatePrimaryKey(table, introspectedTable);
+            calculatePrimaryKey(atn, table, introspectedTable);
+
+            calculateIndexes(atn, table, introspectedTable);
+
+            calculateForeignKeys(atn, table, introspectedTable);
             
-            enhanceIntrospectedTable(introspectedTable);
+            enhanceIntrospectedTable(atn, introspectedTable);
 
             answer.add(introspectedTable);
         }
@@ -754,9 +1193,35 @@ public class DatabaseIntrospector {
      * 
      * If there is any error, we just add a warning and continue.
      * 
+     * @param actualTableName
      * @param introspectedTable
      */
-    private void enhanceIntrospectedTable(IntrospectedTable introspectedTable) {
+    private void enhanceIntrospectedTable(ActualTableName actualTableName,
+            IntrospectedTable introspectedTable) {
+        String[] tableInformation = null;
+        if (replaySnapshot) {
+            tableInformation = snapshot.getTableInformation(actualTableName);
+            if (tableInformation != null) {
+                introspectedTable.setRemarks(tableInformation[0]);
+                introspectedTable.setTableType(tableInformation[1]);
+            }
+            return;
+        }
+
+        SchemaMetadataCache.SchemaMetadata schemaMetadata = bulkTables.get(actualTableName);
+        if (schemaMetadata != null) {
+            tableInformation = schemaMetadata.getTableInformation(actualTableName);
+            if (tableInformation != null) {
+                introspectedTable.setRemarks(tableInformation[0]);
+                introspectedTable.setTableType(tableInformation[1]);
+                if (isRecordingSnapshot()) {
+                    snapshot.setTableInformation(actualTableName,
+                            tableInformation[0], tableInformation[1]);
+                }
+                return;
+            }
+        }
+
         try {
             FullyQualifiedTable fqt = introspectedTable.getFullyQualifiedTable();
 
@@ -767,6 +1232,9 @@ public class DatabaseIntrospector {
                 String tableType = rs.getString("TABLE_TYPE"); //$NON-NLS-1$
                 introspectedTable.setRemarks(remarks);
                 introspectedTable.setTableType(tableType);
+                if (isRecordingSnapshot()) {
+                    snapshot.setTableInformation(actualTableName, remarks, tableType);
+                }
             }
             closeResultSet(rs);
         } catch (SQLException e) {
@@ -0,0 +1,88 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds one foreign key returned from
+ * <code>DatabaseMetaData.getImportedKeys()</code>. Like {@link IndexMetadata},
+ * foreign keys are captured in this raw form so they can be saved in an
+ * introspection snapshot.
+ */
+public class ForeignKeyMetadata implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+    private String referencedCatalog;
+    private String referencedSchema;
+    private String referencedTableName;
+    private List<String> columnNames;
+    private List<String> referencedColumnNames;
+
+    public ForeignKeyMetadata(String name, String referencedCatalog,
+            String referencedSchema, String referencedTableName) {
+        super();
+        this.name = name;
+        this.referencedCatalog = referencedCatalog;
+        this.referencedSchema = referencedSchema;
+        this.referencedTableName = referencedTableName;
+        columnNames = new ArrayList<String>();
+        referencedColumnNames = new ArrayList<String>();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getReferencedCatalog() {
+        return referencedCatalog;
+    }
+
+    public String getReferencedSchema() {
+        return referencedSchema;
+    }
+
+    public String getReferencedTableName() {
+        return referencedTableName;
+    }
+
+    /**
+     * Returns the foreign key column names in key sequence order.
+     *
+     * @return the column names
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Returns the referenced column names, in the same order as the column names.
+     *
+     * @return the referenced column names
+     */
+    public List<String> getReferencedColumnNames() {
+        return referencedColumnNames;
+    }
+
+    public void addColumnName(String columnName, String referencedColumnName) {
+        columnNames.add(columnName);
+        referencedColumnNames.add(referencedColumnName);
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds one index returned from <code>DatabaseMetaData.getIndexInfo()</code>.
+ * Like {@link ColumnMetadata}, indexes are captured in this raw form so they can be
+ * saved in an introspection snapshot. An index with a null column name (an index on
+ * an expression) is recorded with a null entry in the column list.
+ */
+public class IndexMetadata implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String indexName;
+    private boolean unique;
+    private List<String> columnNames;
+
+    public IndexMetadata(String indexName, boolean unique) {
+        super();
+        this.indexName = indexName;
+        this.unique = unique;
+        columnNames = new ArrayList<String>();
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * Returns the column names of the index in index order.
+     *
+     * @return the column names
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public void addColumnName(String columnName) {
+        columnNames.add(columnName);
+    }
+}
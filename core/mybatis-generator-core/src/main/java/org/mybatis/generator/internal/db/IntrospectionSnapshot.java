@@ -0,0 +1,603 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.mybatis.generator.internal.util.StringUtility.composeFullyQualifiedTableName;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.internal.util.FileUtility;
+
+/**
+ * This class holds the raw database metadata read while introspecting the tables of
+ * a context, together with a fingerprint of the database. A snapshot can be saved
+ * to disk and later used in place of the database - either because the fingerprint
+ * shows that the database has not changed, or because code is generated offline.
+ *
+ * <p>The snapshot holds what the database returned rather than the finished
+ * IntrospectedTables, so column overrides, renaming rules, and type resolution from
+ * the current configuration are still applied when a snapshot is used.
+ */
+public class IntrospectionSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Changing the snapshot format must change this value so that old snapshots are not used. */
+    private static final String FORMAT_VERSION = "3"; //$NON-NLS-1$
+
+    /** The getColumns() values that are part of the default fingerprint. */
+    private static final String[] COLUMN_FINGERPRINT_COLUMNS = {
+        "COLUMN_NAME", "ORDINAL_POSITION", "DATA_TYPE", "TYPE_NAME", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        "COLUMN_SIZE", "DECIMAL_DIGITS", "NULLABLE", "COLUMN_DEF", "REMARKS" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+    };
+
+    /** The getPrimaryKeys() values that are part of the default fingerprint. */
+    private static final String[] PRIMARY_KEY_FINGERPRINT_COLUMNS = {
+        "COLUMN_NAME", "KEY_SEQ" //$NON-NLS-1$ //$NON-NLS-2$
+    };
+
+    /** The getImportedKeys() values that are part of the default fingerprint. */
+    private static final String[] FOREIGN_KEY_FINGERPRINT_COLUMNS = {
+        "FK_NAME", "KEY_SEQ", "FKCOLUMN_NAME", "PKTABLE_CAT", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        "PKTABLE_SCHEM", "PKTABLE_NAME", "PKCOLUMN_NAME" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    };
+
+    /** The getIndexInfo() values that are part of the default fingerprint. */
+    private static final String[] INDEX_FINGERPRINT_COLUMNS = {
+        "INDEX_NAME", "NON_UNIQUE", "ORDINAL_POSITION", "COLUMN_NAME" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    };
+
+    private String fingerprint;
+
+    private Map<String, List<ColumnMetadata>> columns;
+
+    private Map<ActualTableName, List<String>> primaryKeys;
+
+    private Map<ActualTableName, String[]> tableInformation;
+
+    private Map<ActualTableName, List<IndexMetadata>> indexes;
+
+    private Map<ActualTableName, Long> rowCounts;
+
+    private Map<ActualTableName, List<ForeignKeyMetadata>> foreignKeys;
+
+    public IntrospectionSnapshot(String fingerprint) {
+        super();
+        this.fingerprint = fingerprint;
+        columns = new HashMap<String, List<ColumnMetadata>>();
+        primaryKeys = new HashMap<ActualTableName, List<String>>();
+        tableInformation = new HashMap<ActualTableName, String[]>();
+        indexes = new HashMap<ActualTableName, List<IndexMetadata>>();
+        rowCounts = new HashMap<ActualTableName, Long>();
+        foreignKeys = new HashMap<ActualTableName, List<ForeignKeyMetadata>>();
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Snapshots written before indexes or foreign keys were recorded have no
+     * maps for them.
+     */
+    private Object readResolve() {
+        if (indexes == null) {
+            indexes = new HashMap<ActualTableName, List<IndexMetadata>>();
+            rowCounts = new HashMap<ActualTableName, Long>();
+        }
+        if (foreignKeys == null) {
+            foreignKeys = new HashMap<ActualTableName, List<ForeignKeyMetadata>>();
+        }
+        return this;
+    }
+
+    private static String getKey(TableConfiguration tc) {
+        return composeFullyQualifiedTableName(tc.getCatalog(), tc.getSchema(),
+                tc.getTableName(), '.');
+    }
+
+    public synchronized boolean containsTable(TableConfiguration tc) {
+        return columns.containsKey(getKey(tc));
+    }
+
+    public synchronized boolean containsTables(List<TableConfiguration> tableConfigurations) {
+        for (TableConfiguration tc : tableConfigurations) {
+            if (!columns.containsKey(getKey(tc))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Notes that a table configuration has been introspected. This is recorded even if
+     * the table configuration does not resolve to any table.
+     *
+     * @param tc
+     *            the table configuration
+     */
+    public synchronized void startTable(TableConfiguration tc) {
+        columns.put(getKey(tc), new ArrayList<ColumnMetadata>());
+    }
+
+    public synchronized void addColumn(TableConfiguration tc, ColumnMetadata columnMetadata) {
+        List<ColumnMetadata> tableColumns = columns.get(getKey(tc));
+        if (tableColumns == null) {
+            tableColumns = new ArrayList<ColumnMetadata>();
+            columns.put(getKey(tc), tableColumns);
+        }
+        tableColumns.add(columnMetadata);
+    }
+
+    public synchronized List<ColumnMetadata> getColumns(TableConfiguration tc) {
+        List<ColumnMetadata> tableColumns = columns.get(getKey(tc));
+        if (tableColumns == null) {
+            return new ArrayList<ColumnMetadata>();
+        }
+        return new ArrayList<ColumnMetadata>(tableColumns);
+    }
+
+    public synchronized void setPrimaryKeyColumns(ActualTableName actualTableName,
+            List<String> keyColumns) {
+        primaryKeys.put(actualTableName, new ArrayList<String>(keyColumns));
+    }
+
+    public synchronized List<String> getPrimaryKeyColumns(ActualTableName actualTableName) {
+        List<String> keyColumns = primaryKeys.get(actualTableName);
+        if (keyColumns == null) {
+            return new ArrayList<String>();
+        }
+        return new ArrayList<String>(keyColumns);
+    }
+
+    public synchronized void setTableInformation(ActualTableName actualTableName,
+            String remarks, String tableType) {
+        tableInformation.put(actualTableName, new String[] { remarks, tableType });
+    }
+
+    /**
+     * Returns the remarks and type of the specified table.
+     *
+     * @param actualTableName
+     *            the table
+     * @return an array of {remarks, tableType}, or null if no information was recorded
+     */
+    public synchronized String[] getTableInformation(ActualTableName actualTableName) {
+        return tableInformation.get(actualTableName);
+    }
+
+    public synchronized void setIndexes(ActualTableName actualTableName,
+            List<IndexMetadata> tableIndexes, long rowCount) {
+        indexes.put(actualTableName, new ArrayList<IndexMetadata>(tableIndexes));
+        rowCounts.put(actualTableName, Long.valueOf(rowCount));
+    }
+
+    public synchronized List<IndexMetadata> getIndexes(ActualTableName actualTableName) {
+        List<IndexMetadata> tableIndexes = indexes.get(actualTableName);
+        if (tableIndexes == null) {
+            return new ArrayList<IndexMetadata>();
+        }
+        return new ArrayList<IndexMetadata>(tableIndexes);
+    }
+
+    /**
+     * Returns the estimated row count of the specified table.
+     *
+     * @param actualTableName
+     *            the table
+     * @return the row count, or -1 if no row count was recorded
+     */
+    public synchronized long getRowCount(ActualTableName actualTableName) {
+        Long rowCount = rowCounts.get(actualTableName);
+        return rowCount == null ? -1L : rowCount.longValue();
+    }
+
+    public synchronized void setForeignKeys(ActualTableName actualTableName,
+            List<ForeignKeyMetadata> tableForeignKeys) {
+        foreignKeys.put(actualTableName, new ArrayList<ForeignKeyMetadata>(tableForeignKeys));
+    }
+
+    public synchronized List<ForeignKeyMetadata> getForeignKeys(ActualTableName actualTableName) {
+        List<ForeignKeyMetadata> tableForeignKeys = foreignKeys.get(actualTableName);
+        if (tableForeignKeys == null) {
+            return new ArrayList<ForeignKeyMetadata>();
+        }
+        return new ArrayList<ForeignKeyMetadata>(tableForeignKeys);
+    }
+
+    /**
+     * Copies any tables that are not in this snapshot from another snapshot. This is used
+     * when only some of the tables of a context are introspected, so that the tables that
+     * were not part of the run are not lost from the saved snapshot.
+     *
+     * @param other
+     *            the other snapshot
+     */
+    public synchronized void copyMissingTables(IntrospectionSnapshot other) {
+        for (Map.Entry<String, List<ColumnMetadata>> entry : other.columns.entrySet()) {
+            if (!columns.containsKey(entry.getKey())) {
+                columns.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (Map.Entry<ActualTableName, List<String>> entry : other.primaryKeys.entrySet()) {
+            if (!primaryKeys.containsKey(entry.getKey())) {
+                primaryKeys.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (Map.Entry<ActualTableName, String[]> entry : other.tableInformation.entrySet()) {
+            if (!tableInformation.containsKey(entry.getKey())) {
+                tableInformation.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (Map.Entry<ActualTableName, List<IndexMetadata>> entry : other.indexes.entrySet()) {
+            if (!indexes.containsKey(entry.getKey())) {
+                indexes.put(entry.getKey(), entry.getValue());
+                rowCounts.put(entry.getKey(), other.rowCounts.get(entry.getKey()));
+            }
+        }
+
+        for (Map.Entry<ActualTableName, List<ForeignKeyMetadata>> entry : other.foreignKeys.entrySet()) {
+            if (!foreignKeys.containsKey(entry.getKey())) {
+                foreignKeys.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot from disk.
+     *
+     * @param file
+     *            the snapshot file
+     * @return the snapshot, or null if the file does not exist
+     * @throws IOException
+     *             if the file exists but is not a valid snapshot
+     */
+    public static IntrospectionSnapshot read(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+
+        ObjectInputStream ois = new ObjectInputStream(new GZIPInputStream(
+                new BufferedInputStream(new FileInputStream(file))));
+        try {
+            return (IntrospectionSnapshot) ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e.getMessage());
+        } catch (ClassCastException e) {
+            throw new IOException(e.getMessage());
+        } finally {
+            ois.close();
+        }
+    }
+
+    /**
+     * Writes this snapshot to disk. The snapshot is written to a temporary file first
+     * so that an interrupted write does not leave a damaged snapshot behind.
+     *
+     * @param file
+     *            the snapshot file
+     * @throws IOException
+     *             if the snapshot cannot be written
+     */
+    public synchronized void write(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException(directory.getAbsolutePath());
+        }
+
+        File tempFile = new File(directory, file.getName() + ".tmp"); //$NON-NLS-1$
+        try {
+            ObjectOutputStream oos = new ObjectOutputStream(new GZIPOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile, false))));
+            try {
+                oos.writeObject(this);
+            } finally {
+                oos.close();
+            }
+
+            FileUtility.replaceFile(tempFile, file);
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Calculates a fingerprint of the database that is used to decide whether a saved
+     * snapshot is still current.
+     *
+     * <p>If the context specifies a fingerprint query, the fingerprint is calculated
+     * from every value returned by the query. A good query returns something that
+     * changes with every DDL change - for example, on Oracle,
+     * <code>select max(last_ddl_time) from user_objects</code>. This is the cheapest
+     * check, and it is recommended for contexts with many tables.
+     *
+     * <p>Otherwise the fingerprint is calculated from the metadata of every configured
+     * table: the table itself, its columns, its primary key, its foreign keys and - if
+     * the context uses indexes - its indexes. Every query is restricted to the
+     * configured table, so the cost depends on the number of configured tables and
+     * not on the size of the database. Index statistics are not part of the
+     * fingerprint because they change with the data.
+     *
+     * @param connection
+     *            the connection
+     * @param context
+     *            the context
+     * @return the fingerprint
+     * @throws SQLException
+     *             if the fingerprint cannot be calculated
+     */
+    public static String calculateFingerprint(Connection connection,
+            Context context) throws SQLException {
+        Set<String> values = new TreeSet<String>();
+        String fingerprintQuery = context
+                .getProperty(PropertyRegistry.CONTEXT_SNAPSHOT_FINGERPRINT_QUERY);
+
+        if (stringHasValue(fingerprintQuery)) {
+            Statement statement = connection.createStatement();
+            try {
+                ResultSet rs = statement.executeQuery(fingerprintQuery);
+                int columnCount = rs.getMetaData().getColumnCount();
+                int row = 0;
+                while (rs.next()) {
+                    StringBuilder sb = new StringBuilder();
+                    sb.append(row++);
+                    for (int i = 1; i <= columnCount; i++) {
+                        sb.append('|');
+                        sb.append(rs.getString(i));
+                    }
+                    values.add(sb.toString());
+                }
+                rs.close();
+            } finally {
+                statement.close();
+            }
+        } else {
+            DatabaseMetaData databaseMetaData = connection.getMetaData();
+            boolean includeIndexes = context.isIndexIntrospectionRequired();
+            Set<ActualTableName> tables = new HashSet<ActualTableName>();
+            for (TableConfiguration tc : context.getTableConfigurations()) {
+                addTableValues(databaseMetaData, tc, tables, values);
+            }
+
+            for (ActualTableName atn : tables) {
+                addKeyValues(databaseMetaData, atn, includeIndexes, values);
+            }
+        }
+
+        return digest(values);
+    }
+
+    /**
+     * Adds the table and column values of the tables that match a table configuration.
+     * The names are adjusted and escaped the same way the database introspector does.
+     */
+    private static void addTableValues(DatabaseMetaData databaseMetaData,
+            TableConfiguration tc, Set<ActualTableName> tables, Set<String> values)
+            throws SQLException {
+        boolean delimitIdentifiers = tc.isDelimitIdentifiers()
+                || stringContainsSpace(tc.getCatalog())
+                || stringContainsSpace(tc.getSchema())
+                || stringContainsSpace(tc.getTableName());
+
+        String catalog = adjustCase(databaseMetaData, tc.getCatalog(), delimitIdentifiers);
+        String schema = adjustCase(databaseMetaData, tc.getSchema(), delimitIdentifiers);
+        String tableName = adjustCase(databaseMetaData, tc.getTableName(), delimitIdentifiers);
+        if (tc.isWildcardEscapingEnabled()) {
+            String escapeString = databaseMetaData.getSearchStringEscape();
+            schema = escapeWildcards(schema, escapeString);
+            tableName = escapeWildcards(tableName, escapeString);
+        }
+
+        ResultSet rs = databaseMetaData.getTables(catalog, schema, tableName, null);
+        try {
+            while (rs.next()) {
+                ActualTableName atn = new ActualTableName(
+                        rs.getString("TABLE_CAT"), //$NON-NLS-1$
+                        rs.getString("TABLE_SCHEM"), //$NON-NLS-1$
+                        rs.getString("TABLE_NAME")); //$NON-NLS-1$
+                tables.add(atn);
+                values.add("T|" + atn + '|' + rs.getString("TABLE_TYPE")); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        } finally {
+            rs.close();
+        }
+
+        rs = databaseMetaData.getColumns(catalog, schema, tableName, "%"); //$NON-NLS-1$
+        try {
+            while (rs.next()) {
+                ActualTableName atn = new ActualTableName(
+                        rs.getString("TABLE_CAT"), //$NON-NLS-1$
+                        rs.getString("TABLE_SCHEM"), //$NON-NLS-1$
+                        rs.getString("TABLE_NAME")); //$NON-NLS-1$
+                tables.add(atn);
+                addValue(values, "C|" + atn, rs, COLUMN_FINGERPRINT_COLUMNS); //$NON-NLS-1$
+            }
+        } finally {
+            rs.close();
+        }
+    }
+
+    /**
+     * Adds the primary key, foreign key and (optionally) index values of a table. A
+     * query that the driver rejects adds a marker, as the database introspector
+     * ignores the same failure.
+     */
+    private static void addKeyValues(DatabaseMetaData databaseMetaData,
+            ActualTableName atn, boolean includeIndexes, Set<String> values) {
+        String prefix = "P|" + atn; //$NON-NLS-1$
+        ResultSet rs = null;
+        try {
+            rs = databaseMetaData.getPrimaryKeys(atn.getCatalog(), atn.getSchema(),
+                    atn.getTableName());
+            while (rs.next()) {
+                addValue(values, prefix, rs, PRIMARY_KEY_FINGERPRINT_COLUMNS);
+            }
+        } catch (SQLException e) {
+            values.add(prefix + "|unavailable"); //$NON-NLS-1$
+        } finally {
+            closeResultSet(rs);
+        }
+
+        prefix = "F|" + atn; //$NON-NLS-1$
+        rs = null;
+        try {
+            rs = databaseMetaData.getImportedKeys(atn.getCatalog(), atn.getSchema(),
+                    atn.getTableName());
+            while (rs.next()) {
+                addValue(values, prefix, rs, FOREIGN_KEY_FINGERPRINT_COLUMNS);
+            }
+        } catch (SQLException e) {
+            values.add(prefix + "|unavailable"); //$NON-NLS-1$
+        } finally {
+            closeResultSet(rs);
+        }
+
+        if (!includeIndexes) {
+            return;
+        }
+
+        prefix = "I|" + atn; //$NON-NLS-1$
+        rs = null;
+        try {
+            // approximate statistics, so the driver does not analyze the table
+            rs = databaseMetaData.getIndexInfo(atn.getCatalog(), atn.getSchema(),
+                    atn.getTableName(), false, true);
+            while (rs.next()) {
+                if (rs.getShort("TYPE") != DatabaseMetaData.tableIndexStatistic) { //$NON-NLS-1$
+                    addValue(values, prefix, rs, INDEX_FINGERPRINT_COLUMNS);
+                }
+            }
+        } catch (SQLException e) {
+            values.add(prefix + "|unavailable"); //$NON-NLS-1$
+        } finally {
+            closeResultSet(rs);
+        }
+    }
+
+    private static void addValue(Set<String> values, String prefix, ResultSet rs,
+            String[] columns) throws SQLException {
+        StringBuilder sb = new StringBuilder(prefix);
+        for (String column : columns) {
+            sb.append('|');
+            sb.append(rs.getString(column));
+        }
+        values.add(sb.toString());
+    }
+
+    private static String adjustCase(DatabaseMetaData databaseMetaData,
+            String identifier, boolean delimitIdentifiers) throws SQLException {
+        if (identifier == null || delimitIdentifiers) {
+            return identifier;
+        } else if (databaseMetaData.storesLowerCaseIdentifiers()) {
+            return identifier.toLowerCase();
+        } else if (databaseMetaData.storesUpperCaseIdentifiers()) {
+            return identifier.toUpperCase();
+        } else {
+            return identifier;
+        }
+    }
+
+    private static boolean stringContainsSpace(String s) {
+        return s != null && s.indexOf(' ') != -1;
+    }
+
+    private static String escapeWildcards(String s, String escapeString) {
+        if (s == null) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '_' || c == '%') {
+                sb.append(escapeString);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static void closeResultSet(ResultSet rs) {
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                // ignore
+            }
+        }
+    }
+
+    private static String digest(Set<String> values) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new RuntimeException(e);
+        }
+
+        try {
+            messageDigest.update(FORMAT_VERSION.getBytes("UTF-8")); //$NON-NLS-1$
+            for (String value : values) {
+                messageDigest.update(value.getBytes("UTF-8")); //$NON-NLS-1$
+                messageDigest.update((byte) '\n');
+            }
+        } catch (java.io.UnsupportedEncodingException e) {
+            // every Java platform is required to support UTF-8
+            throw new RuntimeException(e);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : messageDigest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.mybatis.generator.internal.util.StringUtility.composeFullyQualifiedTableName;
+import static org.mybatis.generator.internal.util.StringUtility.isTrue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.mybatis.generator.api.ConnectionFactory;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.JavaTypeResolver;
+import org.mybatis.generator.api.MetricsPhase;
+import org.mybatis.generator.api.ProgressCallback;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.internal.MetricsTimer;
+import org.mybatis.generator.internal.ObjectFactory;
+
+/**
+ * Introspects the tables of a context on a fixed number of worker threads. Each
+ * worker borrows a connection from a small pool that is bounded by the number
+ * of workers, so no more than that many connections are ever opened.
+ *
+ * <p>When introspection ends, or fails or is canceled, the idle connections are
+ * closed and the pool is shut down. A worker that is still inside a JDBC call at
+ * that moment closes its own connection when the call returns, and no worker
+ * can open a new connection after the shutdown.
+ *
+ * <p>Results and warnings are merged in the order of the table configurations,
+ * so the output is the same as with sequential introspection. The progress
+ * callback is only ever called from the calling thread.
+ */
+public class ParallelTableIntrospector {
+
+    /** How long the calling thread waits for a result before polling for a cancel. */
+    private static final long CANCEL_POLL_MILLIS = 250L;
+
+    private Context context;
+
+    private ConnectionFactory connectionFactory;
+
+    private int threads;
+
+    /** Idle connections available to the workers. Guarded by itself. */
+    private LinkedList<Connection> idleConnections;
+
+    /** True once the pool is shut down. Guarded by idleConnections. */
+    private boolean closed;
+
+    /** The bulk metadata cache shared by all workers, null if bulk introspection is not enabled. */
+    private SchemaMetadataCache schemaMetadataCache;
+
+    /** The snapshot that all workers record metadata in, null if no snapshot is recorded. */
+    private IntrospectionSnapshot snapshot;
+
+    /**
+     * Instantiates a new parallel table introspector.
+     *
+     * @param context
+     *            the context
+     * @param connectionFactory
+     *            the factory used to open one connection per worker
+     * @param threads
+     *            the maximum number of workers (and connections)
+     */
+    public ParallelTableIntrospector(Context context,
+            ConnectionFactory connectionFactory, int threads) {
+        super();
+        this.context = context;
+        this.connectionFactory = connectionFactory;
+        this.threads = threads;
+        idleConnections = new LinkedList<Connection>();
+        if (isTrue(context.getProperty(PropertyRegistry.CONTEXT_BULK_INTROSPECTION))) {
+            schemaMetadataCache = new SchemaMetadataCache();
+        }
+    }
+
+    /**
+     * Sets a snapshot that all workers record the metadata they read in.
+     *
+     * @param snapshot
+     *            the snapshot
+     */
+    public void setIntrospectionSnapshot(IntrospectionSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Introspects the specified tables. This method is long running.
+     *
+     * @param tableConfigurations
+     *            the tables to introspect
+     * @param callback
+     *            the progress callback
+     * @param warnings
+     *            warnings are added to this list, in table configuration order
+     * @return the introspected tables, in table configuration order
+     * @throws SQLException
+     *             if any worker fails with a SQLException
+     * @throws InterruptedException
+     *             if the progress callback reports a cancel
+     */
+    public List<IntrospectedTable> introspectTables(
+            List<TableConfiguration> tableConfigurations,
+            ProgressCallback callback, List<String> warnings)
+            throws SQLException, InterruptedException {
+
+        int poolSize = Math.min(threads, tableConfigurations.size());
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize,
+                new IntrospectionThreadFactory(context.getId()));
+
+        List<Future<TaskResult>> futures = new ArrayList<Future<TaskResult>>();
+        try {
+            for (TableConfiguration tc : tableConfigurations) {
+                futures.add(executor.submit(new IntrospectionTask(tc)));
+            }
+            executor.shutdown();
+
+            List<IntrospectedTable> answer = new ArrayList<IntrospectedTable>();
+            for (int i = 0; i < futures.size(); i++) {
+                TableConfiguration tc = tableConfigurations.get(i);
+                callback.startTask(getString("Progress.1", //$NON-NLS-1$
+                        composeFullyQualifiedTableName(tc.getCatalog(),
+                                tc.getSchema(), tc.getTableName(), '.')));
+
+                TaskResult result = waitForResult(futures.get(i), callback);
+                warnings.addAll(result.warnings);
+                if (result.introspectedTables != null) {
+                    answer.addAll(result.introspectedTables);
+                }
+
+                callback.checkCancel();
+            }
+
+            return answer;
+        } finally {
+            for (Future<TaskResult> future : futures) {
+                future.cancel(true);
+            }
+            executor.shutdownNow();
+            closeConnections();
+        }
+    }
+
+    private TaskResult waitForResult(Future<TaskResult> future,
+            ProgressCallback callback) throws SQLException,
+            InterruptedException {
+        while (true) {
+            try {
+                return future.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                callback.checkCancel();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    throw (SQLException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new RuntimeException(cause);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns an idle connection, or opens a new one. Because there are never more
+     * concurrent tasks than worker threads, this opens at most one connection per
+     * worker.
+     *
+     * @throws SQLException
+     *             if the connection cannot be opened, or the pool is shut down
+     */
+    private Connection borrowConnection() throws SQLException {
+        synchronized (idleConnections) {
+            checkNotClosed();
+            if (!idleConnections.isEmpty()) {
+                return idleConnections.removeFirst();
+            }
+        }
+
+        MetricsTimer timer = MetricsTimer.start(context.getMetricsListener(),
+                MetricsPhase.CONNECT, context.getId());
+        Connection connection = connectionFactory.getConnection();
+        timer.stop();
+
+        synchronized (idleConnections) {
+            if (closed) {
+                closeQuietly(connection);
+                checkNotClosed();
+            }
+        }
+        return connection;
+    }
+
+    private void checkNotClosed() throws SQLException {
+        if (closed) {
+            throw new SQLException(getString("RuntimeError.26")); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Puts a connection back in the pool, or closes it if the pool is shut down.
+     */
+    private void returnConnection(Connection connection) {
+        synchronized (idleConnections) {
+            if (!closed) {
+                idleConnections.addLast(connection);
+                return;
+            }
+        }
+        closeQuietly(connection);
+    }
+
+    /**
+     * Shuts down the pool and closes the idle connections. Connections that are
+     * in use are closed when their workers return them.
+     */
+    private void closeConnections() {
+        List<Connection> connections;
+        synchronized (idleConnections) {
+            closed = true;
+            connections = new ArrayList<Connection>(idleConnections);
+            idleConnections.clear();
+        }
+        for (Connection connection : connections) {
+            closeQuietly(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Introspects a single table configuration. Warnings are collected locally so they
+     * can be merged in configuration order, and each task uses its own type resolver
+     * because resolvers are not required to be thread safe.
+     */
+    private class IntrospectionTask implements Callable<TaskResult> {
+        private TableConfiguration tableConfiguration;
+
+        IntrospectionTask(TableConfiguration tableConfiguration) {
+            this.tableConfiguration = tableConfiguration;
+        }
+
+        @Override
+        public TaskResult call() throws SQLException {
+            TaskResult result = new TaskResult();
+            JavaTypeResolver javaTypeResolver = ObjectFactory
+                    .createJavaTypeResolver(context, result.warnings);
+
+            Connection connection = borrowConnection();
+            try {
+                DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
+                        context, connection.getMetaData(), javaTypeResolver,
+                        result.warnings, schemaMetadataCache);
+                if (snapshot != null) {
+                    databaseIntrospector.setIntrospectionSnapshot(snapshot, false);
+                }
+                result.introspectedTables = databaseIntrospector
+                        .introspectTables(tableConfiguration);
+            } finally {
+                returnConnection(connection);
+            }
+
+            return result;
+        }
+    }
+
+    private static class TaskResult {
+        private List<String> warnings = new ArrayList<String>();
+        private List<IntrospectedTable> introspectedTables;
+    }
+
+    private static class IntrospectionThreadFactory implements ThreadFactory {
+        private String contextId;
+        private AtomicInteger threadNumber = new AtomicInteger(1);
+
+        IntrospectionThreadFactory(String contextId) {
+            this.contextId = contextId;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mbg-introspect-" + contextId //$NON-NLS-1$
+                    + "-" + threadNumber.getAndIncrement()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
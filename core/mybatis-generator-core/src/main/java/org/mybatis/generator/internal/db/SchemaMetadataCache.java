@@ -0,0 +1,269 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.mybatis.generator.internal.util.StringUtility.composeFullyQualifiedTableName;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.mybatis.generator.logging.Log;
+import org.mybatis.generator.logging.LogFactory;
+
+/**
+ * This class supports bulk introspection. Instead of issuing several metadata
+ * queries for every table, it reads the columns, primary keys and table
+ * information of a whole catalog/schema with one query each, and serves every
+ * table configuration in that schema from memory.
+ *
+ * <p>One instance may be shared by several database introspectors, including
+ * introspectors running on different threads. Each schema is read only once.
+ * A thread only waits for another thread that is reading the same schema.
+ */
+public class SchemaMetadataCache {
+
+    private Map<String, SchemaMetadata> schemas;
+
+    private Log logger;
+
+    public SchemaMetadataCache() {
+        super();
+        schemas = new HashMap<String, SchemaMetadata>();
+        logger = LogFactory.getLog(getClass());
+    }
+
+    /**
+     * Returns the metadata for the specified catalog and schema, reading it from the
+     * database the first time the schema is requested.
+     *
+     * @param databaseMetaData
+     *            the database meta data used if the schema has not been read yet
+     * @param catalog
+     *            the catalog, as it is stored in the database - may be null
+     * @param schema
+     *            the schema, as it is stored in the database - may be null
+     * @return the schema metadata
+     * @throws SQLException
+     *             if the columns of the schema cannot be read
+     */
+    public SchemaMetadata getSchemaMetadata(
+            DatabaseMetaData databaseMetaData, String catalog, String schema)
+            throws SQLException {
+        String key = composeFullyQualifiedTableName(catalog, schema, "%", '.'); //$NON-NLS-1$
+        SchemaMetadata schemaMetadata;
+        synchronized (schemas) {
+            schemaMetadata = schemas.get(key);
+            if (schemaMetadata == null) {
+                schemaMetadata = new SchemaMetadata();
+                schemas.put(key, schemaMetadata);
+            }
+        }
+
+        // if reading fails, the next caller tries again
+        synchronized (schemaMetadata) {
+            if (!schemaMetadata.loaded) {
+                schemaMetadata.readColumns(databaseMetaData, catalog, schema);
+                schemaMetadata.readPrimaryKeys(databaseMetaData, catalog, schema);
+                schemaMetadata.readTables(databaseMetaData, catalog, schema);
+                schemaMetadata.loaded = true;
+            }
+        }
+
+        return schemaMetadata;
+    }
+
+    /**
+     * The bulk metadata of one catalog/schema.
+     */
+    public class SchemaMetadata {
+        /** The columns of every table, keyed by table name and then by actual table name. */
+        private Map<String, Map<ActualTableName, List<ColumnMetadata>>> columns;
+        private Map<ActualTableName, Map<Short, String>> primaryKeys;
+        private Map<ActualTableName, String[]> tables;
+        private boolean loaded;
+
+        private SchemaMetadata() {
+            super();
+        }
+
+        /**
+         * Returns the columns of every table with exactly the specified name, keyed by
+         * the actual table name.
+         *
+         * @param tableName
+         *            the table name, as it is stored in the database
+         * @return the columns of matching tables. The map is empty if no table matches.
+         */
+        public Map<ActualTableName, List<ColumnMetadata>> getColumns(String tableName) {
+            Map<ActualTableName, List<ColumnMetadata>> tableColumns = columns.get(tableName);
+            if (tableColumns == null) {
+                return new LinkedHashMap<ActualTableName, List<ColumnMetadata>>();
+            }
+            return new LinkedHashMap<ActualTableName, List<ColumnMetadata>>(tableColumns);
+        }
+
+        /**
+         * Returns the primary key columns of the specified table in key sequence order.
+         *
+         * @param actualTableName
+         *            the table
+         * @return the primary key columns, or null if the bulk query did not supply
+         *         primary key information (the caller should query the table directly)
+         */
+        public List<String> getPrimaryKeyColumns(ActualTableName actualTableName) {
+            if (primaryKeys == null) {
+                return null;
+            }
+
+            Map<Short, String> keyColumns = primaryKeys.get(actualTableName);
+            if (keyColumns == null) {
+                return new ArrayList<String>();
+            }
+            return new ArrayList<String>(keyColumns.values());
+        }
+
+        /**
+         * Returns the remarks and type of the specified table.
+         *
+         * @param actualTableName
+         *            the table
+         * @return an array of {remarks, tableType}, or null if the bulk query did not
+         *         supply information for the table (the caller should query the table directly)
+         */
+        public String[] getTableInformation(ActualTableName actualTableName) {
+            if (tables == null) {
+                return null;
+            }
+            return tables.get(actualTableName);
+        }
+
+        private void readColumns(DatabaseMetaData databaseMetaData,
+                String catalog, String schema) throws SQLException {
+            if (logger.isDebugEnabled()) {
+                logger.debug(getString("Tracing.5", //$NON-NLS-1$
+                        composeFullyQualifiedTableName(catalog, schema, "%", '.'))); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+
+            Map<String, Map<ActualTableName, List<ColumnMetadata>>> answer = new HashMap<String, Map<ActualTableName, List<ColumnMetadata>>>();
+            ResultSet rs = databaseMetaData.getColumns(catalog, schema, "%", "%"); //$NON-NLS-1$ //$NON-NLS-2$
+            try {
+                boolean supportsIsAutoIncrement = ColumnMetadata.hasColumn(
+                        rs.getMetaData(), "IS_AUTOINCREMENT"); //$NON-NLS-1$
+                boolean supportsIsGeneratedColumn = ColumnMetadata.hasColumn(
+                        rs.getMetaData(), "IS_GENERATEDCOLUMN"); //$NON-NLS-1$
+
+                while (rs.next()) {
+                    ColumnMetadata columnMetadata = new ColumnMetadata(rs,
+                            supportsIsAutoIncrement, supportsIsGeneratedColumn);
+                    ActualTableName atn = columnMetadata.getActualTableName();
+                    Map<ActualTableName, List<ColumnMetadata>> tablesWithName = answer
+                            .get(atn.getTableName());
+                    if (tablesWithName == null) {
+                        tablesWithName = new LinkedHashMap<ActualTableName, List<ColumnMetadata>>();
+                        answer.put(atn.getTableName(), tablesWithName);
+                    }
+                    List<ColumnMetadata> tableColumns = tablesWithName.get(atn);
+                    if (tableColumns == null) {
+                        tableColumns = new ArrayList<ColumnMetadata>();
+                        tablesWithName.put(atn, tableColumns);
+                    }
+                    tableColumns.add(columnMetadata);
+                }
+            } finally {
+                closeResultSet(rs);
+            }
+
+            columns = answer;
+        }
+
+        /**
+         * Reads the primary keys of all tables in the schema with a single call. A null
+         * table name is not allowed by the JDBC specification, but most drivers accept it.
+         * If the driver rejects it, or returns nothing at all, primary keys are left
+         * unknown so they will be read table by table.
+         */
+        private void readPrimaryKeys(DatabaseMetaData databaseMetaData,
+                String catalog, String schema) {
+            Map<ActualTableName, Map<Short, String>> answer = new HashMap<ActualTableName, Map<Short, String>>();
+            ResultSet rs = null;
+            try {
+                rs = databaseMetaData.getPrimaryKeys(catalog, schema, null);
+                while (rs.next()) {
+                    ActualTableName atn = new ActualTableName(
+                            rs.getString("TABLE_CAT"), //$NON-NLS-1$
+                            rs.getString("TABLE_SCHEM"), //$NON-NLS-1$
+                            rs.getString("TABLE_NAME")); //$NON-NLS-1$
+                    Map<Short, String> keyColumns = answer.get(atn);
+                    if (keyColumns == null) {
+                        // keep primary columns in key sequence order
+                        keyColumns = new TreeMap<Short, String>();
+                        answer.put(atn, keyColumns);
+                    }
+                    keyColumns.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME")); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+            } catch (SQLException e) {
+                answer.clear();
+            } finally {
+                closeResultSet(rs);
+            }
+
+            if (!answer.isEmpty()) {
+                primaryKeys = answer;
+            }
+        }
+
+        private void readTables(DatabaseMetaData databaseMetaData,
+                String catalog, String schema) {
+            Map<ActualTableName, String[]> answer = new HashMap<ActualTableName, String[]>();
+            ResultSet rs = null;
+            try {
+                rs = databaseMetaData.getTables(catalog, schema, "%", null); //$NON-NLS-1$
+                while (rs.next()) {
+                    ActualTableName atn = new ActualTableName(
+                            rs.getString("TABLE_CAT"), //$NON-NLS-1$
+                            rs.getString("TABLE_SCHEM"), //$NON-NLS-1$
+                            rs.getString("TABLE_NAME")); //$NON-NLS-1$
+                    answer.put(atn, new String[] {
+                            rs.getString("REMARKS"), //$NON-NLS-1$
+                            rs.getString("TABLE_TYPE") }); //$NON-NLS-1$
+                }
+                tables = answer;
+            } catch (SQLException e) {
+                // leave the table information unknown, it will be read table by table
+            } finally {
+                closeResultSet(rs);
+            }
+        }
+    }
+
+    private static void closeResultSet(ResultSet rs) {
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -180,6 +180,19 @@ public abstract class BaseRules implements Rules {
         return rc;
     }
 
+    /**
+     * Implements the rule for generating the update by primary key dirty SQL
+     * Map element and DAO method. If the update by primary key selective
+     * element is generated, and the model classes track dirty fields, then
+     * generate the element and method.
+     * 
+     * @return true if the element and method should be generated
+     */
+    public boolean generateUpdateByPrimaryKeyDirty() {
+        return generateUpdateByPrimaryKeySelective()
+                && introspectedTable.isTrackDirtyFields();
+    }
+
     /**
      * Implements the rule for generating the delete by primary key SQL Map
      * element and DAO method. If the table has a primary key, and the
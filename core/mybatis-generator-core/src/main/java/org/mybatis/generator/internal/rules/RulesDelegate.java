@@ -148,6 +148,10 @@ public class RulesDelegate implements Rules {
         return rules.generateUpdateByPrimaryKeySelective();
     }
 
+    public boolean generateUpdateByPrimaryKeyDirty() {
+        return rules.generateUpdateByPrimaryKeyDirty();
+    }
+
     public boolean generateUpdateByPrimaryKeyWithBLOBs() {
         return rules.generateUpdateByPrimaryKeyWithBLOBs();
     }
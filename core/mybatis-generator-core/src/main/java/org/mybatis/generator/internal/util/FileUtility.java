@@ -0,0 +1,148 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * This class holds methods for replacing files safely.
+ */
+public class FileUtility {
+
+    /** Files.move(Path, Path, CopyOption...) - null if the platform has no java.nio.file. */
+    private static final Method MOVE_METHOD;
+
+    /** File.toPath(). */
+    private static final Method TO_PATH_METHOD;
+
+    /** {ATOMIC_MOVE, REPLACE_EXISTING}. */
+    private static final Object ATOMIC_MOVE_OPTIONS;
+
+    static {
+        Method moveMethod = null;
+        Method toPathMethod = null;
+        Object atomicMoveOptions = null;
+        try {
+            // java.nio.file is not available on Java 6, so it is used through reflection
+            Class<?> pathClass = Class.forName("java.nio.file.Path"); //$NON-NLS-1$
+            Class<?> copyOptionClass = Class.forName("java.nio.file.CopyOption"); //$NON-NLS-1$
+            Class<?> standardCopyOptionClass = Class
+                    .forName("java.nio.file.StandardCopyOption"); //$NON-NLS-1$
+            atomicMoveOptions = Array.newInstance(copyOptionClass, 2);
+            Array.set(atomicMoveOptions, 0, standardCopyOptionClass
+                    .getField("ATOMIC_MOVE").get(null)); //$NON-NLS-1$
+            Array.set(atomicMoveOptions, 1, standardCopyOptionClass
+                    .getField("REPLACE_EXISTING").get(null)); //$NON-NLS-1$
+            moveMethod = Class.forName("java.nio.file.Files").getMethod("move", //$NON-NLS-1$ //$NON-NLS-2$
+                    pathClass, pathClass, atomicMoveOptions.getClass());
+            toPathMethod = File.class.getMethod("toPath"); //$NON-NLS-1$
+        } catch (Exception e) {
+            moveMethod = null;
+        }
+        MOVE_METHOD = moveMethod;
+        TO_PATH_METHOD = toPathMethod;
+        ATOMIC_MOVE_OPTIONS = atomicMoveOptions;
+    }
+
+    /**
+     * Utility Class - No Instances
+     */
+    private FileUtility() {
+    }
+
+    /**
+     * Replaces the target file with the source file. The source file should be in the
+     * same directory as the target file.
+     *
+     * <p>On Java 7 and later the file is moved with an atomic move, so the target file
+     * always holds either the old or the new content. If the platform or the file
+     * system does not support an atomic move (for example on Java 6), the target file
+     * is first renamed to a backup file, then the source file is renamed to the target
+     * file, and finally the backup file is deleted. This is not atomic: if the process
+     * dies between the two renames, the target file is missing but the old content is
+     * still in the backup file (the target file name with a <code>.bak</code> suffix).
+     *
+     * @param sourceFile
+     *            the file holding the new content. The file no longer exists when
+     *            this method returns normally.
+     * @param targetFile
+     *            the file to replace. It does not need to exist.
+     * @throws IOException
+     *             if the file cannot be replaced. The target file is unchanged.
+     */
+    public static void replaceFile(File sourceFile, File targetFile) throws IOException {
+        if (moveAtomically(sourceFile, targetFile)) {
+            return;
+        }
+
+        if (!targetFile.exists()) {
+            if (sourceFile.renameTo(targetFile)) {
+                return;
+            }
+            throw new IOException(targetFile.getAbsolutePath());
+        }
+
+        File backupFile = new File(targetFile.getPath() + ".bak"); //$NON-NLS-1$
+        if (backupFile.exists() && !backupFile.delete()) {
+            throw new IOException(backupFile.getAbsolutePath());
+        }
+        if (!targetFile.renameTo(backupFile)) {
+            throw new IOException(targetFile.getAbsolutePath());
+        }
+        if (!sourceFile.renameTo(targetFile)) {
+            // put the old content back
+            backupFile.renameTo(targetFile);
+            throw new IOException(targetFile.getAbsolutePath());
+        }
+        backupFile.delete();
+    }
+
+    /**
+     * Moves the source file to the target file with an atomic move.
+     *
+     * @return true if the file was moved, false if an atomic move is not supported
+     */
+    private static boolean moveAtomically(File sourceFile, File targetFile)
+            throws IOException {
+        if (MOVE_METHOD == null) {
+            return false;
+        }
+
+        try {
+            MOVE_METHOD.invoke(null, TO_PATH_METHOD.invoke(sourceFile),
+                    TO_PATH_METHOD.invoke(targetFile), ATOMIC_MOVE_OPTIONS);
+            return true;
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if ("java.nio.file.AtomicMoveNotSupportedException" //$NON-NLS-1$
+                    .equals(cause.getClass().getName())) {
+                return false;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IOException(cause.getMessage(), cause);
+            }
+        } catch (IllegalAccessException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This class holds methods for finding out whether a subclass overrides a method.
+ * The DOM classes use it to stream their content only when no subclass has
+ * changed the formatted content.
+ */
+public class OverrideUtility {
+
+    /** Results by class, then by base class and method signature. */
+    private static final Map<Class<?>, Map<String, Boolean>> CACHE = new WeakHashMap<Class<?>, Map<String, Boolean>>();
+
+    /**
+     * Utility Class - No Instances
+     */
+    private OverrideUtility() {
+    }
+
+    /**
+     * Returns true if the type, or any of its superclasses below the base type,
+     * declares the specified method.
+     *
+     * @param type
+     *            the runtime type of an object
+     * @param baseType
+     *            the class that declares the original method
+     * @param methodName
+     *            the method name
+     * @param parameterTypes
+     *            the parameter types of the method
+     * @return true if the method is overridden
+     */
+    public static boolean isOverridden(Class<?> type, Class<?> baseType, String methodName,
+            Class<?>... parameterTypes) {
+        if (type == baseType) {
+            return false;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(baseType.getName());
+        sb.append('#');
+        sb.append(methodName);
+        for (Class<?> parameterType : parameterTypes) {
+            sb.append(',');
+            sb.append(parameterType.getName());
+        }
+        String key = sb.toString();
+
+        synchronized (CACHE) {
+            Map<String, Boolean> results = CACHE.get(type);
+            if (results == null) {
+                results = new HashMap<String, Boolean>();
+                CACHE.put(type, results);
+            }
+
+            Boolean result = results.get(key);
+            if (result == null) {
+                result = declaresMethod(type, baseType, methodName, parameterTypes);
+                results.put(key, result);
+            }
+
+            return result.booleanValue();
+        }
+    }
+
+    private static boolean declaresMethod(Class<?> type, Class<?> baseType, String methodName,
+            Class<?>... parameterTypes) {
+        for (Class<?> c = type; c != null && c != baseType; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(methodName, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not declared in this class
+                continue;
+            }
+        }
+
+        return false;
+    }
+}
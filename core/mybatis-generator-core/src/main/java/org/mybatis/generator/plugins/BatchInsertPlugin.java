@@ -0,0 +1,469 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.plugins;
+
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getEscapedColumnName;
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getParameterClause;
+import static org.mybatis.generator.internal.util.StringUtility.escapeStringForJava;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.IntrospectedTable.TargetRuntime;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
+import org.mybatis.generator.api.dom.OutputUtilities;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.Element;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.codegen.mybatis3.ListUtilities;
+import org.mybatis.generator.config.GeneratedKey;
+import org.mybatis.generator.internal.db.DatabaseDialects;
+
+/**
+ * This plugin adds multi-row insert methods to the generated mappers. Two methods
+ * are added to the client interface:
+ *
+ * <pre>
+ * int insertBatchChunk(List&lt;Record&gt; records);
+ * default int insertBatch(List&lt;Record&gt; records) { ... }
+ * </pre>
+ *
+ * <code>insertBatchChunk</code> inserts all records with a single statement using a
+ * multi-row <code>values</code> list, or an <code>insert all</code> statement on
+ * Oracle. It is implemented in the XML mapper, or with a <code>&lt;script&gt;</code>
+ * annotation if the insert method is annotated. <code>insertBatch</code> splits the
+ * list into chunks that stay below the parameter limit of the JDBC driver and calls
+ * <code>insertBatchChunk</code> for each chunk. The generated interface requires
+ * Java 8 and MyBatis 3.4.2 or later.
+ * <p>
+ * Generated keys are supported if the generated key of the table is JDBC standard
+ * (<code>useGeneratedKeys</code>) and the JDBC driver of the target database returns
+ * the keys of all inserted rows - MySQL, HSQLDB, PostgreSQL and H2. Keys retrieved
+ * with a select statement cannot be retrieved for multiple rows and are not set in
+ * the records.
+ * <p>
+ * This plugin accepts three properties:
+ * <ul>
+ * <li><tt>targetDatabase</tt> (required) the database the statements are generated
+ * for. Supported values are MySQL, HSQLDB, PostgreSQL, H2, SQLite, DB2, Derby,
+ * Cloudscape, SqlServer and Oracle. Sybase, DB2_MF and Informix are not supported,
+ * they have no multi-row insert statement</li>
+ * <li><tt>maxParametersPerStatement</tt> (optional) the maximum number of parameters
+ * in one statement. The default is 2000, which is below the limit of SQL Server
+ * (2100)</li>
+ * <li><tt>maxRowsPerStatement</tt> (optional) the maximum number of rows in one
+ * statement. The default is 1000, which is the limit of SQL Server</li>
+ * </ul>
+ * This plugin is only valid for MyBatis3.
+ */
+public class BatchInsertPlugin extends PluginAdapter implements ThreadSafePlugin {
+
+    /**
+     * The statement used to insert several rows.
+     */
+    enum InsertStyle {
+        /** INSERT INTO t (...) VALUES (...), (...) - SQL:1999. */
+        VALUES_LIST,
+        /** INSERT ALL INTO t (...) VALUES (...) INTO t (...) VALUES (...) SELECT 1 FROM DUAL - Oracle. */
+        INSERT_ALL
+    }
+
+    private static final String TARGET_DATABASE = "targetDatabase"; //$NON-NLS-1$
+
+    private static final String MAX_PARAMETERS_PER_STATEMENT = "maxParametersPerStatement"; //$NON-NLS-1$
+
+    private static final String MAX_ROWS_PER_STATEMENT = "maxRowsPerStatement"; //$NON-NLS-1$
+
+    private static final String INSERT_BATCH = "insertBatch"; //$NON-NLS-1$
+
+    private static final String INSERT_BATCH_CHUNK = "insertBatchChunk"; //$NON-NLS-1$
+
+    private int maxParametersPerStatement;
+
+    private int maxRowsPerStatement;
+
+    private InsertStyle insertStyle;
+
+    /** True if the JDBC driver returns the generated keys of all inserted rows. */
+    private boolean supportsGeneratedKeys;
+
+    public BatchInsertPlugin() {
+        super();
+    }
+
+    public boolean validate(List<String> warnings) {
+        String targetDatabase = properties.getProperty(TARGET_DATABASE);
+        if (!stringHasValue(targetDatabase)) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "BatchInsertPlugin", //$NON-NLS-1$
+                    TARGET_DATABASE));
+            return false;
+        }
+
+        insertStyle = getInsertStyle(targetDatabase);
+        if (insertStyle == null) {
+            warnings.add(getString("ValidationError.29", //$NON-NLS-1$
+                    "BatchInsertPlugin", //$NON-NLS-1$
+                    TARGET_DATABASE, targetDatabase));
+            return false;
+        }
+
+        supportsGeneratedKeys = supportsGeneratedKeys(targetDatabase);
+        maxParametersPerStatement = getPositiveInt(MAX_PARAMETERS_PER_STATEMENT, 2000, warnings);
+        maxRowsPerStatement = getPositiveInt(MAX_ROWS_PER_STATEMENT, 1000, warnings);
+        return maxParametersPerStatement > 0 && maxRowsPerStatement > 0;
+    }
+
+    static InsertStyle getInsertStyle(String targetDatabase) {
+        DatabaseDialects dialect = DatabaseDialects.getDatabaseDialect(targetDatabase);
+        if (dialect != null) {
+            switch (dialect) {
+            case MYSQL:
+            case HSQLDB:
+            case DB2:
+            case DERBY:
+            case CLOUDSCAPE:
+            case SQLSERVER:
+                return InsertStyle.VALUES_LIST;
+            default:
+                // Sybase, DB2 for z/OS and Informix only insert one row with
+                // a values clause
+                return null;
+            }
+        }
+
+        if ("Oracle".equalsIgnoreCase(targetDatabase)) { //$NON-NLS-1$
+            return InsertStyle.INSERT_ALL;
+        } else if ("PostgreSQL".equalsIgnoreCase(targetDatabase) //$NON-NLS-1$
+                || "H2".equalsIgnoreCase(targetDatabase) //$NON-NLS-1$
+                || "SQLite".equalsIgnoreCase(targetDatabase)) { //$NON-NLS-1$
+            return InsertStyle.VALUES_LIST;
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns true if the JDBC driver of the database returns the generated keys of
+     * every row of a multi-row insert. The other drivers return the key of the last
+     * row only, or none at all.
+     */
+    static boolean supportsGeneratedKeys(String targetDatabase) {
+        DatabaseDialects dialect = DatabaseDialects.getDatabaseDialect(targetDatabase);
+        return dialect == DatabaseDialects.MYSQL
+                || dialect == DatabaseDialects.HSQLDB
+                || "PostgreSQL".equalsIgnoreCase(targetDatabase) //$NON-NLS-1$
+                || "H2".equalsIgnoreCase(targetDatabase); //$NON-NLS-1$
+    }
+
+    private int getPositiveInt(String property, int defaultValue, List<String> warnings) {
+        String value = properties.getProperty(property);
+        if (!stringHasValue(value)) {
+            return defaultValue;
+        }
+
+        int answer;
+        try {
+            answer = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            answer = -1;
+        }
+
+        if (answer < 1) {
+            warnings.add(getString("ValidationError.29", //$NON-NLS-1$
+                    "BatchInsertPlugin", property, value)); //$NON-NLS-1$
+        }
+
+        return answer;
+    }
+
+    private List<IntrospectedColumn> getInsertColumns(IntrospectedTable introspectedTable) {
+        return ListUtilities.removeIdentityAndGeneratedAlwaysColumns(
+                introspectedTable.getAllColumns());
+    }
+
+    /**
+     * Returns the number of rows inserted by one statement.
+     */
+    private int getRowsPerStatement(IntrospectedTable introspectedTable) {
+        int columnCount = getInsertColumns(introspectedTable).size();
+        return Math.max(1, Math.min(maxRowsPerStatement,
+                maxParametersPerStatement / columnCount));
+    }
+
+    private IntrospectedColumn getJdbcStandardKeyColumn(IntrospectedTable introspectedTable) {
+        GeneratedKey gk = introspectedTable.getGeneratedKey();
+        if (gk == null || !gk.isJdbcStandard() || !supportsGeneratedKeys) {
+            return null;
+        }
+
+        // if the column is null, then it's a configuration error. The
+        // warning has already been reported
+        return introspectedTable.getColumn(gk.getColumn());
+    }
+
+    @Override
+    public boolean clientInsertMethodGenerated(Method method, Interface interfaze,
+            IntrospectedTable introspectedTable) {
+        if (introspectedTable.getTargetRuntime() != TargetRuntime.MYBATIS3
+                || getInsertColumns(introspectedTable).isEmpty()) {
+            return true;
+        }
+
+        FullyQualifiedJavaType recordType = method.getParameters().get(0).getType();
+        FullyQualifiedJavaType listType = FullyQualifiedJavaType.getNewListInstance();
+        listType.addTypeArgument(recordType);
+
+        Method chunkMethod = new Method(INSERT_BATCH_CHUNK);
+        chunkMethod.setReturnType(FullyQualifiedJavaType.getIntInstance());
+        chunkMethod.addParameter(new Parameter(listType, "records")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(chunkMethod,
+                introspectedTable);
+        if (!method.getAnnotations().isEmpty()) {
+            addInsertAnnotation(chunkMethod, interfaze, introspectedTable);
+        }
+        interfaze.addMethod(chunkMethod);
+
+        int rowsPerStatement = getRowsPerStatement(introspectedTable);
+        Method batchMethod = new Method(INSERT_BATCH);
+        batchMethod.setDefault(true);
+        batchMethod.setReturnType(FullyQualifiedJavaType.getIntInstance());
+        batchMethod.addParameter(new Parameter(listType, "records")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(batchMethod,
+                introspectedTable);
+        batchMethod.addBodyLine("int rows = 0;"); //$NON-NLS-1$
+        batchMethod.addBodyLine(String.format(
+                "for (int i = 0; i < records.size(); i += %d) {", rowsPerStatement)); //$NON-NLS-1$
+        batchMethod.addBodyLine(String.format(
+                "rows += %s(records.subList(i, Math.min(i + %d, records.size())));", //$NON-NLS-1$
+                INSERT_BATCH_CHUNK, rowsPerStatement));
+        batchMethod.addBodyLine("}"); //$NON-NLS-1$
+        batchMethod.addBodyLine("return rows;"); //$NON-NLS-1$
+        interfaze.addMethod(batchMethod);
+
+        interfaze.addImportedType(FullyQualifiedJavaType.getNewListInstance());
+        interfaze.addImportedType(recordType);
+
+        return true;
+    }
+
+    private void addInsertAnnotation(Method method, Interface interfaze,
+            IntrospectedTable introspectedTable) {
+        List<IntrospectedColumn> columns = getInsertColumns(introspectedTable);
+
+        method.addAnnotation("@Insert({"); //$NON-NLS-1$
+        method.addAnnotation(getAnnotationLine("<script>", false)); //$NON-NLS-1$
+
+        if (insertStyle == InsertStyle.INSERT_ALL) {
+            method.addAnnotation(getAnnotationLine("insert all", false)); //$NON-NLS-1$
+            method.addAnnotation(getAnnotationLine(
+                    "<foreach collection=\"list\" item=\"record\">", false)); //$NON-NLS-1$
+            for (String line : getColumnListLines("into ", introspectedTable, columns, 60, "")) { //$NON-NLS-1$ //$NON-NLS-2$
+                method.addAnnotation(getAnnotationLine(line, false));
+            }
+            for (String line : getValuesLines("values ", columns, 60, "")) { //$NON-NLS-1$ //$NON-NLS-2$
+                method.addAnnotation(getAnnotationLine(line, false));
+            }
+            method.addAnnotation(getAnnotationLine("</foreach>", false)); //$NON-NLS-1$
+            method.addAnnotation(getAnnotationLine("select 1 from dual", false)); //$NON-NLS-1$
+        } else {
+            for (String line : getColumnListLines("insert into ", introspectedTable, columns, 60, "")) { //$NON-NLS-1$ //$NON-NLS-2$
+                method.addAnnotation(getAnnotationLine(line, false));
+            }
+            method.addAnnotation(getAnnotationLine("values", false)); //$NON-NLS-1$
+            method.addAnnotation(getAnnotationLine(
+                    "<foreach collection=\"list\" item=\"record\" separator=\",\">", false)); //$NON-NLS-1$
+            for (String line : getValuesLines("", columns, 60, "")) { //$NON-NLS-1$ //$NON-NLS-2$
+                method.addAnnotation(getAnnotationLine(line, false));
+            }
+            method.addAnnotation(getAnnotationLine("</foreach>", false)); //$NON-NLS-1$
+        }
+
+        method.addAnnotation(getAnnotationLine("</script>", true)); //$NON-NLS-1$
+        method.addAnnotation("})"); //$NON-NLS-1$
+
+        interfaze.addImportedType(new FullyQualifiedJavaType(
+                "org.apache.ibatis.annotations.Insert")); //$NON-NLS-1$
+
+        IntrospectedColumn keyColumn = getJdbcStandardKeyColumn(introspectedTable);
+        if (keyColumn != null) {
+            method.addAnnotation("@Options(useGeneratedKeys=true,keyProperty=\"" //$NON-NLS-1$
+                    + keyColumn.getJavaProperty() + "\")"); //$NON-NLS-1$
+            interfaze.addImportedType(new FullyQualifiedJavaType(
+                    "org.apache.ibatis.annotations.Options")); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns the lines of the column list of the insert statement, wrapped after
+     * the maximum line length.
+     */
+    private List<String> getColumnListLines(String prefix, IntrospectedTable introspectedTable,
+            List<IntrospectedColumn> columns, int maxLength, String indent) {
+        List<String> answer = new ArrayList<String>();
+        StringBuilder sb = new StringBuilder();
+        sb.append(prefix);
+        sb.append(introspectedTable.getFullyQualifiedTableNameAtRuntime());
+        sb.append(" ("); //$NON-NLS-1$
+        for (int i = 0; i < columns.size(); i++) {
+            sb.append(getEscapedColumnName(columns.get(i)));
+            if (i + 1 < columns.size()) {
+                sb.append(", "); //$NON-NLS-1$
+            }
+
+            if (sb.length() > maxLength && i + 1 < columns.size()) {
+                answer.add(sb.toString());
+                sb.setLength(0);
+                sb.append(indent);
+            }
+        }
+        sb.append(')');
+        answer.add(sb.toString());
+        return answer;
+    }
+
+    /**
+     * Returns the lines of the parameters of one row, wrapped after the maximum
+     * line length.
+     */
+    private List<String> getValuesLines(String prefix, List<IntrospectedColumn> columns,
+            int maxLength, String indent) {
+        List<String> answer = new ArrayList<String>();
+        StringBuilder sb = new StringBuilder();
+        sb.append(prefix);
+        sb.append('(');
+        for (int i = 0; i < columns.size(); i++) {
+            sb.append(getParameterClause(columns.get(i), "record.")); //$NON-NLS-1$
+            if (i + 1 < columns.size()) {
+                sb.append(", "); //$NON-NLS-1$
+            }
+
+            if (sb.length() > maxLength && i + 1 < columns.size()) {
+                answer.add(sb.toString());
+                sb.setLength(0);
+                sb.append(indent);
+            }
+        }
+        sb.append(')');
+        answer.add(sb.toString());
+        return answer;
+    }
+
+    private String getAnnotationLine(String s, boolean last) {
+        StringBuilder sb = new StringBuilder();
+        OutputUtilities.javaIndent(sb, 1);
+        sb.append('"');
+        sb.append(escapeStringForJava(s));
+        sb.append('"');
+        if (!last) {
+            sb.append(',');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document,
+            IntrospectedTable introspectedTable) {
+        if (introspectedTable.getTargetRuntime() != TargetRuntime.MYBATIS3
+                || getInsertColumns(introspectedTable).isEmpty()
+                || !hasInsertElement(document.getRootElement(), introspectedTable)) {
+            return true;
+        }
+
+        document.getRootElement().addElement(getInsertBatchElement(introspectedTable));
+        return true;
+    }
+
+    private boolean hasInsertElement(XmlElement rootElement,
+            IntrospectedTable introspectedTable) {
+        for (Element element : rootElement.getElements()) {
+            if (element instanceof XmlElement
+                    && "insert".equals(((XmlElement) element).getName())) { //$NON-NLS-1$
+                for (Attribute attribute : ((XmlElement) element).getAttributes()) {
+                    if ("id".equals(attribute.getName()) //$NON-NLS-1$
+                            && introspectedTable.getInsertStatementId().equals(
+                                    attribute.getValue())) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private XmlElement getInsertBatchElement(IntrospectedTable introspectedTable) {
+        XmlElement answer = new XmlElement("insert"); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("id", INSERT_BATCH_CHUNK)); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("parameterType", "java.util.List")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        IntrospectedColumn keyColumn = getJdbcStandardKeyColumn(introspectedTable);
+        if (keyColumn != null) {
+            answer.addAttribute(new Attribute(
+                    "useGeneratedKeys", "true")); //$NON-NLS-1$ //$NON-NLS-2$
+            answer.addAttribute(new Attribute(
+                    "keyProperty", keyColumn.getJavaProperty())); //$NON-NLS-1$
+            answer.addAttribute(new Attribute(
+                    "keyColumn", keyColumn.getActualColumnName())); //$NON-NLS-1$
+        }
+
+        context.getCommentGenerator().addComment(answer);
+
+        StringBuilder sb = new StringBuilder();
+        OutputUtilities.xmlIndent(sb, 1);
+        String indent = sb.toString();
+
+        List<IntrospectedColumn> columns = getInsertColumns(introspectedTable);
+        XmlElement foreachElement = new XmlElement("foreach"); //$NON-NLS-1$
+        foreachElement.addAttribute(new Attribute("collection", "list")); //$NON-NLS-1$ //$NON-NLS-2$
+        foreachElement.addAttribute(new Attribute("item", "record")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        if (insertStyle == InsertStyle.INSERT_ALL) {
+            answer.addElement(new TextElement("insert all")); //$NON-NLS-1$
+            for (String line : getColumnListLines("into ", introspectedTable, columns, 80, indent)) { //$NON-NLS-1$
+                foreachElement.addElement(new TextElement(line));
+            }
+            for (String line : getValuesLines("values ", columns, 80, indent)) { //$NON-NLS-1$
+                foreachElement.addElement(new TextElement(line));
+            }
+            answer.addElement(foreachElement);
+            answer.addElement(new TextElement("select 1 from dual")); //$NON-NLS-1$
+        } else {
+            for (String line : getColumnListLines("insert into ", introspectedTable, columns, 80, indent)) { //$NON-NLS-1$
+                answer.addElement(new TextElement(line));
+            }
+            answer.addElement(new TextElement("values")); //$NON-NLS-1$
+            foreachElement.addAttribute(new Attribute("separator", ",")); //$NON-NLS-1$ //$NON-NLS-2$
+            for (String line : getValuesLines("", columns, 80, indent)) { //$NON-NLS-1$
+                foreachElement.addElement(new TextElement(line));
+            }
+            answer.addElement(foreachElement);
+        }
+
+        return answer;
+    }
+}
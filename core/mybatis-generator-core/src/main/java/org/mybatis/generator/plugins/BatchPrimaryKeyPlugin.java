@@ -0,0 +1,508 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.plugins;
+
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getAliasedEscapedColumnName;
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getEscapedColumnName;
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getParameterClause;
+import static org.mybatis.generator.internal.util.StringUtility.escapeStringForJava;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.IntrospectedTable.TargetRuntime;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
+import org.mybatis.generator.api.dom.OutputUtilities;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.Element;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+
+/**
+ * This plugin adds methods that select or delete several records by primary key
+ * with a single statement:
+ *
+ * <pre>
+ * List&lt;Record&gt; selectByPrimaryKeys(Collection&lt;Key&gt; keys);
+ * int deleteByPrimaryKeys(Collection&lt;Key&gt; keys);
+ * </pre>
+ *
+ * If the primary key has a single column, the keys are the values of the column and
+ * the statements use <code>in</code> lists. Lists with more elements than the
+ * <code>maxInListSize</code> property are split into several <code>in</code> lists
+ * joined with <code>or</code>. A third method returns the records in a map, keyed by
+ * the primary key value:
+ *
+ * <pre>
+ * &#64;MapKey("id")
+ * Map&lt;Key, Record&gt; selectMapByPrimaryKeys(Collection&lt;Key&gt; keys);
+ * </pre>
+ *
+ * If the primary key has several columns, the keys are the primary key class, or
+ * the record class if no primary key class is generated. The key predicate is
+ * expanded to <code>(a = ? and b = ?) or (a = ? and b = ?)</code>, or with the
+ * <code>useRowValueComparison</code> property a row value <code>in</code> list like
+ * <code>(a, b) in ((?, ?), (?, ?))</code> is used.
+ * <p>
+ * The methods are added to the XML mapper, or as <code>&lt;script&gt;</code>
+ * annotations if the methods are annotated.
+ * <p>
+ * This plugin accepts two properties:
+ * <ul>
+ * <li><tt>maxInListSize</tt> (optional) the maximum number of elements of one
+ * <code>in</code> list. The default is 1000, which is the limit of Oracle</li>
+ * <li><tt>useRowValueComparison</tt> (optional) if true, composite keys are
+ * compared with row value <code>in</code> lists. The default is false</li>
+ * </ul>
+ * This plugin is only valid for MyBatis3.
+ */
+public class BatchPrimaryKeyPlugin extends PluginAdapter implements ThreadSafePlugin {
+
+    private static final String MAX_IN_LIST_SIZE = "maxInListSize"; //$NON-NLS-1$
+
+    private static final String SELECT_BY_PRIMARY_KEYS = "selectByPrimaryKeys"; //$NON-NLS-1$
+
+    private static final String SELECT_MAP_BY_PRIMARY_KEYS = "selectMapByPrimaryKeys"; //$NON-NLS-1$
+
+    private static final String DELETE_BY_PRIMARY_KEYS = "deleteByPrimaryKeys"; //$NON-NLS-1$
+
+    private int maxInListSize;
+
+    private boolean useRowValueComparison;
+
+    public BatchPrimaryKeyPlugin() {
+        super();
+    }
+
+    public boolean validate(List<String> warnings) {
+        maxInListSize = 1000;
+        String value = properties.getProperty(MAX_IN_LIST_SIZE);
+        if (stringHasValue(value)) {
+            try {
+                maxInListSize = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                maxInListSize = -1;
+            }
+
+            if (maxInListSize < 1) {
+                warnings.add(getString("ValidationError.29", //$NON-NLS-1$
+                        "BatchPrimaryKeyPlugin", MAX_IN_LIST_SIZE, value)); //$NON-NLS-1$
+                return false;
+            }
+        }
+
+        useRowValueComparison = Boolean.parseBoolean(properties
+                .getProperty("useRowValueComparison")); //$NON-NLS-1$
+        return true;
+    }
+
+    private boolean isSupported(IntrospectedTable introspectedTable) {
+        return introspectedTable.getTargetRuntime() == TargetRuntime.MYBATIS3
+                && introspectedTable.hasPrimaryKeyColumns();
+    }
+
+    /**
+     * Returns true if the keys are the values of the single primary key column
+     * rather than objects with a property for each key column.
+     */
+    private boolean isSingleValueKey(IntrospectedTable introspectedTable) {
+        return !introspectedTable.getRules().generatePrimaryKeyClass()
+                && introspectedTable.getPrimaryKeyColumns().size() == 1;
+    }
+
+    private FullyQualifiedJavaType getKeyType(IntrospectedTable introspectedTable) {
+        if (introspectedTable.getRules().generatePrimaryKeyClass()) {
+            return new FullyQualifiedJavaType(introspectedTable.getPrimaryKeyType());
+        } else if (isSingleValueKey(introspectedTable)) {
+            return getSingleColumnType(introspectedTable);
+        } else {
+            return new FullyQualifiedJavaType(introspectedTable.getBaseRecordType());
+        }
+    }
+
+    private FullyQualifiedJavaType getSingleColumnType(IntrospectedTable introspectedTable) {
+        FullyQualifiedJavaType type = introspectedTable.getPrimaryKeyColumns().get(0)
+                .getFullyQualifiedJavaType();
+        if (type.isPrimitive()) {
+            type = type.getPrimitiveTypeWrapper();
+        }
+        return type;
+    }
+
+    private Parameter getKeysParameter(IntrospectedTable introspectedTable,
+            Interface interfaze) {
+        FullyQualifiedJavaType keyType = getKeyType(introspectedTable);
+        FullyQualifiedJavaType collectionType = new FullyQualifiedJavaType(
+                "java.util.Collection"); //$NON-NLS-1$
+        collectionType.addTypeArgument(keyType);
+        interfaze.addImportedType(new FullyQualifiedJavaType(
+                "java.util.Collection")); //$NON-NLS-1$
+        interfaze.addImportedType(keyType);
+        interfaze.addImportedType(new FullyQualifiedJavaType(
+                "org.apache.ibatis.annotations.Param")); //$NON-NLS-1$
+
+        Parameter parameter = new Parameter(collectionType, "keys"); //$NON-NLS-1$
+        parameter.addAnnotation("@Param(\"keys\")"); //$NON-NLS-1$
+        return parameter;
+    }
+
+    @Override
+    public boolean clientSelectByPrimaryKeyMethodGenerated(Method method,
+            Interface interfaze, IntrospectedTable introspectedTable) {
+        if (!isSupported(introspectedTable)) {
+            return true;
+        }
+
+        FullyQualifiedJavaType recordType = method.getReturnType();
+        FullyQualifiedJavaType listType = FullyQualifiedJavaType.getNewListInstance();
+        listType.addTypeArgument(recordType);
+
+        Method newMethod = new Method(SELECT_BY_PRIMARY_KEYS);
+        newMethod.setReturnType(listType);
+        newMethod.addParameter(getKeysParameter(introspectedTable, interfaze));
+        context.getCommentGenerator().addGeneralMethodComment(newMethod,
+                introspectedTable);
+        if (!method.getAnnotations().isEmpty()) {
+            addSelectAnnotations(method, newMethod, introspectedTable);
+        }
+        interfaze.addMethod(newMethod);
+        interfaze.addImportedType(FullyQualifiedJavaType.getNewListInstance());
+
+        if (isSingleValueKey(introspectedTable)) {
+            FullyQualifiedJavaType mapType = FullyQualifiedJavaType.getNewMapInstance();
+            mapType.addTypeArgument(getSingleColumnType(introspectedTable));
+            mapType.addTypeArgument(recordType);
+
+            newMethod = new Method(SELECT_MAP_BY_PRIMARY_KEYS);
+            newMethod.setReturnType(mapType);
+            newMethod.addParameter(getKeysParameter(introspectedTable, interfaze));
+            context.getCommentGenerator().addGeneralMethodComment(newMethod,
+                    introspectedTable);
+            if (!method.getAnnotations().isEmpty()) {
+                addSelectAnnotations(method, newMethod, introspectedTable);
+            }
+            newMethod.addAnnotation(String.format("@MapKey(\"%s\")", //$NON-NLS-1$
+                    introspectedTable.getPrimaryKeyColumns().get(0).getJavaProperty()));
+            interfaze.addMethod(newMethod);
+            interfaze.addImportedType(FullyQualifiedJavaType.getNewMapInstance());
+            interfaze.addImportedType(new FullyQualifiedJavaType(
+                    "org.apache.ibatis.annotations.MapKey")); //$NON-NLS-1$
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies the annotations of the selectByPrimaryKey method, replacing the where
+     * clause of the select with the key predicate.
+     */
+    private void addSelectAnnotations(Method method, Method newMethod,
+            IntrospectedTable introspectedTable) {
+        boolean inSelect = false;
+        boolean inWhere = false;
+        for (String annotation : method.getAnnotations()) {
+            if (inWhere) {
+                // skip the rest of the where clause
+                inWhere = !annotation.startsWith("})"); //$NON-NLS-1$
+            } else if (inSelect) {
+                if (annotation.trim().startsWith("\"where ")) { //$NON-NLS-1$
+                    addScriptLines(newMethod, getWhereElements(introspectedTable, true));
+                    newMethod.addAnnotation(getAnnotationLine("</script>", true)); //$NON-NLS-1$
+                    newMethod.addAnnotation("})"); //$NON-NLS-1$
+                    inSelect = false;
+                    inWhere = true;
+                } else {
+                    newMethod.addAnnotation(annotation);
+                }
+            } else if (annotation.startsWith("@Select(")) { //$NON-NLS-1$
+                newMethod.addAnnotation(annotation);
+                newMethod.addAnnotation(getAnnotationLine("<script>", false)); //$NON-NLS-1$
+                inSelect = true;
+            } else {
+                newMethod.addAnnotation(annotation);
+            }
+        }
+    }
+
+    @Override
+    public boolean clientDeleteByPrimaryKeyMethodGenerated(Method method,
+            Interface interfaze, IntrospectedTable introspectedTable) {
+        if (!isSupported(introspectedTable)) {
+            return true;
+        }
+
+        Method newMethod = new Method(DELETE_BY_PRIMARY_KEYS);
+        newMethod.setReturnType(FullyQualifiedJavaType.getIntInstance());
+        newMethod.addParameter(getKeysParameter(introspectedTable, interfaze));
+        context.getCommentGenerator().addGeneralMethodComment(newMethod,
+                introspectedTable);
+        if (!method.getAnnotations().isEmpty()) {
+            newMethod.addAnnotation("@Delete({"); //$NON-NLS-1$
+            newMethod.addAnnotation(getAnnotationLine("<script>", false)); //$NON-NLS-1$
+            newMethod.addAnnotation(getAnnotationLine("delete from " //$NON-NLS-1$
+                    + introspectedTable.getFullyQualifiedTableNameAtRuntime(), false));
+            addScriptLines(newMethod, getWhereElements(introspectedTable, false));
+            newMethod.addAnnotation(getAnnotationLine("</script>", true)); //$NON-NLS-1$
+            newMethod.addAnnotation("})"); //$NON-NLS-1$
+            interfaze.addImportedType(new FullyQualifiedJavaType(
+                    "org.apache.ibatis.annotations.Delete")); //$NON-NLS-1$
+        }
+        interfaze.addMethod(newMethod);
+
+        return true;
+    }
+
+    private void addScriptLines(Method method, List<Element> elements) {
+        for (Element element : elements) {
+            for (String line : element.getFormattedContent(0).split("\r?\n")) { //$NON-NLS-1$
+                if (line.trim().length() > 0) {
+                    method.addAnnotation(getAnnotationLine(line.trim(), false));
+                }
+            }
+        }
+    }
+
+    private String getAnnotationLine(String s, boolean last) {
+        StringBuilder sb = new StringBuilder();
+        OutputUtilities.javaIndent(sb, 1);
+        sb.append('"');
+        sb.append(escapeStringForJava(s));
+        sb.append('"');
+        if (!last) {
+            sb.append(',');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document,
+            IntrospectedTable introspectedTable) {
+        if (!isSupported(introspectedTable)) {
+            return true;
+        }
+
+        XmlElement rootElement = document.getRootElement();
+        List<XmlElement> newElements = new ArrayList<XmlElement>();
+        for (Element element : rootElement.getElements()) {
+            if (!(element instanceof XmlElement)) {
+                continue;
+            }
+
+            XmlElement xmlElement = (XmlElement) element;
+            String id = getId(xmlElement);
+            if ("select".equals(xmlElement.getName()) //$NON-NLS-1$
+                    && introspectedTable.getSelectByPrimaryKeyStatementId().equals(id)) {
+                newElements.add(getSelectElement(xmlElement, SELECT_BY_PRIMARY_KEYS,
+                        introspectedTable));
+                if (isSingleValueKey(introspectedTable)) {
+                    newElements.add(getSelectElement(xmlElement,
+                            SELECT_MAP_BY_PRIMARY_KEYS, introspectedTable));
+                }
+            } else if ("delete".equals(xmlElement.getName()) //$NON-NLS-1$
+                    && introspectedTable.getDeleteByPrimaryKeyStatementId().equals(id)) {
+                newElements.add(getDeleteElement(introspectedTable));
+            }
+        }
+
+        for (XmlElement element : newElements) {
+            rootElement.addElement(element);
+        }
+
+        return true;
+    }
+
+    private String getId(XmlElement element) {
+        for (Attribute attribute : element.getAttributes()) {
+            if ("id".equals(attribute.getName())) { //$NON-NLS-1$
+                return attribute.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds a select from the selectByPrimaryKey element: the select list and the
+     * from clause are copied, the where clause is replaced.
+     */
+    private XmlElement getSelectElement(XmlElement selectByPrimaryKeyElement,
+            String statementId, IntrospectedTable introspectedTable) {
+        XmlElement answer = new XmlElement("select"); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("id", statementId)); //$NON-NLS-1$
+        for (Attribute attribute : selectByPrimaryKeyElement.getAttributes()) {
+            if ("resultMap".equals(attribute.getName()) //$NON-NLS-1$
+                    || "resultType".equals(attribute.getName())) { //$NON-NLS-1$
+                answer.addAttribute(attribute);
+            }
+        }
+        answer.addAttribute(new Attribute("parameterType", "map")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        context.getCommentGenerator().addComment(answer);
+
+        boolean inComment = false;
+        for (Element element : selectByPrimaryKeyElement.getElements()) {
+            if (element instanceof TextElement) {
+                String content = ((TextElement) element).getContent();
+                if (content.startsWith("<!--")) { //$NON-NLS-1$
+                    inComment = true;
+                }
+                if (inComment) {
+                    inComment = !content.endsWith("-->"); //$NON-NLS-1$
+                    continue;
+                }
+                if (content.startsWith("where ")) { //$NON-NLS-1$
+                    break;
+                }
+            }
+            answer.addElement(element);
+        }
+
+        for (Element element : getWhereElements(introspectedTable, true)) {
+            answer.addElement(element);
+        }
+
+        return answer;
+    }
+
+    private XmlElement getDeleteElement(IntrospectedTable introspectedTable) {
+        XmlElement answer = new XmlElement("delete"); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("id", DELETE_BY_PRIMARY_KEYS)); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("parameterType", "map")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        context.getCommentGenerator().addComment(answer);
+
+        answer.addElement(new TextElement("delete from " //$NON-NLS-1$
+                + introspectedTable.getFullyQualifiedTableNameAtRuntime()));
+        for (Element element : getWhereElements(introspectedTable, false)) {
+            answer.addElement(element);
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns the where clause that matches the keys. An empty collection matches
+     * no rows.
+     */
+    private List<Element> getWhereElements(IntrospectedTable introspectedTable,
+            boolean aliased) {
+        List<IntrospectedColumn> columns = introspectedTable.getPrimaryKeyColumns();
+
+        XmlElement foreachElement = new XmlElement("foreach"); //$NON-NLS-1$
+        foreachElement.addAttribute(new Attribute("collection", "keys")); //$NON-NLS-1$ //$NON-NLS-2$
+        foreachElement.addAttribute(new Attribute("item", "key")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        if (columns.size() == 1 || useRowValueComparison) {
+            StringBuilder sb = new StringBuilder();
+            StringBuilder values = new StringBuilder();
+            if (columns.size() > 1) {
+                sb.append('(');
+                values.append('(');
+            }
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    sb.append(", "); //$NON-NLS-1$
+                    values.append(", "); //$NON-NLS-1$
+                }
+                sb.append(aliased ? getAliasedEscapedColumnName(columns.get(i))
+                        : getEscapedColumnName(columns.get(i)));
+                values.append(getKeyParameterClause(columns.get(i), introspectedTable));
+            }
+            if (columns.size() > 1) {
+                sb.append(')');
+                values.append(')');
+            }
+            sb.append(" in ("); //$NON-NLS-1$
+            String inClause = sb.toString();
+
+            // start a new in list after every maxInListSize keys
+            foreachElement.addAttribute(new Attribute("index", "index")); //$NON-NLS-1$ //$NON-NLS-2$
+            foreachElement.addAttribute(new Attribute("open", '(' + inClause)); //$NON-NLS-1$
+            foreachElement.addAttribute(new Attribute("close", "))")); //$NON-NLS-1$ //$NON-NLS-2$
+            XmlElement chooseElement = new XmlElement("choose"); //$NON-NLS-1$
+            XmlElement whenElement = new XmlElement("when"); //$NON-NLS-1$
+            whenElement.addAttribute(new Attribute("test", //$NON-NLS-1$
+                    "index % " + maxInListSize + " == 0")); //$NON-NLS-1$ //$NON-NLS-2$
+            whenElement.addElement(new TextElement(") or " + inClause)); //$NON-NLS-1$
+            chooseElement.addElement(whenElement);
+            XmlElement otherwiseElement = new XmlElement("otherwise"); //$NON-NLS-1$
+            otherwiseElement.addElement(new TextElement(",")); //$NON-NLS-1$
+            chooseElement.addElement(otherwiseElement);
+            XmlElement ifElement = new XmlElement("if"); //$NON-NLS-1$
+            ifElement.addAttribute(new Attribute("test", "index != 0")); //$NON-NLS-1$ //$NON-NLS-2$
+            ifElement.addElement(chooseElement);
+            foreachElement.addElement(ifElement);
+            foreachElement.addElement(new TextElement(values.toString()));
+        } else {
+            foreachElement.addAttribute(new Attribute("open", "(")); //$NON-NLS-1$ //$NON-NLS-2$
+            foreachElement.addAttribute(new Attribute("close", ")")); //$NON-NLS-1$ //$NON-NLS-2$
+            foreachElement.addAttribute(new Attribute("separator", "or")); //$NON-NLS-1$ //$NON-NLS-2$
+            StringBuilder sb = new StringBuilder();
+            sb.append('(');
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    sb.append(" and "); //$NON-NLS-1$
+                }
+                sb.append(aliased ? getAliasedEscapedColumnName(columns.get(i))
+                        : getEscapedColumnName(columns.get(i)));
+                sb.append(" = "); //$NON-NLS-1$
+                sb.append(getKeyParameterClause(columns.get(i), introspectedTable));
+            }
+            sb.append(')');
+            foreachElement.addElement(new TextElement(sb.toString()));
+        }
+
+        XmlElement chooseElement = new XmlElement("choose"); //$NON-NLS-1$
+        XmlElement whenElement = new XmlElement("when"); //$NON-NLS-1$
+        whenElement.addAttribute(new Attribute("test", "keys == null or keys.isEmpty()")); //$NON-NLS-1$ //$NON-NLS-2$
+        whenElement.addElement(new TextElement("1 = 0")); //$NON-NLS-1$
+        chooseElement.addElement(whenElement);
+        XmlElement otherwiseElement = new XmlElement("otherwise"); //$NON-NLS-1$
+        otherwiseElement.addElement(foreachElement);
+        chooseElement.addElement(otherwiseElement);
+
+        List<Element> answer = new ArrayList<Element>();
+        answer.add(new TextElement("where")); //$NON-NLS-1$
+        answer.add(chooseElement);
+        return answer;
+    }
+
+    private String getKeyParameterClause(IntrospectedColumn introspectedColumn,
+            IntrospectedTable introspectedTable) {
+        if (!isSingleValueKey(introspectedTable)) {
+            return getParameterClause(introspectedColumn, "key."); //$NON-NLS-1$
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("#{key,jdbcType="); //$NON-NLS-1$
+        sb.append(introspectedColumn.getJdbcTypeName());
+        if (stringHasValue(introspectedColumn.getTypeHandler())) {
+            sb.append(",typeHandler="); //$NON-NLS-1$
+            sb.append(introspectedColumn.getTypeHandler());
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+}
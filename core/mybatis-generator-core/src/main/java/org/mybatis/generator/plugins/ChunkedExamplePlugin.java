@@ -0,0 +1,588 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.plugins;
+
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getAliasedEscapedColumnName;
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getEscapedColumnName;
+import static org.mybatis.generator.internal.util.StringUtility.escapeStringForJava;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.IntrospectedTable.TargetRuntime;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.Element;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.ExampleWhereClauseElementGenerator;
+import org.mybatis.generator.internal.db.DatabaseDialects;
+
+/**
+ * This plugin adds chunked variants of the deleteByExample and
+ * updateByExampleSelective methods, for purges and mass updates that would
+ * otherwise hold locks on many rows for a long time. For example, deleteByExample
+ * gets these companion methods:
+ *
+ * <pre>
+ * int deleteByExampleLimited(Example example, int chunkSize);
+ * default int deleteByExampleInChunks(Example example, int chunkSize) { ... }
+ * default int deleteByExampleInChunks(Example example, int chunkSize, Runnable pause) { ... }
+ * </pre>
+ *
+ * <code>deleteByExampleLimited</code> deletes at most <code>chunkSize</code> rows
+ * that match the example. It is implemented in the XML mapper or the SQL provider -
+ * whichever implements deleteByExample. <code>deleteByExampleInChunks</code> calls it
+ * until no rows are affected and returns the total number of rows. If a pause hook is
+ * given, it is run after every chunk - it may commit the transaction, or wait so that
+ * replicas can keep up. The updateByExampleSelective methods work the same way, but
+ * the updated rows must no longer match the example, otherwise the loop does not end.
+ * The generated interface requires Java 8.
+ * <p>
+ * The row limit depends on the target database: MySQL uses <code>limit</code>, SQL
+ * Server uses <code>top</code>, Oracle selects the <code>rowid</code> of the rows of
+ * the chunk, and the other databases select the primary key of the rows of the chunk
+ * in a subquery. With the primary key subquery, tables without a primary key are
+ * skipped, and tables with a composite key require support for row value
+ * <code>in</code> predicates.
+ * <p>
+ * The plugin requires the <code>targetDatabase</code> property. The value may be
+ * any of the databases known by {@link DatabaseDialects} except Sybase and Informix,
+ * or one of "Oracle", "PostgreSQL", "H2" and "SQLite".
+ * <p>
+ * This plugin is only valid for MyBatis3.
+ */
+public class ChunkedExamplePlugin extends PluginAdapter implements ThreadSafePlugin {
+
+    /**
+     * The ways to limit the rows affected by one statement.
+     */
+    enum ChunkStyle {
+        /** DELETE ... LIMIT n - MySQL. */
+        LIMIT,
+        /** DELETE TOP (n) ... - SQL Server. */
+        TOP,
+        /** WHERE ROWID IN (a subquery with a ROWNUM filter) - Oracle. */
+        ROWID,
+        /** WHERE key IN (a subquery with LIMIT n) - HSQLDB, PostgreSQL, H2, SQLite. */
+        KEY_LIMIT,
+        /** WHERE key IN (a subquery with FETCH FIRST n ROWS ONLY) - DB2, Derby. */
+        KEY_FETCH
+    }
+
+    private static final String TARGET_DATABASE = "targetDatabase"; //$NON-NLS-1$
+
+    private static final String LIMITED_SUFFIX = "Limited"; //$NON-NLS-1$
+
+    private static final String IN_CHUNKS_SUFFIX = "InChunks"; //$NON-NLS-1$
+
+    private ChunkStyle chunkStyle;
+
+    public ChunkedExamplePlugin() {
+        super();
+    }
+
+    public boolean validate(List<String> warnings) {
+        String targetDatabase = properties.getProperty(TARGET_DATABASE);
+        if (!stringHasValue(targetDatabase)) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "ChunkedExamplePlugin", //$NON-NLS-1$
+                    TARGET_DATABASE));
+            return false;
+        }
+
+        chunkStyle = getChunkStyle(targetDatabase);
+        if (chunkStyle == null) {
+            warnings.add(getString("ValidationError.29", //$NON-NLS-1$
+                    "ChunkedExamplePlugin", //$NON-NLS-1$
+                    TARGET_DATABASE, targetDatabase));
+            return false;
+        }
+
+        return true;
+    }
+
+    static ChunkStyle getChunkStyle(String targetDatabase) {
+        DatabaseDialects dialect = DatabaseDialects.getDatabaseDialect(targetDatabase);
+        if (dialect != null) {
+            switch (dialect) {
+            case MYSQL:
+                return ChunkStyle.LIMIT;
+            case SQLSERVER:
+                return ChunkStyle.TOP;
+            case HSQLDB:
+                return ChunkStyle.KEY_LIMIT;
+            case DB2:
+            case DB2_MF:
+            case DERBY:
+            case CLOUDSCAPE:
+                return ChunkStyle.KEY_FETCH;
+            default:
+                return null;
+            }
+        }
+
+        if ("Oracle".equalsIgnoreCase(targetDatabase)) { //$NON-NLS-1$
+            return ChunkStyle.ROWID;
+        } else if ("PostgreSQL".equalsIgnoreCase(targetDatabase) //$NON-NLS-1$
+                || "H2".equalsIgnoreCase(targetDatabase) //$NON-NLS-1$
+                || "SQLite".equalsIgnoreCase(targetDatabase)) { //$NON-NLS-1$
+            return ChunkStyle.KEY_LIMIT;
+        }
+
+        return null;
+    }
+
+    private boolean isSupported(IntrospectedTable introspectedTable) {
+        if (introspectedTable.getTargetRuntime() != TargetRuntime.MYBATIS3) {
+            return false;
+        }
+
+        return (chunkStyle != ChunkStyle.KEY_LIMIT && chunkStyle != ChunkStyle.KEY_FETCH)
+                || introspectedTable.hasPrimaryKeyColumns();
+    }
+
+    private boolean isDeleteByExample(String name, IntrospectedTable introspectedTable) {
+        return name.equals(introspectedTable.getDeleteByExampleStatementId());
+    }
+
+    private boolean isUpdateByExampleSelective(String name,
+            IntrospectedTable introspectedTable) {
+        return name.equals(introspectedTable.getUpdateByExampleSelectiveStatementId());
+    }
+
+    @Override
+    public boolean clientGenerated(Interface interfaze,
+            TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        if (interfaze == null || !isSupported(introspectedTable)) {
+            return true;
+        }
+
+        List<Method> methods = new ArrayList<Method>();
+        for (Method method : interfaze.getMethods()) {
+            if (isDeleteByExample(method.getName(), introspectedTable)
+                    || isUpdateByExampleSelective(method.getName(), introspectedTable)) {
+                methods.add(method);
+            }
+        }
+
+        for (Method method : methods) {
+            addChunkMethods(method, interfaze, introspectedTable);
+        }
+
+        if (!methods.isEmpty()) {
+            interfaze.addImportedType(new FullyQualifiedJavaType(
+                    "org.apache.ibatis.annotations.Param")); //$NON-NLS-1$
+        }
+
+        return true;
+    }
+
+    private void addChunkMethods(Method method, Interface interfaze,
+            IntrospectedTable introspectedTable) {
+        boolean isUpdate = isUpdateByExampleSelective(method.getName(), introspectedTable);
+        FullyQualifiedJavaType intType = FullyQualifiedJavaType.getIntInstance();
+        FullyQualifiedJavaType exampleType = new FullyQualifiedJavaType(
+                introspectedTable.getExampleType());
+        FullyQualifiedJavaType recordType = isUpdate
+                ? method.getParameters().get(0).getType() : null;
+        String limitedName = method.getName() + LIMITED_SUFFIX;
+
+        Method limitedMethod = new Method(limitedName);
+        limitedMethod.setReturnType(intType);
+        if (isUpdate) {
+            Parameter parameter = new Parameter(recordType, "record"); //$NON-NLS-1$
+            parameter.addAnnotation("@Param(\"record\")"); //$NON-NLS-1$
+            limitedMethod.addParameter(parameter);
+        }
+        Parameter parameter = new Parameter(exampleType, "example"); //$NON-NLS-1$
+        parameter.addAnnotation("@Param(\"example\")"); //$NON-NLS-1$
+        limitedMethod.addParameter(parameter);
+        parameter = new Parameter(intType, "chunkSize"); //$NON-NLS-1$
+        parameter.addAnnotation("@Param(\"chunkSize\")"); //$NON-NLS-1$
+        limitedMethod.addParameter(parameter);
+        context.getCommentGenerator().addGeneralMethodComment(limitedMethod,
+                introspectedTable);
+
+        // point an annotated method at the new provider method
+        for (String annotation : method.getAnnotations()) {
+            limitedMethod.addAnnotation(annotation.replace(
+                    "method=\"" + method.getName() + '"', //$NON-NLS-1$
+                    "method=\"" + limitedName + '"')); //$NON-NLS-1$
+        }
+        interfaze.addMethod(limitedMethod);
+
+        String arguments = isUpdate ? "record, example, chunkSize" //$NON-NLS-1$
+                : "example, chunkSize"; //$NON-NLS-1$
+
+        Method chunksMethod = new Method(method.getName() + IN_CHUNKS_SUFFIX);
+        chunksMethod.setDefault(true);
+        chunksMethod.setReturnType(intType);
+        if (isUpdate) {
+            chunksMethod.addParameter(new Parameter(recordType, "record")); //$NON-NLS-1$
+        }
+        chunksMethod.addParameter(new Parameter(exampleType, "example")); //$NON-NLS-1$
+        chunksMethod.addParameter(new Parameter(intType, "chunkSize")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(chunksMethod,
+                introspectedTable);
+        chunksMethod.addBodyLine(String.format("return %s(%s, null);", //$NON-NLS-1$
+                chunksMethod.getName(), arguments));
+        interfaze.addMethod(chunksMethod);
+
+        Method pauseMethod = new Method(chunksMethod.getName());
+        pauseMethod.setDefault(true);
+        pauseMethod.setReturnType(intType);
+        for (Parameter chunksParameter : chunksMethod.getParameters()) {
+            pauseMethod.addParameter(new Parameter(chunksParameter.getType(),
+                    chunksParameter.getName()));
+        }
+        pauseMethod.addParameter(new Parameter(new FullyQualifiedJavaType(
+                "java.lang.Runnable"), "pause")); //$NON-NLS-1$ //$NON-NLS-2$
+        context.getCommentGenerator().addGeneralMethodComment(pauseMethod,
+                introspectedTable);
+        pauseMethod.addBodyLine("int total = 0;"); //$NON-NLS-1$
+        pauseMethod.addBodyLine(String.format("int rows = %s(%s);", //$NON-NLS-1$
+                limitedName, arguments));
+        pauseMethod.addBodyLine("while (rows > 0) {"); //$NON-NLS-1$
+        pauseMethod.addBodyLine("total += rows;"); //$NON-NLS-1$
+        pauseMethod.addBodyLine("if (pause != null) {"); //$NON-NLS-1$
+        pauseMethod.addBodyLine("pause.run();"); //$NON-NLS-1$
+        pauseMethod.addBodyLine("}"); //$NON-NLS-1$
+        pauseMethod.addBodyLine(String.format("rows = %s(%s);", //$NON-NLS-1$
+                limitedName, arguments));
+        pauseMethod.addBodyLine("}"); //$NON-NLS-1$
+        pauseMethod.addBodyLine("return total;"); //$NON-NLS-1$
+        interfaze.addMethod(pauseMethod);
+
+        interfaze.addImportedType(exampleType);
+        if (isUpdate) {
+            interfaze.addImportedType(recordType);
+        }
+    }
+
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document,
+            IntrospectedTable introspectedTable) {
+        if (!isSupported(introspectedTable)) {
+            return true;
+        }
+
+        XmlElement rootElement = document.getRootElement();
+        List<XmlElement> newElements = new ArrayList<XmlElement>();
+        for (Element element : rootElement.getElements()) {
+            if (!(element instanceof XmlElement)) {
+                continue;
+            }
+
+            XmlElement xmlElement = (XmlElement) element;
+            for (Attribute attribute : xmlElement.getAttributes()) {
+                if (!"id".equals(attribute.getName())) { //$NON-NLS-1$
+                    continue;
+                }
+
+                if ("delete".equals(xmlElement.getName()) //$NON-NLS-1$
+                        && isDeleteByExample(attribute.getValue(), introspectedTable)) {
+                    newElements.add(getLimitedElement(attribute.getValue(), null,
+                            introspectedTable));
+                } else if ("update".equals(xmlElement.getName()) //$NON-NLS-1$
+                        && isUpdateByExampleSelective(attribute.getValue(),
+                                introspectedTable)) {
+                    newElements.add(getLimitedElement(attribute.getValue(),
+                            getSetElement(xmlElement), introspectedTable));
+                }
+            }
+        }
+
+        for (XmlElement element : newElements) {
+            rootElement.addElement(element);
+        }
+
+        return true;
+    }
+
+    private XmlElement getSetElement(XmlElement updateElement) {
+        for (Element element : updateElement.getElements()) {
+            if (element instanceof XmlElement
+                    && "set".equals(((XmlElement) element).getName())) { //$NON-NLS-1$
+                return (XmlElement) element;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the limited statement. If the set element is null, the statement is
+     * a delete, otherwise an update with the same set element as
+     * updateByExampleSelective.
+     */
+    private XmlElement getLimitedElement(String statementId, XmlElement setElement,
+            IntrospectedTable introspectedTable) {
+        boolean isUpdate = setElement != null;
+        String table = introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime();
+
+        XmlElement answer = new XmlElement(isUpdate ? "update" : "delete"); //$NON-NLS-1$ //$NON-NLS-2$
+        answer.addAttribute(new Attribute("id", statementId + LIMITED_SUFFIX)); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("parameterType", "map")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        context.getCommentGenerator().addComment(answer);
+
+        String top = chunkStyle == ChunkStyle.TOP
+                ? "top (#{chunkSize}) " : ""; //$NON-NLS-1$ //$NON-NLS-2$
+        if (isUpdate) {
+            answer.addElement(new TextElement("update " + top + table)); //$NON-NLS-1$
+            answer.addElement(new XmlElement(setElement));
+        } else {
+            answer.addElement(new TextElement("delete " + top + "from " + table)); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+
+        switch (chunkStyle) {
+        case LIMIT:
+            answer.addElement(getWhereElement(introspectedTable));
+            answer.addElement(new TextElement("limit #{chunkSize}")); //$NON-NLS-1$
+            break;
+
+        case TOP:
+            answer.addElement(getWhereElement(introspectedTable));
+            break;
+
+        case ROWID:
+            answer.addElement(new TextElement("where rowid in (")); //$NON-NLS-1$
+            answer.addElement(new TextElement("select rid_ from (")); //$NON-NLS-1$
+            answer.addElement(new TextElement("select rowid rid_ from " + table)); //$NON-NLS-1$
+            answer.addElement(getWhereElement(introspectedTable));
+            answer.addElement(new TextElement(") where rownum &lt;= #{chunkSize}")); //$NON-NLS-1$
+            answer.addElement(new TextElement(")")); //$NON-NLS-1$
+            break;
+
+        case KEY_LIMIT:
+        case KEY_FETCH:
+            answer.addElement(new TextElement("where " //$NON-NLS-1$
+                    + getKeyList(introspectedTable, false) + " in (")); //$NON-NLS-1$
+            answer.addElement(new TextElement("select " //$NON-NLS-1$
+                    + getKeyList(introspectedTable, true) + " from " + table)); //$NON-NLS-1$
+            answer.addElement(getWhereElement(introspectedTable));
+            answer.addElement(new TextElement(getKeySubqueryLimit()));
+            answer.addElement(new TextElement(")")); //$NON-NLS-1$
+            break;
+        }
+
+        return answer;
+    }
+
+    private XmlElement getWhereElement(IntrospectedTable introspectedTable) {
+        ExampleWhereClauseElementGenerator whereClauseGenerator =
+                new ExampleWhereClauseElementGenerator(true);
+        whereClauseGenerator.setContext(context);
+        whereClauseGenerator.setIntrospectedTable(introspectedTable);
+        XmlElement ifElement = new XmlElement("if"); //$NON-NLS-1$
+        ifElement.addAttribute(new Attribute("test", "example != null")); //$NON-NLS-1$ //$NON-NLS-2$
+        ifElement.addElement(whereClauseGenerator.getOredCriteriaForEachElement());
+        XmlElement whereElement = new XmlElement("where"); //$NON-NLS-1$
+        whereElement.addElement(ifElement);
+        return whereElement;
+    }
+
+    /**
+     * Returns the primary key columns, in parentheses if there are several. The
+     * outer statement uses the plain column names, the subquery the aliased names.
+     */
+    private String getKeyList(IntrospectedTable introspectedTable, boolean aliased) {
+        List<IntrospectedColumn> columns = introspectedTable.getPrimaryKeyColumns();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sb.append(", "); //$NON-NLS-1$
+            }
+            sb.append(aliased ? getAliasedEscapedColumnName(columns.get(i))
+                    : getEscapedColumnName(columns.get(i)));
+        }
+
+        if (columns.size() > 1 && !aliased) {
+            sb.insert(0, '(');
+            sb.append(')');
+        }
+
+        return sb.toString();
+    }
+
+    private String getKeySubqueryLimit() {
+        if (chunkStyle == ChunkStyle.KEY_FETCH) {
+            return "fetch first #{chunkSize} rows only"; //$NON-NLS-1$
+        } else {
+            return "limit #{chunkSize}"; //$NON-NLS-1$
+        }
+    }
+
+    @Override
+    public boolean providerGenerated(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable) {
+        if (!isSupported(introspectedTable)) {
+            return true;
+        }
+
+        List<Method> methods = new ArrayList<Method>();
+        for (Method method : topLevelClass.getMethods()) {
+            if (isDeleteByExample(method.getName(), introspectedTable)
+                    || isUpdateByExampleSelective(method.getName(), introspectedTable)) {
+                methods.add(method);
+            }
+        }
+
+        for (Method method : methods) {
+            topLevelClass.addMethod(getLimitedProviderMethod(method, topLevelClass,
+                    introspectedTable));
+        }
+
+        return true;
+    }
+
+    private Method getLimitedProviderMethod(Method exampleMethod,
+            TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        boolean useLegacyBuilder = exampleMethod.getBodyLines().contains("BEGIN();"); //$NON-NLS-1$
+        String builderPrefix = useLegacyBuilder ? "" : "sql."; //$NON-NLS-1$ //$NON-NLS-2$
+        String sql = useLegacyBuilder ? "SQL()" : "sql.toString()"; //$NON-NLS-1$ //$NON-NLS-2$
+        String whereLine = useLegacyBuilder ? "applyWhere(example, true);" //$NON-NLS-1$
+                : "applyWhere(sql, example, true);"; //$NON-NLS-1$
+        boolean isUpdate = isUpdateByExampleSelective(exampleMethod.getName(),
+                introspectedTable);
+        String table = escapeStringForJava(
+                introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime());
+
+        FullyQualifiedJavaType exampleType = new FullyQualifiedJavaType(
+                introspectedTable.getExampleType());
+        FullyQualifiedJavaType mapType = new FullyQualifiedJavaType(
+                "java.util.Map<java.lang.String, java.lang.Object>"); //$NON-NLS-1$
+
+        Method method = new Method(exampleMethod.getName() + LIMITED_SUFFIX);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(FullyQualifiedJavaType.getStringInstance());
+        method.addParameter(new Parameter(mapType, "parameter")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+
+        // the update statement is the one of updateByExampleSelective, the delete
+        // statement is built like deleteByExample with the example in a map
+        List<String> lines = new ArrayList<String>();
+        if (isUpdate) {
+            lines.addAll(exampleMethod.getBodyLines());
+        } else {
+            lines.add(String.format("%s example = (%s) parameter.get(\"example\");", //$NON-NLS-1$
+                    exampleType.getShortName(), exampleType.getShortName()));
+            lines.add(""); //$NON-NLS-1$
+            lines.add(useLegacyBuilder ? "BEGIN();" : "SQL sql = new SQL();"); //$NON-NLS-1$ //$NON-NLS-2$
+            lines.add(String.format("%sDELETE_FROM(\"%s\");", //$NON-NLS-1$
+                    builderPrefix, table));
+            lines.add(whereLine);
+            lines.add("return " + sql + ';'); //$NON-NLS-1$
+        }
+
+        ListIterator<String> iter = lines.listIterator();
+        while (iter.hasNext()) {
+            String line = iter.next();
+            if (line.equals("BEGIN();") || line.equals("SQL sql = new SQL();")) { //$NON-NLS-1$ //$NON-NLS-2$
+                if (chunkStyle == ChunkStyle.ROWID || chunkStyle == ChunkStyle.KEY_LIMIT
+                        || chunkStyle == ChunkStyle.KEY_FETCH) {
+                    // the subquery is built first, the legacy builder holds only
+                    // one statement at a time
+                    iter.previous();
+                    for (String subqueryLine : getSubqueryLines(introspectedTable,
+                            useLegacyBuilder)) {
+                        iter.add(subqueryLine);
+                    }
+                    iter.next();
+                }
+            } else if (line.equals(whereLine)) {
+                if (chunkStyle == ChunkStyle.ROWID) {
+                    iter.set(String.format("%sWHERE(\"rowid in (select rid_ from (\" + keys + \") where rownum <= #{chunkSize})\");", //$NON-NLS-1$
+                            builderPrefix));
+                } else if (chunkStyle == ChunkStyle.KEY_LIMIT
+                        || chunkStyle == ChunkStyle.KEY_FETCH) {
+                    iter.set(String.format("%sWHERE(\"%s in (\" + keys + \" %s)\");", //$NON-NLS-1$
+                            builderPrefix,
+                            escapeStringForJava(getKeyList(introspectedTable, false)),
+                            getKeySubqueryLimit()));
+                }
+            } else if (line.startsWith("return ")) { //$NON-NLS-1$
+                if (chunkStyle == ChunkStyle.LIMIT) {
+                    iter.set("return " + sql + " + \" limit #{chunkSize}\";"); //$NON-NLS-1$ //$NON-NLS-2$
+                } else if (chunkStyle == ChunkStyle.TOP) {
+                    String keyword = isUpdate ? "UPDATE" : "DELETE"; //$NON-NLS-1$ //$NON-NLS-2$
+                    iter.set(String.format("return %s.replaceFirst(\"^%s\", \"%s TOP (#{chunkSize})\");", //$NON-NLS-1$
+                            sql, keyword, keyword));
+                }
+            }
+        }
+
+        for (String line : lines) {
+            method.addBodyLine(line);
+        }
+
+        topLevelClass.addImportedType(exampleType);
+        topLevelClass.addImportedType(mapType);
+        if (useLegacyBuilder) {
+            topLevelClass.addStaticImport("org.apache.ibatis.jdbc.SqlBuilder.BEGIN"); //$NON-NLS-1$
+            topLevelClass.addStaticImport("org.apache.ibatis.jdbc.SqlBuilder.SQL"); //$NON-NLS-1$
+            if (!isUpdate) {
+                topLevelClass.addStaticImport("org.apache.ibatis.jdbc.SqlBuilder.DELETE_FROM"); //$NON-NLS-1$
+            }
+            if (chunkStyle != ChunkStyle.LIMIT && chunkStyle != ChunkStyle.TOP) {
+                topLevelClass.addStaticImport("org.apache.ibatis.jdbc.SqlBuilder.SELECT"); //$NON-NLS-1$
+                topLevelClass.addStaticImport("org.apache.ibatis.jdbc.SqlBuilder.FROM"); //$NON-NLS-1$
+                topLevelClass.addStaticImport("org.apache.ibatis.jdbc.SqlBuilder.WHERE"); //$NON-NLS-1$
+            }
+        }
+
+        return method;
+    }
+
+    /**
+     * Returns the lines that build the subquery selecting the rows of a chunk into
+     * the <code>keys</code> variable, without the row limit.
+     */
+    private List<String> getSubqueryLines(IntrospectedTable introspectedTable,
+            boolean useLegacyBuilder) {
+        String builderPrefix = useLegacyBuilder ? "" : "keySql."; //$NON-NLS-1$ //$NON-NLS-2$
+        String selectList = chunkStyle == ChunkStyle.ROWID ? "rowid rid_" //$NON-NLS-1$
+                : getKeyList(introspectedTable, true);
+
+        List<String> answer = new ArrayList<String>();
+        answer.add(useLegacyBuilder ? "BEGIN();" : "SQL keySql = new SQL();"); //$NON-NLS-1$ //$NON-NLS-2$
+        answer.add(String.format("%sSELECT(\"%s\");", //$NON-NLS-1$
+                builderPrefix, escapeStringForJava(selectList)));
+        answer.add(String.format("%sFROM(\"%s\");", //$NON-NLS-1$
+                builderPrefix,
+                escapeStringForJava(introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime())));
+        answer.add(useLegacyBuilder ? "applyWhere(example, true);" //$NON-NLS-1$
+                : "applyWhere(keySql, example, true);"); //$NON-NLS-1$
+        answer.add(useLegacyBuilder ? "String keys = SQL();" //$NON-NLS-1$
+                : "String keys = keySql.toString();"); //$NON-NLS-1$
+        answer.add(""); //$NON-NLS-1$
+        return answer;
+    }
+}
@@ -0,0 +1,514 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.plugins;
+
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getAliasedEscapedColumnName;
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getParameterClause;
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getSelectListPhrase;
+import static org.mybatis.generator.internal.util.StringUtility.escapeStringForJava;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.IndexAwarePlugin;
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedIndex;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.IntrospectedTable.TargetRuntime;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
+import org.mybatis.generator.api.dom.OutputUtilities;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.Element;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.plugins.PaginationPlugin.PaginationStyle;
+
+/**
+ * This plugin adds lookup methods for the indexes of a table. For an index on the
+ * columns <code>LAST_NAME</code> and <code>FIRST_NAME</code> these methods are
+ * added:
+ *
+ * <pre>
+ * Record selectByLastNameAndFirstName(String lastName, String firstName);
+ * boolean existsByLastNameAndFirstName(String lastName, String firstName);
+ * </pre>
+ *
+ * The select method of a non-unique index returns a <code>List</code> of records.
+ * The where clause of the methods is made of the index columns only, so the
+ * database can always use the index. The exists methods count the rows of a
+ * subquery that is limited to one row, so the database stops at the first
+ * matching row.
+ * <p>
+ * The plugin requires the <code>targetDatabase</code> property, which selects the
+ * row limit of the exists statements as for {@link PaginationPlugin}.
+ * <p>
+ * Indexes are read with the table, see {@link IntrospectedTable#getIndexes()}.
+ * Indexes with the same columns as the primary key are skipped because
+ * selectByPrimaryKey covers them. The select methods need the base column list,
+ * so they are only generated if selectByPrimaryKey or selectByExample is enabled.
+ * A method whose name is already used, like <code>selectByExample</code> for an
+ * index on a column named <code>example</code>, is skipped with a warning.
+ * <p>
+ * The statements are added to the XML mapper, or as annotations if the client
+ * has no XML mapper. This plugin is only valid for MyBatis3.
+ */
+public class IndexLookupPlugin extends PluginAdapter implements ThreadSafePlugin,
+        IndexAwarePlugin {
+
+    private static final String TARGET_DATABASE = "targetDatabase"; //$NON-NLS-1$
+
+    private PaginationStyle paginationStyle;
+
+    /** The warnings list of the context, filled after all tables are generated. */
+    private List<String> warnings;
+
+    /** Warnings about skipped methods, added from the generation threads. */
+    private final Set<String> skippedMethodWarnings = new LinkedHashSet<String>();
+
+    public IndexLookupPlugin() {
+        super();
+    }
+
+    public boolean validate(List<String> warnings) {
+        this.warnings = warnings;
+        String targetDatabase = properties.getProperty(TARGET_DATABASE);
+        if (!stringHasValue(targetDatabase)) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "IndexLookupPlugin", //$NON-NLS-1$
+                    TARGET_DATABASE));
+            return false;
+        }
+
+        paginationStyle = PaginationPlugin.getPaginationStyle(targetDatabase);
+        if (paginationStyle == null) {
+            warnings.add(getString("ValidationError.29", //$NON-NLS-1$
+                    "IndexLookupPlugin", //$NON-NLS-1$
+                    TARGET_DATABASE, targetDatabase));
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean isSupported(IntrospectedTable introspectedTable) {
+        return introspectedTable.getTargetRuntime() == TargetRuntime.MYBATIS3
+                && !introspectedTable.getIndexes().isEmpty();
+    }
+
+    private boolean generateSelect(IntrospectedTable introspectedTable) {
+        return introspectedTable.getRules().generateBaseColumnList();
+    }
+
+    private String getMethodName(String prefix, IntrospectedIndex index) {
+        StringBuilder sb = new StringBuilder(prefix);
+        boolean and = false;
+        for (IntrospectedColumn introspectedColumn : index.getColumns()) {
+            if (and) {
+                sb.append("And"); //$NON-NLS-1$
+            } else {
+                and = true;
+            }
+            String property = introspectedColumn.getJavaProperty();
+            sb.append(Character.toUpperCase(property.charAt(0)));
+            sb.append(property.substring(1));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns true if the method name of an index is already used by a generated
+     * statement - for example selectByExample for an index on a column named
+     * "example". The generated statement names are checked for both the client and
+     * the XML mapper, so both skip the same methods.
+     */
+    private boolean isReservedName(String name, IntrospectedTable introspectedTable) {
+        return name.equals(introspectedTable.getSelectByPrimaryKeyStatementId())
+                || name.equals(introspectedTable.getSelectByExampleStatementId())
+                || name.equals(introspectedTable.getSelectByExampleWithBLOBsStatementId());
+    }
+
+    private void addSkippedMethodWarning(String name, IntrospectedTable introspectedTable) {
+        synchronized (skippedMethodWarnings) {
+            skippedMethodWarnings.add(getString("Warning.37", //$NON-NLS-1$
+                    name, introspectedTable.getFullyQualifiedTable().toString()));
+        }
+    }
+
+    private boolean hasMethod(Interface interfaze, String name) {
+        for (Method method : interfaze.getMethods()) {
+            if (method.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasStatement(XmlElement rootElement, String id) {
+        for (Element element : rootElement.getElements()) {
+            if (element instanceof XmlElement) {
+                for (Attribute attribute : ((XmlElement) element).getAttributes()) {
+                    if ("id".equals(attribute.getName()) //$NON-NLS-1$
+                            && id.equals(attribute.getValue())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the warnings about skipped methods to the warnings of the context. This
+     * method is called once, after all tables are generated.
+     */
+    @Override
+    public List<GeneratedJavaFile> contextGenerateAdditionalJavaFiles() {
+        synchronized (skippedMethodWarnings) {
+            warnings.addAll(skippedMethodWarnings);
+            skippedMethodWarnings.clear();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean clientGenerated(Interface interfaze,
+            TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        if (!isSupported(introspectedTable)) {
+            return true;
+        }
+
+        boolean annotated = !introspectedTable.requiresXMLGenerator();
+        List<String> resultAnnotations = getResultAnnotations(interfaze, introspectedTable);
+
+        for (IntrospectedIndex index : introspectedTable.getIndexes()) {
+            if (generateSelect(introspectedTable)) {
+                String selectName = getMethodName("selectBy", index); //$NON-NLS-1$
+                if (isReservedName(selectName, introspectedTable)
+                        || hasMethod(interfaze, selectName)) {
+                    addSkippedMethodWarning(selectName, introspectedTable);
+                } else {
+                    interfaze.addMethod(getSelectMethod(selectName, index, interfaze,
+                            introspectedTable, resultAnnotations));
+                }
+            }
+
+            String existsName = getMethodName("existsBy", index); //$NON-NLS-1$
+            if (hasMethod(interfaze, existsName)) {
+                addSkippedMethodWarning(existsName, introspectedTable);
+                continue;
+            }
+
+            Method method = new Method(existsName);
+            method.setReturnType(FullyQualifiedJavaType.getBooleanPrimitiveInstance());
+            addParameters(method, index, interfaze);
+            context.getCommentGenerator().addGeneralMethodComment(method,
+                    introspectedTable);
+            if (annotated) {
+                addExistsAnnotation(method, index, introspectedTable);
+            }
+            interfaze.addMethod(method);
+        }
+
+        if (annotated) {
+            interfaze.addImportedType(new FullyQualifiedJavaType(
+                    "org.apache.ibatis.annotations.Select")); //$NON-NLS-1$
+        }
+
+        return true;
+    }
+
+    private Method getSelectMethod(String name, IntrospectedIndex index, Interface interfaze,
+            IntrospectedTable introspectedTable, List<String> resultAnnotations) {
+        FullyQualifiedJavaType recordType = introspectedTable.getRules()
+                .calculateAllFieldsClass();
+        Method method = new Method(name);
+        if (index.isUnique()) {
+            method.setReturnType(recordType);
+        } else {
+            FullyQualifiedJavaType listType = FullyQualifiedJavaType
+                    .getNewListInstance();
+            listType.addTypeArgument(recordType);
+            method.setReturnType(listType);
+            interfaze.addImportedType(FullyQualifiedJavaType.getNewListInstance());
+        }
+        addParameters(method, index, interfaze);
+        context.getCommentGenerator().addGeneralMethodComment(method,
+                introspectedTable);
+        if (!introspectedTable.requiresXMLGenerator()) {
+            addSelectAnnotation(method, index, introspectedTable);
+            for (String annotation : resultAnnotations) {
+                method.addAnnotation(annotation);
+            }
+        }
+        interfaze.addImportedType(recordType);
+        return method;
+    }
+
+    private void addParameters(Method method, IntrospectedIndex index,
+            Interface interfaze) {
+        for (IntrospectedColumn introspectedColumn : index.getColumns()) {
+            FullyQualifiedJavaType type = introspectedColumn.getFullyQualifiedJavaType();
+            Parameter parameter = new Parameter(type, introspectedColumn.getJavaProperty());
+            parameter.addAnnotation(String.format("@Param(\"%s\")", //$NON-NLS-1$
+                    introspectedColumn.getJavaProperty()));
+            method.addParameter(parameter);
+            interfaze.addImportedType(type);
+        }
+        interfaze.addImportedType(new FullyQualifiedJavaType(
+                "org.apache.ibatis.annotations.Param")); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the result annotations of the generated select method that returns
+     * all columns, so the new select methods map the columns the same way.
+     */
+    private List<String> getResultAnnotations(Interface interfaze,
+            IntrospectedTable introspectedTable) {
+        Method template = null;
+        for (Method method : interfaze.getMethods()) {
+            String name = method.getName();
+            if (name.equals(introspectedTable.getSelectByPrimaryKeyStatementId())) {
+                template = method;
+                break;
+            } else if (template == null && (introspectedTable.hasBLOBColumns()
+                    ? name.equals(introspectedTable.getSelectByExampleWithBLOBsStatementId())
+                    : name.equals(introspectedTable.getSelectByExampleStatementId()))) {
+                template = method;
+            }
+        }
+
+        List<String> answer = new ArrayList<String>();
+        if (template != null) {
+            boolean inResults = false;
+            for (String annotation : template.getAnnotations()) {
+                if (annotation.startsWith("@Results(") //$NON-NLS-1$
+                        || annotation.startsWith("@ConstructorArgs(") //$NON-NLS-1$
+                        || annotation.startsWith("@ResultMap(")) { //$NON-NLS-1$
+                    inResults = true;
+                }
+                if (inResults) {
+                    answer.add(annotation);
+                }
+            }
+        }
+        return answer;
+    }
+
+    private void addSelectAnnotation(Method method, IntrospectedIndex index,
+            IntrospectedTable introspectedTable) {
+        method.addAnnotation("@Select({"); //$NON-NLS-1$
+        method.addAnnotation(getAnnotationLine("select", false)); //$NON-NLS-1$
+
+        StringBuilder sb = new StringBuilder();
+        Iterator<IntrospectedColumn> iter = introspectedTable.getAllColumns().iterator();
+        while (iter.hasNext()) {
+            sb.append(getSelectListPhrase(iter.next()));
+            if (iter.hasNext()) {
+                sb.append(", "); //$NON-NLS-1$
+            }
+            if (sb.length() > 80 || !iter.hasNext()) {
+                method.addAnnotation(getAnnotationLine(sb.toString(), false));
+                sb.setLength(0);
+            }
+        }
+
+        method.addAnnotation(getAnnotationLine("from " //$NON-NLS-1$
+                + introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime(), false));
+        addWhereAnnotationLines(method, index);
+        method.addAnnotation("})"); //$NON-NLS-1$
+    }
+
+    private void addExistsAnnotation(Method method, IntrospectedIndex index,
+            IntrospectedTable introspectedTable) {
+        method.addAnnotation("@Select({"); //$NON-NLS-1$
+        addAnnotationLines(method, getExistsLines(index, introspectedTable));
+        method.addAnnotation("})"); //$NON-NLS-1$
+    }
+
+    private void addWhereAnnotationLines(Method method, IntrospectedIndex index) {
+        addAnnotationLines(method, getWhereLines(index));
+    }
+
+    private void addAnnotationLines(Method method, List<String> lines) {
+        for (int i = 0; i < lines.size(); i++) {
+            method.addAnnotation(getAnnotationLine(lines.get(i), i == lines.size() - 1));
+        }
+    }
+
+    private String getAnnotationLine(String s, boolean last) {
+        StringBuilder sb = new StringBuilder();
+        OutputUtilities.javaIndent(sb, 1);
+        sb.append('"');
+        sb.append(escapeStringForJava(s));
+        sb.append('"');
+        if (!last) {
+            sb.append(',');
+        }
+        return sb.toString();
+    }
+
+    private List<String> getWhereLines(IntrospectedIndex index) {
+        List<String> answer = new ArrayList<String>();
+        boolean and = false;
+        for (IntrospectedColumn introspectedColumn : index.getColumns()) {
+            StringBuilder sb = new StringBuilder();
+            if (and) {
+                sb.append("  and "); //$NON-NLS-1$
+            } else {
+                sb.append("where "); //$NON-NLS-1$
+                and = true;
+            }
+            sb.append(getAliasedEscapedColumnName(introspectedColumn));
+            sb.append(" = "); //$NON-NLS-1$
+            sb.append(getParameterClause(introspectedColumn));
+            answer.add(sb.toString());
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the lines of the exists statement. The subquery returns at most one
+     * row, so counting its rows is cheap and the result is 0 or 1 on every database.
+     */
+    private List<String> getExistsLines(IntrospectedIndex index,
+            IntrospectedTable introspectedTable) {
+        List<String> answer = new ArrayList<String>();
+        answer.add("select count(*) from ("); //$NON-NLS-1$
+        if (paginationStyle == PaginationStyle.SQLSERVER_OFFSET_FETCH) {
+            answer.add("select top 1 1 as probe"); //$NON-NLS-1$
+        } else {
+            answer.add("select 1 as probe"); //$NON-NLS-1$
+        }
+        answer.add("from " //$NON-NLS-1$
+                + introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime());
+        answer.addAll(getWhereLines(index));
+        switch (paginationStyle) {
+        case LIMIT_OFFSET:
+            answer.add("limit 1"); //$NON-NLS-1$
+            break;
+
+        case OFFSET_FETCH:
+            answer.add("fetch first 1 rows only"); //$NON-NLS-1$
+            break;
+
+        case ROWNUM:
+            answer.add("  and rownum = 1"); //$NON-NLS-1$
+            break;
+
+        default:
+            break;
+        }
+        answer.add(") probe"); //$NON-NLS-1$
+        return answer;
+    }
+
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document,
+            IntrospectedTable introspectedTable) {
+        if (!isSupported(introspectedTable)) {
+            return true;
+        }
+
+        XmlElement rootElement = document.getRootElement();
+        for (IntrospectedIndex index : introspectedTable.getIndexes()) {
+            if (generateSelect(introspectedTable)) {
+                String selectName = getMethodName("selectBy", index); //$NON-NLS-1$
+                if (isReservedName(selectName, introspectedTable)
+                        || hasStatement(rootElement, selectName)) {
+                    addSkippedMethodWarning(selectName, introspectedTable);
+                } else {
+                    rootElement.addElement(getSelectElement(selectName, index,
+                            introspectedTable));
+                }
+            }
+
+            String existsName = getMethodName("existsBy", index); //$NON-NLS-1$
+            if (hasStatement(rootElement, existsName)) {
+                addSkippedMethodWarning(existsName, introspectedTable);
+            } else {
+                rootElement.addElement(getExistsElement(existsName, index,
+                        introspectedTable));
+            }
+        }
+
+        return true;
+    }
+
+    private XmlElement getSelectElement(String id, IntrospectedIndex index,
+            IntrospectedTable introspectedTable) {
+        XmlElement answer = new XmlElement("select"); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("id", id)); //$NON-NLS-1$
+        if (introspectedTable.getRules().generateResultMapWithBLOBs()) {
+            answer.addAttribute(new Attribute("resultMap", //$NON-NLS-1$
+                    introspectedTable.getResultMapWithBLOBsId()));
+        } else {
+            answer.addAttribute(new Attribute("resultMap", //$NON-NLS-1$
+                    introspectedTable.getBaseResultMapId()));
+        }
+        answer.addAttribute(new Attribute("parameterType", "map")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        context.getCommentGenerator().addComment(answer);
+
+        answer.addElement(new TextElement("select")); //$NON-NLS-1$
+        XmlElement includeElement = new XmlElement("include"); //$NON-NLS-1$
+        includeElement.addAttribute(new Attribute("refid", //$NON-NLS-1$
+                introspectedTable.getBaseColumnListId()));
+        answer.addElement(includeElement);
+        if (introspectedTable.getRules().generateBlobColumnList()) {
+            answer.addElement(new TextElement(",")); //$NON-NLS-1$
+            includeElement = new XmlElement("include"); //$NON-NLS-1$
+            includeElement.addAttribute(new Attribute("refid", //$NON-NLS-1$
+                    introspectedTable.getBlobColumnListId()));
+            answer.addElement(includeElement);
+        }
+        answer.addElement(new TextElement("from " //$NON-NLS-1$
+                + introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime()));
+        for (String line : getWhereLines(index)) {
+            answer.addElement(new TextElement(line));
+        }
+
+        return answer;
+    }
+
+    private XmlElement getExistsElement(String id, IntrospectedIndex index,
+            IntrospectedTable introspectedTable) {
+        XmlElement answer = new XmlElement("select"); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("id", id)); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("resultType", "boolean")); //$NON-NLS-1$ //$NON-NLS-2$
+        answer.addAttribute(new Attribute("parameterType", "map")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        context.getCommentGenerator().addComment(answer);
+
+        for (String line : getExistsLines(index, introspectedTable)) {
+            answer.addElement(new TextElement(line));
+        }
+
+        return answer;
+    }
+}
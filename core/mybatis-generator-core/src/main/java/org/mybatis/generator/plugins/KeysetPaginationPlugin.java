@@ -0,0 +1,565 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.plugins;
+
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getAliasedEscapedColumnName;
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getParameterClause;
+import static org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities.getSelectListPhrase;
+import static org.mybatis.generator.internal.util.StringUtility.escapeStringForJava;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.IntrospectedTable.TargetRuntime;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.Element;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.codegen.mybatis3.xmlmapper.elements.ExampleWhereClauseElementGenerator;
+import org.mybatis.generator.plugins.PaginationPlugin.PaginationStyle;
+
+/**
+ * This plugin adds keyset (seek) pagination methods for the selectByExample
+ * methods of tables with a primary key. For example, selectByExample gets a
+ * companion method:
+ *
+ * <pre>
+ * List&lt;Record&gt; selectByExampleAfterKey(Example example, Key lastKey, int pageSize)
+ * </pre>
+ *
+ * The method returns at most <code>pageSize</code> rows that match the example and
+ * whose primary key is greater than <code>lastKey</code>, ordered by the primary
+ * key. Passing the key of the last row of a page returns the next page, so the cost
+ * of a page does not depend on its position. If <code>lastKey</code> is null the
+ * first page is returned. The key is the primary key class if one is generated,
+ * the record class otherwise.
+ * <p>
+ * The methods are added to the Java client, and to the XML mapper or the SQL
+ * provider - whichever implements the selectByExample methods.
+ * <p>
+ * This plugin accepts two properties:
+ * <ul>
+ * <li><tt>targetDatabase</tt> (required) the database the statements are
+ * generated for, as for {@link PaginationPlugin}</li>
+ * <li><tt>useRowValueComparison</tt> (optional) if true, the key predicate is a
+ * row value comparison like <code>(a, b) &gt; (?, ?)</code>. Otherwise the
+ * comparison is expanded to <code>(a &gt; ? or (a = ? and b &gt; ?))</code>,
+ * which is supported by every database. The default is false</li>
+ * </ul>
+ * This plugin is only valid for MyBatis3.
+ */
+public class KeysetPaginationPlugin extends PluginAdapter implements ThreadSafePlugin {
+
+    private static final String TARGET_DATABASE = "targetDatabase"; //$NON-NLS-1$
+
+    private static final String METHOD_SUFFIX = "AfterKey"; //$NON-NLS-1$
+
+    private static final String APPLY_WHERE_METHOD = "applyKeysetWhere"; //$NON-NLS-1$
+
+    private PaginationStyle paginationStyle;
+
+    private boolean useRowValueComparison;
+
+    public KeysetPaginationPlugin() {
+        super();
+    }
+
+    public boolean validate(List<String> warnings) {
+        String targetDatabase = properties.getProperty(TARGET_DATABASE);
+        if (!stringHasValue(targetDatabase)) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "KeysetPaginationPlugin", //$NON-NLS-1$
+                    TARGET_DATABASE));
+            return false;
+        }
+
+        paginationStyle = PaginationPlugin.getPaginationStyle(targetDatabase);
+        if (paginationStyle == null) {
+            warnings.add(getString("ValidationError.29", //$NON-NLS-1$
+                    "KeysetPaginationPlugin", //$NON-NLS-1$
+                    TARGET_DATABASE, targetDatabase));
+            return false;
+        }
+
+        useRowValueComparison = Boolean.parseBoolean(properties
+                .getProperty("useRowValueComparison")); //$NON-NLS-1$
+        return true;
+    }
+
+    private boolean isSupported(IntrospectedTable introspectedTable) {
+        return introspectedTable.getTargetRuntime() == TargetRuntime.MYBATIS3
+                && introspectedTable.hasPrimaryKeyColumns();
+    }
+
+    private FullyQualifiedJavaType getKeyType(IntrospectedTable introspectedTable) {
+        if (introspectedTable.getRules().generatePrimaryKeyClass()) {
+            return new FullyQualifiedJavaType(introspectedTable.getPrimaryKeyType());
+        } else {
+            return new FullyQualifiedJavaType(introspectedTable.getBaseRecordType());
+        }
+    }
+
+    private boolean isSelectByExample(String name, IntrospectedTable introspectedTable) {
+        return name.equals(introspectedTable.getSelectByExampleStatementId())
+                || name.equals(introspectedTable.getSelectByExampleWithBLOBsStatementId());
+    }
+
+    @Override
+    public boolean clientGenerated(Interface interfaze,
+            TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        if (interfaze == null || !isSupported(introspectedTable)) {
+            return true;
+        }
+
+        // other plugins may add overloads of the select methods - for example with a
+        // ResultHandler - so only the methods that return the list of records are used
+        List<Method> methods = new ArrayList<Method>();
+        for (Method method : interfaze.getMethods()) {
+            if (isSelectByExample(method.getName(), introspectedTable)
+                    && isListSelect(method)
+                    && !hasMethod(interfaze, method.getName() + METHOD_SUFFIX)) {
+                methods.add(method);
+            }
+        }
+
+        FullyQualifiedJavaType paramAnnotation = new FullyQualifiedJavaType(
+                "org.apache.ibatis.annotations.Param"); //$NON-NLS-1$
+        FullyQualifiedJavaType keyType = getKeyType(introspectedTable);
+        for (Method method : methods) {
+            Method newMethod = new Method(method);
+            newMethod.setName(method.getName() + METHOD_SUFFIX);
+
+            // point an annotated method at the new provider method
+            ListIterator<String> iter = newMethod.getAnnotations().listIterator();
+            while (iter.hasNext()) {
+                String annotation = iter.next();
+                if (annotation.startsWith("@SelectProvider")) { //$NON-NLS-1$
+                    iter.set(annotation.replace("method=\"" + method.getName() + '"', //$NON-NLS-1$
+                            "method=\"" + newMethod.getName() + '"')); //$NON-NLS-1$
+                }
+            }
+
+            newMethod.getParameters().clear();
+            Parameter parameter = new Parameter(method.getParameters().get(0).getType(),
+                    "example"); //$NON-NLS-1$
+            parameter.addAnnotation("@Param(\"example\")"); //$NON-NLS-1$
+            newMethod.addParameter(parameter);
+            parameter = new Parameter(keyType, "lastKey"); //$NON-NLS-1$
+            parameter.addAnnotation("@Param(\"lastKey\")"); //$NON-NLS-1$
+            newMethod.addParameter(parameter);
+            parameter = new Parameter(FullyQualifiedJavaType.getIntInstance(),
+                    "pageSize"); //$NON-NLS-1$
+            parameter.addAnnotation("@Param(\"pageSize\")"); //$NON-NLS-1$
+            newMethod.addParameter(parameter);
+
+            interfaze.addMethod(newMethod);
+        }
+
+        if (!methods.isEmpty()) {
+            interfaze.addImportedType(paramAnnotation);
+            interfaze.addImportedType(keyType);
+        }
+
+        return true;
+    }
+
+    private boolean isListSelect(Method method) {
+        FullyQualifiedJavaType returnType = method.getReturnType();
+        return method.getParameters().size() == 1
+                && returnType != null
+                && FullyQualifiedJavaType.getNewListInstance().getFullyQualifiedName()
+                        .equals(returnType.getFullyQualifiedNameWithoutTypeParameters());
+    }
+
+    private boolean hasMethod(Interface interfaze, String name) {
+        for (Method method : interfaze.getMethods()) {
+            if (name.equals(method.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document,
+            IntrospectedTable introspectedTable) {
+        if (!isSupported(introspectedTable)) {
+            return true;
+        }
+
+        XmlElement rootElement = document.getRootElement();
+        List<XmlElement> newElements = new ArrayList<XmlElement>();
+        for (Element element : rootElement.getElements()) {
+            if (!(element instanceof XmlElement)) {
+                continue;
+            }
+
+            XmlElement xmlElement = (XmlElement) element;
+            if (!"select".equals(xmlElement.getName())) { //$NON-NLS-1$
+                continue;
+            }
+
+            for (Attribute attribute : xmlElement.getAttributes()) {
+                if ("id".equals(attribute.getName()) //$NON-NLS-1$
+                        && isSelectByExample(attribute.getValue(), introspectedTable)) {
+                    newElements.add(getKeysetElement(attribute.getValue(),
+                            introspectedTable));
+                }
+            }
+        }
+
+        for (XmlElement element : newElements) {
+            rootElement.addElement(element);
+        }
+
+        return true;
+    }
+
+    private XmlElement getKeysetElement(String statementId,
+            IntrospectedTable introspectedTable) {
+        boolean withBLOBs = !statementId.equals(introspectedTable.getSelectByExampleStatementId());
+
+        XmlElement answer = new XmlElement("select"); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("id", statementId + METHOD_SUFFIX)); //$NON-NLS-1$
+        answer.addAttribute(new Attribute("resultMap", withBLOBs //$NON-NLS-1$
+                ? introspectedTable.getResultMapWithBLOBsId()
+                : introspectedTable.getBaseResultMapId()));
+        answer.addAttribute(new Attribute("parameterType", "map")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        context.getCommentGenerator().addComment(answer);
+
+        if (paginationStyle == PaginationStyle.ROWNUM) {
+            answer.addElement(new TextElement("select * from (")); //$NON-NLS-1$
+        }
+
+        answer.addElement(new TextElement("select")); //$NON-NLS-1$
+        XmlElement ifElement = new XmlElement("if"); //$NON-NLS-1$
+        ifElement.addAttribute(new Attribute("test", "example != null and example.distinct")); //$NON-NLS-1$ //$NON-NLS-2$
+        ifElement.addElement(new TextElement("distinct")); //$NON-NLS-1$
+        answer.addElement(ifElement);
+
+        if (stringHasValue(introspectedTable.getSelectByExampleQueryId())) {
+            answer.addElement(new TextElement('\''
+                    + introspectedTable.getSelectByExampleQueryId()
+                    + "' as QUERYID,")); //$NON-NLS-1$
+        }
+
+        XmlElement includeElement = new XmlElement("include"); //$NON-NLS-1$
+        includeElement.addAttribute(new Attribute("refid", //$NON-NLS-1$
+                introspectedTable.getBaseColumnListId()));
+        answer.addElement(includeElement);
+        if (withBLOBs) {
+            answer.addElement(new TextElement(",")); //$NON-NLS-1$
+            includeElement = new XmlElement("include"); //$NON-NLS-1$
+            includeElement.addAttribute(new Attribute("refid", //$NON-NLS-1$
+                    introspectedTable.getBlobColumnListId()));
+            answer.addElement(includeElement);
+        }
+
+        answer.addElement(new TextElement("from " //$NON-NLS-1$
+                + introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime()));
+
+        XmlElement whereElement = new XmlElement("where"); //$NON-NLS-1$
+        ifElement = new XmlElement("if"); //$NON-NLS-1$
+        ifElement.addAttribute(new Attribute("test", "lastKey != null")); //$NON-NLS-1$ //$NON-NLS-2$
+        ifElement.addElement(new TextElement(getKeyPredicate(introspectedTable, true)));
+        whereElement.addElement(ifElement);
+
+        ExampleWhereClauseElementGenerator whereClauseGenerator =
+                new ExampleWhereClauseElementGenerator(true);
+        whereClauseGenerator.setContext(context);
+        whereClauseGenerator.setIntrospectedTable(introspectedTable);
+        XmlElement trimElement = new XmlElement("trim"); //$NON-NLS-1$
+        trimElement.addAttribute(new Attribute("prefix", "and (")); //$NON-NLS-1$ //$NON-NLS-2$
+        trimElement.addAttribute(new Attribute("suffix", ")")); //$NON-NLS-1$ //$NON-NLS-2$
+        trimElement.addElement(whereClauseGenerator.getOredCriteriaForEachElement());
+        ifElement = new XmlElement("if"); //$NON-NLS-1$
+        ifElement.addAttribute(new Attribute("test", "example != null")); //$NON-NLS-1$ //$NON-NLS-2$
+        ifElement.addElement(trimElement);
+        whereElement.addElement(ifElement);
+        answer.addElement(whereElement);
+
+        answer.addElement(new TextElement(getOrderByClause(introspectedTable, true)));
+
+        switch (paginationStyle) {
+        case LIMIT_OFFSET:
+            answer.addElement(new TextElement("limit #{pageSize}")); //$NON-NLS-1$
+            break;
+
+        case OFFSET_FETCH:
+            answer.addElement(new TextElement("fetch first #{pageSize} rows only")); //$NON-NLS-1$
+            break;
+
+        case SQLSERVER_OFFSET_FETCH:
+            answer.addElement(new TextElement("offset 0 rows fetch next #{pageSize} rows only")); //$NON-NLS-1$
+            break;
+
+        case ROWNUM:
+            answer.addElement(new TextElement(") where rownum &lt;= #{pageSize}")); //$NON-NLS-1$
+            break;
+        }
+
+        return answer;
+    }
+
+    @Override
+    public boolean providerGenerated(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable) {
+        if (!isSupported(introspectedTable)) {
+            return true;
+        }
+
+        List<Method> methods = new ArrayList<Method>();
+        Method applyWhereMethod = null;
+        for (Method method : topLevelClass.getMethods()) {
+            if (isSelectByExample(method.getName(), introspectedTable)) {
+                methods.add(method);
+            } else if ("applyWhere".equals(method.getName())) { //$NON-NLS-1$
+                applyWhereMethod = method;
+            }
+        }
+
+        if (methods.isEmpty() || applyWhereMethod == null) {
+            return true;
+        }
+
+        topLevelClass.addMethod(getApplyKeysetWhereMethod(applyWhereMethod,
+                introspectedTable));
+        for (Method method : methods) {
+            topLevelClass.addMethod(getKeysetProviderMethod(method, topLevelClass,
+                    introspectedTable));
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns a copy of the applyWhere method that puts the example criteria in
+     * parentheses. The key predicate and the example criteria are joined with "and"
+     * in the same WHERE clause, so the ored criteria need parentheses. The
+     * applyWhere method itself is left unchanged for the other provider methods.
+     */
+    private Method getApplyKeysetWhereMethod(Method applyWhereMethod,
+            IntrospectedTable introspectedTable) {
+        Method method = new Method(APPLY_WHERE_METHOD);
+        method.setVisibility(JavaVisibility.PROTECTED);
+        for (Parameter parameter : applyWhereMethod.getParameters()) {
+            method.addParameter(parameter);
+        }
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+
+        for (String line : applyWhereMethod.getBodyLines()) {
+            if ("sql.WHERE(sb.toString());".equals(line)) { //$NON-NLS-1$
+                method.addBodyLine("sql.WHERE('(' + sb.toString() + ')');"); //$NON-NLS-1$
+            } else if ("WHERE(sb.toString());".equals(line)) { //$NON-NLS-1$
+                method.addBodyLine("WHERE('(' + sb.toString() + ')');"); //$NON-NLS-1$
+            } else {
+                method.addBodyLine(line);
+            }
+        }
+
+        return method;
+    }
+
+    private Method getKeysetProviderMethod(Method selectByExampleMethod,
+            TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        boolean useLegacyBuilder = !selectByExampleMethod.getBodyLines().isEmpty()
+                && "BEGIN();".equals(selectByExampleMethod.getBodyLines().get(0)); //$NON-NLS-1$
+        String builderPrefix = useLegacyBuilder ? "" : "sql."; //$NON-NLS-1$ //$NON-NLS-2$
+        boolean withBLOBs = !selectByExampleMethod.getName().equals(
+                introspectedTable.getSelectByExampleStatementId());
+
+        FullyQualifiedJavaType exampleType = new FullyQualifiedJavaType(
+                introspectedTable.getExampleType());
+        FullyQualifiedJavaType keyType = getKeyType(introspectedTable);
+        FullyQualifiedJavaType mapType = new FullyQualifiedJavaType(
+                "java.util.Map<java.lang.String, java.lang.Object>"); //$NON-NLS-1$
+
+        Method method = new Method(selectByExampleMethod.getName() + METHOD_SUFFIX);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(FullyQualifiedJavaType.getStringInstance());
+        method.addParameter(new Parameter(mapType, "parameter")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+
+        method.addBodyLine(String.format("%s example = (%s) parameter.get(\"example\");", //$NON-NLS-1$
+                exampleType.getShortName(), exampleType.getShortName()));
+        method.addBodyLine(String.format("%s lastKey = (%s) parameter.get(\"lastKey\");", //$NON-NLS-1$
+                keyType.getShortName(), keyType.getShortName()));
+        method.addBodyLine(""); //$NON-NLS-1$
+
+        if (useLegacyBuilder) {
+            method.addBodyLine("BEGIN();"); //$NON-NLS-1$
+        } else {
+            method.addBodyLine("SQL sql = new SQL();"); //$NON-NLS-1$
+        }
+
+        boolean distinctCheck = true;
+        for (IntrospectedColumn introspectedColumn : withBLOBs
+                ? introspectedTable.getAllColumns()
+                : introspectedTable.getNonBLOBColumns()) {
+            String selectListPhrase = escapeStringForJava(getSelectListPhrase(introspectedColumn));
+            if (distinctCheck) {
+                method.addBodyLine("if (example != null && example.isDistinct()) {"); //$NON-NLS-1$
+                method.addBodyLine(String.format("%sSELECT_DISTINCT(\"%s\");", //$NON-NLS-1$
+                        builderPrefix, selectListPhrase));
+                method.addBodyLine("} else {"); //$NON-NLS-1$
+                method.addBodyLine(String.format("%sSELECT(\"%s\");", //$NON-NLS-1$
+                        builderPrefix, selectListPhrase));
+                method.addBodyLine("}"); //$NON-NLS-1$
+            } else {
+                method.addBodyLine(String.format("%sSELECT(\"%s\");", //$NON-NLS-1$
+                        builderPrefix, selectListPhrase));
+            }
+
+            distinctCheck = false;
+        }
+
+        method.addBodyLine(String.format("%sFROM(\"%s\");", //$NON-NLS-1$
+                builderPrefix,
+                escapeStringForJava(introspectedTable.getAliasedFullyQualifiedTableNameAtRuntime())));
+
+        method.addBodyLine("if (lastKey != null) {"); //$NON-NLS-1$
+        method.addBodyLine(String.format("%sWHERE(\"%s\");", //$NON-NLS-1$
+                builderPrefix,
+                escapeStringForJava(getKeyPredicate(introspectedTable, false))));
+        method.addBodyLine("}"); //$NON-NLS-1$
+        if (useLegacyBuilder) {
+            method.addBodyLine(APPLY_WHERE_METHOD + "(example, true);"); //$NON-NLS-1$
+        } else {
+            method.addBodyLine(APPLY_WHERE_METHOD + "(sql, example, true);"); //$NON-NLS-1$
+        }
+        method.addBodyLine(String.format("%sORDER_BY(\"%s\");", //$NON-NLS-1$
+                builderPrefix,
+                escapeStringForJava(getOrderByClause(introspectedTable, false))));
+        method.addBodyLine(""); //$NON-NLS-1$
+
+        String sql = useLegacyBuilder ? "SQL()" : "sql.toString()"; //$NON-NLS-1$ //$NON-NLS-2$
+        switch (paginationStyle) {
+        case LIMIT_OFFSET:
+            method.addBodyLine("return " + sql + " + \" limit #{pageSize}\";"); //$NON-NLS-1$ //$NON-NLS-2$
+            break;
+
+        case OFFSET_FETCH:
+            method.addBodyLine("return " + sql //$NON-NLS-1$
+                    + " + \" fetch first #{pageSize} rows only\";"); //$NON-NLS-1$
+            break;
+
+        case SQLSERVER_OFFSET_FETCH:
+            method.addBodyLine("return " + sql //$NON-NLS-1$
+                    + " + \" offset 0 rows fetch next #{pageSize} rows only\";"); //$NON-NLS-1$
+            break;
+
+        case ROWNUM:
+            method.addBodyLine("return \"select * from ( \" + " + sql //$NON-NLS-1$
+                    + " + \" ) where rownum <= #{pageSize}\";"); //$NON-NLS-1$
+            break;
+        }
+
+        topLevelClass.addImportedType(exampleType);
+        topLevelClass.addImportedType(keyType);
+        topLevelClass.addImportedType(mapType);
+        if (useLegacyBuilder) {
+            topLevelClass.addStaticImport("org.apache.ibatis.jdbc.SqlBuilder.WHERE"); //$NON-NLS-1$
+            topLevelClass.addStaticImport("org.apache.ibatis.jdbc.SqlBuilder.ORDER_BY"); //$NON-NLS-1$
+        }
+
+        return method;
+    }
+
+    /**
+     * Returns the predicate that selects the rows after the last key, either as a
+     * row value comparison or expanded to
+     * <code>(a &gt; ? or (a = ? and b &gt; ?))</code>.
+     */
+    private String getKeyPredicate(IntrospectedTable introspectedTable, boolean forXml) {
+        List<IntrospectedColumn> columns = introspectedTable.getPrimaryKeyColumns();
+        String greaterThan = forXml ? " &gt; " : " > "; //$NON-NLS-1$ //$NON-NLS-2$
+        StringBuilder sb = new StringBuilder();
+
+        if (useRowValueComparison && columns.size() > 1) {
+            sb.append('(');
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    sb.append(", "); //$NON-NLS-1$
+                }
+                sb.append(getAliasedEscapedColumnName(columns.get(i)));
+            }
+            sb.append(')');
+            sb.append(greaterThan);
+            sb.append('(');
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    sb.append(", "); //$NON-NLS-1$
+                }
+                sb.append(getParameterClause(columns.get(i), "lastKey.")); //$NON-NLS-1$
+            }
+            sb.append(')');
+            return sb.toString();
+        }
+
+        sb.append('(');
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sb.append(" or ("); //$NON-NLS-1$
+            }
+            for (int j = 0; j < i; j++) {
+                sb.append(getAliasedEscapedColumnName(columns.get(j)));
+                sb.append(" = "); //$NON-NLS-1$
+                sb.append(getParameterClause(columns.get(j), "lastKey.")); //$NON-NLS-1$
+                sb.append(" and "); //$NON-NLS-1$
+            }
+            sb.append(getAliasedEscapedColumnName(columns.get(i)));
+            sb.append(greaterThan);
+            sb.append(getParameterClause(columns.get(i), "lastKey.")); //$NON-NLS-1$
+            if (i > 0) {
+                sb.append(')');
+            }
+        }
+        sb.append(')');
+        return sb.toString();
+    }
+
+    private String getOrderByClause(IntrospectedTable introspectedTable, boolean forXml) {
+        StringBuilder sb = new StringBuilder();
+        if (forXml) {
+            sb.append("order by "); //$NON-NLS-1$
+        }
+        boolean first = true;
+        for (IntrospectedColumn introspectedColumn : introspectedTable.getPrimaryKeyColumns()) {
+            if (first) {
+                first = false;
+            } else {
+                sb.append(", "); //$NON-NLS-1$
+            }
+            sb.append(getAliasedEscapedColumnName(introspectedColumn));
+        }
+        return sb.toString();
+    }
+}
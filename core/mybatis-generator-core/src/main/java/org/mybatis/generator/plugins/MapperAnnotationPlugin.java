@@ -19,11 +19,12 @@ import java.util.List;
 
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
 import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
 import org.mybatis.generator.api.dom.java.Interface;
 import org.mybatis.generator.api.dom.java.TopLevelClass;
 
-public class MapperAnnotationPlugin extends PluginAdapter {
+public class MapperAnnotationPlugin extends PluginAdapter implements ThreadSafePlugin {
 
     @Override
     public boolean validate(List<String> warnings) {
@@ -0,0 +1,468 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.plugins;
+
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.IntrospectedTable.TargetRuntime;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.codegen.mybatis3.IntrospectedTableMyBatis3SimpleImpl;
+import org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities;
+import org.mybatis.generator.config.PropertyRegistry;
+
+/**
+ * This plugin generates a Java class that configures MyBatis3 with all the
+ * mappers generated in the context, as an alternative to the XML file of the
+ * MapperConfigPlugin. The class has a <code>customize(Configuration)</code>
+ * method that registers:
+ * <ul>
+ * <li>a type alias for every generated model class</li>
+ * <li>the BaseResultMap and ResultMapWithBLOBs result maps of every mapper
+ * that has no XML file, so they can be referenced with <code>@ResultMap</code></li>
+ * <li>every annotated mapper interface, and every XML mapper file</li>
+ * </ul>
+ * With an annotated client (ANNOTATEDMAPPER), an application configured by the
+ * generated class starts without parsing any XML.
+ * <p>
+ * This plugin accepts four properties:
+ * <ul>
+ * <li><tt>targetPackage</tt> (required) the package of the generated class</li>
+ * <li><tt>targetProject</tt> (required) the project of the generated class</li>
+ * <li><tt>className</tt> (optional) the name of the generated class. The
+ * default is "MapperConfiguration"</li>
+ * <li><tt>superInterface</tt> (optional) an interface implemented by the
+ * generated class, like
+ * "org.mybatis.spring.boot.autoconfigure.ConfigurationCustomizer"</li>
+ * </ul>
+ * The generated code requires Java 7.
+ */
+public class MapperConfigClassPlugin extends PluginAdapter {
+
+    private static final String TARGET_PACKAGE = "targetPackage"; //$NON-NLS-1$
+
+    private static final String TARGET_PROJECT = "targetProject"; //$NON-NLS-1$
+
+    private static final FullyQualifiedJavaType CONFIGURATION = new FullyQualifiedJavaType(
+            "org.apache.ibatis.session.Configuration"); //$NON-NLS-1$
+
+    private static final String[] RESULT_MAP_IMPORTS = {
+        "java.util.ArrayList", //$NON-NLS-1$
+        "java.util.Arrays", //$NON-NLS-1$
+        "java.util.List", //$NON-NLS-1$
+        "org.apache.ibatis.mapping.ResultFlag", //$NON-NLS-1$
+        "org.apache.ibatis.mapping.ResultMap", //$NON-NLS-1$
+        "org.apache.ibatis.mapping.ResultMapping", //$NON-NLS-1$
+        "org.apache.ibatis.type.JdbcType" //$NON-NLS-1$
+    };
+
+    private static final String[] XML_MAPPER_IMPORTS = {
+        "java.io.IOException", //$NON-NLS-1$
+        "java.io.InputStream", //$NON-NLS-1$
+        "org.apache.ibatis.builder.BuilderException", //$NON-NLS-1$
+        "org.apache.ibatis.builder.xml.XMLMapperBuilder", //$NON-NLS-1$
+        "org.apache.ibatis.io.Resources" //$NON-NLS-1$
+    };
+
+    private List<IntrospectedTable> introspectedTables;
+
+    public MapperConfigClassPlugin() {
+        introspectedTables = new ArrayList<IntrospectedTable>();
+    }
+
+    public boolean validate(List<String> warnings) {
+        boolean valid = true;
+
+        if (!stringHasValue(properties.getProperty(TARGET_PROJECT))) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "MapperConfigClassPlugin", //$NON-NLS-1$
+                    TARGET_PROJECT));
+            valid = false;
+        }
+
+        if (!stringHasValue(properties.getProperty(TARGET_PACKAGE))) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "MapperConfigClassPlugin", //$NON-NLS-1$
+                    TARGET_PACKAGE));
+            valid = false;
+        }
+
+        return valid;
+    }
+
+    /*
+     * Every table of the context is initialized, even the tables that are not
+     * generated again because they did not change, so the tables are collected
+     * here rather than as their files are generated.
+     */
+    @Override
+    public void initialized(IntrospectedTable introspectedTable) {
+        if (introspectedTable.getTargetRuntime() == TargetRuntime.MYBATIS3) {
+            introspectedTables.add(introspectedTable);
+        }
+    }
+
+    @Override
+    public List<GeneratedJavaFile> contextGenerateAdditionalJavaFiles() {
+        FullyQualifiedJavaType type = new FullyQualifiedJavaType(
+                properties.getProperty(TARGET_PACKAGE) + '.'
+                + properties.getProperty("className", "MapperConfiguration")); //$NON-NLS-1$ //$NON-NLS-2$
+
+        List<GeneratedJavaFile> answer = new ArrayList<GeneratedJavaFile>(1);
+        answer.add(new GeneratedJavaFile(getConfigurationClass(type),
+                properties.getProperty(TARGET_PROJECT),
+                context.getProperty(PropertyRegistry.CONTEXT_JAVA_FILE_ENCODING),
+                context.getJavaFormatter()));
+        return answer;
+    }
+
+    private boolean hasClient(IntrospectedTable introspectedTable) {
+        return introspectedTable.getRules().generateJavaClient()
+                && context.getJavaClientGeneratorConfiguration() != null;
+    }
+
+    private boolean hasXmlMapper(IntrospectedTable introspectedTable) {
+        if (hasClient(introspectedTable)) {
+            return introspectedTable.requiresXMLGenerator();
+        } else {
+            return context.getSqlMapGeneratorConfiguration() != null;
+        }
+    }
+
+    private TopLevelClass getConfigurationClass(FullyQualifiedJavaType type) {
+        TopLevelClass topLevelClass = new TopLevelClass(type);
+        topLevelClass.setVisibility(JavaVisibility.PUBLIC);
+        String superInterface = properties.getProperty("superInterface"); //$NON-NLS-1$
+        if (stringHasValue(superInterface)) {
+            FullyQualifiedJavaType fqjt = new FullyQualifiedJavaType(superInterface);
+            topLevelClass.addSuperInterface(fqjt);
+            topLevelClass.addImportedType(fqjt);
+        }
+
+        topLevelClass.addImportedType(CONFIGURATION);
+        topLevelClass.addImportedType("org.apache.ibatis.type.TypeAliasRegistry"); //$NON-NLS-1$
+
+        context.getCommentGenerator().addJavaFileComment(topLevelClass);
+        topLevelClass.addJavaDocLine("/**"); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" * Registers the generated type aliases, result maps and mappers with a"); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" * MyBatis configuration."); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" */"); //$NON-NLS-1$
+
+        Method method = new Method("customize"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addParameter(new Parameter(CONFIGURATION, "configuration")); //$NON-NLS-1$
+        method.addBodyLine("registerTypeAliases(configuration);"); //$NON-NLS-1$
+        method.addBodyLine("registerResultMaps(configuration);"); //$NON-NLS-1$
+        method.addBodyLine("registerMappers(configuration);"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        topLevelClass.addMethod(getRegisterTypeAliasesMethod());
+        // the helper methods are only added when they are used
+        if (addRegisterResultMapsMethods(topLevelClass)) {
+            addImportedTypes(topLevelClass, RESULT_MAP_IMPORTS);
+            topLevelClass.addMethod(getResultMappingMethod());
+        }
+        topLevelClass.addMethod(getRegisterMappersMethod());
+        if (hasXmlMappers()) {
+            addImportedTypes(topLevelClass, XML_MAPPER_IMPORTS);
+            topLevelClass.addMethod(getAddXmlMapperMethod());
+        }
+
+        return topLevelClass;
+    }
+
+    private void addImportedTypes(TopLevelClass topLevelClass, String[] importedTypes) {
+        for (String importedType : importedTypes) {
+            topLevelClass.addImportedType(importedType);
+        }
+    }
+
+    private boolean hasXmlMappers() {
+        for (IntrospectedTable introspectedTable : introspectedTables) {
+            if (hasXmlMapper(introspectedTable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Method getRegisterTypeAliasesMethod() {
+        Method method = new Method("registerTypeAliases"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setStatic(true);
+        method.addParameter(new Parameter(CONFIGURATION, "configuration")); //$NON-NLS-1$
+        method.addBodyLine("TypeAliasRegistry typeAliasRegistry = configuration.getTypeAliasRegistry();"); //$NON-NLS-1$
+
+        Set<String> modelTypes = new HashSet<String>();
+        for (IntrospectedTable introspectedTable : introspectedTables) {
+            List<String> types = new ArrayList<String>();
+            if (introspectedTable.getRules().generatePrimaryKeyClass()) {
+                types.add(introspectedTable.getPrimaryKeyType());
+            }
+            if (introspectedTable.getRules().generateBaseRecordClass()) {
+                types.add(introspectedTable.getBaseRecordType());
+            }
+            if (introspectedTable.getRules().generateRecordWithBLOBsClass()) {
+                types.add(introspectedTable.getRecordWithBLOBsType());
+            }
+
+            for (String modelType : types) {
+                if (modelTypes.add(modelType)) {
+                    method.addBodyLine("typeAliasRegistry.registerAlias(" //$NON-NLS-1$
+                            + modelType + ".class);"); //$NON-NLS-1$
+                }
+            }
+        }
+
+        return method;
+    }
+
+    /*
+     * The result maps of each table are registered in their own method, so a
+     * context with many tables does not exceed the size limit of a method.
+     * Returns true if a result map of a mapper without XML is registered.
+     */
+    private boolean addRegisterResultMapsMethods(TopLevelClass topLevelClass) {
+        Method method = new Method("registerResultMaps"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setStatic(true);
+        method.addParameter(new Parameter(CONFIGURATION, "configuration")); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        Set<String> methodNames = new HashSet<String>();
+        for (IntrospectedTable introspectedTable : introspectedTables) {
+            if (!hasClient(introspectedTable) || hasXmlMapper(introspectedTable)
+                    || !introspectedTable.getRules().generateBaseResultMap()) {
+                continue;
+            }
+
+            String mapperName = new FullyQualifiedJavaType(
+                    introspectedTable.getMyBatis3JavaMapperType()).getShortName();
+            String methodName = "register" + mapperName + "ResultMaps"; //$NON-NLS-1$ //$NON-NLS-2$
+            for (int i = 2; !methodNames.add(methodName); i++) {
+                methodName = "register" + mapperName + i + "ResultMaps"; //$NON-NLS-1$ //$NON-NLS-2$
+            }
+
+            method.addBodyLine(methodName + "(configuration);"); //$NON-NLS-1$
+            topLevelClass.addMethod(getRegisterTableResultMapsMethod(methodName,
+                    introspectedTable));
+        }
+
+        if (method.getBodyLines().isEmpty()) {
+            method.addBodyLine("// the result maps of all mappers are in their XML files"); //$NON-NLS-1$
+            return false;
+        }
+        return true;
+    }
+
+    private Method getRegisterTableResultMapsMethod(String methodName,
+            IntrospectedTable introspectedTable) {
+        Method method = new Method(methodName);
+        method.setVisibility(JavaVisibility.PRIVATE);
+        method.setStatic(true);
+        method.addParameter(new Parameter(CONFIGURATION, "configuration")); //$NON-NLS-1$
+
+        // the same columns as the result maps of the XML mapper
+        boolean isSimple = introspectedTable instanceof IntrospectedTableMyBatis3SimpleImpl;
+        String namespace = introspectedTable.getMyBatis3SqlMapNamespace();
+        String recordType;
+        if (isSimple || introspectedTable.getRules().generateBaseRecordClass()) {
+            recordType = introspectedTable.getBaseRecordType();
+        } else {
+            recordType = introspectedTable.getPrimaryKeyType();
+        }
+
+        method.addBodyLine("List<ResultMapping> resultMappings = new ArrayList<>();"); //$NON-NLS-1$
+        addResultMappingLines(method, introspectedTable.getPrimaryKeyColumns(),
+                true, introspectedTable.isConstructorBased());
+        addResultMappingLines(method, isSimple ? introspectedTable.getNonPrimaryKeyColumns()
+                : introspectedTable.getBaseColumns(),
+                false, introspectedTable.isConstructorBased());
+        addResultMapLine(method, namespace + '.' + introspectedTable.getBaseResultMapId(),
+                recordType);
+
+        if (!isSimple && introspectedTable.getRules().generateResultMapWithBLOBs()) {
+            if (introspectedTable.getRules().generateRecordWithBLOBsClass()) {
+                recordType = introspectedTable.getRecordWithBLOBsType();
+            } else {
+                recordType = introspectedTable.getBaseRecordType();
+            }
+
+            method.addBodyLine(""); //$NON-NLS-1$
+            if (introspectedTable.isConstructorBased()) {
+                // constructor arguments are in the order of the columns
+                method.addBodyLine("resultMappings = new ArrayList<>();"); //$NON-NLS-1$
+                addResultMappingLines(method, introspectedTable.getPrimaryKeyColumns(),
+                        true, true);
+                addResultMappingLines(method, introspectedTable.getNonPrimaryKeyColumns(),
+                        false, true);
+            } else {
+                method.addBodyLine("resultMappings = new ArrayList<>(resultMappings);"); //$NON-NLS-1$
+                addResultMappingLines(method, introspectedTable.getBLOBColumns(),
+                        false, false);
+            }
+            addResultMapLine(method, namespace + '.'
+                    + introspectedTable.getResultMapWithBLOBsId(), recordType);
+        }
+
+        return method;
+    }
+
+    private void addResultMappingLines(Method method, List<IntrospectedColumn> columns,
+            boolean id, boolean constructorBased) {
+        for (IntrospectedColumn introspectedColumn : columns) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("resultMappings.add(resultMapping(configuration, "); //$NON-NLS-1$
+            if (constructorBased) {
+                // constructor arguments are matched by position, not by name
+                sb.append("null"); //$NON-NLS-1$
+            } else {
+                sb.append('"');
+                sb.append(introspectedColumn.getJavaProperty());
+                sb.append('"');
+            }
+            sb.append(", \""); //$NON-NLS-1$
+            sb.append(MyBatis3FormattingUtilities
+                    .getRenamedColumnNameForResultMap(introspectedColumn));
+            sb.append("\", "); //$NON-NLS-1$
+            sb.append(getClassLiteral(introspectedColumn.getFullyQualifiedJavaType()));
+            sb.append(", JdbcType."); //$NON-NLS-1$
+            sb.append(introspectedColumn.getJdbcTypeName());
+            sb.append(", "); //$NON-NLS-1$
+            if (stringHasValue(introspectedColumn.getTypeHandler())) {
+                sb.append(introspectedColumn.getTypeHandler());
+                sb.append(".class"); //$NON-NLS-1$
+            } else {
+                sb.append("null"); //$NON-NLS-1$
+            }
+            if (id) {
+                sb.append(", ResultFlag.ID"); //$NON-NLS-1$
+            }
+            if (constructorBased) {
+                sb.append(", ResultFlag.CONSTRUCTOR"); //$NON-NLS-1$
+            }
+            sb.append("));"); //$NON-NLS-1$
+            method.addBodyLine(sb.toString());
+        }
+    }
+
+    private void addResultMapLine(Method method, String id, String recordType) {
+        method.addBodyLine(String.format(
+                "configuration.addResultMap(new ResultMap.Builder(configuration, \"%s\", %s.class, resultMappings).build());", //$NON-NLS-1$
+                id, recordType));
+    }
+
+    private String getClassLiteral(FullyQualifiedJavaType type) {
+        String name;
+        if (type.isPrimitive() || !type.isExplicitlyImported()) {
+            name = type.getShortName();
+        } else {
+            name = type.getFullyQualifiedNameWithoutTypeParameters();
+        }
+
+        int index = name.indexOf('<');
+        if (index != -1) {
+            name = name.substring(0, index);
+        }
+        return name + ".class"; //$NON-NLS-1$
+    }
+
+    private Method getRegisterMappersMethod() {
+        Method method = new Method("registerMappers"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setStatic(true);
+        method.addParameter(new Parameter(CONFIGURATION, "configuration")); //$NON-NLS-1$
+
+        for (IntrospectedTable introspectedTable : introspectedTables) {
+            if (hasXmlMapper(introspectedTable)) {
+                // parsing the XML file also binds the mapper interface
+                StringBuilder sb = new StringBuilder();
+                sb.append("addXmlMapper(configuration, \""); //$NON-NLS-1$
+                sb.append(introspectedTable.getMyBatis3XmlMapperPackage().replace('.', '/'));
+                sb.append('/');
+                sb.append(introspectedTable.getMyBatis3XmlMapperFileName());
+                sb.append("\");"); //$NON-NLS-1$
+                method.addBodyLine(sb.toString());
+            } else if (hasClient(introspectedTable)) {
+                method.addBodyLine("configuration.addMapper(" //$NON-NLS-1$
+                        + introspectedTable.getMyBatis3JavaMapperType() + ".class);"); //$NON-NLS-1$
+            }
+        }
+
+        if (method.getBodyLines().isEmpty()) {
+            method.addBodyLine("// no mappers were generated"); //$NON-NLS-1$
+        }
+
+        return method;
+    }
+
+    private Method getResultMappingMethod() {
+        Method method = new Method("resultMapping"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PRIVATE);
+        method.setStatic(true);
+        method.setReturnType(new FullyQualifiedJavaType(
+                "org.apache.ibatis.mapping.ResultMapping")); //$NON-NLS-1$
+        method.addParameter(new Parameter(CONFIGURATION, "configuration")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "property")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "column")); //$NON-NLS-1$
+        method.addParameter(new Parameter(new FullyQualifiedJavaType("java.lang.Class<?>"), //$NON-NLS-1$
+                "javaType")); //$NON-NLS-1$
+        method.addParameter(new Parameter(new FullyQualifiedJavaType(
+                "org.apache.ibatis.type.JdbcType"), "jdbcType")); //$NON-NLS-1$ //$NON-NLS-2$
+        method.addParameter(new Parameter(new FullyQualifiedJavaType("java.lang.Class<?>"), //$NON-NLS-1$
+                "typeHandler")); //$NON-NLS-1$
+        method.addParameter(new Parameter(new FullyQualifiedJavaType(
+                "org.apache.ibatis.mapping.ResultFlag"), "flags", true)); //$NON-NLS-1$ //$NON-NLS-2$
+        method.addBodyLine("ResultMapping.Builder builder = new ResultMapping.Builder(configuration, property, column, javaType);"); //$NON-NLS-1$
+        method.addBodyLine("builder.jdbcType(jdbcType);"); //$NON-NLS-1$
+        method.addBodyLine("builder.flags(Arrays.asList(flags));"); //$NON-NLS-1$
+        method.addBodyLine("if (typeHandler != null) {"); //$NON-NLS-1$
+        method.addBodyLine("builder.typeHandler(configuration.getTypeHandlerRegistry().getInstance(javaType, typeHandler));"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("return builder.build();"); //$NON-NLS-1$
+        return method;
+    }
+
+    private Method getAddXmlMapperMethod() {
+        Method method = new Method("addXmlMapper"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PRIVATE);
+        method.setStatic(true);
+        method.addParameter(new Parameter(CONFIGURATION, "configuration")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "resource")); //$NON-NLS-1$
+        method.addBodyLine("try (InputStream inputStream = Resources.getResourceAsStream(resource)) {"); //$NON-NLS-1$
+        method.addBodyLine("new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();"); //$NON-NLS-1$
+        method.addBodyLine("} catch (IOException e) {"); //$NON-NLS-1$
+        method.addBodyLine("throw new BuilderException(\"Error reading mapper \" + resource, e);"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        return method;
+    }
+}
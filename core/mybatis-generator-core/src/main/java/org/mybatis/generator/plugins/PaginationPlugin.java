@@ -0,0 +1,479 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.plugins;
+
+import static org.mybatis.generator.internal.util.StringUtility.escapeStringForJava;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.List;
+
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.IntrospectedTable.TargetRuntime;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
+import org.mybatis.generator.api.dom.java.Field;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Element;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.codegen.mybatis3.MyBatis3FormattingUtilities;
+import org.mybatis.generator.internal.db.DatabaseDialects;
+
+/**
+ * This plugin adds database side pagination to the selectByExample methods. The
+ * example class gets <code>limit</code> and <code>offset</code> properties, and
+ * the select statements get a pagination clause for the target database, so only
+ * the rows of the requested page are returned by the database. This is different
+ * from the RowBounds support in MyBatis (see {@link RowBoundsPlugin}), where the
+ * rows before the requested page are read and discarded by the driver. An offset
+ * without a limit returns all rows after the offset.
+ * <p>
+ * The plugin requires the <code>targetDatabase</code> property. The value may be
+ * any of the databases known by {@link DatabaseDialects} that support pagination,
+ * or one of "Oracle", "PostgreSQL", "H2" and "SQLite".
+ * <p>
+ * This plugin is only valid for MyBatis3.
+ */
+public class PaginationPlugin extends PluginAdapter implements ThreadSafePlugin {
+
+    /**
+     * The pagination clauses supported by the plugin.
+     */
+    enum PaginationStyle {
+        /** LIMIT n OFFSET m - MySQL, HSQLDB, PostgreSQL, H2, SQLite. */
+        LIMIT_OFFSET,
+        /** OFFSET m ROWS FETCH FIRST n ROWS ONLY - DB2, Derby (SQL:2008). */
+        OFFSET_FETCH,
+        /** OFFSET m ROWS FETCH NEXT n ROWS ONLY - SQL Server 2012, the offset is required. */
+        SQLSERVER_OFFSET_FETCH,
+        /** A ROWNUM filter around the query - Oracle. */
+        ROWNUM
+    }
+
+    private static final String TARGET_DATABASE = "targetDatabase"; //$NON-NLS-1$
+
+    private static final String APPLY_PAGINATION = "applyPagination"; //$NON-NLS-1$
+
+    private static final String ROWNUM_PREFIX =
+            "select * from ( select row_.*, rownum rownum_ from ("; //$NON-NLS-1$
+
+    /** The suffix of the renamed provider methods that build the unpaginated SQL. */
+    private static final String WITHOUT_PAGINATION = "WithoutPagination"; //$NON-NLS-1$
+
+    /** The largest row count MySQL accepts - MySQL has no offset without a limit. */
+    private static final String MYSQL_MAX_ROWS = "18446744073709551615"; //$NON-NLS-1$
+
+    private PaginationStyle paginationStyle;
+
+    /** The clause for an offset without a limit - for the LIMIT_OFFSET style. */
+    private String offsetOnlyClause;
+
+    public PaginationPlugin() {
+        super();
+    }
+
+    public boolean validate(List<String> warnings) {
+        String targetDatabase = properties.getProperty(TARGET_DATABASE);
+        if (!stringHasValue(targetDatabase)) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "PaginationPlugin", //$NON-NLS-1$
+                    TARGET_DATABASE));
+            return false;
+        }
+
+        paginationStyle = getPaginationStyle(targetDatabase);
+        if (paginationStyle == null) {
+            warnings.add(getString("ValidationError.29", //$NON-NLS-1$
+                    "PaginationPlugin", //$NON-NLS-1$
+                    TARGET_DATABASE, targetDatabase));
+            return false;
+        }
+
+        if (DatabaseDialects.getDatabaseDialect(targetDatabase) == DatabaseDialects.MYSQL) {
+            offsetOnlyClause = "limit " + MYSQL_MAX_ROWS + " offset #{offset}"; //$NON-NLS-1$ //$NON-NLS-2$
+        } else if ("SQLite".equalsIgnoreCase(targetDatabase)) { //$NON-NLS-1$
+            offsetOnlyClause = "limit -1 offset #{offset}"; //$NON-NLS-1$
+        } else {
+            offsetOnlyClause = "offset #{offset} rows"; //$NON-NLS-1$
+        }
+
+        return true;
+    }
+
+    static PaginationStyle getPaginationStyle(String targetDatabase) {
+        DatabaseDialects dialect = DatabaseDialects.getDatabaseDialect(targetDatabase);
+        if (dialect != null) {
+            switch (dialect) {
+            case MYSQL:
+            case HSQLDB:
+                return PaginationStyle.LIMIT_OFFSET;
+            case DB2:
+            case DB2_MF:
+            case DERBY:
+            case CLOUDSCAPE:
+                return PaginationStyle.OFFSET_FETCH;
+            case SQLSERVER:
+                return PaginationStyle.SQLSERVER_OFFSET_FETCH;
+            default:
+                // Sybase and Informix have no pagination clause at the end of
+                // the statement
+                return null;
+            }
+        }
+
+        if ("Oracle".equalsIgnoreCase(targetDatabase)) { //$NON-NLS-1$
+            return PaginationStyle.ROWNUM;
+        } else if ("PostgreSQL".equalsIgnoreCase(targetDatabase) //$NON-NLS-1$
+                || "H2".equalsIgnoreCase(targetDatabase) //$NON-NLS-1$
+                || "SQLite".equalsIgnoreCase(targetDatabase)) { //$NON-NLS-1$
+            return PaginationStyle.LIMIT_OFFSET;
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean modelExampleClassGenerated(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable) {
+        if (introspectedTable.getTargetRuntime() == TargetRuntime.MYBATIS3) {
+            addProperty(topLevelClass, introspectedTable, "limit"); //$NON-NLS-1$
+            addProperty(topLevelClass, introspectedTable, "offset"); //$NON-NLS-1$
+
+            for (Method method : topLevelClass.getMethods()) {
+                if ("clear".equals(method.getName()) //$NON-NLS-1$
+                        && method.getParameters().isEmpty()) {
+                    method.addBodyLine("limit = null;"); //$NON-NLS-1$
+                    method.addBodyLine("offset = null;"); //$NON-NLS-1$
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void addProperty(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable, String name) {
+        FullyQualifiedJavaType integerType = new FullyQualifiedJavaType(
+                "java.lang.Integer"); //$NON-NLS-1$
+
+        Field field = new Field();
+        field.setVisibility(JavaVisibility.PROTECTED);
+        field.setType(integerType);
+        field.setName(name);
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        topLevelClass.addField(field);
+
+        String capitalizedName = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+        Method method = new Method();
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setName("set" + capitalizedName); //$NON-NLS-1$
+        method.addParameter(new Parameter(integerType, name));
+        method.addBodyLine("this." + name + " = " + name + ';'); //$NON-NLS-1$ //$NON-NLS-2$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        topLevelClass.addMethod(method);
+
+        method = new Method();
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(integerType);
+        method.setName("get" + capitalizedName); //$NON-NLS-1$
+        method.addBodyLine("return " + name + ';'); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        topLevelClass.addMethod(method);
+    }
+
+    @Override
+    public boolean sqlMapSelectByExampleWithoutBLOBsElementGenerated(
+            XmlElement element, IntrospectedTable introspectedTable) {
+        if (introspectedTable.getTargetRuntime() == TargetRuntime.MYBATIS3) {
+            addPaginationElements(element, introspectedTable);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean sqlMapSelectByExampleWithBLOBsElementGenerated(
+            XmlElement element, IntrospectedTable introspectedTable) {
+        if (introspectedTable.getTargetRuntime() == TargetRuntime.MYBATIS3) {
+            addPaginationElements(element, introspectedTable);
+        }
+        return true;
+    }
+
+    private void addPaginationElements(XmlElement element,
+            IntrospectedTable introspectedTable) {
+        if (paginationStyle == PaginationStyle.ROWNUM) {
+            // the query is wrapped, so the prefix goes after the generated comment -
+            // the XML merger expects the comment to be the first node
+            int index = 0;
+            boolean inComment = false;
+            for (Element child : element.getElements()) {
+                if (!(child instanceof TextElement)) {
+                    break;
+                }
+
+                String content = ((TextElement) child).getContent().trim();
+                if (inComment || content.startsWith("<!--")) { //$NON-NLS-1$
+                    inComment = !content.endsWith("-->"); //$NON-NLS-1$
+                    index++;
+                } else {
+                    break;
+                }
+            }
+
+            XmlElement ifElement = newPaginationElement();
+            ifElement.addElement(new TextElement(ROWNUM_PREFIX));
+            element.addElement(index, ifElement);
+        }
+
+        String defaultOrderBy = getDefaultOrderBy(introspectedTable);
+        if (defaultOrderBy != null) {
+            XmlElement orderByElement = new XmlElement("if"); //$NON-NLS-1$
+            orderByElement.addAttribute(new Attribute("test", //$NON-NLS-1$
+                    "orderByClause == null and (limit != null or offset != null)")); //$NON-NLS-1$
+            orderByElement.addElement(new TextElement("order by " + defaultOrderBy)); //$NON-NLS-1$
+            element.addElement(orderByElement);
+        }
+
+        XmlElement ifElement = newPaginationElement();
+        XmlElement limitElement = newIfElement("limit != null"); //$NON-NLS-1$
+        XmlElement offsetElement = newIfElement("offset != null"); //$NON-NLS-1$
+
+        switch (paginationStyle) {
+        case LIMIT_OFFSET:
+            limitElement.addElement(new TextElement("limit #{limit}")); //$NON-NLS-1$
+            offsetElement.addElement(new TextElement("offset #{offset}")); //$NON-NLS-1$
+            limitElement.addElement(offsetElement);
+            ifElement.addElement(limitElement);
+            XmlElement offsetOnlyElement = newIfElement("limit == null"); //$NON-NLS-1$
+            offsetOnlyElement.addElement(new TextElement(offsetOnlyClause));
+            ifElement.addElement(offsetOnlyElement);
+            break;
+
+        case OFFSET_FETCH:
+            offsetElement.addElement(new TextElement("offset #{offset} rows")); //$NON-NLS-1$
+            ifElement.addElement(offsetElement);
+            limitElement.addElement(new TextElement("fetch first #{limit} rows only")); //$NON-NLS-1$
+            ifElement.addElement(limitElement);
+            break;
+
+        case SQLSERVER_OFFSET_FETCH:
+            XmlElement chooseElement = new XmlElement("choose"); //$NON-NLS-1$
+            XmlElement whenElement = new XmlElement("when"); //$NON-NLS-1$
+            whenElement.addAttribute(new Attribute("test", "offset != null")); //$NON-NLS-1$ //$NON-NLS-2$
+            whenElement.addElement(new TextElement("offset #{offset} rows")); //$NON-NLS-1$
+            chooseElement.addElement(whenElement);
+            XmlElement otherwiseElement = new XmlElement("otherwise"); //$NON-NLS-1$
+            otherwiseElement.addElement(new TextElement("offset 0 rows")); //$NON-NLS-1$
+            chooseElement.addElement(otherwiseElement);
+            ifElement.addElement(chooseElement);
+            limitElement.addElement(new TextElement("fetch next #{limit} rows only")); //$NON-NLS-1$
+            ifElement.addElement(limitElement);
+            break;
+
+        case ROWNUM:
+            ifElement.addElement(new TextElement(") row_")); //$NON-NLS-1$
+            limitElement.addElement(new TextElement("where rownum &lt;= #{limit}")); //$NON-NLS-1$
+            offsetElement.addElement(new TextElement("+ #{offset}")); //$NON-NLS-1$
+            limitElement.addElement(offsetElement);
+            ifElement.addElement(limitElement);
+            ifElement.addElement(new TextElement(")")); //$NON-NLS-1$
+            XmlElement rownumElement = newIfElement("offset != null"); //$NON-NLS-1$
+            rownumElement.addElement(new TextElement("where rownum_ &gt; #{offset}")); //$NON-NLS-1$
+            ifElement.addElement(rownumElement);
+            break;
+        }
+
+        element.addElement(ifElement);
+    }
+
+    private XmlElement newPaginationElement() {
+        return newIfElement("limit != null or offset != null"); //$NON-NLS-1$
+    }
+
+    private XmlElement newIfElement(String test) {
+        XmlElement ifElement = new XmlElement("if"); //$NON-NLS-1$
+        ifElement.addAttribute(new Attribute("test", test)); //$NON-NLS-1$
+        return ifElement;
+    }
+
+    /**
+     * Returns the order by clause that is used when a page is requested without an
+     * orderByClause, or null if the database does not need one. The OFFSET and FETCH
+     * clauses have no defined row order without an ORDER BY, and SQL Server rejects
+     * them without one - so the rows are ordered by the primary key.
+     */
+    private String getDefaultOrderBy(IntrospectedTable introspectedTable) {
+        if (paginationStyle != PaginationStyle.OFFSET_FETCH
+                && paginationStyle != PaginationStyle.SQLSERVER_OFFSET_FETCH) {
+            return null;
+        }
+
+        List<IntrospectedColumn> primaryKeyColumns = introspectedTable.getPrimaryKeyColumns();
+        if (primaryKeyColumns.isEmpty()) {
+            // without a key the order is undefined, but SQL Server still needs the clause
+            return paginationStyle == PaginationStyle.SQLSERVER_OFFSET_FETCH
+                    ? "(select null)" : null; //$NON-NLS-1$
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (IntrospectedColumn introspectedColumn : primaryKeyColumns) {
+            if (sb.length() > 0) {
+                sb.append(", "); //$NON-NLS-1$
+            }
+            sb.append(MyBatis3FormattingUtilities.getAliasedEscapedColumnName(introspectedColumn));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean providerSelectByExampleWithoutBLOBsMethodGenerated(Method method,
+            TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        addPaginationToProviderMethod(method, topLevelClass, introspectedTable);
+        return true;
+    }
+
+    @Override
+    public boolean providerSelectByExampleWithBLOBsMethodGenerated(Method method,
+            TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        addPaginationToProviderMethod(method, topLevelClass, introspectedTable);
+        return true;
+    }
+
+    /**
+     * The generated provider method is renamed, and a method with the original name
+     * passes the SQL it builds through the applyPagination method. The body of the
+     * generated method is not changed, so the plugin does not depend on how the SQL
+     * is built.
+     */
+    private void addPaginationToProviderMethod(Method method,
+            TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        String exampleName = method.getParameters().get(0).getName();
+        String unpaginatedName = method.getName() + WITHOUT_PAGINATION;
+
+        Method paginatedMethod = new Method(method.getName());
+        paginatedMethod.setVisibility(method.getVisibility());
+        paginatedMethod.setReturnType(method.getReturnType());
+        for (Parameter parameter : method.getParameters()) {
+            paginatedMethod.addParameter(parameter);
+        }
+        context.getCommentGenerator().addGeneralMethodComment(paginatedMethod,
+                introspectedTable);
+        paginatedMethod.addBodyLine("return " + APPLY_PAGINATION + '(' + exampleName //$NON-NLS-1$
+                + ", " + unpaginatedName + '(' + exampleName + "));"); //$NON-NLS-1$ //$NON-NLS-2$
+        topLevelClass.addMethod(paginatedMethod);
+
+        method.setName(unpaginatedName);
+        method.setVisibility(JavaVisibility.PROTECTED);
+
+        for (Method existingMethod : topLevelClass.getMethods()) {
+            if (APPLY_PAGINATION.equals(existingMethod.getName())) {
+                return;
+            }
+        }
+
+        topLevelClass.addMethod(getApplyPaginationMethod(introspectedTable));
+    }
+
+    private Method getApplyPaginationMethod(IntrospectedTable introspectedTable) {
+        Method method = new Method(APPLY_PAGINATION);
+        method.setVisibility(JavaVisibility.PROTECTED);
+        method.setReturnType(FullyQualifiedJavaType.getStringInstance());
+        method.addParameter(new Parameter(new FullyQualifiedJavaType(
+                introspectedTable.getExampleType()), "example")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "sql")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+
+        method.addBodyLine("if (example == null || (example.getLimit() == null && example.getOffset() == null)) {"); //$NON-NLS-1$
+        method.addBodyLine("return sql;"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine(""); //$NON-NLS-1$
+
+        String defaultOrderBy = getDefaultOrderBy(introspectedTable);
+        if (paginationStyle == PaginationStyle.ROWNUM) {
+            method.addBodyLine("StringBuilder sb = new StringBuilder();"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\"" + ROWNUM_PREFIX + " \");"); //$NON-NLS-1$ //$NON-NLS-2$
+            method.addBodyLine("sb.append(sql);"); //$NON-NLS-1$
+        } else {
+            method.addBodyLine("StringBuilder sb = new StringBuilder(sql);"); //$NON-NLS-1$
+        }
+
+        if (defaultOrderBy != null) {
+            method.addBodyLine("if (example.getOrderByClause() == null) {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" order by " //$NON-NLS-1$
+                    + escapeStringForJava(defaultOrderBy) + "\");"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+        }
+
+        switch (paginationStyle) {
+        case LIMIT_OFFSET:
+            method.addBodyLine("if (example.getLimit() != null) {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" limit #{limit}\");"); //$NON-NLS-1$
+            method.addBodyLine("if (example.getOffset() != null) {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" offset #{offset}\");"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            method.addBodyLine("} else {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" " + offsetOnlyClause + "\");"); //$NON-NLS-1$ //$NON-NLS-2$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            break;
+
+        case OFFSET_FETCH:
+            method.addBodyLine("if (example.getOffset() != null) {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" offset #{offset} rows\");"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            method.addBodyLine("if (example.getLimit() != null) {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" fetch first #{limit} rows only\");"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            break;
+
+        case SQLSERVER_OFFSET_FETCH:
+            method.addBodyLine("if (example.getOffset() != null) {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" offset #{offset} rows\");"); //$NON-NLS-1$
+            method.addBodyLine("} else {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" offset 0 rows\");"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            method.addBodyLine("if (example.getLimit() != null) {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" fetch next #{limit} rows only\");"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            break;
+
+        case ROWNUM:
+            method.addBodyLine("sb.append(\" ) row_\");"); //$NON-NLS-1$
+            method.addBodyLine("if (example.getLimit() != null) {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" where rownum <= #{limit}\");"); //$NON-NLS-1$
+            method.addBodyLine("if (example.getOffset() != null) {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" + #{offset}\");"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" )\");"); //$NON-NLS-1$
+            method.addBodyLine("if (example.getOffset() != null) {"); //$NON-NLS-1$
+            method.addBodyLine("sb.append(\" where rownum_ > #{offset}\");"); //$NON-NLS-1$
+            method.addBodyLine("}"); //$NON-NLS-1$
+            break;
+        }
+
+        method.addBodyLine("return sb.toString();"); //$NON-NLS-1$
+        return method;
+    }
+}
@@ -23,6 +23,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
 import org.mybatis.generator.api.IntrospectedTable;
 
 /**
@@ -51,7 +52,7 @@ import org.mybatis.generator.api.IntrospectedTable;
  * @author Jeff Butler
  * 
  */
-public class RenameExampleClassPlugin extends PluginAdapter {
+public class RenameExampleClassPlugin extends PluginAdapter implements ThreadSafePlugin {
     private String searchString;
     private String replaceString;
     private Pattern pattern;
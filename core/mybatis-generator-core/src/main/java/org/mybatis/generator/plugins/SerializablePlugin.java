@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Properties;
 
 import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.dom.java.Field;
 import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
@@ -38,7 +39,7 @@ import org.mybatis.generator.api.dom.java.TopLevelClass;
  * @author Jeff Butler
  * 
  */
-public class SerializablePlugin extends PluginAdapter {
+public class SerializablePlugin extends PluginAdapter implements ThreadSafePlugin {
 
     private FullyQualifiedJavaType serializable;
     private FullyQualifiedJavaType gwtSerializable;
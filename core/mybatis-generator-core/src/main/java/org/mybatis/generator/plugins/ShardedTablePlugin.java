@@ -0,0 +1,699 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.plugins;
+
+import static org.mybatis.generator.internal.util.StringUtility.escapeStringForJava;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.IntrospectedTable.TargetRuntime;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
+import org.mybatis.generator.api.dom.java.Field;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.api.dom.java.TypeParameter;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.config.TableConfiguration;
+
+/**
+ * This plugin generates a single mapper for a table that is split into many
+ * physical shards with the same structure, like <code>events_000</code> to
+ * <code>events_255</code>. One representative shard is configured and
+ * introspected, and the name of the table in every generated statement is
+ * replaced by the base name of the shards followed by a suffix that is
+ * resolved when the statement runs:
+ * <pre>
+ * events${&#64;com.example.ShardContext&#64;suffix()}
+ * </pre>
+ * The suffix is taken from the generated <code>ShardContext</code> class, which
+ * holds the shard selected for the current thread. A shard is selected with a
+ * generated <code>ShardStrategy</code> that maps a shard key to a suffix, by
+ * modulo of a number, by hash or by formatting a date.
+ * <p>
+ * For each sharded table, a class is generated next to the mapper
+ * (<code>EventMapperShards</code> for example) that runs mapper calls in the shard
+ * of a key, and runs <code>selectByExample</code> and <code>countByExample</code>
+ * on all shards in parallel and merges the results.
+ * <p>
+ * This plugin accepts two properties:
+ * <ul>
+ * <li><tt>targetPackage</tt> (required) the package of the generated shard
+ * context and strategy</li>
+ * <li><tt>targetProject</tt> (required) the project of the generated shard
+ * context and strategy</li>
+ * </ul>
+ * Tables are sharded with these table properties:
+ * <ul>
+ * <li><tt>shardedTableName</tt> (required) the base name of the shards, like
+ * "events". Tables without this property are not changed</li>
+ * <li><tt>shardStrategy</tt> (optional) "modulo", "hash" or "date". The default
+ * is "modulo"</li>
+ * <li><tt>shardCount</tt> (required for "modulo" and "hash") the number of
+ * shards</li>
+ * <li><tt>shardSuffixFormat</tt> (optional) the format of the suffix. A
+ * <code>String.format</code> pattern applied to the shard number for "modulo"
+ * and "hash" (the default is "_%03d"), or a <code>DateTimeFormatter</code>
+ * pattern for "date" (the default is "_yyyyMM"). The formatted suffix may only
+ * contain letters, digits and underscores</li>
+ * </ul>
+ * The generated code requires Java 8. This plugin is only valid for MyBatis3.
+ */
+public class ShardedTablePlugin extends PluginAdapter implements ThreadSafePlugin {
+
+    private static final String TARGET_PACKAGE = "targetPackage"; //$NON-NLS-1$
+
+    private static final String TARGET_PROJECT = "targetProject"; //$NON-NLS-1$
+
+    private static final String SHARDED_TABLE_NAME = "shardedTableName"; //$NON-NLS-1$
+
+    private static final String SHARD_STRATEGY = "shardStrategy"; //$NON-NLS-1$
+
+    private static final String SHARD_COUNT = "shardCount"; //$NON-NLS-1$
+
+    private static final String SHARD_SUFFIX_FORMAT = "shardSuffixFormat"; //$NON-NLS-1$
+
+    private static final String MODULO = "modulo"; //$NON-NLS-1$
+
+    private static final String HASH = "hash"; //$NON-NLS-1$
+
+    private static final String DATE = "date"; //$NON-NLS-1$
+
+    public ShardedTablePlugin() {
+        super();
+    }
+
+    public boolean validate(List<String> warnings) {
+        boolean valid = true;
+
+        if (!stringHasValue(properties.getProperty(TARGET_PROJECT))) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "ShardedTablePlugin", //$NON-NLS-1$
+                    TARGET_PROJECT));
+            valid = false;
+        }
+
+        if (!stringHasValue(properties.getProperty(TARGET_PACKAGE))) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "ShardedTablePlugin", //$NON-NLS-1$
+                    TARGET_PACKAGE));
+            valid = false;
+        }
+
+        for (TableConfiguration tc : context.getTableConfigurations()) {
+            if (!stringHasValue(tc.getProperty(SHARDED_TABLE_NAME))) {
+                continue;
+            }
+
+            String strategy = getStrategy(tc.getProperty(SHARD_STRATEGY));
+            if (!MODULO.equals(strategy) && !HASH.equals(strategy)
+                    && !DATE.equals(strategy)) {
+                warnings.add(getString("ValidationError.29", //$NON-NLS-1$
+                        "ShardedTablePlugin", SHARD_STRATEGY, strategy)); //$NON-NLS-1$
+                valid = false;
+            } else if (!DATE.equals(strategy)
+                    && getShardCount(tc.getProperty(SHARD_COUNT)) < 1) {
+                warnings.add(getString("ValidationError.31", //$NON-NLS-1$
+                        SHARD_COUNT, tc.toString()));
+                valid = false;
+            }
+        }
+
+        return valid;
+    }
+
+    private String getStrategy(String property) {
+        return stringHasValue(property) ? property : MODULO;
+    }
+
+    private int getShardCount(String property) {
+        try {
+            return Integer.parseInt(property);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private boolean isSharded(IntrospectedTable introspectedTable) {
+        return introspectedTable.getTargetRuntime() == TargetRuntime.MYBATIS3
+                && stringHasValue(introspectedTable
+                        .getTableConfigurationProperty(SHARDED_TABLE_NAME));
+    }
+
+    private FullyQualifiedJavaType getShardContextType() {
+        return new FullyQualifiedJavaType(
+                properties.getProperty(TARGET_PACKAGE) + ".ShardContext"); //$NON-NLS-1$
+    }
+
+    private FullyQualifiedJavaType getShardStrategyType() {
+        return new FullyQualifiedJavaType(
+                properties.getProperty(TARGET_PACKAGE) + ".ShardStrategy"); //$NON-NLS-1$
+    }
+
+    @Override
+    public void initialized(IntrospectedTable introspectedTable) {
+        if (!isSharded(introspectedTable)) {
+            return;
+        }
+
+        // the last segment of the runtime name is the table, anything before
+        // it is the catalog and schema
+        String runtimeName = introspectedTable.getFullyQualifiedTableNameAtRuntime();
+        int index = runtimeName.lastIndexOf('.');
+        String qualifier = runtimeName.substring(0, index + 1);
+        String tableName = runtimeName.substring(index + 1);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(qualifier);
+        String beginningDelimiter = context.getBeginningDelimiter();
+        boolean delimited = stringHasValue(beginningDelimiter)
+                && tableName.startsWith(beginningDelimiter);
+        if (delimited) {
+            sb.append(beginningDelimiter);
+        }
+        sb.append(introspectedTable.getTableConfigurationProperty(SHARDED_TABLE_NAME));
+        sb.append("${@"); //$NON-NLS-1$
+        sb.append(getShardContextType().getFullyQualifiedName());
+        sb.append("@suffix()}"); //$NON-NLS-1$
+        if (delimited) {
+            sb.append(context.getEndingDelimiter());
+        }
+        introspectedTable.setSqlMapFullyQualifiedRuntimeTableName(sb.toString());
+
+        String alias = introspectedTable.getFullyQualifiedTable().getAlias();
+        if (stringHasValue(alias)) {
+            sb.append(' ');
+            sb.append(alias);
+        }
+        introspectedTable.setSqlMapAliasedFullyQualifiedRuntimeTableName(sb.toString());
+    }
+
+    @Override
+    public List<GeneratedJavaFile> contextGenerateAdditionalJavaFiles() {
+        List<GeneratedJavaFile> answer = new ArrayList<GeneratedJavaFile>();
+        answer.add(new GeneratedJavaFile(getShardContextClass(),
+                properties.getProperty(TARGET_PROJECT),
+                context.getProperty(PropertyRegistry.CONTEXT_JAVA_FILE_ENCODING),
+                context.getJavaFormatter()));
+        answer.add(new GeneratedJavaFile(getShardStrategyInterface(),
+                properties.getProperty(TARGET_PROJECT),
+                context.getProperty(PropertyRegistry.CONTEXT_JAVA_FILE_ENCODING),
+                context.getJavaFormatter()));
+        return answer;
+    }
+
+    @Override
+    public List<GeneratedJavaFile> contextGenerateAdditionalJavaFiles(
+            IntrospectedTable introspectedTable) {
+        List<GeneratedJavaFile> answer = new ArrayList<GeneratedJavaFile>();
+        if (isSharded(introspectedTable)
+                && context.getJavaClientGeneratorConfiguration() != null
+                && introspectedTable.getMyBatis3JavaMapperType() != null) {
+            answer.add(new GeneratedJavaFile(getShardsClass(introspectedTable),
+                    context.getJavaClientGeneratorConfiguration().getTargetProject(),
+                    context.getProperty(PropertyRegistry.CONTEXT_JAVA_FILE_ENCODING),
+                    context.getJavaFormatter()));
+        }
+        return answer;
+    }
+
+    private TopLevelClass getShardContextClass() {
+        TopLevelClass topLevelClass = new TopLevelClass(getShardContextType());
+        topLevelClass.setVisibility(JavaVisibility.PUBLIC);
+        topLevelClass.setFinal(true);
+        topLevelClass.addImportedType("java.util.function.Supplier"); //$NON-NLS-1$
+        topLevelClass.addImportedType("java.util.regex.Pattern"); //$NON-NLS-1$
+        context.getCommentGenerator().addJavaFileComment(topLevelClass);
+        topLevelClass.addJavaDocLine("/**"); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" * Holds the shard selected for the current thread. The generated statements of"); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" * sharded tables call suffix() to build the name of the physical table."); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" */"); //$NON-NLS-1$
+
+        Field field = new Field("SUFFIX", //$NON-NLS-1$
+                new FullyQualifiedJavaType("java.lang.ThreadLocal<java.lang.String>")); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setStatic(true);
+        field.setFinal(true);
+        field.setInitializationString("new ThreadLocal<>()"); //$NON-NLS-1$
+        topLevelClass.addField(field);
+
+        // the suffix is substituted into the SQL as is, so it must not contain anything
+        // but the characters of an identifier
+        field = new Field("VALID_SUFFIX", new FullyQualifiedJavaType("java.util.regex.Pattern")); //$NON-NLS-1$ //$NON-NLS-2$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setStatic(true);
+        field.setFinal(true);
+        field.setInitializationString("Pattern.compile(\"[A-Za-z0-9_]+\")"); //$NON-NLS-1$
+        topLevelClass.addField(field);
+
+        Method method = new Method("ShardContext"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PRIVATE);
+        method.setConstructor(true);
+        method.addBodyLine("super();"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method("suffix"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setStatic(true);
+        method.setReturnType(FullyQualifiedJavaType.getStringInstance());
+        method.addJavaDocLine("/**"); //$NON-NLS-1$
+        method.addJavaDocLine(" * Returns the suffix of the shard selected for the current thread."); //$NON-NLS-1$
+        method.addJavaDocLine(" */"); //$NON-NLS-1$
+        method.addBodyLine("String suffix = SUFFIX.get();"); //$NON-NLS-1$
+        method.addBodyLine("if (suffix == null) {"); //$NON-NLS-1$
+        method.addBodyLine("throw new IllegalStateException(\"No shard is selected for the current thread\");"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("return suffix;"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        FullyQualifiedJavaType supplier = new FullyQualifiedJavaType(
+                "java.util.function.Supplier"); //$NON-NLS-1$
+        supplier.addTypeArgument(new FullyQualifiedJavaType("T")); //$NON-NLS-1$
+        method = new Method("callInShard"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setStatic(true);
+        method.addTypeParameter(new TypeParameter("T")); //$NON-NLS-1$
+        method.setReturnType(new FullyQualifiedJavaType("T")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "suffix")); //$NON-NLS-1$
+        method.addParameter(new Parameter(supplier, "work")); //$NON-NLS-1$
+        method.addJavaDocLine("/**"); //$NON-NLS-1$
+        method.addJavaDocLine(" * Runs the work with the shard selected for the current thread, and restores"); //$NON-NLS-1$
+        method.addJavaDocLine(" * the previous shard afterwards. The suffix may only contain letters, digits"); //$NON-NLS-1$
+        method.addJavaDocLine(" * and underscores, because it becomes part of the SQL."); //$NON-NLS-1$
+        method.addJavaDocLine(" *"); //$NON-NLS-1$
+        method.addJavaDocLine(" * @throws IllegalArgumentException if the suffix contains any other character"); //$NON-NLS-1$
+        method.addJavaDocLine(" */"); //$NON-NLS-1$
+        method.addBodyLine("if (suffix == null || !VALID_SUFFIX.matcher(suffix).matches()) {"); //$NON-NLS-1$
+        method.addBodyLine("throw new IllegalArgumentException(\"Invalid shard suffix: \" + suffix);"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("String previous = SUFFIX.get();"); //$NON-NLS-1$
+        method.addBodyLine("SUFFIX.set(suffix);"); //$NON-NLS-1$
+        method.addBodyLine("try {"); //$NON-NLS-1$
+        method.addBodyLine("return work.get();"); //$NON-NLS-1$
+        method.addBodyLine("} finally {"); //$NON-NLS-1$
+        method.addBodyLine("if (previous == null) {"); //$NON-NLS-1$
+        method.addBodyLine("SUFFIX.remove();"); //$NON-NLS-1$
+        method.addBodyLine("} else {"); //$NON-NLS-1$
+        method.addBodyLine("SUFFIX.set(previous);"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        return topLevelClass;
+    }
+
+    private Interface getShardStrategyInterface() {
+        FullyQualifiedJavaType strategyType = getShardStrategyType();
+        FullyQualifiedJavaType listOfString = FullyQualifiedJavaType.getNewListInstance();
+        listOfString.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+        FullyQualifiedJavaType intType = FullyQualifiedJavaType.getIntInstance();
+
+        Interface interfaze = new Interface(strategyType);
+        interfaze.setVisibility(JavaVisibility.PUBLIC);
+        interfaze.addImportedType(new FullyQualifiedJavaType("java.time.ZoneId")); //$NON-NLS-1$
+        interfaze.addImportedType(new FullyQualifiedJavaType("java.time.format.DateTimeFormatter")); //$NON-NLS-1$
+        interfaze.addImportedType(new FullyQualifiedJavaType("java.time.temporal.TemporalAccessor")); //$NON-NLS-1$
+        interfaze.addImportedType(FullyQualifiedJavaType.getNewArrayListInstance());
+        interfaze.addImportedType(FullyQualifiedJavaType.getDateInstance());
+        interfaze.addImportedType(FullyQualifiedJavaType.getNewListInstance());
+        interfaze.addImportedType(new FullyQualifiedJavaType("java.util.function.ToIntFunction")); //$NON-NLS-1$
+        context.getCommentGenerator().addJavaFileComment(interfaze);
+        interfaze.addJavaDocLine("/**"); //$NON-NLS-1$
+        interfaze.addJavaDocLine(" * Maps a shard key to the suffix of the physical table that holds it."); //$NON-NLS-1$
+        interfaze.addJavaDocLine(" */"); //$NON-NLS-1$
+
+        Method method = new Method("suffix"); //$NON-NLS-1$
+        method.setReturnType(FullyQualifiedJavaType.getStringInstance());
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getObjectInstance(),
+                "shardKey")); //$NON-NLS-1$
+        method.addJavaDocLine("/**"); //$NON-NLS-1$
+        method.addJavaDocLine(" * Returns the suffix of the shard that holds the key."); //$NON-NLS-1$
+        method.addJavaDocLine(" */"); //$NON-NLS-1$
+        interfaze.addMethod(method);
+
+        method = new Method("suffixes"); //$NON-NLS-1$
+        method.setReturnType(listOfString);
+        method.addJavaDocLine("/**"); //$NON-NLS-1$
+        method.addJavaDocLine(" * Returns the suffixes of all shards."); //$NON-NLS-1$
+        method.addJavaDocLine(" */"); //$NON-NLS-1$
+        interfaze.addMethod(method);
+
+        method = new Method(MODULO);
+        method.setStatic(true);
+        method.setReturnType(strategyType);
+        method.addParameter(new Parameter(intType, "shardCount")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "suffixFormat")); //$NON-NLS-1$
+        method.addJavaDocLine("/**"); //$NON-NLS-1$
+        method.addJavaDocLine(" * Selects the shard by the remainder of a numeric key."); //$NON-NLS-1$
+        method.addJavaDocLine(" */"); //$NON-NLS-1$
+        method.addBodyLine("return indexed(shardCount, suffixFormat,"); //$NON-NLS-1$
+        method.addBodyLine("        shardKey -> (int) Math.floorMod(((Number) shardKey).longValue(), (long) shardCount));"); //$NON-NLS-1$
+        interfaze.addMethod(method);
+
+        method = new Method(HASH);
+        method.setStatic(true);
+        method.setReturnType(strategyType);
+        method.addParameter(new Parameter(intType, "shardCount")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "suffixFormat")); //$NON-NLS-1$
+        method.addJavaDocLine("/**"); //$NON-NLS-1$
+        method.addJavaDocLine(" * Selects the shard by the hash code of the key."); //$NON-NLS-1$
+        method.addJavaDocLine(" */"); //$NON-NLS-1$
+        method.addBodyLine("return indexed(shardCount, suffixFormat, shardKey -> {"); //$NON-NLS-1$
+        method.addBodyLine("int hash = shardKey.hashCode();"); //$NON-NLS-1$
+        method.addBodyLine("return Math.floorMod(hash ^ (hash >>> 16), shardCount);"); //$NON-NLS-1$
+        method.addBodyLine("});"); //$NON-NLS-1$
+        interfaze.addMethod(method);
+
+        FullyQualifiedJavaType toIntFunction = new FullyQualifiedJavaType(
+                "java.util.function.ToIntFunction"); //$NON-NLS-1$
+        toIntFunction.addTypeArgument(FullyQualifiedJavaType.getObjectInstance());
+        method = new Method("indexed"); //$NON-NLS-1$
+        method.setStatic(true);
+        method.setReturnType(strategyType);
+        method.addParameter(new Parameter(intType, "shardCount")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "suffixFormat")); //$NON-NLS-1$
+        method.addParameter(new Parameter(toIntFunction, "index")); //$NON-NLS-1$
+        method.addJavaDocLine("/**"); //$NON-NLS-1$
+        method.addJavaDocLine(" * Selects the shard by a number from 0 to shardCount - 1 computed from the key."); //$NON-NLS-1$
+        method.addJavaDocLine(" * The suffix is the number formatted with String.format."); //$NON-NLS-1$
+        method.addJavaDocLine(" */"); //$NON-NLS-1$
+        method.addBodyLine("return new ShardStrategy() {"); //$NON-NLS-1$
+        method.addBodyLine("@Override"); //$NON-NLS-1$
+        method.addBodyLine("public String suffix(Object shardKey) {"); //$NON-NLS-1$
+        method.addBodyLine("return String.format(suffixFormat, index.applyAsInt(shardKey));"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine(""); //$NON-NLS-1$
+        method.addBodyLine("@Override"); //$NON-NLS-1$
+        method.addBodyLine("public List<String> suffixes() {"); //$NON-NLS-1$
+        method.addBodyLine("List<String> suffixes = new ArrayList<>(shardCount);"); //$NON-NLS-1$
+        method.addBodyLine("for (int i = 0; i < shardCount; i++) {"); //$NON-NLS-1$
+        method.addBodyLine("suffixes.add(String.format(suffixFormat, i));"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("return suffixes;"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("};"); //$NON-NLS-1$
+        interfaze.addMethod(method);
+
+        method = new Method("dateSuffix"); //$NON-NLS-1$
+        method.setStatic(true);
+        method.setReturnType(strategyType);
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "pattern")); //$NON-NLS-1$
+        method.addJavaDocLine("/**"); //$NON-NLS-1$
+        method.addJavaDocLine(" * Selects the shard by formatting a date key (a Date or a java.time value)"); //$NON-NLS-1$
+        method.addJavaDocLine(" * with a DateTimeFormatter pattern. Date shards cannot be enumerated, so"); //$NON-NLS-1$
+        method.addJavaDocLine(" * queries across them must name the suffixes."); //$NON-NLS-1$
+        method.addJavaDocLine(" */"); //$NON-NLS-1$
+        method.addBodyLine("DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);"); //$NON-NLS-1$
+        method.addBodyLine("return new ShardStrategy() {"); //$NON-NLS-1$
+        method.addBodyLine("@Override"); //$NON-NLS-1$
+        method.addBodyLine("public String suffix(Object shardKey) {"); //$NON-NLS-1$
+        method.addBodyLine("if (shardKey instanceof Date) {"); //$NON-NLS-1$
+        method.addBodyLine("return formatter.format(((Date) shardKey).toInstant().atZone(ZoneId.systemDefault()));"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("return formatter.format((TemporalAccessor) shardKey);"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine(""); //$NON-NLS-1$
+        method.addBodyLine("@Override"); //$NON-NLS-1$
+        method.addBodyLine("public List<String> suffixes() {"); //$NON-NLS-1$
+        method.addBodyLine("throw new UnsupportedOperationException(\"Date shards cannot be enumerated\");"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("};"); //$NON-NLS-1$
+        interfaze.addMethod(method);
+
+        return interfaze;
+    }
+
+    private String getStrategyInitializer(IntrospectedTable introspectedTable) {
+        String strategy = getStrategy(
+                introspectedTable.getTableConfigurationProperty(SHARD_STRATEGY));
+        String suffixFormat = introspectedTable
+                .getTableConfigurationProperty(SHARD_SUFFIX_FORMAT);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("ShardStrategy."); //$NON-NLS-1$
+        if (DATE.equals(strategy)) {
+            sb.append("dateSuffix(\""); //$NON-NLS-1$
+            sb.append(escapeStringForJava(stringHasValue(suffixFormat)
+                    ? suffixFormat : "_yyyyMM")); //$NON-NLS-1$
+        } else {
+            sb.append(strategy);
+            sb.append('(');
+            sb.append(getShardCount(introspectedTable
+                    .getTableConfigurationProperty(SHARD_COUNT)));
+            sb.append(", \""); //$NON-NLS-1$
+            sb.append(escapeStringForJava(stringHasValue(suffixFormat)
+                    ? suffixFormat : "_%03d")); //$NON-NLS-1$
+        }
+        sb.append("\")"); //$NON-NLS-1$
+        return sb.toString();
+    }
+
+    private TopLevelClass getShardsClass(IntrospectedTable introspectedTable) {
+        FullyQualifiedJavaType mapperType = new FullyQualifiedJavaType(
+                introspectedTable.getMyBatis3JavaMapperType());
+        FullyQualifiedJavaType sqlSessionFactory = new FullyQualifiedJavaType(
+                "org.apache.ibatis.session.SqlSessionFactory"); //$NON-NLS-1$
+        FullyQualifiedJavaType executor = new FullyQualifiedJavaType(
+                "java.util.concurrent.Executor"); //$NON-NLS-1$
+        FullyQualifiedJavaType strategyType = getShardStrategyType();
+        String mapperName = mapperType.getShortName();
+
+        TopLevelClass topLevelClass = new TopLevelClass(
+                introspectedTable.getMyBatis3JavaMapperType() + "Shards"); //$NON-NLS-1$
+        topLevelClass.setVisibility(JavaVisibility.PUBLIC);
+        topLevelClass.addImportedType(mapperType);
+        topLevelClass.addImportedType(sqlSessionFactory);
+        topLevelClass.addImportedType(executor);
+        topLevelClass.addImportedType(strategyType);
+        topLevelClass.addImportedType(getShardContextType());
+        topLevelClass.addImportedType(FullyQualifiedJavaType.getNewArrayListInstance());
+        topLevelClass.addImportedType(FullyQualifiedJavaType.getNewListInstance());
+        topLevelClass.addImportedType(new FullyQualifiedJavaType("java.util.Collection")); //$NON-NLS-1$
+        topLevelClass.addImportedType(new FullyQualifiedJavaType("java.util.concurrent.CompletableFuture")); //$NON-NLS-1$
+        topLevelClass.addImportedType(new FullyQualifiedJavaType("java.util.function.Function")); //$NON-NLS-1$
+        topLevelClass.addImportedType(new FullyQualifiedJavaType("org.apache.ibatis.session.SqlSession")); //$NON-NLS-1$
+        context.getCommentGenerator().addJavaFileComment(topLevelClass);
+        topLevelClass.addJavaDocLine("/**"); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" * Runs " + mapperName + " calls in the shards of table " //$NON-NLS-1$ //$NON-NLS-2$
+                + introspectedTable.getTableConfigurationProperty(SHARDED_TABLE_NAME) + '.');
+        topLevelClass.addJavaDocLine(" * Every call opens its own session in the selected shard."); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" */"); //$NON-NLS-1$
+
+        Field field = new Field("STRATEGY", strategyType); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PUBLIC);
+        field.setStatic(true);
+        field.setFinal(true);
+        field.setInitializationString(getStrategyInitializer(introspectedTable));
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        topLevelClass.addField(field);
+
+        field = new Field("sqlSessionFactory", sqlSessionFactory); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setFinal(true);
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        topLevelClass.addField(field);
+
+        field = new Field("executor", executor); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setFinal(true);
+        context.getCommentGenerator().addFieldComment(field, introspectedTable);
+        topLevelClass.addField(field);
+
+        Method method = new Method(topLevelClass.getType().getShortName());
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setConstructor(true);
+        method.addParameter(new Parameter(sqlSessionFactory, "sqlSessionFactory")); //$NON-NLS-1$
+        method.addParameter(new Parameter(executor, "executor")); //$NON-NLS-1$
+        method.addBodyLine("this.sqlSessionFactory = sqlSessionFactory;"); //$NON-NLS-1$
+        method.addBodyLine("this.executor = executor;"); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        topLevelClass.addMethod(method);
+
+        FullyQualifiedJavaType typeT = new FullyQualifiedJavaType("T"); //$NON-NLS-1$
+        FullyQualifiedJavaType work = new FullyQualifiedJavaType(
+                "java.util.function.Function"); //$NON-NLS-1$
+        work.addTypeArgument(mapperType);
+        work.addTypeArgument(typeT);
+        FullyQualifiedJavaType suffixes = new FullyQualifiedJavaType(
+                "java.util.Collection"); //$NON-NLS-1$
+        suffixes.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+
+        method = new Method("inShard"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addTypeParameter(new TypeParameter("T")); //$NON-NLS-1$
+        method.setReturnType(typeT);
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getObjectInstance(),
+                "shardKey")); //$NON-NLS-1$
+        method.addParameter(new Parameter(work, "work")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("return inShardSuffix(STRATEGY.suffix(shardKey), work);"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method("inShardSuffix"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addTypeParameter(new TypeParameter("T")); //$NON-NLS-1$
+        method.setReturnType(typeT);
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "suffix")); //$NON-NLS-1$
+        method.addParameter(new Parameter(work, "work")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("return ShardContext.callInShard(suffix, () -> {"); //$NON-NLS-1$
+        method.addBodyLine("try (SqlSession session = sqlSessionFactory.openSession()) {"); //$NON-NLS-1$
+        method.addBodyLine(String.format("T result = work.apply(session.getMapper(%s.class));", //$NON-NLS-1$
+                mapperName));
+        method.addBodyLine("session.commit();"); //$NON-NLS-1$
+        method.addBodyLine("return result;"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("});"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        FullyQualifiedJavaType listOfT = FullyQualifiedJavaType.getNewListInstance();
+        listOfT.addTypeArgument(typeT);
+        method = new Method("acrossShards"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addTypeParameter(new TypeParameter("T")); //$NON-NLS-1$
+        method.setReturnType(listOfT);
+        method.addParameter(new Parameter(suffixes, "suffixes")); //$NON-NLS-1$
+        method.addParameter(new Parameter(work, "work")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("List<CompletableFuture<T>> futures = new ArrayList<>(suffixes.size());"); //$NON-NLS-1$
+        method.addBodyLine("for (String suffix : suffixes) {"); //$NON-NLS-1$
+        method.addBodyLine("futures.add(CompletableFuture.supplyAsync(() -> inShardSuffix(suffix, work), executor));"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine(""); //$NON-NLS-1$
+        method.addBodyLine("List<T> results = new ArrayList<>(futures.size());"); //$NON-NLS-1$
+        method.addBodyLine("for (CompletableFuture<T> future : futures) {"); //$NON-NLS-1$
+        method.addBodyLine("results.add(future.join());"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("return results;"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        FullyQualifiedJavaType exampleType = new FullyQualifiedJavaType(
+                introspectedTable.getExampleType());
+        if (introspectedTable.getRules().generateCountByExample()) {
+            topLevelClass.addImportedType(exampleType);
+            addCountAcrossShardsMethods(topLevelClass, exampleType, suffixes,
+                    introspectedTable);
+        }
+
+        if (introspectedTable.getRules().generateSelectByExampleWithoutBLOBs()) {
+            FullyQualifiedJavaType recordType;
+            if (introspectedTable.getRules().generateBaseRecordClass()) {
+                recordType = new FullyQualifiedJavaType(introspectedTable.getBaseRecordType());
+            } else {
+                recordType = new FullyQualifiedJavaType(introspectedTable.getPrimaryKeyType());
+            }
+            topLevelClass.addImportedType(exampleType);
+            topLevelClass.addImportedType(recordType);
+            addSelectAcrossShardsMethods(topLevelClass, exampleType, recordType,
+                    suffixes, introspectedTable.getSelectByExampleStatementId(),
+                    introspectedTable);
+        }
+
+        if (introspectedTable.getRules().generateSelectByExampleWithBLOBs()) {
+            FullyQualifiedJavaType recordType;
+            if (introspectedTable.getRules().generateRecordWithBLOBsClass()) {
+                recordType = new FullyQualifiedJavaType(introspectedTable.getRecordWithBLOBsType());
+            } else {
+                recordType = new FullyQualifiedJavaType(introspectedTable.getBaseRecordType());
+            }
+            topLevelClass.addImportedType(exampleType);
+            topLevelClass.addImportedType(recordType);
+            addSelectAcrossShardsMethods(topLevelClass, exampleType, recordType,
+                    suffixes, introspectedTable.getSelectByExampleWithBLOBsStatementId(),
+                    introspectedTable);
+        }
+
+        return topLevelClass;
+    }
+
+    private void addCountAcrossShardsMethods(TopLevelClass topLevelClass,
+            FullyQualifiedJavaType exampleType, FullyQualifiedJavaType suffixes,
+            IntrospectedTable introspectedTable) {
+        String name = introspectedTable.getCountByExampleStatementId() + "AcrossShards"; //$NON-NLS-1$
+        FullyQualifiedJavaType longType = new FullyQualifiedJavaType("long"); //$NON-NLS-1$
+
+        Method method = new Method(name);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(longType);
+        method.addParameter(new Parameter(exampleType, "example")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("return " + name + "(example, STRATEGY.suffixes());"); //$NON-NLS-1$ //$NON-NLS-2$
+        topLevelClass.addMethod(method);
+
+        method = new Method(name);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(longType);
+        method.addParameter(new Parameter(exampleType, "example")); //$NON-NLS-1$
+        method.addParameter(new Parameter(suffixes, "suffixes")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("long total = 0;"); //$NON-NLS-1$
+        method.addBodyLine(String.format("for (long count : acrossShards(suffixes, mapper -> mapper.%s(example))) {", //$NON-NLS-1$
+                introspectedTable.getCountByExampleStatementId()));
+        method.addBodyLine("total += count;"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("return total;"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+    }
+
+    private void addSelectAcrossShardsMethods(TopLevelClass topLevelClass,
+            FullyQualifiedJavaType exampleType, FullyQualifiedJavaType recordType,
+            FullyQualifiedJavaType suffixes, String statementId,
+            IntrospectedTable introspectedTable) {
+        String name = statementId + "AcrossShards"; //$NON-NLS-1$
+        FullyQualifiedJavaType returnType = FullyQualifiedJavaType.getNewListInstance();
+        returnType.addTypeArgument(recordType);
+
+        Method method = new Method(name);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(returnType);
+        method.addParameter(new Parameter(exampleType, "example")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine("return " + name + "(example, STRATEGY.suffixes());"); //$NON-NLS-1$ //$NON-NLS-2$
+        topLevelClass.addMethod(method);
+
+        // the rows of each shard keep the order of the example, the shards
+        // are concatenated in the order of the suffixes
+        String listName = returnType.getShortName();
+        method = new Method(name);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(returnType);
+        method.addParameter(new Parameter(exampleType, "example")); //$NON-NLS-1$
+        method.addParameter(new Parameter(suffixes, "suffixes")); //$NON-NLS-1$
+        context.getCommentGenerator().addGeneralMethodComment(method, introspectedTable);
+        method.addBodyLine(String.format("%s records = new ArrayList<>();", listName)); //$NON-NLS-1$
+        method.addBodyLine(String.format("for (%s shardRecords : acrossShards(suffixes, mapper -> mapper.%s(example))) {", //$NON-NLS-1$
+                listName, statementId));
+        method.addBodyLine("records.addAll(shardRecords);"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("return records;"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+    }
+}
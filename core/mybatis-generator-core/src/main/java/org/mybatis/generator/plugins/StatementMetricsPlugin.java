@@ -0,0 +1,566 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.plugins;
+
+import static org.mybatis.generator.internal.util.StringUtility.escapeStringForJava;
+import static org.mybatis.generator.internal.util.StringUtility.isTrue;
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.IntrospectedTable.TargetRuntime;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
+import org.mybatis.generator.api.dom.OutputUtilities;
+import org.mybatis.generator.api.dom.java.Field;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.InnerClass;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.Element;
+import org.mybatis.generator.api.dom.xml.TextElement;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.config.PropertyRegistry;
+
+/**
+ * This plugin generates a MyBatis interceptor that records the latency, the row
+ * count and the errors of every statement, keyed by the statement id. The
+ * interceptor keeps a latency histogram for each statement in memory, and passes
+ * every execution to an optional sink, so the measurements can be bridged to any
+ * metrics system. The sink is a generated interface (<code>StatementMetricsSink</code>)
+ * that is set on the interceptor, or named with the <code>sink</code> property of
+ * the interceptor in the MyBatis configuration.
+ * <p>
+ * Optionally, every generated statement is tagged with a comment like
+ * <code>/* ThingMapper.selectByExample *&#47;</code> at the start of its SQL, so
+ * the statements in the slow query log of the database can be mapped back to the
+ * mapper methods. Statements are tagged in the XML mappers, in the annotations of
+ * the client interfaces and in the SQL providers. Statements added by other plugins
+ * are only tagged if this plugin is configured after them.
+ * <p>
+ * This plugin accepts four properties:
+ * <ul>
+ * <li><tt>targetPackage</tt> (required) the package of the generated interceptor</li>
+ * <li><tt>targetProject</tt> (required) the project of the generated interceptor</li>
+ * <li><tt>className</tt> (optional) the name of the interceptor class. The
+ * default is "StatementMetricsInterceptor"</li>
+ * <li><tt>tagStatements</tt> (optional) if true, the generated statements are
+ * tagged with a comment. The default is false</li>
+ * </ul>
+ * This plugin is only valid for MyBatis3.
+ */
+public class StatementMetricsPlugin extends PluginAdapter implements ThreadSafePlugin {
+
+    private static final String TARGET_PACKAGE = "targetPackage"; //$NON-NLS-1$
+
+    private static final String TARGET_PROJECT = "targetProject"; //$NON-NLS-1$
+
+    private static final String SINK_NAME = "StatementMetricsSink"; //$NON-NLS-1$
+
+    private boolean tagStatements;
+
+    public StatementMetricsPlugin() {
+        super();
+    }
+
+    public boolean validate(List<String> warnings) {
+        boolean valid = true;
+
+        if (!stringHasValue(properties.getProperty(TARGET_PROJECT))) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "StatementMetricsPlugin", //$NON-NLS-1$
+                    TARGET_PROJECT));
+            valid = false;
+        }
+
+        if (!stringHasValue(properties.getProperty(TARGET_PACKAGE))) {
+            warnings.add(getString("ValidationError.18", //$NON-NLS-1$
+                    "StatementMetricsPlugin", //$NON-NLS-1$
+                    TARGET_PACKAGE));
+            valid = false;
+        }
+
+        tagStatements = isTrue(properties.getProperty("tagStatements")); //$NON-NLS-1$
+        return valid;
+    }
+
+    /**
+     * Returns the comment that tags a statement, like
+     * <code>/* ThingMapper.selectByExample *&#47;</code>.
+     */
+    private String getTag(IntrospectedTable introspectedTable, String statementId) {
+        String namespace = introspectedTable.getMyBatis3SqlMapNamespace();
+        return "/* " + namespace.substring(namespace.lastIndexOf('.') + 1) //$NON-NLS-1$
+                + '.' + statementId + " */"; //$NON-NLS-1$
+    }
+
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document,
+            IntrospectedTable introspectedTable) {
+        if (!tagStatements
+                || introspectedTable.getTargetRuntime() != TargetRuntime.MYBATIS3) {
+            return true;
+        }
+
+        for (Element element : document.getRootElement().getElements()) {
+            if (!(element instanceof XmlElement)) {
+                continue;
+            }
+
+            XmlElement xmlElement = (XmlElement) element;
+            String name = xmlElement.getName();
+            if (!"select".equals(name) && !"insert".equals(name) //$NON-NLS-1$ //$NON-NLS-2$
+                    && !"update".equals(name) && !"delete".equals(name)) { //$NON-NLS-1$ //$NON-NLS-2$
+                continue;
+            }
+
+            for (Attribute attribute : xmlElement.getAttributes()) {
+                if ("id".equals(attribute.getName())) { //$NON-NLS-1$
+                    xmlElement.addElement(getFirstSqlIndex(xmlElement), new TextElement(
+                            getTag(introspectedTable, attribute.getValue())));
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the index of the first child after the generated comment - the XML
+     * merger expects the comment to be the first node.
+     */
+    private int getFirstSqlIndex(XmlElement element) {
+        int index = 0;
+        boolean inComment = false;
+        for (Element child : element.getElements()) {
+            if (!(child instanceof TextElement)) {
+                break;
+            }
+
+            String content = ((TextElement) child).getContent().trim();
+            if (inComment || content.startsWith("<!--")) { //$NON-NLS-1$
+                inComment = !content.endsWith("-->"); //$NON-NLS-1$
+                index++;
+            } else {
+                break;
+            }
+        }
+
+        return index;
+    }
+
+    @Override
+    public boolean clientGenerated(Interface interfaze,
+            TopLevelClass topLevelClass, IntrospectedTable introspectedTable) {
+        if (!tagStatements || interfaze == null
+                || introspectedTable.getTargetRuntime() != TargetRuntime.MYBATIS3) {
+            return true;
+        }
+
+        for (Method method : interfaze.getMethods()) {
+            ListIterator<String> iter = method.getAnnotations().listIterator();
+            while (iter.hasNext()) {
+                String annotation = iter.next();
+                if (!annotation.equals("@Select({") //$NON-NLS-1$
+                        && !annotation.equals("@Insert({") //$NON-NLS-1$
+                        && !annotation.equals("@Update({") //$NON-NLS-1$
+                        && !annotation.equals("@Delete({")) { //$NON-NLS-1$
+                    continue;
+                }
+
+                // MyBatis only recognizes a script if it starts with the script tag
+                if (iter.hasNext()) {
+                    if (!iter.next().trim().startsWith("\"<script>\"")) { //$NON-NLS-1$
+                        iter.previous();
+                    }
+                }
+
+                StringBuilder sb = new StringBuilder();
+                OutputUtilities.javaIndent(sb, 1);
+                sb.append('"');
+                sb.append(escapeStringForJava(getTag(introspectedTable, method.getName())));
+                sb.append("\","); //$NON-NLS-1$
+                iter.add(sb.toString());
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean providerGenerated(TopLevelClass topLevelClass,
+            IntrospectedTable introspectedTable) {
+        if (!tagStatements
+                || introspectedTable.getTargetRuntime() != TargetRuntime.MYBATIS3) {
+            return true;
+        }
+
+        for (Method method : topLevelClass.getMethods()) {
+            if (method.getVisibility() != JavaVisibility.PUBLIC
+                    || method.getReturnType() == null
+                    || !method.getReturnType().equals(FullyQualifiedJavaType.getStringInstance())) {
+                continue;
+            }
+
+            String tag = escapeStringForJava(getTag(introspectedTable, method.getName()) + ' ');
+            ListIterator<String> iter = method.getBodyLines().listIterator();
+            while (iter.hasNext()) {
+                String line = iter.next();
+                if (line.startsWith("return ")) { //$NON-NLS-1$
+                    iter.set("return \"" + tag + "\" + " + line.substring(7)); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public List<GeneratedJavaFile> contextGenerateAdditionalJavaFiles() {
+        String targetPackage = properties.getProperty(TARGET_PACKAGE);
+        FullyQualifiedJavaType sinkType = new FullyQualifiedJavaType(
+                targetPackage + '.' + SINK_NAME);
+        FullyQualifiedJavaType interceptorType = new FullyQualifiedJavaType(
+                targetPackage + '.' + properties.getProperty("className", //$NON-NLS-1$
+                        "StatementMetricsInterceptor")); //$NON-NLS-1$
+
+        List<GeneratedJavaFile> answer = new ArrayList<GeneratedJavaFile>();
+        answer.add(new GeneratedJavaFile(getSinkInterface(sinkType),
+                properties.getProperty(TARGET_PROJECT),
+                context.getProperty(PropertyRegistry.CONTEXT_JAVA_FILE_ENCODING),
+                context.getJavaFormatter()));
+        answer.add(new GeneratedJavaFile(getInterceptorClass(interceptorType, sinkType),
+                properties.getProperty(TARGET_PROJECT),
+                context.getProperty(PropertyRegistry.CONTEXT_JAVA_FILE_ENCODING),
+                context.getJavaFormatter()));
+        return answer;
+    }
+
+    private Interface getSinkInterface(FullyQualifiedJavaType sinkType) {
+        Interface interfaze = new Interface(sinkType);
+        interfaze.setVisibility(JavaVisibility.PUBLIC);
+        context.getCommentGenerator().addJavaFileComment(interfaze);
+        interfaze.addJavaDocLine("/**"); //$NON-NLS-1$
+        interfaze.addJavaDocLine(" * Receives the measurements of the statement metrics interceptor."); //$NON-NLS-1$
+        interfaze.addJavaDocLine(" * Implementations must be thread safe."); //$NON-NLS-1$
+        interfaze.addJavaDocLine(" */"); //$NON-NLS-1$
+
+        Method method = new Method("record"); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "statementId")); //$NON-NLS-1$
+        method.addParameter(new Parameter(new FullyQualifiedJavaType("long"), //$NON-NLS-1$
+                "elapsedNanos")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getIntInstance(),
+                "rows")); //$NON-NLS-1$
+        method.addParameter(new Parameter(new FullyQualifiedJavaType(
+                "java.lang.Throwable"), "error")); //$NON-NLS-1$ //$NON-NLS-2$
+        method.addJavaDocLine("/**"); //$NON-NLS-1$
+        method.addJavaDocLine(" * Called after every statement. The rows are the update count of"); //$NON-NLS-1$
+        method.addJavaDocLine(" * an insert, update or delete, or the number of rows returned by a"); //$NON-NLS-1$
+        method.addJavaDocLine(" * select. The error is null if the statement succeeded."); //$NON-NLS-1$
+        method.addJavaDocLine(" */"); //$NON-NLS-1$
+        interfaze.addMethod(method);
+
+        return interfaze;
+    }
+
+    private TopLevelClass getInterceptorClass(FullyQualifiedJavaType interceptorType,
+            FullyQualifiedJavaType sinkType) {
+        // the nested class is not imported, so it is referenced by its simple name
+        FullyQualifiedJavaType statsType = new FullyQualifiedJavaType("StatementStats"); //$NON-NLS-1$
+        FullyQualifiedJavaType longType = new FullyQualifiedJavaType("long"); //$NON-NLS-1$
+
+        TopLevelClass topLevelClass = new TopLevelClass(interceptorType);
+        topLevelClass.setVisibility(JavaVisibility.PUBLIC);
+        topLevelClass.addSuperInterface(new FullyQualifiedJavaType(
+                "org.apache.ibatis.plugin.Interceptor")); //$NON-NLS-1$
+        context.getCommentGenerator().addJavaFileComment(topLevelClass);
+        topLevelClass.addJavaDocLine("/**"); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" * Records the latency, the row count and the errors of every statement."); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" * The sink can be set with the \"sink\" property in the MyBatis configuration."); //$NON-NLS-1$
+        topLevelClass.addJavaDocLine(" */"); //$NON-NLS-1$
+        topLevelClass.addAnnotation("@Intercepts({"); //$NON-NLS-1$
+        topLevelClass.addAnnotation("    @Signature(type=Executor.class, method=\"update\", args={MappedStatement.class, Object.class}),"); //$NON-NLS-1$
+        topLevelClass.addAnnotation("    @Signature(type=Executor.class, method=\"query\", args={MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),"); //$NON-NLS-1$
+        topLevelClass.addAnnotation("    @Signature(type=Executor.class, method=\"query\", args={MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class})"); //$NON-NLS-1$
+        topLevelClass.addAnnotation("})"); //$NON-NLS-1$
+
+        String[] importedTypes = {
+            "java.lang.reflect.InvocationTargetException", //$NON-NLS-1$
+            "java.util.Collection", //$NON-NLS-1$
+            "java.util.Collections", //$NON-NLS-1$
+            "java.util.Map", //$NON-NLS-1$
+            "java.util.Properties", //$NON-NLS-1$
+            "java.util.concurrent.ConcurrentHashMap", //$NON-NLS-1$
+            "java.util.concurrent.ConcurrentMap", //$NON-NLS-1$
+            "java.util.concurrent.atomic.AtomicLong", //$NON-NLS-1$
+            "java.util.concurrent.atomic.AtomicLongArray", //$NON-NLS-1$
+            "org.apache.ibatis.cache.CacheKey", //$NON-NLS-1$
+            "org.apache.ibatis.executor.Executor", //$NON-NLS-1$
+            "org.apache.ibatis.io.Resources", //$NON-NLS-1$
+            "org.apache.ibatis.mapping.BoundSql", //$NON-NLS-1$
+            "org.apache.ibatis.mapping.MappedStatement", //$NON-NLS-1$
+            "org.apache.ibatis.plugin.Interceptor", //$NON-NLS-1$
+            "org.apache.ibatis.plugin.Intercepts", //$NON-NLS-1$
+            "org.apache.ibatis.plugin.Invocation", //$NON-NLS-1$
+            "org.apache.ibatis.plugin.Plugin", //$NON-NLS-1$
+            "org.apache.ibatis.plugin.Signature", //$NON-NLS-1$
+            "org.apache.ibatis.session.ResultHandler", //$NON-NLS-1$
+            "org.apache.ibatis.session.RowBounds" //$NON-NLS-1$
+        };
+        for (String importedType : importedTypes) {
+            topLevelClass.addImportedType(importedType);
+        }
+
+        Field field = new Field("BUCKET_BOUNDS_MICROS", new FullyQualifiedJavaType("long[]")); //$NON-NLS-1$ //$NON-NLS-2$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setStatic(true);
+        field.setFinal(true);
+        field.setInitializationString("{ 100L, 250L, 500L, 1000L, 2500L, 5000L, 10000L, 25000L, " //$NON-NLS-1$
+                + "50000L, 100000L, 250000L, 500000L, 1000000L, 2500000L, 5000000L, 10000000L }"); //$NON-NLS-1$
+        topLevelClass.addField(field);
+
+        FullyQualifiedJavaType mapType = new FullyQualifiedJavaType(
+                "java.util.concurrent.ConcurrentMap"); //$NON-NLS-1$
+        mapType.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+        mapType.addTypeArgument(statsType);
+        field = new Field("statistics", mapType); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setFinal(true);
+        field.setInitializationString("new ConcurrentHashMap<String, StatementStats>()"); //$NON-NLS-1$
+        topLevelClass.addField(field);
+
+        field = new Field("sink", sinkType); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setVolatile(true);
+        topLevelClass.addField(field);
+
+        Method method = new Method(interceptorType.getShortName());
+        method.setConstructor(true);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addBodyLine("super();"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method(interceptorType.getShortName());
+        method.setConstructor(true);
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addParameter(new Parameter(sinkType, "sink")); //$NON-NLS-1$
+        method.addBodyLine("super();"); //$NON-NLS-1$
+        method.addBodyLine("this.sink = sink;"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method("getSink"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(sinkType);
+        method.addBodyLine("return sink;"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method("setSink"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addParameter(new Parameter(sinkType, "sink")); //$NON-NLS-1$
+        method.addBodyLine("this.sink = sink;"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        FullyQualifiedJavaType returnMapType = new FullyQualifiedJavaType("java.util.Map"); //$NON-NLS-1$
+        returnMapType.addTypeArgument(FullyQualifiedJavaType.getStringInstance());
+        returnMapType.addTypeArgument(statsType);
+        method = new Method("getStatistics"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(returnMapType);
+        method.addJavaDocLine("/**"); //$NON-NLS-1$
+        method.addJavaDocLine(" * Returns the statistics of the executed statements, keyed by statement id."); //$NON-NLS-1$
+        method.addJavaDocLine(" */"); //$NON-NLS-1$
+        method.addBodyLine("return Collections.unmodifiableMap(statistics);"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method("reset"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addBodyLine("statistics.clear();"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method("intercept"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(FullyQualifiedJavaType.getObjectInstance());
+        method.addParameter(new Parameter(new FullyQualifiedJavaType(
+                "org.apache.ibatis.plugin.Invocation"), "invocation")); //$NON-NLS-1$ //$NON-NLS-2$
+        method.addException(new FullyQualifiedJavaType("java.lang.Throwable")); //$NON-NLS-1$
+        method.addBodyLine("MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];"); //$NON-NLS-1$
+        method.addBodyLine("long start = System.nanoTime();"); //$NON-NLS-1$
+        method.addBodyLine("Object result = null;"); //$NON-NLS-1$
+        method.addBodyLine("Throwable error = null;"); //$NON-NLS-1$
+        method.addBodyLine("try {"); //$NON-NLS-1$
+        method.addBodyLine("result = invocation.proceed();"); //$NON-NLS-1$
+        method.addBodyLine("return result;"); //$NON-NLS-1$
+        method.addBodyLine("} catch (Throwable t) {"); //$NON-NLS-1$
+        method.addBodyLine("error = t instanceof InvocationTargetException && t.getCause() != null ? t.getCause() : t;"); //$NON-NLS-1$
+        method.addBodyLine("throw t;"); //$NON-NLS-1$
+        method.addBodyLine("} finally {"); //$NON-NLS-1$
+        method.addBodyLine("record(mappedStatement.getId(), System.nanoTime() - start, getRowCount(result), error);"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method("record"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PROTECTED);
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getStringInstance(),
+                "statementId")); //$NON-NLS-1$
+        method.addParameter(new Parameter(longType, "elapsedNanos")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getIntInstance(), "rows")); //$NON-NLS-1$
+        method.addParameter(new Parameter(new FullyQualifiedJavaType(
+                "java.lang.Throwable"), "error")); //$NON-NLS-1$ //$NON-NLS-2$
+        method.addBodyLine("StatementStats stats = statistics.get(statementId);"); //$NON-NLS-1$
+        method.addBodyLine("if (stats == null) {"); //$NON-NLS-1$
+        method.addBodyLine("stats = new StatementStats();"); //$NON-NLS-1$
+        method.addBodyLine("StatementStats existing = statistics.putIfAbsent(statementId, stats);"); //$NON-NLS-1$
+        method.addBodyLine("if (existing != null) {"); //$NON-NLS-1$
+        method.addBodyLine("stats = existing;"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("stats.record(elapsedNanos, rows, error != null);"); //$NON-NLS-1$
+        method.addBodyLine(""); //$NON-NLS-1$
+        method.addBodyLine(SINK_NAME + " currentSink = sink;"); //$NON-NLS-1$
+        method.addBodyLine("if (currentSink != null) {"); //$NON-NLS-1$
+        method.addBodyLine("currentSink.record(statementId, elapsedNanos, rows, error);"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method("getRowCount"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PRIVATE);
+        method.setReturnType(FullyQualifiedJavaType.getIntInstance());
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getObjectInstance(),
+                "result")); //$NON-NLS-1$
+        method.addBodyLine("if (result instanceof Integer) {"); //$NON-NLS-1$
+        method.addBodyLine("return ((Integer) result).intValue();"); //$NON-NLS-1$
+        method.addBodyLine("} else if (result instanceof Collection) {"); //$NON-NLS-1$
+        method.addBodyLine("return ((Collection<?>) result).size();"); //$NON-NLS-1$
+        method.addBodyLine("} else {"); //$NON-NLS-1$
+        method.addBodyLine("return 0;"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method("plugin"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(FullyQualifiedJavaType.getObjectInstance());
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getObjectInstance(),
+                "target")); //$NON-NLS-1$
+        method.addBodyLine("return Plugin.wrap(target, this);"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        method = new Method("setProperties"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.addParameter(new Parameter(new FullyQualifiedJavaType(
+                "java.util.Properties"), "properties")); //$NON-NLS-1$ //$NON-NLS-2$
+        method.addBodyLine("String sinkType = properties.getProperty(\"sink\");"); //$NON-NLS-1$
+        method.addBodyLine("if (sinkType != null && sinkType.length() > 0) {"); //$NON-NLS-1$
+        method.addBodyLine("try {"); //$NON-NLS-1$
+        method.addBodyLine("sink = (" + SINK_NAME + ") Resources.classForName(sinkType).newInstance();"); //$NON-NLS-1$ //$NON-NLS-2$
+        method.addBodyLine("} catch (Exception e) {"); //$NON-NLS-1$
+        method.addBodyLine("throw new IllegalArgumentException(\"Cannot create the sink \" + sinkType, e);"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        topLevelClass.addMethod(method);
+
+        topLevelClass.addInnerClass(getStatsClass(statsType, longType));
+        return topLevelClass;
+    }
+
+    private InnerClass getStatsClass(FullyQualifiedJavaType statsType,
+            FullyQualifiedJavaType longType) {
+        InnerClass innerClass = new InnerClass(statsType);
+        innerClass.setVisibility(JavaVisibility.PUBLIC);
+        innerClass.setStatic(true);
+        innerClass.addJavaDocLine("/**"); //$NON-NLS-1$
+        innerClass.addJavaDocLine(" * The statistics of one statement. Bucket i of the latency histogram counts"); //$NON-NLS-1$
+        innerClass.addJavaDocLine(" * the executions up to bound i in microseconds, the last bucket counts the"); //$NON-NLS-1$
+        innerClass.addJavaDocLine(" * executions above the last bound."); //$NON-NLS-1$
+        innerClass.addJavaDocLine(" */"); //$NON-NLS-1$
+
+        FullyQualifiedJavaType atomicLongType = new FullyQualifiedJavaType(
+                "java.util.concurrent.atomic.AtomicLong"); //$NON-NLS-1$
+        for (String name : new String[] { "count", "errorCount", "rowCount", "totalNanos" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            Field field = new Field(name, atomicLongType);
+            field.setVisibility(JavaVisibility.PRIVATE);
+            field.setFinal(true);
+            field.setInitializationString("new AtomicLong()"); //$NON-NLS-1$
+            innerClass.addField(field);
+        }
+
+        Field field = new Field("buckets", new FullyQualifiedJavaType( //$NON-NLS-1$
+                "java.util.concurrent.atomic.AtomicLongArray")); //$NON-NLS-1$
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setFinal(true);
+        field.setInitializationString("new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1)"); //$NON-NLS-1$
+        innerClass.addField(field);
+
+        Method method = new Method("record"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.DEFAULT);
+        method.addParameter(new Parameter(longType, "elapsedNanos")); //$NON-NLS-1$
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getIntInstance(), "rows")); //$NON-NLS-1$
+        method.addParameter(new Parameter(
+                FullyQualifiedJavaType.getBooleanPrimitiveInstance(), "failed")); //$NON-NLS-1$
+        method.addBodyLine("count.incrementAndGet();"); //$NON-NLS-1$
+        method.addBodyLine("if (failed) {"); //$NON-NLS-1$
+        method.addBodyLine("errorCount.incrementAndGet();"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("rowCount.addAndGet(rows);"); //$NON-NLS-1$
+        method.addBodyLine("totalNanos.addAndGet(elapsedNanos);"); //$NON-NLS-1$
+        method.addBodyLine(""); //$NON-NLS-1$
+        method.addBodyLine("long micros = elapsedNanos / 1000L;"); //$NON-NLS-1$
+        method.addBodyLine("int bucket = 0;"); //$NON-NLS-1$
+        method.addBodyLine("while (bucket < BUCKET_BOUNDS_MICROS.length && micros > BUCKET_BOUNDS_MICROS[bucket]) {"); //$NON-NLS-1$
+        method.addBodyLine("bucket++;"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("buckets.incrementAndGet(bucket);"); //$NON-NLS-1$
+        innerClass.addMethod(method);
+
+        for (String name : new String[] { "count", "errorCount", "rowCount", "totalNanos" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            method = new Method("get" + Character.toUpperCase(name.charAt(0)) + name.substring(1)); //$NON-NLS-1$
+            method.setVisibility(JavaVisibility.PUBLIC);
+            method.setReturnType(longType);
+            method.addBodyLine("return " + name + ".get();"); //$NON-NLS-1$ //$NON-NLS-2$
+            innerClass.addMethod(method);
+        }
+
+        FullyQualifiedJavaType longArrayType = new FullyQualifiedJavaType("long[]"); //$NON-NLS-1$
+        method = new Method("getBucketCounts"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(longArrayType);
+        method.addBodyLine("long[] answer = new long[buckets.length()];"); //$NON-NLS-1$
+        method.addBodyLine("for (int i = 0; i < answer.length; i++) {"); //$NON-NLS-1$
+        method.addBodyLine("answer[i] = buckets.get(i);"); //$NON-NLS-1$
+        method.addBodyLine("}"); //$NON-NLS-1$
+        method.addBodyLine("return answer;"); //$NON-NLS-1$
+        innerClass.addMethod(method);
+
+        method = new Method("getBucketBoundsMicros"); //$NON-NLS-1$
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setStatic(true);
+        method.setReturnType(longArrayType);
+        method.addBodyLine("return BUCKET_BOUNDS_MICROS.clone();"); //$NON-NLS-1$
+        innerClass.addMethod(method);
+
+        return innerClass;
+    }
+}
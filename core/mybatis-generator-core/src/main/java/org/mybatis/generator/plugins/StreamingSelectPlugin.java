@@ -0,0 +1,227 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.plugins;
+
+import static org.mybatis.generator.internal.util.StringUtility.stringHasValue;
+import static org.mybatis.generator.internal.util.messages.Messages.getString;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.api.IntrospectedTable.TargetRuntime;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
+import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
+import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.Parameter;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.Element;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+
+/**
+ * This plugin adds streaming variants of the selectByExample methods to the
+ * generated mapper interface, so large results can be processed without holding
+ * all records in memory:
+ *
+ * <pre>
+ * Cursor&lt;Record&gt; selectByExampleCursor(Example example);
+ * void selectByExampleWithResultHandler(Example example, ResultHandler&lt;Record&gt; handler);
+ * </pre>
+ *
+ * Each streaming method has its own statement (a copy of the selectByExample
+ * statement), so the selectByExample statement itself is not changed. The copied
+ * statements are set to <code>resultSetType="FORWARD_ONLY"</code>, and to the fetch
+ * size in the <tt>fetchSize</tt> property if it is specified. The generated
+ * interface requires MyBatis 3.4.0 or later.
+ * <p>
+ * This plugin is only valid for MyBatis3.
+ */
+public class StreamingSelectPlugin extends PluginAdapter implements ThreadSafePlugin {
+
+    private static final String FETCH_SIZE = "fetchSize"; //$NON-NLS-1$
+
+    private static final String CURSOR_SUFFIX = "Cursor"; //$NON-NLS-1$
+
+    private static final String HANDLER_SUFFIX = "WithResultHandler"; //$NON-NLS-1$
+
+    private String fetchSize;
+
+    public StreamingSelectPlugin() {
+        super();
+    }
+
+    public boolean validate(List<String> warnings) {
+        fetchSize = properties.getProperty(FETCH_SIZE);
+        if (stringHasValue(fetchSize)) {
+            int value;
+            try {
+                value = Integer.parseInt(fetchSize);
+            } catch (NumberFormatException e) {
+                value = -1;
+            }
+
+            // Integer.MIN_VALUE is the MySQL driver's marker for streaming row by row
+            if (value < 0 && value != Integer.MIN_VALUE) {
+                warnings.add(getString("ValidationError.29", //$NON-NLS-1$
+                        "StreamingSelectPlugin", FETCH_SIZE, fetchSize)); //$NON-NLS-1$
+                return false;
+            }
+        } else {
+            fetchSize = null;
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean clientSelectByExampleWithBLOBsMethodGenerated(Method method,
+            Interface interfaze, IntrospectedTable introspectedTable) {
+        if (introspectedTable.getTargetRuntime() == TargetRuntime.MYBATIS3) {
+            addStreamingMethods(method, interfaze);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean clientSelectByExampleWithoutBLOBsMethodGenerated(
+            Method method, Interface interfaze,
+            IntrospectedTable introspectedTable) {
+        if (introspectedTable.getTargetRuntime() == TargetRuntime.MYBATIS3) {
+            addStreamingMethods(method, interfaze);
+        }
+        return true;
+    }
+
+    private void addStreamingMethods(Method method, Interface interfaze) {
+        // the return type is List<Record>
+        FullyQualifiedJavaType recordType = method.getReturnType().getTypeArguments().get(0);
+
+        Method cursorMethod = copyMethod(method, CURSOR_SUFFIX, interfaze);
+        FullyQualifiedJavaType cursorType = new FullyQualifiedJavaType(
+                "org.apache.ibatis.cursor.Cursor"); //$NON-NLS-1$
+        interfaze.addImportedType(cursorType);
+        cursorType = new FullyQualifiedJavaType(cursorType.getFullyQualifiedName());
+        cursorType.addTypeArgument(recordType);
+        cursorMethod.setReturnType(cursorType);
+        interfaze.addMethod(cursorMethod);
+
+        Method handlerMethod = copyMethod(method, HANDLER_SUFFIX, interfaze);
+        handlerMethod.setReturnType(null);
+        FullyQualifiedJavaType handlerType = new FullyQualifiedJavaType(
+                "org.apache.ibatis.session.ResultHandler"); //$NON-NLS-1$
+        interfaze.addImportedType(handlerType);
+        handlerType = new FullyQualifiedJavaType(handlerType.getFullyQualifiedName());
+        handlerType.addTypeArgument(recordType);
+        handlerMethod.addParameter(new Parameter(handlerType, "handler")); //$NON-NLS-1$
+        interfaze.addMethod(handlerMethod);
+    }
+
+    /**
+     * Copies the select method for a streaming statement. The annotations of an
+     * annotated mapper are copied too, and the streaming options are added to the
+     * copy only.
+     */
+    private Method copyMethod(Method method, String suffix, Interface interfaze) {
+        Method newMethod = new Method(method);
+        newMethod.setName(method.getName() + suffix);
+        if (!method.getAnnotations().isEmpty()) {
+            addOptionsAnnotation(newMethod, interfaze);
+        }
+        return newMethod;
+    }
+
+    private void addOptionsAnnotation(Method method, Interface interfaze) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("@Options("); //$NON-NLS-1$
+        if (fetchSize != null) {
+            sb.append("fetchSize="); //$NON-NLS-1$
+            sb.append(fetchSize);
+            sb.append(", "); //$NON-NLS-1$
+        }
+        sb.append("resultSetType=ResultSetType.FORWARD_ONLY)"); //$NON-NLS-1$
+        method.addAnnotation(sb.toString());
+        interfaze.addImportedType(new FullyQualifiedJavaType(
+                "org.apache.ibatis.annotations.Options")); //$NON-NLS-1$
+        interfaze.addImportedType(new FullyQualifiedJavaType(
+                "org.apache.ibatis.mapping.ResultSetType")); //$NON-NLS-1$
+    }
+
+    @Override
+    public boolean sqlMapDocumentGenerated(Document document,
+            IntrospectedTable introspectedTable) {
+        if (introspectedTable.getTargetRuntime() != TargetRuntime.MYBATIS3) {
+            return true;
+        }
+
+        List<XmlElement> newElements = new ArrayList<XmlElement>();
+        for (Element element : document.getRootElement().getElements()) {
+            if (!(element instanceof XmlElement)
+                    || !"select".equals(((XmlElement) element).getName())) { //$NON-NLS-1$
+                continue;
+            }
+
+            XmlElement xmlElement = (XmlElement) element;
+            for (Attribute attribute : xmlElement.getAttributes()) {
+                if ("id".equals(attribute.getName()) //$NON-NLS-1$
+                        && (attribute.getValue().equals(
+                                introspectedTable.getSelectByExampleStatementId())
+                        || attribute.getValue().equals(
+                                introspectedTable.getSelectByExampleWithBLOBsStatementId()))) {
+                    newElements.add(xmlElement);
+                }
+            }
+        }
+
+        for (XmlElement element : newElements) {
+            document.getRootElement().addElement(copyElement(element, CURSOR_SUFFIX));
+            document.getRootElement().addElement(copyElement(element, HANDLER_SUFFIX));
+        }
+
+        return true;
+    }
+
+    private void addStreamingAttributes(XmlElement element) {
+        if (fetchSize != null) {
+            element.addAttribute(new Attribute("fetchSize", fetchSize)); //$NON-NLS-1$
+        }
+        element.addAttribute(new Attribute("resultSetType", "FORWARD_ONLY")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Use the element copy constructor to create the streaming statements.
+     */
+    private XmlElement copyElement(XmlElement element, String suffix) {
+        XmlElement newElement = new XmlElement(element);
+
+        // remove old id attribute and add a new one with the new name
+        for (Iterator<Attribute> iterator = newElement.getAttributes().iterator(); iterator.hasNext();) {
+            Attribute attribute = iterator.next();
+            if ("id".equals(attribute.getName())) { //$NON-NLS-1$
+                iterator.remove();
+                newElement.addAttribute(new Attribute("id", //$NON-NLS-1$
+                        attribute.getValue() + suffix));
+                break;
+            }
+        }
+        addStreamingAttributes(newElement);
+
+        return newElement;
+    }
+}
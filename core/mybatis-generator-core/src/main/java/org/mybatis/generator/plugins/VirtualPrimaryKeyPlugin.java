@@ -20,6 +20,7 @@ import java.util.StringTokenizer;
 
 import org.mybatis.generator.api.IntrospectedTable;
 import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.api.ThreadSafePlugin;
 
 /**
  * This plugin can be used to specify columns that act as a primary key, even if
@@ -34,7 +35,7 @@ import org.mybatis.generator.api.PluginAdapter;
  * @author Jeff Butler
  * 
  */
-public class VirtualPrimaryKeyPlugin extends PluginAdapter {
+public class VirtualPrimaryKeyPlugin extends PluginAdapter implements ThreadSafePlugin {
 
     /* (non-Javadoc)
      * @see org.mybatis.generator.api.Plugin#validate(java.util.List)
@@ -16,10 +16,16 @@
 package org.mybatis.generator.api;
 
 import static org.junit.Assert.*;
+
+import java.io.IOException;
+
 import org.junit.Test;
 import org.mybatis.generator.api.dom.DefaultJavaFormatter;
+import org.mybatis.generator.api.dom.java.CompilationUnit;
 import org.mybatis.generator.api.dom.java.FullyQualifiedJavaType;
 import org.mybatis.generator.api.dom.java.Interface;
+import org.mybatis.generator.api.dom.java.Method;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
 
 public class GeneratedJavaFileTest {
 
@@ -45,4 +51,35 @@ public class GeneratedJavaFileTest {
         assertEquals("TestInterface.java", gjf.getFileName());
         assertEquals("org.mybatis.test", gjf.getTargetPackage());
     }
+
+    @Test
+    public void testRenderEqualsFormattedContent() throws IOException {
+        TopLevelClass topLevelClass = new TopLevelClass("org.mybatis.test.TestClass");
+        topLevelClass.addImportedType("java.util.List");
+        Method method = new Method("run");
+        method.addBodyLine("return;");
+        topLevelClass.addMethod(method);
+        GeneratedJavaFile gjf = new GeneratedJavaFile(topLevelClass, "src",
+                new DefaultJavaFormatter());
+
+        StringBuilder sb = new StringBuilder();
+        gjf.render(sb);
+        assertEquals(gjf.getFormattedContent(), sb.toString());
+    }
+
+    @Test
+    public void testRenderUsesCustomFormatter() throws IOException {
+        TopLevelClass topLevelClass = new TopLevelClass("org.mybatis.test.TestClass");
+        GeneratedJavaFile gjf = new GeneratedJavaFile(topLevelClass, "src",
+                new DefaultJavaFormatter() {
+                    @Override
+                    public String getFormattedContent(CompilationUnit compilationUnit) {
+                        return "// formatted";
+                    }
+                });
+
+        StringBuilder sb = new StringBuilder();
+        gjf.render(sb);
+        assertEquals("// formatted", sb.toString());
+    }
 }
@@ -17,6 +17,7 @@ package org.mybatis.generator.api.dom.java;
 
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -125,4 +126,49 @@ public class InterfaceTest {
 
         assertThat(interfaze.getFormattedContent(), is(expected));
     }
+
+    @Test
+    public void testRenderEqualsFormattedContent() throws IOException {
+        Interface interfaze = new Interface("foo.Bar");
+        interfaze.setVisibility(JavaVisibility.PUBLIC);
+        interfaze.addFileCommentLine("// file comment");
+        interfaze.addImportedType(new FullyQualifiedJavaType("java.util.List"));
+        interfaze.addStaticImport("foo.Constants.*");
+        interfaze.addJavaDocLine("/** Bar */");
+        interfaze.addAnnotation("@Deprecated");
+
+        Field field = new Field("ONE", FullyQualifiedJavaType.getStringInstance());
+        field.setInitializationString("\"one\"");
+        interfaze.addField(field);
+
+        Method method = new Method("getNames");
+        method.setReturnType(new FullyQualifiedJavaType("java.util.List<java.lang.String>"));
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getIntInstance(), "count"));
+        interfaze.addMethod(method);
+
+        InnerInterface innerInterface = new InnerInterface("foo.Bar.Inner");
+        innerInterface.addMethod(new Method("run"));
+        interfaze.addInnerInterfaces(innerInterface);
+
+        StringBuilder sb = new StringBuilder();
+        interfaze.render(sb);
+        assertEquals(interfaze.getFormattedContent(), sb.toString());
+    }
+
+    @Test
+    public void testRenderUsesOverriddenFormattedContent() throws IOException {
+        Interface interfaze = new Interface("foo.Bar");
+        interfaze.addMethod(new Method("getName") {
+            @Override
+            public String getFormattedContent(int indentLevel, boolean interfaceMethod,
+                    CompilationUnit compilationUnit) {
+                return "    // custom method";
+            }
+        });
+
+        StringBuilder sb = new StringBuilder();
+        interfaze.render(sb);
+        assertEquals(interfaze.getFormattedContent(), sb.toString());
+        assertTrue(sb.indexOf("// custom method") > 0);
+    }
 }
@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api.dom.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class TopLevelClassTest {
+
+    @Test
+    public void testRenderEqualsFormattedContent() throws IOException {
+        TopLevelClass topLevelClass = createClass();
+
+        StringBuilder sb = new StringBuilder();
+        topLevelClass.render(sb);
+        assertEquals(topLevelClass.getFormattedContent(), sb.toString());
+    }
+
+    @Test
+    public void testRenderUsesOverriddenFormattedContent() throws IOException {
+        TopLevelClass topLevelClass = createClass();
+        topLevelClass.addField(new Field("custom", FullyQualifiedJavaType.getIntInstance()) {
+            @Override
+            public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
+                return "    // custom field";
+            }
+        });
+        Method method = new Method("customJavadoc") {
+            @Override
+            public void addFormattedJavadoc(StringBuilder sb, int indentLevel) {
+                sb.append("    // custom javadoc");
+                sb.append(System.getProperty("line.separator"));
+            }
+        };
+        method.addBodyLine("return;");
+        topLevelClass.addMethod(method);
+
+        StringBuilder sb = new StringBuilder();
+        topLevelClass.render(sb);
+        assertEquals(topLevelClass.getFormattedContent(), sb.toString());
+        assertTrue(sb.indexOf("// custom field") > 0);
+        assertTrue(sb.indexOf("// custom javadoc") > 0);
+    }
+
+    @Test
+    public void testRenderUsesOverriddenCompilationUnitContent() throws IOException {
+        TopLevelClass topLevelClass = new TopLevelClass("foo.Bar") {
+            @Override
+            public String getFormattedContent() {
+                return "// custom class";
+            }
+        };
+
+        StringBuilder sb = new StringBuilder();
+        topLevelClass.render(sb);
+        assertEquals("// custom class", sb.toString());
+    }
+
+    private TopLevelClass createClass() {
+        TopLevelClass topLevelClass = new TopLevelClass("foo.Bar");
+        topLevelClass.setVisibility(JavaVisibility.PUBLIC);
+        topLevelClass.addFileCommentLine("// file comment");
+        topLevelClass.addImportedType("java.util.List");
+        topLevelClass.addStaticImport("foo.Constants.*");
+        topLevelClass.addJavaDocLine("/** Bar */");
+        topLevelClass.addAnnotation("@Deprecated");
+        topLevelClass.addTypeParameter(new TypeParameter("T"));
+        topLevelClass.setSuperClass("foo.Base");
+
+        Field field = new Field("names", new FullyQualifiedJavaType("java.util.List<T>"));
+        field.setVisibility(JavaVisibility.PRIVATE);
+        topLevelClass.addField(field);
+
+        InitializationBlock initializationBlock = new InitializationBlock();
+        initializationBlock.addBodyLine("names = null;");
+        topLevelClass.addInitializationBlock(initializationBlock);
+
+        Method method = new Method("getNames");
+        method.setVisibility(JavaVisibility.PUBLIC);
+        method.setReturnType(new FullyQualifiedJavaType("java.util.List<T>"));
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getIntInstance(), "count"));
+        method.addBodyLine("if (count > 0) {");
+        method.addBodyLine("return names;");
+        method.addBodyLine("}");
+        method.addBodyLine("return null;");
+        topLevelClass.addMethod(method);
+
+        InnerClass innerClass = new InnerClass("foo.Bar.Inner");
+        innerClass.setStatic(true);
+        innerClass.addField(new Field("count", FullyQualifiedJavaType.getIntInstance()));
+        topLevelClass.addInnerClass(innerClass);
+
+        InnerEnum innerEnum = new InnerEnum(new FullyQualifiedJavaType("foo.Bar.Kind"));
+        innerEnum.addEnumConstant("ONE");
+        innerEnum.addEnumConstant("TWO");
+        topLevelClass.addInnerEnum(innerEnum);
+
+        return topLevelClass;
+    }
+}
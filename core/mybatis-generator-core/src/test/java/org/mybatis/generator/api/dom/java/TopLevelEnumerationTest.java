@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api.dom.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class TopLevelEnumerationTest {
+
+    @Test
+    public void testRenderEqualsFormattedContent() throws IOException {
+        TopLevelEnumeration topLevelEnumeration = createEnumeration();
+
+        StringBuilder sb = new StringBuilder();
+        topLevelEnumeration.render(sb);
+        assertEquals(topLevelEnumeration.getFormattedContent(), sb.toString());
+    }
+
+    @Test
+    public void testRenderUsesOverriddenFormattedContent() throws IOException {
+        TopLevelEnumeration topLevelEnumeration = createEnumeration();
+        InnerClass innerClass = new InnerClass("foo.Kind.Inner") {
+            @Override
+            public String getFormattedContent(int indentLevel, CompilationUnit compilationUnit) {
+                return "    // custom class";
+            }
+        };
+        topLevelEnumeration.addInnerClass(innerClass);
+
+        StringBuilder sb = new StringBuilder();
+        topLevelEnumeration.render(sb);
+        assertEquals(topLevelEnumeration.getFormattedContent(), sb.toString());
+        assertTrue(sb.indexOf("// custom class") > 0);
+    }
+
+    private TopLevelEnumeration createEnumeration() {
+        TopLevelEnumeration topLevelEnumeration = new TopLevelEnumeration(
+                new FullyQualifiedJavaType("foo.Kind"));
+        topLevelEnumeration.setVisibility(JavaVisibility.PUBLIC);
+        topLevelEnumeration.addFileCommentLine("// file comment");
+        topLevelEnumeration.addImportedType(new FullyQualifiedJavaType("java.util.List"));
+        topLevelEnumeration.addEnumConstant("ONE(1)");
+        topLevelEnumeration.addEnumConstant("TWO(2)");
+
+        Field field = new Field("value", FullyQualifiedJavaType.getIntInstance());
+        field.setVisibility(JavaVisibility.PRIVATE);
+        field.setFinal(true);
+        topLevelEnumeration.addField(field);
+
+        Method method = new Method("Kind");
+        method.setConstructor(true);
+        method.addParameter(new Parameter(FullyQualifiedJavaType.getIntInstance(), "value"));
+        method.addBodyLine("this.value = value;");
+        topLevelEnumeration.addMethod(method);
+
+        return topLevelEnumeration;
+    }
+}
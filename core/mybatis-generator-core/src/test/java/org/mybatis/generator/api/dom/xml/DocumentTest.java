@@ -0,0 +1,79 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.api.dom.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+import org.mybatis.generator.codegen.XmlConstants;
+
+public class DocumentTest {
+
+    @Test
+    public void testRenderEqualsFormattedContent() throws IOException {
+        Document document = createDocument(new XmlElement("select"));
+
+        StringBuilder sb = new StringBuilder();
+        document.render(sb);
+        assertEquals(document.getFormattedContent(), sb.toString());
+    }
+
+    @Test
+    public void testRenderUsesOverriddenFormattedContent() throws IOException {
+        XmlElement custom = new XmlElement("select") {
+            @Override
+            public String getFormattedContent(int indentLevel) {
+                return "<!-- custom element -->";
+            }
+        };
+        Document document = createDocument(custom);
+        document.getRootElement().addElement(new TextElement("text") {
+            @Override
+            public String getFormattedContent(int indentLevel) {
+                return "<!-- custom text -->";
+            }
+        });
+
+        StringBuilder sb = new StringBuilder();
+        document.render(sb);
+        assertEquals(document.getFormattedContent(), sb.toString());
+        assertTrue(sb.indexOf("<!-- custom element -->") > 0);
+        assertTrue(sb.indexOf("<!-- custom text -->") > 0);
+    }
+
+    private Document createDocument(XmlElement select) {
+        Document document = new Document(XmlConstants.MYBATIS3_MAPPER_PUBLIC_ID,
+                XmlConstants.MYBATIS3_MAPPER_SYSTEM_ID);
+
+        XmlElement mapper = new XmlElement("mapper");
+        mapper.addAttribute(new Attribute("namespace", "foo.BarMapper"));
+        document.setRootElement(mapper);
+
+        select.addAttribute(new Attribute("id", "selectAll"));
+        select.addAttribute(new Attribute("resultType", "foo.Bar"));
+        select.addElement(new TextElement("select *"));
+        select.addElement(new TextElement("from bar"));
+        XmlElement where = new XmlElement("where");
+        where.addElement(new TextElement("id = #{id}"));
+        select.addElement(where);
+        mapper.addElement(select);
+
+        return document;
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mybatis.generator.api.CommentGenerator;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.dom.DefaultJavaFormatter;
+import org.mybatis.generator.api.dom.DefaultXmlFormatter;
+import org.mybatis.generator.api.dom.java.JavaVisibility;
+import org.mybatis.generator.api.dom.java.TopLevelClass;
+import org.mybatis.generator.api.dom.xml.Attribute;
+import org.mybatis.generator.api.dom.xml.Document;
+import org.mybatis.generator.api.dom.xml.XmlElement;
+import org.mybatis.generator.codegen.XmlConstants;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.internal.util.messages.Messages;
+
+public class GeneratedFileSaverTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+
+    private RecordingProgressCallback callback;
+
+    private List<String> warnings;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = new File(temporaryFolder.getRoot(), "test");
+        callback = new RecordingProgressCallback();
+        warnings = new ArrayList<String>();
+    }
+
+    @Test
+    public void testNewFileIsWritten() throws Exception {
+        GeneratedJavaFile javaFile = createJavaFile("Foo");
+        save(new DefaultShellCallback(false), javaFile);
+
+        File file = new File(directory, "Foo.java");
+        assertEquals(javaFile.getFormattedContent(), read(file));
+        assertEquals(Collections.singletonList(Messages.getString("Progress.15", "Foo.java")),
+                callback.tasks);
+        assertTrue(warnings.isEmpty());
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    public void testUnchangedFileIsNotWritten() throws Exception {
+        GeneratedJavaFile javaFile = createJavaFile("Foo");
+        File file = new File(directory, "Foo.java");
+        write(file, javaFile.getFormattedContent());
+        long lastModified = file.lastModified() - 60000L;
+        assertTrue(file.setLastModified(lastModified));
+
+        save(new DefaultShellCallback(false), javaFile);
+
+        assertEquals(lastModified, file.lastModified());
+        assertTrue(callback.tasks.isEmpty());
+        assertTrue(warnings.isEmpty());
+        assertFalse(new File(directory, "Foo.java.1").exists());
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    public void testExistingFileIsOverwritten() throws Exception {
+        GeneratedJavaFile javaFile = createJavaFile("Foo");
+        File file = new File(directory, "Foo.java");
+        write(file, "old content");
+
+        save(new DefaultShellCallback(true), javaFile);
+
+        assertEquals(javaFile.getFormattedContent(), read(file));
+        assertEquals(Collections.singletonList(Messages.getString("Progress.15", "Foo.java")),
+                callback.tasks);
+        assertEquals(Collections.singletonList(Messages.getString("Warning.11",
+                file.getAbsolutePath())), warnings);
+        assertFalse(new File(directory, "Foo.java.bak").exists());
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    public void testExistingFileIsKeptWithoutOverwrite() throws Exception {
+        GeneratedJavaFile javaFile = createJavaFile("Foo");
+        File file = new File(directory, "Foo.java");
+        write(file, "old content");
+
+        save(new DefaultShellCallback(false), javaFile);
+
+        File uniqueFile = new File(directory, "Foo.java.1");
+        assertEquals("old content", read(file));
+        assertEquals(javaFile.getFormattedContent(), read(uniqueFile));
+        assertEquals(Collections.singletonList(Messages.getString("Progress.15", "Foo.java.1")),
+                callback.tasks);
+        assertEquals(Collections.singletonList(Messages.getString("Warning.2",
+                uniqueFile.getAbsolutePath())), warnings);
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    public void testXmlFileIsMerged() throws Exception {
+        GeneratedXmlFile xmlFile = createXmlFile();
+        File file = new File(directory, "FooMapper.xml");
+        // the generated element of the existing file is replaced, the custom one is kept
+        write(file, xmlFile.getFormattedContent().replace("selectAll", "selectOld")
+                .replace("</mapper>",
+                        "  <select id=\"custom\" resultType=\"int\">select 1</select>\n</mapper>"));
+
+        save(new DefaultShellCallback(false), xmlFile);
+
+        String merged = read(file);
+        assertTrue(merged.contains("id=\"custom\""));
+        assertTrue(merged.contains("id=\"selectAll\""));
+        assertFalse(merged.contains("id=\"selectOld\""));
+        assertEquals(Collections.singletonList(Messages.getString("Progress.15", "FooMapper.xml")),
+                callback.tasks);
+        assertTrue(warnings.isEmpty());
+        assertNoTemporaryFiles();
+
+        // merging again gives the same content, so the file is not written again
+        long lastModified = file.lastModified() - 60000L;
+        assertTrue(file.setLastModified(lastModified));
+        save(new DefaultShellCallback(false), xmlFile);
+
+        assertEquals(merged, read(file));
+        assertEquals(lastModified, file.lastModified());
+        assertTrue(callback.tasks.isEmpty());
+        assertTrue(warnings.isEmpty());
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    public void testJavaFileIsMerged() throws Exception {
+        GeneratedJavaFile javaFile = createJavaFile("Foo");
+        File file = new File(directory, "Foo.java");
+        write(file, "old content");
+
+        save(new DefaultShellCallback(false) {
+            @Override
+            public boolean isMergeSupported() {
+                return true;
+            }
+
+            @Override
+            public String mergeJavaFile(String newFileSource, File existingFile,
+                    String[] javadocTags, String fileEncoding) {
+                return "merged content";
+            }
+        }, javaFile);
+
+        assertEquals("merged content", read(file));
+        assertEquals(Collections.singletonList(Messages.getString("Progress.15", "Foo.java")),
+                callback.tasks);
+        assertTrue(warnings.isEmpty());
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    public void testParallelSaveMatchesSequentialSave() throws Exception {
+        List<GeneratedJavaFile> javaFiles = new ArrayList<GeneratedJavaFile>();
+        for (int i = 0; i < 10; i++) {
+            javaFiles.add(createJavaFile("Foo" + i));
+        }
+        write(new File(directory, "Foo3.java"), javaFiles.get(3).getFormattedContent());
+
+        new GeneratedFileSaver(new DefaultShellCallback(false), 4).saveFiles(
+                new ArrayList<GeneratedXmlFile>(), javaFiles, callback, null, warnings);
+
+        List<String> expectedTasks = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(javaFiles.get(i).getFormattedContent(),
+                    read(new File(directory, "Foo" + i + ".java")));
+            if (i != 3) {
+                expectedTasks.add(Messages.getString("Progress.15", "Foo" + i + ".java"));
+            }
+        }
+        assertEquals(expectedTasks, callback.tasks);
+        assertNoTemporaryFiles();
+    }
+
+    private void save(DefaultShellCallback shellCallback, GeneratedJavaFile javaFile)
+            throws Exception {
+        callback.tasks.clear();
+        warnings.clear();
+        new GeneratedFileSaver(shellCallback, 1).saveFiles(new ArrayList<GeneratedXmlFile>(),
+                Collections.singletonList(javaFile), callback, null, warnings);
+    }
+
+    private void save(DefaultShellCallback shellCallback, GeneratedXmlFile xmlFile)
+            throws Exception {
+        callback.tasks.clear();
+        warnings.clear();
+        new GeneratedFileSaver(shellCallback, 1).saveFiles(Collections.singletonList(xmlFile),
+                new ArrayList<GeneratedJavaFile>(), callback, null, warnings);
+    }
+
+    private GeneratedJavaFile createJavaFile(String name) {
+        TopLevelClass topLevelClass = new TopLevelClass("test." + name);
+        topLevelClass.setVisibility(JavaVisibility.PUBLIC);
+        return new GeneratedJavaFile(topLevelClass, temporaryFolder.getRoot().getAbsolutePath(),
+                new DefaultJavaFormatter());
+    }
+
+    private GeneratedXmlFile createXmlFile() {
+        Document document = new Document(XmlConstants.MYBATIS3_MAPPER_PUBLIC_ID,
+                XmlConstants.MYBATIS3_MAPPER_SYSTEM_ID);
+        XmlElement mapper = new XmlElement("mapper");
+        mapper.addAttribute(new Attribute("namespace", "test.FooMapper"));
+        XmlElement select = new XmlElement("select");
+        select.addAttribute(new Attribute("id", "selectAll"));
+        Properties properties = new Properties();
+        properties.setProperty(PropertyRegistry.COMMENT_GENERATOR_SUPPRESS_DATE, "true");
+        CommentGenerator commentGenerator = new DefaultCommentGenerator();
+        commentGenerator.addConfigurationProperties(properties);
+        commentGenerator.addComment(select);
+        mapper.addElement(select);
+        document.setRootElement(mapper);
+        return new GeneratedXmlFile(document, "FooMapper.xml", "test",
+                temporaryFolder.getRoot().getAbsolutePath(), true, new DefaultXmlFormatter());
+    }
+
+    private void assertNoTemporaryFiles() {
+        for (String fileName : directory.list()) {
+            assertFalse(fileName, fileName.endsWith(".tmp"));
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        OutputStream os = new FileOutputStream(file);
+        try {
+            os.write(content.getBytes("UTF-8"));
+        } finally {
+            os.close();
+        }
+    }
+
+    private static String read(File file) throws IOException {
+        InputStream is = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[(int) file.length()];
+            int length = 0;
+            while (length < buffer.length) {
+                length += is.read(buffer, length, buffer.length - length);
+            }
+            return new String(buffer, "UTF-8");
+        } finally {
+            is.close();
+        }
+    }
+
+    private static class RecordingProgressCallback extends NullProgressCallback {
+        private List<String> tasks = new ArrayList<String>();
+
+        @Override
+        public void startTask(String taskName) {
+            tasks.add(taskName);
+        }
+    }
+}
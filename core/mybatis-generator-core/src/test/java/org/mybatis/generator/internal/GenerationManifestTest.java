@@ -0,0 +1,283 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mybatis.generator.SqlScriptRunner;
+import org.mybatis.generator.api.GeneratedFile;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.IntrospectedForeignKey;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.config.xml.ConfigurationParser;
+import org.mybatis.generator.internal.db.DatabaseIntrospector;
+
+public class GenerationManifestTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Context context;
+
+    private File manifestFile;
+
+    private List<File> writtenFiles;
+
+    @Before
+    public void setUp() throws Exception {
+        SqlScriptRunner scriptRunner = new SqlScriptRunner(
+                GenerationManifestTest.class.getResourceAsStream("/scripts/CreateDB.sql"),
+                "org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:aname", "sa", "");
+        scriptRunner.executeScript();
+
+        List<String> warnings = new ArrayList<String>();
+        ConfigurationParser cp = new ConfigurationParser(warnings);
+        Configuration config = cp.parseConfiguration(
+                GenerationManifestTest.class.getResourceAsStream("/scripts/generatorConfig.xml"));
+        context = config.getContext("FlatJava5");
+
+        manifestFile = new File(temporaryFolder.getRoot(), "manifest.properties");
+        writtenFiles = new ArrayList<File>();
+    }
+
+    @Test
+    public void testUnchangedTablesAreNotGenerated() throws Exception {
+        List<GeneratedXmlFile> xmlFiles = generate();
+        assertEquals(context.getTableConfigurations().size(), xmlFiles.size());
+
+        assertTrue(generate().isEmpty());
+    }
+
+    @Test
+    public void testChangedTableIsGenerated() throws Exception {
+        generate();
+
+        // any change to the configuration of a table changes its hash
+        getTableConfiguration("PKOnly").addProperty("runtimeTableName", "PKOnly");
+        List<GeneratedXmlFile> xmlFiles = generate();
+        assertEquals(1, xmlFiles.size());
+        assertTrue(xmlFiles.get(0).getFileName().startsWith("PkonlyMapper"));
+    }
+
+    @Test
+    public void testDeletedFileIsGenerated() throws Exception {
+        generate();
+        assertTrue(writtenFiles.get(0).delete());
+
+        assertEquals(1, generate().size());
+    }
+
+    @Test
+    public void testManifestOfOtherVersionIsIgnored() throws Exception {
+        generate();
+
+        GenerationManifest manifest = new GenerationManifest(manifestFile);
+        manifest.load();
+        String key = GenerationManifest.getContextKey(context);
+        String hash = manifest.getContextHash(context);
+        assertTrue(manifest.isUnchanged(key, hash));
+
+        // an older manifest is discarded when it is loaded
+        Properties properties = new Properties();
+        InputStream is = new FileInputStream(manifestFile);
+        try {
+            properties.load(is);
+        } finally {
+            is.close();
+        }
+        properties.setProperty("version", "0");
+        OutputStream os = new FileOutputStream(manifestFile);
+        try {
+            properties.store(os, null);
+        } finally {
+            os.close();
+        }
+
+        manifest = new GenerationManifest(manifestFile);
+        manifest.load();
+        assertFalse(manifest.isUnchanged(key, hash));
+        assertEquals(context.getTableConfigurations().size(), generate().size());
+    }
+
+    @Test
+    public void testTruncatedManifestIsIgnored() throws Exception {
+        generate();
+
+        // as if the previous run was interrupted while writing the manifest
+        byte[] content = read(manifestFile);
+        OutputStream os = new FileOutputStream(manifestFile);
+        try {
+            os.write(content, 0, content.length - 20);
+        } finally {
+            os.close();
+        }
+
+        GenerationManifest manifest = new GenerationManifest(manifestFile);
+        manifest.load();
+        assertFalse(manifest.isUnchanged(GenerationManifest.getContextKey(context),
+                manifest.getContextHash(context)));
+        assertEquals(context.getTableConfigurations().size(), generate().size());
+    }
+
+    @Test
+    public void testUnparseableManifestIsIgnored() throws Exception {
+        generate();
+
+        OutputStream os = new FileOutputStream(manifestFile);
+        try {
+            os.write("version=1\nbroken=\\uZZZZ\n".getBytes("ISO-8859-1"));
+        } finally {
+            os.close();
+        }
+
+        assertEquals(context.getTableConfigurations().size(), generate().size());
+        assertTrue(generate().isEmpty());
+    }
+
+    @Test
+    public void testSaveLeavesNoTemporaryFile() throws Exception {
+        generate();
+        generate();
+
+        for (String fileName : temporaryFolder.getRoot().list()) {
+            assertFalse(fileName, fileName.endsWith(".tmp"));
+        }
+    }
+
+    @Test
+    public void testHashCoversIntrospectedMetadata() throws Exception {
+        GenerationManifest manifest = new GenerationManifest(manifestFile);
+        String hash = manifest.calculateHash(introspectPkOnly());
+        assertEquals(hash, manifest.calculateHash(introspectPkOnly()));
+
+        IntrospectedTable introspectedTable = introspectPkOnly();
+        introspectedTable.getAllColumns().get(0).setRemarks("changed");
+        assertNotEquals(hash, manifest.calculateHash(introspectedTable));
+    }
+
+    @Test
+    public void testHashCoversRelatedTableMetadata() throws Exception {
+        GenerationManifest manifest = new GenerationManifest(manifestFile);
+        IntrospectedTable introspectedTable = introspectPkOnly();
+        IntrospectedTable referencedTable = introspect("PKFields");
+        IntrospectedForeignKey foreignKey = new IntrospectedForeignKey("FK_PKONLY", null, null,
+                "PKFIELDS");
+        foreignKey.addColumn(introspectedTable.getColumn("ID"), "ID1");
+        assertTrue(foreignKey.resolve(referencedTable));
+        introspectedTable.addImportedKey(foreignKey);
+        String hash = manifest.calculateHash(introspectedTable);
+
+        referencedTable.getColumn("FIRSTNAME").setJavaProperty("givenName");
+        assertNotEquals(hash, manifest.calculateHash(introspectedTable));
+    }
+
+    private static byte[] read(File file) throws Exception {
+        InputStream is = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[(int) file.length()];
+            int length = 0;
+            while (length < buffer.length) {
+                length += is.read(buffer, length, buffer.length - length);
+            }
+            return buffer;
+        } finally {
+            is.close();
+        }
+    }
+
+    private IntrospectedTable introspectPkOnly() throws Exception {
+        return introspect("PKOnly");
+    }
+
+    private IntrospectedTable introspect(String tableName) throws Exception {
+        List<String> warnings = new ArrayList<String>();
+        Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:aname", "sa", "");
+        try {
+            DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
+                    context, connection.getMetaData(),
+                    ObjectFactory.createJavaTypeResolver(context, warnings), warnings);
+            return databaseIntrospector.introspectTables(getTableConfiguration(tableName)).get(0);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private TableConfiguration getTableConfiguration(String tableName) {
+        for (TableConfiguration tc : context.getTableConfigurations()) {
+            if (tableName.equals(tc.getTableName())) {
+                return tc;
+            }
+        }
+        throw new IllegalArgumentException(tableName);
+    }
+
+    /**
+     * Introspects and generates the context with the manifest, as if the files were
+     * written to disk.
+     *
+     * @return the XML files that were generated - one for each generated table
+     */
+    private List<GeneratedXmlFile> generate() throws Exception {
+        List<String> warnings = new ArrayList<String>();
+        context.introspectTables(new NullProgressCallback(), warnings, null);
+
+        GenerationManifest manifest = new GenerationManifest(manifestFile);
+        manifest.load();
+
+        List<GeneratedJavaFile> javaFiles = new ArrayList<GeneratedJavaFile>();
+        List<GeneratedXmlFile> xmlFiles = new ArrayList<GeneratedXmlFile>();
+        context.generateFiles(new NullProgressCallback(), javaFiles, xmlFiles, warnings,
+                manifest);
+
+        List<GeneratedFile> generatedFiles = new ArrayList<GeneratedFile>();
+        generatedFiles.addAll(javaFiles);
+        generatedFiles.addAll(xmlFiles);
+        for (GeneratedFile generatedFile : generatedFiles) {
+            File file = new File(temporaryFolder.getRoot(),
+                    generatedFile.getTargetPackage() + '.' + generatedFile.getFileName());
+            if (!file.exists()) {
+                assertTrue(file.createNewFile());
+                writtenFiles.add(file);
+            }
+            manifest.fileWritten(generatedFile, file);
+        }
+
+        manifest.save();
+        return xmlFiles;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mybatis.generator.SqlScriptRunner;
+import org.mybatis.generator.api.GeneratedFile;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.config.CommentGeneratorConfiguration;
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.config.xml.ConfigurationParser;
+
+public class ParallelTableGeneratorTest {
+
+    private Configuration config;
+
+    @Before
+    public void setUp() throws Exception {
+        SqlScriptRunner scriptRunner = new SqlScriptRunner(
+                ParallelTableGeneratorTest.class.getResourceAsStream("/scripts/CreateDB.sql"),
+                "org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:aname", "sa", "");
+        scriptRunner.executeScript();
+
+        List<String> warnings = new ArrayList<String>();
+        ConfigurationParser cp = new ConfigurationParser(warnings);
+        config = cp.parseConfiguration(
+                ParallelTableGeneratorTest.class.getResourceAsStream("/scripts/generatorConfig.xml"));
+    }
+
+    @Test
+    public void testFlatSameOutputAsSequentialGeneration() throws Exception {
+        verifySameOutput("FlatJava5");
+    }
+
+    @Test
+    public void testHierarchicalSameOutputAsSequentialGeneration() throws Exception {
+        verifySameOutput("HierarchicalJava5");
+    }
+
+    @Test
+    public void testConditionalSameOutputAsSequentialGeneration() throws Exception {
+        verifySameOutput("ConditionalJava5");
+    }
+
+    private void verifySameOutput(String contextId) throws Exception {
+        Context context = config.getContext(contextId);
+        if (context.getCommentGeneratorConfiguration() == null) {
+            context.setCommentGeneratorConfiguration(new CommentGeneratorConfiguration());
+        }
+        // the generated comments must not differ by the time of generation
+        context.getCommentGeneratorConfiguration().addProperty(
+                PropertyRegistry.COMMENT_GENERATOR_SUPPRESS_DATE, "true");
+
+        List<String> sequentialWarnings = new ArrayList<String>();
+        List<GeneratedFile> sequentialFiles = generate(context, sequentialWarnings);
+
+        context.addProperty(PropertyRegistry.CONTEXT_INTROSPECTION_THREADS, "3");
+        context.addProperty(PropertyRegistry.CONTEXT_GENERATION_THREADS, "4");
+        List<String> parallelWarnings = new ArrayList<String>();
+        List<GeneratedFile> parallelFiles = generate(context, parallelWarnings);
+
+        assertEquals(sequentialWarnings, parallelWarnings);
+        assertEquals(sequentialFiles.size(), parallelFiles.size());
+        for (int i = 0; i < sequentialFiles.size(); i++) {
+            GeneratedFile expected = sequentialFiles.get(i);
+            GeneratedFile actual = parallelFiles.get(i);
+            assertEquals(expected.getTargetPackage() + '.' + expected.getFileName(),
+                    actual.getTargetPackage() + '.' + actual.getFileName());
+            assertEquals(expected.getFormattedContent(), actual.getFormattedContent());
+        }
+    }
+
+    private List<GeneratedFile> generate(Context context, List<String> warnings)
+            throws Exception {
+        context.introspectTables(new NullProgressCallback(), warnings, null);
+
+        List<GeneratedJavaFile> javaFiles = new ArrayList<GeneratedJavaFile>();
+        List<GeneratedXmlFile> xmlFiles = new ArrayList<GeneratedXmlFile>();
+        context.generateFiles(new NullProgressCallback(), javaFiles, xmlFiles, warnings);
+
+        List<GeneratedFile> generatedFiles = new ArrayList<GeneratedFile>();
+        generatedFiles.addAll(javaFiles);
+        generatedFiles.addAll(xmlFiles);
+        return generatedFiles;
+    }
+}
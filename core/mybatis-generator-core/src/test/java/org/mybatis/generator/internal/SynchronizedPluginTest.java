@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.Plugin;
+import org.mybatis.generator.api.PluginAdapter;
+
+public class SynchronizedPluginTest {
+
+    @Test
+    public void testCallsAreSerialized() throws Exception {
+        final ConcurrencyPlugin concurrencyPlugin = new ConcurrencyPlugin();
+        final Plugin plugin = SynchronizedPlugin.synchronizedPlugin(concurrencyPlugin);
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 5; j++) {
+                        plugin.contextGenerateAdditionalJavaFiles();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(20, concurrencyPlugin.calls.get());
+        assertEquals(1, concurrencyPlugin.maxConcurrentCalls.get());
+    }
+
+    @Test
+    public void testResultIsReturned() {
+        ConcurrencyPlugin concurrencyPlugin = new ConcurrencyPlugin();
+        Plugin plugin = SynchronizedPlugin.synchronizedPlugin(concurrencyPlugin);
+
+        List<GeneratedJavaFile> answer = plugin.contextGenerateAdditionalJavaFiles();
+        assertSame(concurrencyPlugin.answer, answer);
+    }
+
+    @Test
+    public void testExceptionIsNotWrapped() {
+        Plugin plugin = SynchronizedPlugin.synchronizedPlugin(new FailingPlugin());
+
+        try {
+            plugin.validate(new ArrayList<String>());
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            assertEquals("validate", e.getMessage());
+        }
+    }
+
+    /**
+     * Records how many threads are in the plugin at the same time.
+     */
+    public static class ConcurrencyPlugin extends PluginAdapter {
+
+        private AtomicInteger calls = new AtomicInteger();
+
+        private AtomicInteger concurrentCalls = new AtomicInteger();
+
+        private AtomicInteger maxConcurrentCalls = new AtomicInteger();
+
+        private List<GeneratedJavaFile> answer = new ArrayList<GeneratedJavaFile>();
+
+        public boolean validate(List<String> warnings) {
+            return true;
+        }
+
+        @Override
+        public List<GeneratedJavaFile> contextGenerateAdditionalJavaFiles() {
+            calls.incrementAndGet();
+            int current = concurrentCalls.incrementAndGet();
+            try {
+                if (current > maxConcurrentCalls.get()) {
+                    maxConcurrentCalls.set(current);
+                }
+                Thread.sleep(5L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrentCalls.decrementAndGet();
+            }
+            return answer;
+        }
+    }
+
+    public static class FailingPlugin extends PluginAdapter {
+
+        public boolean validate(List<String> warnings) {
+            throw new IllegalStateException("validate");
+        }
+    }
+}
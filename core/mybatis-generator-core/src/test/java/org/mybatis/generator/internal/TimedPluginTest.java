@@ -0,0 +1,156 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mybatis.generator.api.GeneratedJavaFile;
+import org.mybatis.generator.api.GeneratedXmlFile;
+import org.mybatis.generator.api.MetricsListener;
+import org.mybatis.generator.api.MetricsPhase;
+import org.mybatis.generator.api.Plugin;
+import org.mybatis.generator.api.PluginAdapter;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.ModelType;
+import org.mybatis.generator.config.PluginConfiguration;
+import org.mybatis.generator.config.PropertyRegistry;
+
+public class TimedPluginTest {
+
+    /** The time each call of SlowPlugin takes. */
+    private static final long SLEEP_MILLIS = 200L;
+
+    @Test
+    public void testCallIsReported() {
+        RecordingListener listener = new RecordingListener();
+        Plugin plugin = TimedPlugin.timedPlugin(new SlowPlugin(), "Slow", listener);
+
+        assertTrue(plugin.validate(new ArrayList<String>()));
+
+        assertEquals(1, listener.steps.size());
+        assertEquals("PLUGIN Slow.validate", listener.steps.get(0));
+    }
+
+    @Test
+    public void testFailedCallIsReported() {
+        RecordingListener listener = new RecordingListener();
+        Plugin plugin = TimedPlugin.timedPlugin(
+                new SynchronizedPluginTest.FailingPlugin(), "Failing", listener);
+
+        try {
+            plugin.validate(new ArrayList<String>());
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            assertEquals("validate", e.getMessage());
+        }
+
+        assertEquals(1, listener.steps.size());
+        assertEquals("PLUGIN Failing.validate", listener.steps.get(0));
+    }
+
+    @Test
+    public void testMetricsCollectorAddsUpCalls() throws Exception {
+        MetricsCollector collector = new MetricsCollector();
+        Plugin plugin = TimedPlugin.timedPlugin(new SlowPlugin(), "Slow", collector);
+        plugin.validate(new ArrayList<String>());
+        plugin.validate(new ArrayList<String>());
+
+        StringWriter writer = new StringWriter();
+        collector.writeJson(writer);
+        assertTrue(writer.toString(),
+                writer.toString().contains("{\"name\": \"Slow.validate\", \"count\": 2,"));
+    }
+
+    @Test
+    public void testLockWaitIsNotReported() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        Context context = new Context(ModelType.FLAT);
+        context.setId("timed");
+        context.addProperty(PropertyRegistry.CONTEXT_GENERATION_THREADS, "2");
+        PluginConfiguration pluginConfiguration = new PluginConfiguration();
+        pluginConfiguration.setConfigurationType(SlowPlugin.class.getName());
+        context.addPluginConfiguration(pluginConfiguration);
+        context.setMetricsListener(listener);
+
+        // creates the plugins - there are no tables
+        context.generateFiles(new NullProgressCallback(), new ArrayList<GeneratedJavaFile>(),
+                new ArrayList<GeneratedXmlFile>(), new ArrayList<String>());
+        listener.elapsedNanos.clear();
+
+        final Plugin plugin = context.getPlugins();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 2; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    plugin.contextGenerateAdditionalXmlFiles();
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // the second call waits for the first one, but only its own call is timed
+        assertEquals(2, listener.elapsedNanos.size());
+        for (Long elapsedNanos : listener.elapsedNanos) {
+            assertTrue(elapsedNanos.toString(),
+                    elapsedNanos.longValue() < SLEEP_MILLIS * 3L / 2L * 1000000L);
+        }
+    }
+
+    public static class SlowPlugin extends PluginAdapter {
+
+        public boolean validate(List<String> warnings) {
+            return true;
+        }
+
+        @Override
+        public List<GeneratedXmlFile> contextGenerateAdditionalXmlFiles() {
+            try {
+                Thread.sleep(SLEEP_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ArrayList<GeneratedXmlFile>();
+        }
+    }
+
+    private static class RecordingListener implements MetricsListener {
+
+        private List<String> steps = new ArrayList<String>();
+
+        private List<Long> elapsedNanos = new ArrayList<Long>();
+
+        public synchronized void stepCompleted(MetricsPhase phase, String name,
+                long elapsedNanos, long allocatedBytes) {
+            steps.add(phase.name() + ' ' + name);
+            if (name.endsWith(".contextGenerateAdditionalXmlFiles")) {
+                this.elapsedNanos.add(Long.valueOf(elapsedNanos));
+            }
+        }
+    }
+}
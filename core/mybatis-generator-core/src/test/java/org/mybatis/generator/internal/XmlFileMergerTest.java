@@ -67,6 +67,37 @@ public class XmlFileMergerTest {
         assertEquals(generatedFile1.getFormattedContent(), mergedSource);
     }
 
+    @Test
+    public void testThatStreamingMergeMatchesDomMerge() throws Exception {
+        DefaultXmlFormatter xmlFormatter = new DefaultXmlFormatter();
+        Properties p = new Properties();
+        p.setProperty(PropertyRegistry.COMMENT_GENERATOR_SUPPRESS_DATE, "true");
+        CommentGenerator commentGenerator = new DefaultCommentGenerator();
+        commentGenerator.addConfigurationProperties(p);
+
+        Document document = new Document(XmlConstants.MYBATIS3_MAPPER_PUBLIC_ID,
+                XmlConstants.MYBATIS3_MAPPER_SYSTEM_ID);
+        document.setRootElement(getSqlMapElement(commentGenerator));
+
+        GeneratedXmlFile generatedFile = new GeneratedXmlFile(document, "TestMapper.xml", "org.mybatis.test", "src",
+                true, xmlFormatter);
+        String newSource = generatedFile.getFormattedContent();
+        String existingSource = newSource.replace("</mapper>",
+                "  <!-- custom -->\n"
+                + "  <select id=\"customQuery\" resultType=\"int\">\n"
+                + "    select count(*) from bar where foo &lt; 22<if test=\"foo != null\"/>\n"
+                + "  </select>\n"
+                + "  <sql id=\"ibatorgenerated_columns\">foo</sql>\n"
+                + "</mapper>");
+
+        String domSource = XmlFileMergerJaxp.getMergedSource(new InputSource(new StringReader(newSource)),
+                new InputSource(new StringReader(existingSource)), "TestMapper.xml");
+        String streamingSource = new StreamingXmlMerger().merge(new StringReader(newSource),
+                new StringReader(existingSource), "TestMapper.xml");
+
+        assertEquals(domSource, streamingSource);
+    }
+
     private XmlElement getSqlMapElement(CommentGenerator commentGenerator) {
 
         XmlElement answer = new XmlElement("mapper");
@@ -0,0 +1,191 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedIndex;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.ModelType;
+import org.mybatis.generator.config.PluginConfiguration;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.internal.ObjectFactory;
+
+/**
+ * Tests reading the indexes of a table. The metadata comes from a stub, so the
+ * tests control the order and content of the getIndexInfo rows.
+ */
+public class DatabaseIntrospectorIndexTest {
+
+    private Context context;
+
+    private TableConfiguration tableConfiguration;
+
+    private StubDatabaseMetaData stub;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new Context(ModelType.FLAT);
+        context.setId("indexes");
+        context.setTargetRuntime("MyBatis3");
+        tableConfiguration = new TableConfiguration(context);
+        tableConfiguration.setTableName("IndexTest");
+        context.addTableConfiguration(tableConfiguration);
+
+        stub = new StubDatabaseMetaData()
+                .addTable(null, null, "IndexTest", null)
+                .addColumn(null, null, "IndexTest", "ID", Types.INTEGER)
+                .addColumn(null, null, "IndexTest", "LAST_NAME", Types.VARCHAR)
+                .addColumn(null, null, "IndexTest", "FIRST_NAME", Types.VARCHAR)
+                .addColumn(null, null, "IndexTest", "EMAIL", Types.VARCHAR)
+                .addPrimaryKey(null, null, "IndexTest", "ID", 1);
+    }
+
+    @Test
+    public void testIndexColumnsAreOrderedByPosition() throws Exception {
+        // the rows of an index are not required to be in column order
+        addIndexRow("IX_NAME", false, "FIRST_NAME", 2);
+        addIndexRow("UX_EMAIL", true, "EMAIL", 1);
+        addIndexRow("IX_NAME", false, "LAST_NAME", 1);
+
+        List<IntrospectedIndex> indexes = introspect().getIndexes();
+        assertEquals(2, indexes.size());
+
+        IntrospectedIndex index = indexes.get(0);
+        assertEquals("IX_NAME", index.getIndexName());
+        assertFalse(index.isUnique());
+        assertEquals("[LAST_NAME, FIRST_NAME]", getColumnNames(index).toString());
+
+        index = indexes.get(1);
+        assertEquals("UX_EMAIL", index.getIndexName());
+        assertTrue(index.isUnique());
+        assertEquals("[EMAIL]", getColumnNames(index).toString());
+    }
+
+    @Test
+    public void testPrimaryKeyAndDuplicateIndexesAreSkipped() throws Exception {
+        addIndexRow("SYS_PK", true, "ID", 1);
+        addIndexRow("IX_EMAIL", false, "EMAIL", 1);
+        addIndexRow("IX_EMAIL_AGAIN", false, "EMAIL", 1);
+
+        List<IntrospectedIndex> indexes = introspect().getIndexes();
+        assertEquals(1, indexes.size());
+        assertEquals("IX_EMAIL", indexes.get(0).getIndexName());
+    }
+
+    @Test
+    public void testIndexOnUnknownColumnIsSkipped() throws Exception {
+        // an expression index, or an index on an ignored column
+        addIndexRow("IX_UPPER_NAME", false, "UPPER(LAST_NAME)", 1);
+        addIndexRow("IX_FIRST_NAME", false, "FIRST_NAME", 1);
+
+        List<IntrospectedIndex> indexes = introspect().getIndexes();
+        assertEquals(1, indexes.size());
+        assertEquals("IX_FIRST_NAME", indexes.get(0).getIndexName());
+    }
+
+    @Test
+    public void testIndexedColumns() throws Exception {
+        addIndexRow("IX_NAME", false, "LAST_NAME", 1);
+        addIndexRow("IX_NAME", false, "FIRST_NAME", 2);
+
+        IntrospectedTable introspectedTable = introspect();
+        assertTrue(introspectedTable.isIndexedColumn(introspectedTable.getColumn("ID")));
+        assertTrue(introspectedTable.isIndexedColumn(introspectedTable.getColumn("LAST_NAME")));
+        // only the leading column of an index can be searched with the index
+        assertFalse(introspectedTable.isIndexedColumn(introspectedTable.getColumn("FIRST_NAME")));
+        assertFalse(introspectedTable.isIndexedColumn(introspectedTable.getColumn("EMAIL")));
+    }
+
+    @Test
+    public void testStatisticsRowSetsEstimatedRowCount() throws Exception {
+        stub.addRow("getIndexInfo", "TABLE_NAME", "IndexTest", "INDEX_NAME", null,
+                "TYPE", DatabaseMetaData.tableIndexStatistic, "CARDINALITY", 250000L);
+        addIndexRow("IX_EMAIL", false, "EMAIL", 1);
+
+        IntrospectedTable introspectedTable = introspect();
+        assertEquals(250000L, introspectedTable.getEstimatedRowCount());
+        assertEquals(1, introspectedTable.getIndexes().size());
+    }
+
+    @Test
+    public void testIndexesAreReadByDefault() throws Exception {
+        addIndexRow("IX_EMAIL", false, "EMAIL", 1);
+
+        assertTrue(context.isIndexIntrospectionRequired());
+        assertEquals(1, introspect().getIndexes().size());
+        assertTrue(stub.getQueries().contains("getIndexInfo(null,null,IndexTest)"));
+    }
+
+    @Test
+    public void testIndexesAreNotReadIfUnused() throws Exception {
+        context.addProperty(PropertyRegistry.CONTEXT_UNINDEXED_CRITERIA_WARNING_ROWS, "0");
+        addIndexRow("IX_EMAIL", false, "EMAIL", 1);
+
+        assertFalse(context.isIndexIntrospectionRequired());
+        assertTrue(introspect().getIndexes().isEmpty());
+        assertFalse(stub.getQueries().contains("getIndexInfo(null,null,IndexTest)"));
+    }
+
+    @Test
+    public void testIndexesAreReadForIndexAwarePlugin() throws Exception {
+        context.addProperty(PropertyRegistry.CONTEXT_UNINDEXED_CRITERIA_WARNING_ROWS, "0");
+        PluginConfiguration pluginConfiguration = new PluginConfiguration();
+        pluginConfiguration.setConfigurationType("org.mybatis.generator.plugins.IndexLookupPlugin");
+        context.addPluginConfiguration(pluginConfiguration);
+        addIndexRow("IX_EMAIL", false, "EMAIL", 1);
+
+        assertTrue(context.isIndexIntrospectionRequired());
+        assertEquals(1, introspect().getIndexes().size());
+    }
+
+    private void addIndexRow(String indexName, boolean unique, String columnName,
+            int ordinalPosition) {
+        stub.addRow("getIndexInfo", "TABLE_NAME", "IndexTest", "INDEX_NAME", indexName,
+                "NON_UNIQUE", !unique, "TYPE", DatabaseMetaData.tableIndexOther,
+                "ORDINAL_POSITION", (short) ordinalPosition, "COLUMN_NAME", columnName);
+    }
+
+    private IntrospectedTable introspect() throws Exception {
+        List<String> warnings = new ArrayList<String>();
+        DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
+                context, stub.getDatabaseMetaData(),
+                ObjectFactory.createJavaTypeResolver(context, warnings), warnings);
+        List<IntrospectedTable> tables = databaseIntrospector.introspectTables(tableConfiguration);
+        assertEquals(1, tables.size());
+        return tables.get(0);
+    }
+
+    private static List<String> getColumnNames(IntrospectedIndex index) {
+        List<String> answer = new ArrayList<String>();
+        for (IntrospectedColumn introspectedColumn : index.getColumns()) {
+            answer.add(introspectedColumn.getActualColumnName());
+        }
+        return answer;
+    }
+}
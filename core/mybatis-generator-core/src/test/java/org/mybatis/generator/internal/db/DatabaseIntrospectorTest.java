@@ -0,0 +1,130 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedForeignKey;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.ModelType;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.internal.ObjectFactory;
+
+public class DatabaseIntrospectorTest {
+
+    private Connection connection;
+
+    private Context context;
+
+    private TableConfiguration childConfiguration;
+
+    @Before
+    public void setUp() throws Exception {
+        Class.forName("org.hsqldb.jdbcDriver");
+        connection = DriverManager.getConnection("jdbc:hsqldb:mem:foreignkeytest", "sa", "");
+        execute("drop table FkChild if exists");
+        execute("drop table FkParent if exists");
+        execute("create table FkParent (a int not null, b int not null, primary key (a, b))");
+        // two keys to the same table, so the rows of getImportedKeys are interleaved
+        execute("create table FkChild (id int not null, p1a int, p1b int, p2a int, p2b int,"
+                + " primary key (id),"
+                + " constraint FK_FIRST foreign key (p1a, p1b) references FkParent (a, b),"
+                + " constraint FK_SECOND foreign key (p2a, p2b) references FkParent (a, b))");
+
+        context = new Context(ModelType.FLAT);
+        context.setId("foreignKeys");
+        context.setTargetRuntime("MyBatis3");
+        childConfiguration = new TableConfiguration(context);
+        childConfiguration.setTableName("FkChild");
+        context.addTableConfiguration(childConfiguration);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void testCompositeForeignKeysAreGroupedByName() throws Exception {
+        childConfiguration.addProperty(PropertyRegistry.TABLE_JOIN_FETCH_PARENTS, "true");
+
+        List<IntrospectedForeignKey> foreignKeys = introspectChild().getImportedKeys();
+        assertEquals(2, foreignKeys.size());
+        verifyForeignKey(getForeignKey(foreignKeys, "FK_FIRST"), "P1A", "P1B");
+        verifyForeignKey(getForeignKey(foreignKeys, "FK_SECOND"), "P2A", "P2B");
+    }
+
+    @Test
+    public void testForeignKeysAreOnlyReadForJoinFetch() throws Exception {
+        assertTrue(introspectChild().getImportedKeys().isEmpty());
+    }
+
+    private IntrospectedTable introspectChild() throws Exception {
+        List<String> warnings = new ArrayList<String>();
+        DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
+                context, connection.getMetaData(),
+                ObjectFactory.createJavaTypeResolver(context, warnings), warnings);
+        List<IntrospectedTable> tables = databaseIntrospector.introspectTables(childConfiguration);
+        assertEquals(1, tables.size());
+        return tables.get(0);
+    }
+
+    private IntrospectedForeignKey getForeignKey(List<IntrospectedForeignKey> foreignKeys,
+            String name) {
+        for (IntrospectedForeignKey foreignKey : foreignKeys) {
+            if (name.equals(foreignKey.getName())) {
+                return foreignKey;
+            }
+        }
+        return null;
+    }
+
+    private void verifyForeignKey(IntrospectedForeignKey foreignKey, String... columnNames) {
+        assertNotNull(foreignKey);
+        List<String> actualColumnNames = new ArrayList<String>();
+        for (IntrospectedColumn introspectedColumn : foreignKey.getColumns()) {
+            actualColumnNames.add(introspectedColumn.getActualColumnName());
+        }
+        List<String> expectedColumnNames = new ArrayList<String>();
+        for (String columnName : columnNames) {
+            expectedColumnNames.add(columnName);
+        }
+        assertEquals(expectedColumnNames, actualColumnNames);
+    }
+
+    private void execute(String sql) throws Exception {
+        Statement statement = connection.createStatement();
+        try {
+            statement.execute(sql);
+        } finally {
+            statement.close();
+        }
+    }
+}
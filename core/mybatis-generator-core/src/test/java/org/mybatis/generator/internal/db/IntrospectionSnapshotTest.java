@@ -0,0 +1,193 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.ModelType;
+import org.mybatis.generator.config.TableConfiguration;
+
+public class IntrospectionSnapshotTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Connection connection;
+
+    private Context context;
+
+    @Before
+    public void setUp() throws Exception {
+        Class.forName("org.hsqldb.jdbcDriver");
+        connection = DriverManager.getConnection("jdbc:hsqldb:mem:snapshottest", "sa", "");
+        execute("drop table SnapshotTest if exists");
+        execute("create table SnapshotTest (id int not null, name varchar(20), primary key(id))");
+
+        context = new Context(ModelType.FLAT);
+        context.setId("snapshot");
+        TableConfiguration tc = new TableConfiguration(context);
+        tc.setTableName("SnapshotTest");
+        context.addTableConfiguration(tc);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void testWriteReplacesExistingSnapshot() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "snapshot.ser");
+        ActualTableName actualTableName = new ActualTableName(null, null, "SNAPSHOTTEST");
+
+        IntrospectionSnapshot snapshot = new IntrospectionSnapshot("first");
+        snapshot.setPrimaryKeyColumns(actualTableName, Arrays.asList("ID"));
+        snapshot.write(file);
+
+        snapshot = new IntrospectionSnapshot("second");
+        snapshot.setTableInformation(actualTableName, "remarks", "TABLE");
+        snapshot.write(file);
+
+        IntrospectionSnapshot read = IntrospectionSnapshot.read(file);
+        assertEquals("second", read.getFingerprint());
+        assertEquals("TABLE", read.getTableInformation(actualTableName)[1]);
+        assertTrue(read.getPrimaryKeyColumns(actualTableName).isEmpty());
+        assertFalse(new File(temporaryFolder.getRoot(), "snapshot.ser.tmp").exists());
+    }
+
+    @Test
+    public void testReadMissingSnapshot() throws Exception {
+        assertNull(IntrospectionSnapshot.read(new File(temporaryFolder.getRoot(), "missing.ser")));
+    }
+
+    @Test
+    public void testDefaultFingerprintIsStable() throws Exception {
+        assertEquals(IntrospectionSnapshot.calculateFingerprint(connection, context),
+                IntrospectionSnapshot.calculateFingerprint(connection, context));
+    }
+
+    @Test
+    public void testDefaultFingerprintDetectsColumnChanges() throws Exception {
+        String fingerprint = IntrospectionSnapshot.calculateFingerprint(connection, context);
+
+        execute("alter table SnapshotTest add column description varchar(50)");
+        String addedColumn = IntrospectionSnapshot.calculateFingerprint(connection, context);
+        assertNotEquals(fingerprint, addedColumn);
+
+        execute("alter table SnapshotTest alter column description varchar(100)");
+        assertNotEquals(addedColumn, IntrospectionSnapshot.calculateFingerprint(connection, context));
+    }
+
+    @Test
+    public void testDefaultFingerprintDetectsKeyChanges() throws Exception {
+        execute("drop table SnapshotParent if exists");
+        execute("create table SnapshotParent (id int not null, primary key(id))");
+        String fingerprint = IntrospectionSnapshot.calculateFingerprint(connection, context);
+
+        execute("alter table SnapshotTest drop primary key");
+        execute("alter table SnapshotTest add primary key (id, name)");
+        String changedPrimaryKey = IntrospectionSnapshot.calculateFingerprint(connection, context);
+        assertNotEquals(fingerprint, changedPrimaryKey);
+
+        execute("alter table SnapshotTest add column parentId int");
+        String addedColumn = IntrospectionSnapshot.calculateFingerprint(connection, context);
+        execute("alter table SnapshotTest add constraint FK_SNAPSHOT"
+                + " foreign key (parentId) references SnapshotParent (id)");
+        assertNotEquals(addedColumn, IntrospectionSnapshot.calculateFingerprint(connection, context));
+    }
+
+    @Test
+    public void testDefaultFingerprintDetectsIndexChangesIfIndexesAreUsed() throws Exception {
+        // the indexes are read by default, so disable the check that uses them
+        context.addProperty("unindexedCriteriaWarningRows", "0");
+        execute("drop index IX_SNAPSHOT_NAME if exists");
+        String fingerprint = IntrospectionSnapshot.calculateFingerprint(connection, context);
+        execute("create index IX_SNAPSHOT_NAME on SnapshotTest (name)");
+        assertEquals(fingerprint, IntrospectionSnapshot.calculateFingerprint(connection, context));
+
+        context.addProperty("unindexedCriteriaWarningRows", "1");
+        fingerprint = IntrospectionSnapshot.calculateFingerprint(connection, context);
+        execute("drop index IX_SNAPSHOT_NAME");
+        assertNotEquals(fingerprint, IntrospectionSnapshot.calculateFingerprint(connection, context));
+    }
+
+    @Test
+    public void testDefaultFingerprintIsScopedToTheTables() throws Exception {
+        StubDatabaseMetaData stub = new StubDatabaseMetaData()
+                .addTable(null, null, "SnapshotTest", null)
+                .addColumn(null, null, "SnapshotTest", "ID", Types.INTEGER)
+                .addColumn(null, null, "OtherTable", "ID", Types.INTEGER);
+        final DatabaseMetaData databaseMetaData = stub.getDatabaseMetaData();
+        Connection stubConnection = (Connection) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("getMetaData".equals(method.getName())) {
+                            return databaseMetaData;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        IntrospectionSnapshot.calculateFingerprint(stubConnection, context);
+
+        assertEquals(Arrays.asList(
+                "getTables(null,null,SnapshotTest)",
+                "getColumns(null,null,SnapshotTest)",
+                "getPrimaryKeys(null,null,SnapshotTest)",
+                "getImportedKeys(null,null,SnapshotTest)"), stub.getQueries());
+    }
+
+    @Test
+    public void testFingerprintQuery() throws Exception {
+        context.addProperty("snapshotFingerprintQuery", "select count(*) from SnapshotTest");
+        String fingerprint = IntrospectionSnapshot.calculateFingerprint(connection, context);
+
+        execute("insert into SnapshotTest (id, name) values (1, 'Fred')");
+        assertNotEquals(fingerprint, IntrospectionSnapshot.calculateFingerprint(connection, context));
+    }
+
+    private void execute(String sql) throws Exception {
+        Statement statement = connection.createStatement();
+        try {
+            statement.execute(sql);
+        } finally {
+            statement.close();
+        }
+    }
+}
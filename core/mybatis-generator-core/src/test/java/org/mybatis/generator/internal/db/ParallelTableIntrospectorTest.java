@@ -0,0 +1,169 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mybatis.generator.SqlScriptRunner;
+import org.mybatis.generator.api.ConnectionFactory;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.config.Configuration;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.config.xml.ConfigurationParser;
+import org.mybatis.generator.internal.NullProgressCallback;
+import org.mybatis.generator.internal.ObjectFactory;
+
+public class ParallelTableIntrospectorTest {
+
+    private static final String URL = "jdbc:hsqldb:mem:aname";
+
+    private Context context;
+
+    @Before
+    public void setUp() throws Exception {
+        SqlScriptRunner scriptRunner = new SqlScriptRunner(
+                ParallelTableIntrospectorTest.class.getResourceAsStream("/scripts/CreateDB.sql"),
+                "org.hsqldb.jdbcDriver", URL, "sa", "");
+        scriptRunner.executeScript();
+
+        List<String> warnings = new ArrayList<String>();
+        ConfigurationParser cp = new ConfigurationParser(warnings);
+        Configuration config = cp.parseConfiguration(
+                ParallelTableIntrospectorTest.class.getResourceAsStream("/scripts/generatorConfig.xml"));
+        context = config.getContext("FlatJava5");
+    }
+
+    @Test
+    public void testSameResultAsSequentialIntrospection() throws Exception {
+        List<TableConfiguration> tableConfigurations = context.getTableConfigurations();
+
+        List<String> sequentialWarnings = new ArrayList<String>();
+        List<IntrospectedTable> sequentialTables = new ArrayList<IntrospectedTable>();
+        Connection connection = DriverManager.getConnection(URL, "sa", "");
+        try {
+            DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(
+                    context, connection.getMetaData(),
+                    ObjectFactory.createJavaTypeResolver(context, sequentialWarnings),
+                    sequentialWarnings);
+            for (TableConfiguration tc : tableConfigurations) {
+                sequentialTables.addAll(databaseIntrospector.introspectTables(tc));
+            }
+        } finally {
+            connection.close();
+        }
+
+        CountingConnectionFactory connectionFactory = new CountingConnectionFactory(-1);
+        List<String> parallelWarnings = new ArrayList<String>();
+        List<IntrospectedTable> parallelTables = new ParallelTableIntrospector(
+                context, connectionFactory, 3).introspectTables(tableConfigurations,
+                        new NullProgressCallback(), parallelWarnings);
+
+        assertEquals(sequentialWarnings, parallelWarnings);
+        assertEquals(sequentialTables.size(), parallelTables.size());
+        for (int i = 0; i < sequentialTables.size(); i++) {
+            IntrospectedTable expected = sequentialTables.get(i);
+            IntrospectedTable actual = parallelTables.get(i);
+            assertEquals(expected.getFullyQualifiedTableNameAtRuntime(),
+                    actual.getFullyQualifiedTableNameAtRuntime());
+            assertEquals(expected.getAllColumns().size(), actual.getAllColumns().size());
+        }
+
+        assertTrue(connectionFactory.opened.get() <= 3);
+        assertEquals(connectionFactory.opened.get(), connectionFactory.closed.get());
+    }
+
+    @Test
+    public void testConnectionsClosedAfterFailure() throws Exception {
+        CountingConnectionFactory connectionFactory = new CountingConnectionFactory(2);
+        try {
+            new ParallelTableIntrospector(context, connectionFactory, 3).introspectTables(
+                    context.getTableConfigurations(), new NullProgressCallback(),
+                    new ArrayList<String>());
+            fail("Expected a SQLException");
+        } catch (SQLException e) {
+            // expected
+        }
+
+        // workers that were still running close their own connections
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (connectionFactory.closed.get() < connectionFactory.opened.get()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertEquals(connectionFactory.opened.get(), connectionFactory.closed.get());
+    }
+
+    /**
+     * Opens HSQLDB connections and counts how many are opened and closed. Every
+     * table introspected after the specified number of tables fails.
+     */
+    private static class CountingConnectionFactory implements ConnectionFactory {
+        private final int maxTables;
+        private final AtomicInteger tables = new AtomicInteger();
+        private final AtomicInteger opened = new AtomicInteger();
+        private final AtomicInteger closed = new AtomicInteger();
+
+        CountingConnectionFactory(int maxTables) {
+            this.maxTables = maxTables;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            final Connection connection = DriverManager.getConnection(URL, "sa", "");
+            opened.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { Connection.class }, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args)
+                                throws Throwable {
+                            if ("close".equals(method.getName()) && !connection.isClosed()) {
+                                closed.incrementAndGet();
+                            } else if ("getMetaData".equals(method.getName())
+                                    && maxTables >= 0
+                                    && tables.incrementAndGet() > maxTables) {
+                                throw new SQLException("Too many tables");
+                            }
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        }
+                    });
+        }
+
+        @Override
+        public void addConfigurationProperties(Properties properties) {
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.mybatis.generator.api.IntrospectedColumn;
+import org.mybatis.generator.api.IntrospectedTable;
+import org.mybatis.generator.config.Context;
+import org.mybatis.generator.config.ModelType;
+import org.mybatis.generator.config.PropertyRegistry;
+import org.mybatis.generator.config.TableConfiguration;
+import org.mybatis.generator.internal.ObjectFactory;
+
+public class SchemaMetadataCacheTest {
+
+    @Test
+    public void testColumnsAreBucketedByTable() throws Exception {
+        StubDatabaseMetaData stub = new StubDatabaseMetaData()
+                .addColumn(null, "S1", "ORDERS", "ID", Types.INTEGER)
+                .addColumn(null, "S1", "CUSTOMER", "ID", Types.INTEGER)
+                .addColumn(null, "S1", "ORDERS", "CUSTOMER_ID", Types.INTEGER)
+                .addColumn(null, "S1", "CUSTOMER", "NAME", Types.VARCHAR);
+
+        SchemaMetadataCache.SchemaMetadata schemaMetadata = new SchemaMetadataCache()
+                .getSchemaMetadata(stub.getDatabaseMetaData(), null, "S1");
+
+        Map<ActualTableName, List<ColumnMetadata>> columns = schemaMetadata.getColumns("ORDERS");
+        assertEquals(1, columns.size());
+        List<ColumnMetadata> orderColumns = columns.get(new ActualTableName(null, "S1", "ORDERS"));
+        assertEquals(Arrays.asList("ID", "CUSTOMER_ID"), getColumnNames(orderColumns));
+
+        columns = schemaMetadata.getColumns("CUSTOMER");
+        List<ColumnMetadata> customerColumns = columns.get(new ActualTableName(null, "S1", "CUSTOMER"));
+        assertEquals(Arrays.asList("ID", "NAME"), getColumnNames(customerColumns));
+        assertEquals(Types.VARCHAR, customerColumns.get(1).getJdbcType());
+
+        assertTrue(schemaMetadata.getColumns("INVOICE").isEmpty());
+    }
+
+    @Test
+    public void testTableNamesAreMatchedWithCase() throws Exception {
+        StubDatabaseMetaData stub = new StubDatabaseMetaData()
+                .addColumn(null, "S1", "Orders", "ID", Types.INTEGER)
+                .addColumn(null, "S1", "ORDERS", "ID", Types.INTEGER)
+                .addColumn(null, "S1", "ORDERS", "TOTAL", Types.DECIMAL);
+
+        SchemaMetadataCache.SchemaMetadata schemaMetadata = new SchemaMetadataCache()
+                .getSchemaMetadata(stub.getDatabaseMetaData(), null, "S1");
+
+        assertEquals(2, schemaMetadata.getColumns("ORDERS")
+                .get(new ActualTableName(null, "S1", "ORDERS")).size());
+        assertEquals(1, schemaMetadata.getColumns("Orders")
+                .get(new ActualTableName(null, "S1", "Orders")).size());
+        assertTrue(schemaMetadata.getColumns("orders").isEmpty());
+    }
+
+    @Test
+    public void testSchemaIsReadOnce() throws Exception {
+        StubDatabaseMetaData stub = new StubDatabaseMetaData()
+                .addColumn(null, "S1", "ORDERS", "ID", Types.INTEGER)
+                .addColumn(null, "S2", "ORDERS", "ID", Types.INTEGER);
+
+        SchemaMetadataCache cache = new SchemaMetadataCache();
+        cache.getSchemaMetadata(stub.getDatabaseMetaData(), null, "S1");
+        cache.getSchemaMetadata(stub.getDatabaseMetaData(), null, "S1");
+        cache.getSchemaMetadata(stub.getDatabaseMetaData(), null, "S2");
+
+        assertEquals(Arrays.asList(
+                "getColumns(null,S1,%)", "getPrimaryKeys(null,S1,null)", "getTables(null,S1,%)",
+                "getColumns(null,S2,%)", "getPrimaryKeys(null,S2,null)", "getTables(null,S2,%)"),
+                stub.getQueries());
+    }
+
+    @Test
+    public void testPrimaryKeysAndTableInformation() throws Exception {
+        StubDatabaseMetaData stub = new StubDatabaseMetaData()
+                .addColumn(null, "S1", "ORDERS", "ID1", Types.INTEGER)
+                .addColumn(null, "S1", "ORDERS", "ID2", Types.INTEGER)
+                .addColumn(null, "S1", "NOKEY", "ID", Types.INTEGER)
+                .addPrimaryKey(null, "S1", "ORDERS", "ID2", 2)
+                .addPrimaryKey(null, "S1", "ORDERS", "ID1", 1)
+                .addTable(null, "S1", "ORDERS", "The orders");
+
+        SchemaMetadataCache.SchemaMetadata schemaMetadata = new SchemaMetadataCache()
+                .getSchemaMetadata(stub.getDatabaseMetaData(), null, "S1");
+
+        ActualTableName orders = new ActualTableName(null, "S1", "ORDERS");
+        assertEquals(Arrays.asList("ID1", "ID2"), schemaMetadata.getPrimaryKeyColumns(orders));
+        assertTrue(schemaMetadata.getPrimaryKeyColumns(
+                new ActualTableName(null, "S1", "NOKEY")).isEmpty());
+        assertArrayEquals(new String[] { "The orders", "TABLE" },
+                schemaMetadata.getTableInformation(orders));
+    }
+
+    @Test
+    public void testPrimaryKeysUnknownIfBulkQueryIsRejected() throws Exception {
+        StubDatabaseMetaData stub = new StubDatabaseMetaData()
+                .addColumn(null, "S1", "ORDERS", "ID", Types.INTEGER)
+                .addPrimaryKey(null, "S1", "ORDERS", "ID", 1)
+                .rejectNullTableName("getPrimaryKeys");
+
+        SchemaMetadataCache.SchemaMetadata schemaMetadata = new SchemaMetadataCache()
+                .getSchemaMetadata(stub.getDatabaseMetaData(), null, "S1");
+
+        assertNull(schemaMetadata.getPrimaryKeyColumns(new ActualTableName(null, "S1", "ORDERS")));
+    }
+
+    @Test
+    public void testPrimaryKeysUnknownIfBulkQueryIsEmpty() throws Exception {
+        StubDatabaseMetaData stub = new StubDatabaseMetaData()
+                .addColumn(null, "S1", "ORDERS", "ID", Types.INTEGER);
+
+        SchemaMetadataCache.SchemaMetadata schemaMetadata = new SchemaMetadataCache()
+                .getSchemaMetadata(stub.getDatabaseMetaData(), null, "S1");
+
+        assertNull(schemaMetadata.getPrimaryKeyColumns(new ActualTableName(null, "S1", "ORDERS")));
+    }
+
+    @Test
+    public void testIntrospectorFallsBackToTablePrimaryKeyQuery() throws Exception {
+        StubDatabaseMetaData stub = new StubDatabaseMetaData()
+                .addColumn(null, "S1", "ORDERS", "ID", Types.INTEGER)
+                .addColumn(null, "S1", "ORDERS", "TOTAL", Types.INTEGER)
+                .addPrimaryKey(null, "S1", "ORDERS", "ID", 1)
+                .rejectNullTableName("getPrimaryKeys");
+
+        Context context = new Context(ModelType.FLAT);
+        context.setId("bulk");
+        context.setTargetRuntime("MyBatis3");
+        context.addProperty(PropertyRegistry.CONTEXT_BULK_INTROSPECTION, "true");
+        TableConfiguration tc = new TableConfiguration(context);
+        tc.setSchema("S1");
+        tc.setTableName("ORDERS");
+        context.addTableConfiguration(tc);
+
+        List<String> warnings = new ArrayList<String>();
+        DatabaseIntrospector databaseIntrospector = new DatabaseIntrospector(context,
+                stub.getDatabaseMetaData(),
+                ObjectFactory.createJavaTypeResolver(context, warnings), warnings);
+        List<IntrospectedTable> tables = databaseIntrospector.introspectTables(tc);
+
+        assertEquals(1, tables.size());
+        List<IntrospectedColumn> keyColumns = tables.get(0).getPrimaryKeyColumns();
+        assertEquals(1, keyColumns.size());
+        assertEquals("ID", keyColumns.get(0).getActualColumnName());
+        assertTrue(stub.getQueries().contains("getColumns(null,S1,%)"));
+        assertTrue(stub.getQueries().contains("getPrimaryKeys(null,S1,ORDERS)"));
+        assertTrue(warnings.isEmpty());
+    }
+
+    private List<String> getColumnNames(List<ColumnMetadata> columns) {
+        List<String> answer = new ArrayList<String>();
+        for (ColumnMetadata columnMetadata : columns) {
+            answer.add(columnMetadata.getColumnName());
+        }
+        return answer;
+    }
+}
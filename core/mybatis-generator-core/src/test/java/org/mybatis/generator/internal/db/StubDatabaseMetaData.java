@@ -0,0 +1,210 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A DatabaseMetaData stub that answers the metadata queries from rows added by the
+ * test. The rows of a query are filtered by the table name argument (the third
+ * argument of every table-scoped query) unless it is null or a pattern. Every query
+ * is recorded, so tests can verify which queries were issued.
+ */
+class StubDatabaseMetaData implements InvocationHandler {
+
+    private final Map<String, List<Map<String, Object>>> rows = new HashMap<String, List<Map<String, Object>>>();
+
+    private final Set<String> rejectedNullTableQueries = new HashSet<String>();
+
+    private final List<String> queries = new ArrayList<String>();
+
+    /**
+     * Adds a row that is returned by the specified metadata query.
+     *
+     * @param methodName
+     *            the DatabaseMetaData method, for example "getColumns"
+     * @param columnsAndValues
+     *            alternating column names and values
+     * @return this stub
+     */
+    StubDatabaseMetaData addRow(String methodName, Object... columnsAndValues) {
+        Map<String, Object> row = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < columnsAndValues.length; i += 2) {
+            row.put((String) columnsAndValues[i], columnsAndValues[i + 1]);
+        }
+
+        List<Map<String, Object>> methodRows = rows.get(methodName);
+        if (methodRows == null) {
+            methodRows = new ArrayList<Map<String, Object>>();
+            rows.put(methodName, methodRows);
+        }
+        methodRows.add(row);
+        return this;
+    }
+
+    /**
+     * Adds a column row for getColumns.
+     */
+    StubDatabaseMetaData addColumn(String catalog, String schema, String tableName,
+            String columnName, int dataType) {
+        return addRow("getColumns", "TABLE_CAT", catalog, "TABLE_SCHEM", schema,
+                "TABLE_NAME", tableName, "COLUMN_NAME", columnName, "DATA_TYPE", dataType,
+                "COLUMN_SIZE", 10, "DECIMAL_DIGITS", 0,
+                "NULLABLE", DatabaseMetaData.columnNullable, "REMARKS", null,
+                "COLUMN_DEF", null, "IS_AUTOINCREMENT", "NO", "IS_GENERATEDCOLUMN", "NO");
+    }
+
+    /**
+     * Adds a primary key row for getPrimaryKeys.
+     */
+    StubDatabaseMetaData addPrimaryKey(String catalog, String schema, String tableName,
+            String columnName, int keySeq) {
+        return addRow("getPrimaryKeys", "TABLE_CAT", catalog, "TABLE_SCHEM", schema,
+                "TABLE_NAME", tableName, "COLUMN_NAME", columnName, "KEY_SEQ", (short) keySeq);
+    }
+
+    /**
+     * Adds a table row for getTables.
+     */
+    StubDatabaseMetaData addTable(String catalog, String schema, String tableName,
+            String remarks) {
+        return addRow("getTables", "TABLE_CAT", catalog, "TABLE_SCHEM", schema,
+                "TABLE_NAME", tableName, "REMARKS", remarks, "TABLE_TYPE", "TABLE");
+    }
+
+    /**
+     * Makes the specified query throw a SQLException when it is called with a null
+     * table name, as drivers that follow the JDBC specification strictly do.
+     */
+    StubDatabaseMetaData rejectNullTableName(String methodName) {
+        rejectedNullTableQueries.add(methodName);
+        return this;
+    }
+
+    /**
+     * Returns the issued queries, in the form "method(catalog,schema,table)".
+     */
+    List<String> getQueries() {
+        return queries;
+    }
+
+    DatabaseMetaData getDatabaseMetaData() {
+        return (DatabaseMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { DatabaseMetaData.class }, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == ResultSet.class) {
+            String tableName = args.length > 2 ? (String) args[2] : null;
+            queries.add(method.getName() + "(" + args[0] + "," + args[1] + "," + tableName + ")");
+            if (tableName == null && rejectedNullTableQueries.contains(method.getName())) {
+                throw new SQLException("Table name may not be null");
+            }
+
+            List<Map<String, Object>> answer = new ArrayList<Map<String, Object>>();
+            List<Map<String, Object>> methodRows = rows.get(method.getName());
+            if (methodRows != null) {
+                for (Map<String, Object> row : methodRows) {
+                    if (tableName == null || tableName.indexOf('%') != -1
+                            || tableName.equals(row.get("TABLE_NAME"))) {
+                        answer.add(row);
+                    }
+                }
+            }
+            return resultSet(answer);
+        } else if (returnType == boolean.class) {
+            return Boolean.FALSE;
+        } else if (returnType == int.class) {
+            return 0;
+        }
+        return null;
+    }
+
+    private static ResultSet resultSet(final List<Map<String, Object>> resultRows) {
+        final Set<String> columnNames = new LinkedHashSet<String>();
+        for (Map<String, Object> row : resultRows) {
+            columnNames.addAll(row.keySet());
+        }
+
+        final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                StubDatabaseMetaData.class.getClassLoader(),
+                new Class<?>[] { ResultSetMetaData.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("getColumnCount".equals(method.getName())) {
+                            return columnNames.size();
+                        } else if ("getColumnName".equals(method.getName())) {
+                            return new ArrayList<String>(columnNames).get((Integer) args[0] - 1);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        return (ResultSet) Proxy.newProxyInstance(StubDatabaseMetaData.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, new InvocationHandler() {
+                    private int index = -1;
+                    private Object lastValue;
+
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        String name = method.getName();
+                        if ("next".equals(name)) {
+                            index++;
+                            return index < resultRows.size();
+                        } else if ("close".equals(name)) {
+                            return null;
+                        } else if ("getMetaData".equals(name)) {
+                            return metaData;
+                        } else if ("wasNull".equals(name)) {
+                            return lastValue == null;
+                        } else if (name.startsWith("get") && args.length == 1
+                                && args[0] instanceof String) {
+                            lastValue = resultRows.get(index).get(args[0]);
+                            Class<?> returnType = method.getReturnType();
+                            if (returnType == String.class) {
+                                return lastValue == null ? null : lastValue.toString();
+                            } else if (returnType == boolean.class) {
+                                return lastValue != null && (Boolean) lastValue;
+                            } else if (returnType == short.class) {
+                                return lastValue == null ? 0 : ((Number) lastValue).shortValue();
+                            } else if (returnType == int.class) {
+                                return lastValue == null ? 0 : ((Number) lastValue).intValue();
+                            } else if (returnType == long.class) {
+                                return lastValue == null ? 0L : ((Number) lastValue).longValue();
+                            }
+                            return lastValue;
+                        }
+                        throw new UnsupportedOperationException(name);
+                    }
+                });
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.generator.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileUtilityTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testReplaceExistingFile() throws Exception {
+        File source = new File(temporaryFolder.getRoot(), "file.txt.tmp");
+        File target = new File(temporaryFolder.getRoot(), "file.txt");
+        write(source, "new");
+        write(target, "old");
+
+        FileUtility.replaceFile(source, target);
+
+        assertEquals("new", read(target));
+        assertFalse(source.exists());
+        assertFalse(new File(temporaryFolder.getRoot(), "file.txt.bak").exists());
+    }
+
+    @Test
+    public void testReplaceMissingFile() throws Exception {
+        File source = new File(temporaryFolder.getRoot(), "file.txt.tmp");
+        File target = new File(temporaryFolder.getRoot(), "file.txt");
+        write(source, "new");
+
+        FileUtility.replaceFile(source, target);
+
+        assertEquals("new", read(target));
+        assertFalse(source.exists());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReplaceWithMissingSource() throws Exception {
+        File target = new File(temporaryFolder.getRoot(), "file.txt");
+        write(target, "old");
+
+        try {
+            FileUtility.replaceFile(new File(temporaryFolder.getRoot(), "missing.tmp"), target);
+        } finally {
+            assertEquals("old", read(target));
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        OutputStream os = new FileOutputStream(file);
+        try {
+            os.write(content.getBytes("UTF-8"));
+        } finally {
+            os.close();
+        }
+    }
+
+    private static String read(File file) throws IOException {
+        InputStream is = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[(int) file.length()];
+            int length = 0;
+            while (length < buffer.length) {
+                length += is.read(buffer, length, buffer.length - length);
+            }
+            return new String(buffer, "UTF-8");
+        } finally {
+            is.close();
+        }
+    }
+}
@@ -31,6 +31,10 @@ drop table EnumTest if exists;
 drop table GeneratedAlwaysTest if exists;
 drop table GeneratedAlwaysTestNoUpdates if exists;
 drop table IgnoreManyColumns if exists;
+drop table JoinOrder if exists;
+drop table JoinCustomer if exists;
+drop table ShardEvent_000 if exists;
+drop table ShardEvent_001 if exists;
 drop sequence TestSequence if exists;
 
 create sequence TestSequence as integer start with 1;
@@ -188,5 +192,32 @@ create table IgnoreManyColumns (
   primary key(col01)
 );
 
+create table JoinCustomer (
+  id int not null,
+  name varchar(30),
+  primary key(id)
+);
+
+create table JoinOrder (
+  id int not null,
+  customer_id int,
+  description varchar(30),
+  primary key(id),
+  constraint FK_ORDER_CUSTOMER foreign key (customer_id) references JoinCustomer (id)
+);
+
+-- two shards of the same table
+create table ShardEvent_000 (
+  id int not null,
+  name varchar(30),
+  primary key(id)
+);
+
+create table ShardEvent_001 (
+  id int not null,
+  name varchar(30),
+  primary key(id)
+);
+
 comment on table EnumTest is 'This is a comment for the EnumTest table';
 comment on column EnumTest.name is 'This is a comment for the EnumTest.name column';
@@ -16,6 +16,7 @@
 package org.mybatis.generator.maven;
 
 import org.apache.maven.plugin.logging.Log;
+import org.mybatis.generator.internal.MetricsCollector;
 import org.mybatis.generator.internal.NullProgressCallback;
 
 /**
@@ -28,6 +29,7 @@ public class MavenProgressCallback extends NullProgressCallback {
 
     private Log log;
     private boolean verbose;
+    private MetricsCollector metrics;
 
     /**
      * 
@@ -44,4 +46,21 @@ public class MavenProgressCallback extends NullProgressCallback {
             log.info(subTaskName);
         }
     }
+
+    /**
+     * Sets the metrics collector. If verbose logging is enabled, the metrics
+     * summary is logged when the generator is done.
+     */
+    public void setMetrics(MetricsCollector metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void done() {
+        if (verbose && metrics != null) {
+            for (String line : metrics.getSummary()) {
+                log.info(line);
+            }
+        }
+    }
 }
@@ -37,6 +37,7 @@ import org.mybatis.generator.config.Configuration;
 import org.mybatis.generator.config.xml.ConfigurationParser;
 import org.mybatis.generator.exception.InvalidConfigurationException;
 import org.mybatis.generator.exception.XMLParserException;
+import org.mybatis.generator.internal.MetricsCollector;
 import org.mybatis.generator.internal.ObjectFactory;
 import org.mybatis.generator.internal.util.ClassloaderUtility;
 import org.mybatis.generator.internal.util.StringUtility;
@@ -130,6 +131,42 @@ public class MyBatisGeneratorMojo extends AbstractMojo {
     @Parameter(property="mybatis.generator.skip", defaultValue="false")
     private boolean skip;
 
+    /**
+     * Directory for introspection snapshots.  If the database has not changed
+     * since the snapshot of a context was taken, the tables are introspected
+     * from the snapshot.
+     */
+    @Parameter(property="mybatis.generator.snapshotDirectory")
+    private File snapshotDirectory;
+
+    /**
+     * Generate code from the introspection snapshots without connecting to
+     * the database.  Requires snapshotDirectory.
+     */
+    @Parameter(property="mybatis.generator.offline", defaultValue="false")
+    private boolean offline;
+
+    /**
+     * Build manifest file for incremental generation.  Tables that have not
+     * changed since the last run are not generated again, and files whose
+     * content has not changed are not rewritten.
+     */
+    @Parameter(property="mybatis.generator.manifestFile")
+    private File manifestFile;
+
+    /**
+     * Number of threads used to write the generated files.
+     */
+    @Parameter(property="mybatis.generator.writeThreads", defaultValue="1")
+    private int writeThreads;
+
+    /**
+     * File the generation metrics (time and allocation per phase) are written
+     * to in JSON format.  The metrics summary is also logged if verbose is true.
+     */
+    @Parameter(property="mybatis.generator.metricsFile")
+    private File metricsFile;
+
     public void execute() throws MojoExecutionException {
         if (skip) {
             getLog().info( "MyBatis generator is skipped." );
@@ -162,7 +199,14 @@ public class MyBatisGeneratorMojo extends AbstractMojo {
                     "RuntimeError.1", configurationFile.toString())); //$NON-NLS-1$
         }
 
-        runScriptIfNecessary();
+        if (offline && snapshotDirectory == null) {
+            throw new MojoExecutionException(
+                    Messages.getString("RuntimeError.24")); //$NON-NLS-1$
+        }
+
+        if (!offline) {
+            runScriptIfNecessary();
+        }
 
         Set<String> fullyqualifiedTables = new HashSet<String>();
         if (StringUtility.stringHasValue(tableNames)) {
@@ -195,9 +239,31 @@ public class MyBatisGeneratorMojo extends AbstractMojo {
 
             MyBatisGenerator myBatisGenerator = new MyBatisGenerator(config,
                     callback, warnings);
+            myBatisGenerator.setSnapshotDirectory(snapshotDirectory);
+            myBatisGenerator.setOffline(offline);
+            myBatisGenerator.setManifestFile(manifestFile);
+            myBatisGenerator.setWriteThreads(writeThreads);
+
+            MavenProgressCallback progressCallback = new MavenProgressCallback(getLog(),
+                    verbose);
+            MetricsCollector metrics = null;
+            if (verbose || metricsFile != null) {
+                metrics = new MetricsCollector();
+                myBatisGenerator.setMetricsListener(metrics);
+                progressCallback.setMetrics(metrics);
+            }
+
+            myBatisGenerator.generate(progressCallback, contextsToRun,
+                    fullyqualifiedTables);
 
-            myBatisGenerator.generate(new MavenProgressCallback(getLog(),
-                    verbose), contextsToRun, fullyqualifiedTables);
+            if (metricsFile != null) {
+                try {
+                    metrics.writeJson(metricsFile);
+                } catch (IOException e) {
+                    warnings.add(Messages.getString("Warning.34", //$NON-NLS-1$
+                            metricsFile.getAbsolutePath(), e.getMessage()));
+                }
+            }
 
         } catch (XMLParserException e) {
             for (String error : e.getErrors()) {
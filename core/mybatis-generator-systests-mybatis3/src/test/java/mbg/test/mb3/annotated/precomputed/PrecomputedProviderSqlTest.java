@@ -0,0 +1,184 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.annotated.precomputed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.annotated.precomputed.mapper.PkblobsMapper;
+import mbg.test.mb3.generated.annotated.precomputed.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.annotated.precomputed.model.Pkblobs;
+import mbg.test.mb3.generated.annotated.precomputed.model.Pkfields;
+import mbg.test.mb3.generated.annotated.precomputed.model.PkfieldsExample;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests the SQL providers that build the selective statements and the where
+ * clauses from precomputed fragments.
+ */
+public class PrecomputedProviderSqlTest extends AbstractTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(PkblobsMapper.class);
+        sqlSessionFactory.getConfiguration().addMapper(PkfieldsMapper.class);
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/annotated/MapperConfig.xml";
+    }
+
+    @Test
+    public void testInsertSelectiveWithDifferentNullColumns() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            Pkfields record = new Pkfields();
+            record.setId1(1);
+            record.setId2(2);
+            record.setFirstname("Fred");
+            mapper.insertSelective(record);
+
+            record = new Pkfields();
+            record.setId1(3);
+            record.setId2(4);
+            record.setLastname("Flintstone");
+            record.setWierdField(11);
+            record.setStringboolean(true);
+            mapper.insertSelective(record);
+
+            // the same combination of columns again
+            record = new Pkfields();
+            record.setId1(5);
+            record.setId2(6);
+            record.setFirstname("Wilma");
+            mapper.insertSelective(record);
+
+            Pkfields returnedRecord = mapper.selectByPrimaryKey(2, 1);
+            assertEquals("Fred", returnedRecord.getFirstname());
+            assertNull(returnedRecord.getLastname());
+            assertNull(returnedRecord.getWierdField());
+
+            returnedRecord = mapper.selectByPrimaryKey(4, 3);
+            assertNull(returnedRecord.getFirstname());
+            assertEquals("Flintstone", returnedRecord.getLastname());
+            assertEquals(11, returnedRecord.getWierdField().intValue());
+            assertEquals(true, returnedRecord.isStringboolean());
+
+            returnedRecord = mapper.selectByPrimaryKey(6, 5);
+            assertEquals("Wilma", returnedRecord.getFirstname());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testUpdateByPrimaryKeySelective() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            Pkfields record = new Pkfields();
+            record.setId1(1);
+            record.setId2(2);
+            record.setFirstname("Fred");
+            record.setLastname("Flintstone");
+            mapper.insert(record);
+
+            record = new Pkfields();
+            record.setId1(1);
+            record.setId2(2);
+            record.setLastname("Rubble");
+            record.setWierdField(5);
+            assertEquals(1, mapper.updateByPrimaryKeySelective(record));
+
+            Pkfields returnedRecord = mapper.selectByPrimaryKey(2, 1);
+            assertEquals("Fred", returnedRecord.getFirstname());
+            assertEquals("Rubble", returnedRecord.getLastname());
+            assertEquals(5, returnedRecord.getWierdField().intValue());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testSelectByExampleWithCriteria() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            String[] names = { "Fred", "Wilma", "Pebbles", "Barney", "Betty" };
+            for (int i = 0; i < names.length; i++) {
+                Pkfields record = new Pkfields();
+                record.setId1(i + 1);
+                record.setId2(1);
+                record.setFirstname(names[i]);
+                mapper.insert(record);
+            }
+
+            PkfieldsExample example = new PkfieldsExample();
+            List<Integer> ids = new ArrayList<Integer>();
+            ids.add(1);
+            ids.add(3);
+            ids.add(4);
+            example.createCriteria().andId1In(ids).andFirstnameLike("%e%");
+            example.or().andId1Between(5, 6);
+            example.setOrderByClause("ID1");
+            List<Pkfields> answer = mapper.selectByExample(example);
+            assertEquals(4, answer.size());
+            assertEquals("Fred", answer.get(0).getFirstname());
+            assertEquals("Pebbles", answer.get(1).getFirstname());
+            assertEquals("Barney", answer.get(2).getFirstname());
+            assertEquals("Betty", answer.get(3).getFirstname());
+
+            example.clear();
+            example.createCriteria().andLastnameIsNull().andId1NotEqualTo(2);
+            assertEquals(4, mapper.countByExample(example));
+            assertEquals(4, mapper.deleteByExample(example));
+            assertEquals(1, mapper.countByExample(new PkfieldsExample()));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testBlobsInsertSelective() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkblobsMapper mapper = sqlSession.getMapper(PkblobsMapper.class);
+            Pkblobs record = new Pkblobs();
+            record.setId(3);
+            record.setBlob2(new byte[] { 1, 2, 3 });
+            mapper.insertSelective(record);
+
+            Pkblobs returnedRecord = mapper.selectByPrimaryKey(3);
+            assertNull(returnedRecord.getBlob1());
+            assertEquals(3, returnedRecord.getBlob2().length);
+        } finally {
+            sqlSession.close();
+        }
+    }
+}
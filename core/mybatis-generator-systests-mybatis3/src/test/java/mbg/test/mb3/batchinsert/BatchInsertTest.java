@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.batchinsert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.batchinsert.mapper.AwfulTableMapper;
+import mbg.test.mb3.generated.batchinsert.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.batchinsert.model.AwfulTable;
+import mbg.test.mb3.generated.batchinsert.model.AwfulTableExample;
+import mbg.test.mb3.generated.batchinsert.model.Pkfields;
+import mbg.test.mb3.generated.batchinsert.model.PkfieldsExample;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests the multi-row inserts. The contexts allow two rows in a statement, so
+ * five records are inserted in three chunks.
+ */
+public class BatchInsertTest extends AbstractTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.batchinsert.mapper.PkfieldsMapper.class);
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/batchinsert/MapperConfig.xml";
+    }
+
+    @Test
+    public void testInsertBatch() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            List<Pkfields> records = new ArrayList<Pkfields>();
+            for (int i = 1; i <= 5; i++) {
+                Pkfields record = new Pkfields();
+                record.setId1(i);
+                record.setId2(i * 10);
+                record.setFirstname("Fred" + i);
+                record.setStringboolean(i % 2 == 0);
+                records.add(record);
+            }
+
+            assertEquals(5, mapper.insertBatch(records));
+
+            PkfieldsExample example = new PkfieldsExample();
+            example.setOrderByClause("ID1");
+            List<Pkfields> answer = mapper.selectByExample(example);
+            assertEquals(5, answer.size());
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i + 1, answer.get(i).getId1().intValue());
+                assertEquals((i + 1) * 10, answer.get(i).getId2().intValue());
+                assertEquals("Fred" + (i + 1), answer.get(i).getFirstname());
+                assertEquals((i + 1) % 2 == 0, answer.get(i).isStringboolean());
+            }
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testInsertBatchWithGeneratedKeys() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            AwfulTableMapper mapper = sqlSession.getMapper(AwfulTableMapper.class);
+            List<AwfulTable> records = new ArrayList<AwfulTable>();
+            for (int i = 1; i <= 3; i++) {
+                AwfulTable record = new AwfulTable();
+                record.setEmailaddress("fred" + i + "@fred.com");
+                record.setFirstFirstName("fred" + i);
+                records.add(record);
+            }
+
+            assertEquals(3, mapper.insertBatch(records));
+
+            for (AwfulTable record : records) {
+                assertNotNull(record.getCustomerId());
+                AwfulTable returnedRecord = mapper.selectByPrimaryKey(record.getCustomerId());
+                assertEquals(record.getFirstFirstName(), returnedRecord.getFirstFirstName());
+            }
+            assertTrue(records.get(0).getCustomerId() < records.get(2).getCustomerId());
+            assertEquals(3, mapper.countByExample(new AwfulTableExample()));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testAnnotatedInsertBatch() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            mbg.test.mb3.generated.annotated.batchinsert.mapper.PkfieldsMapper mapper = sqlSession
+                    .getMapper(mbg.test.mb3.generated.annotated.batchinsert.mapper.PkfieldsMapper.class);
+            List<mbg.test.mb3.generated.annotated.batchinsert.model.Pkfields> records =
+                    new ArrayList<mbg.test.mb3.generated.annotated.batchinsert.model.Pkfields>();
+            for (int i = 1; i <= 5; i++) {
+                mbg.test.mb3.generated.annotated.batchinsert.model.Pkfields record =
+                        new mbg.test.mb3.generated.annotated.batchinsert.model.Pkfields();
+                record.setId1(i);
+                record.setId2(1);
+                records.add(record);
+            }
+
+            assertEquals(5, mapper.insertBatch(records));
+            assertEquals(5, mapper.countByExample(
+                    new mbg.test.mb3.generated.annotated.batchinsert.model.PkfieldsExample()));
+        } finally {
+            sqlSession.close();
+        }
+    }
+}
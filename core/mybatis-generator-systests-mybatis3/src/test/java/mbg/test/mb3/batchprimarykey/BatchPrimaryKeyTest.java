@@ -0,0 +1,263 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.batchprimarykey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.batchprimarykey.mapper.PkblobsMapper;
+import mbg.test.mb3.generated.batchprimarykey.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.batchprimarykey.model.Pkblobs;
+import mbg.test.mb3.generated.batchprimarykey.model.PkblobsExample;
+import mbg.test.mb3.generated.batchprimarykey.model.Pkfields;
+import mbg.test.mb3.generated.batchprimarykey.model.PkfieldsExample;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests the methods that select or delete several records by primary key. The
+ * contexts allow two keys in an in list, so longer key lists are split into
+ * several in lists.
+ */
+public class BatchPrimaryKeyTest extends AbstractTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.batchprimarykey.mapper.PkblobsMapper.class);
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.batchprimarykey.mapper.PkfieldsMapper.class);
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/batchprimarykey/MapperConfig.xml";
+    }
+
+    @Test
+    public void testSelectByPrimaryKeysInSeveralInLists() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkblobsMapper mapper = sqlSession.getMapper(PkblobsMapper.class);
+            for (int i = 1; i <= 6; i++) {
+                Pkblobs record = new Pkblobs();
+                record.setId(i);
+                record.setCharacterlob("Fred" + i);
+                mapper.insert(record);
+            }
+
+            // five keys are split into three in lists, key 7 does not exist
+            List<Pkblobs> answer = mapper.selectByPrimaryKeys(Arrays.asList(1, 2, 4, 5, 7));
+            Collections.sort(answer, new Comparator<Pkblobs>() {
+                public int compare(Pkblobs o1, Pkblobs o2) {
+                    return o1.getId().compareTo(o2.getId());
+                }
+            });
+            assertEquals(4, answer.size());
+            assertEquals(1, answer.get(0).getId().intValue());
+            assertEquals("Fred1", answer.get(0).getCharacterlob());
+            assertEquals(2, answer.get(1).getId().intValue());
+            assertEquals(4, answer.get(2).getId().intValue());
+            assertEquals(5, answer.get(3).getId().intValue());
+
+            // a key list of exactly one in list
+            assertEquals(2, mapper.selectByPrimaryKeys(Arrays.asList(3, 6)).size());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testSelectMapByPrimaryKeys() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkblobsMapper mapper = sqlSession.getMapper(PkblobsMapper.class);
+            for (int i = 1; i <= 5; i++) {
+                Pkblobs record = new Pkblobs();
+                record.setId(i);
+                record.setCharacterlob("Fred" + i);
+                mapper.insert(record);
+            }
+
+            Map<Integer, Pkblobs> answer = mapper.selectMapByPrimaryKeys(Arrays.asList(1, 3, 5));
+            assertEquals(3, answer.size());
+            assertEquals("Fred1", answer.get(1).getCharacterlob());
+            assertEquals("Fred3", answer.get(3).getCharacterlob());
+            assertEquals("Fred5", answer.get(5).getCharacterlob());
+            assertNull(answer.get(2));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testDeleteByPrimaryKeys() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkblobsMapper mapper = sqlSession.getMapper(PkblobsMapper.class);
+            for (int i = 1; i <= 5; i++) {
+                Pkblobs record = new Pkblobs();
+                record.setId(i);
+                mapper.insert(record);
+            }
+
+            assertEquals(3, mapper.deleteByPrimaryKeys(Arrays.asList(1, 2, 3)));
+            assertEquals(2, mapper.countByExample(new PkblobsExample()));
+            assertNull(mapper.selectByPrimaryKey(1));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testCompositeKeys() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            for (int i = 1; i <= 5; i++) {
+                Pkfields record = new Pkfields();
+                record.setId1(i);
+                record.setId2(i * 10);
+                record.setFirstname("Fred" + i);
+                mapper.insert(record);
+            }
+
+            List<Pkfields> keys = new ArrayList<Pkfields>();
+            keys.add(newPkfieldsKey(1, 10));
+            keys.add(newPkfieldsKey(3, 30));
+            keys.add(newPkfieldsKey(5, 50));
+            // the first column matches, the second does not
+            keys.add(newPkfieldsKey(2, 30));
+
+            List<Pkfields> answer = mapper.selectByPrimaryKeys(keys);
+            assertEquals(3, answer.size());
+            for (Pkfields record : answer) {
+                assertEquals(record.getId1() * 10, record.getId2().intValue());
+                assertEquals("Fred" + record.getId1(), record.getFirstname());
+            }
+
+            assertEquals(3, mapper.deleteByPrimaryKeys(keys));
+            PkfieldsExample example = new PkfieldsExample();
+            example.setOrderByClause("ID1");
+            answer = mapper.selectByExample(example);
+            assertEquals(2, answer.size());
+            assertEquals(2, answer.get(0).getId1().intValue());
+            assertEquals(4, answer.get(1).getId1().intValue());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testEmptyKeysMatchNoRows() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkblobsMapper mapper = sqlSession.getMapper(PkblobsMapper.class);
+            Pkblobs record = new Pkblobs();
+            record.setId(1);
+            mapper.insert(record);
+
+            List<Integer> noKeys = Collections.emptyList();
+            assertTrue(mapper.selectByPrimaryKeys(noKeys).isEmpty());
+            assertTrue(mapper.selectMapByPrimaryKeys(noKeys).isEmpty());
+            assertEquals(0, mapper.deleteByPrimaryKeys(noKeys));
+
+            PkfieldsMapper pkfieldsMapper = sqlSession.getMapper(PkfieldsMapper.class);
+            Pkfields pkfields = newPkfieldsKey(1, 10);
+            pkfieldsMapper.insert(pkfields);
+            List<Pkfields> noPkfieldsKeys = Collections.emptyList();
+            assertTrue(pkfieldsMapper.selectByPrimaryKeys(noPkfieldsKeys).isEmpty());
+            assertEquals(0, pkfieldsMapper.deleteByPrimaryKeys(noPkfieldsKeys));
+
+            assertEquals(1, mapper.countByExample(new PkblobsExample()));
+            assertEquals(1, pkfieldsMapper.countByExample(new PkfieldsExample()));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testAnnotatedSelectAndDeleteByPrimaryKeys() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            mbg.test.mb3.generated.annotated.batchprimarykey.mapper.PkblobsMapper mapper = sqlSession
+                    .getMapper(mbg.test.mb3.generated.annotated.batchprimarykey.mapper.PkblobsMapper.class);
+            for (int i = 1; i <= 5; i++) {
+                mbg.test.mb3.generated.annotated.batchprimarykey.model.Pkblobs record =
+                        new mbg.test.mb3.generated.annotated.batchprimarykey.model.Pkblobs();
+                record.setId(i);
+                record.setCharacterlob("Fred" + i);
+                mapper.insert(record);
+            }
+
+            assertEquals(4, mapper.selectByPrimaryKeys(Arrays.asList(1, 2, 3, 5, 7)).size());
+            Map<Integer, mbg.test.mb3.generated.annotated.batchprimarykey.model.Pkblobs> map =
+                    mapper.selectMapByPrimaryKeys(Arrays.asList(2, 4));
+            assertEquals(2, map.size());
+            assertEquals("Fred4", map.get(4).getCharacterlob());
+            List<Integer> noKeys = Collections.emptyList();
+            assertTrue(mapper.selectByPrimaryKeys(noKeys).isEmpty());
+            assertEquals(3, mapper.deleteByPrimaryKeys(Arrays.asList(1, 2, 3)));
+            assertEquals(2, mapper.countByExample(
+                    new mbg.test.mb3.generated.annotated.batchprimarykey.model.PkblobsExample()));
+
+            mbg.test.mb3.generated.annotated.batchprimarykey.mapper.PkfieldsMapper pkfieldsMapper =
+                    sqlSession.getMapper(
+                            mbg.test.mb3.generated.annotated.batchprimarykey.mapper.PkfieldsMapper.class);
+            List<mbg.test.mb3.generated.annotated.batchprimarykey.model.Pkfields> keys =
+                    new ArrayList<mbg.test.mb3.generated.annotated.batchprimarykey.model.Pkfields>();
+            for (int i = 1; i <= 3; i++) {
+                mbg.test.mb3.generated.annotated.batchprimarykey.model.Pkfields record =
+                        new mbg.test.mb3.generated.annotated.batchprimarykey.model.Pkfields();
+                record.setId1(i);
+                record.setId2(i * 10);
+                pkfieldsMapper.insert(record);
+                keys.add(record);
+            }
+
+            assertEquals(3, pkfieldsMapper.selectByPrimaryKeys(keys).size());
+            assertEquals(3, pkfieldsMapper.deleteByPrimaryKeys(keys));
+            assertEquals(0, pkfieldsMapper.countByExample(
+                    new mbg.test.mb3.generated.annotated.batchprimarykey.model.PkfieldsExample()));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    private static Pkfields newPkfieldsKey(int id1, int id2) {
+        Pkfields key = new Pkfields();
+        key.setId1(id1);
+        key.setId2(id2);
+        return key;
+    }
+}
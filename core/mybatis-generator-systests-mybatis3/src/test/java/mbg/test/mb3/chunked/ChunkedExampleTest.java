@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.chunked;
+
+import static org.junit.Assert.assertEquals;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.chunked.mapper.PkblobsMapper;
+import mbg.test.mb3.generated.chunked.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.chunked.model.Pkblobs;
+import mbg.test.mb3.generated.chunked.model.PkblobsExample;
+import mbg.test.mb3.generated.chunked.model.Pkfields;
+import mbg.test.mb3.generated.chunked.model.PkfieldsExample;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests the chunked deletes and updates by example, for a table with a composite
+ * key and a table with a single key.
+ */
+public class ChunkedExampleTest extends AbstractTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.chunked.mapper.PkfieldsMapper.class);
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/chunked/MapperConfig.xml";
+    }
+
+    @Test
+    public void testDeleteByExampleInChunks() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            insertPkfields(mapper);
+
+            PkfieldsExample example = new PkfieldsExample();
+            example.createCriteria().andLastnameEqualTo("Flintstone");
+            assertEquals(2, mapper.deleteByExampleLimited(example, 2));
+
+            final int[] pauses = new int[1];
+            assertEquals(1, mapper.deleteByExampleInChunks(example, 2, new Runnable() {
+                @Override
+                public void run() {
+                    pauses[0]++;
+                }
+            }));
+            assertEquals(1, pauses[0]);
+            assertEquals(2, mapper.countByExample(new PkfieldsExample()));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testUpdateByExampleSelectiveInChunks() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            insertPkfields(mapper);
+
+            Pkfields record = new Pkfields();
+            record.setLastname("Slate");
+            PkfieldsExample example = new PkfieldsExample();
+            example.createCriteria().andLastnameEqualTo("Flintstone");
+            assertEquals(3, mapper.updateByExampleSelectiveInChunks(record, example, 2));
+
+            example.clear();
+            example.createCriteria().andLastnameEqualTo("Slate");
+            assertEquals(3, mapper.countByExample(example));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testSingleKeyDeleteByExampleInChunks() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkblobsMapper mapper = sqlSession.getMapper(PkblobsMapper.class);
+            for (int i = 1; i <= 5; i++) {
+                Pkblobs record = new Pkblobs();
+                record.setId(i);
+                mapper.insert(record);
+            }
+
+            PkblobsExample example = new PkblobsExample();
+            example.createCriteria().andIdGreaterThan(1);
+            assertEquals(4, mapper.deleteByExampleInChunks(example, 3));
+            assertEquals(1, mapper.countByExample(new PkblobsExample()));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testAnnotatedDeleteByExampleInChunks() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            mbg.test.mb3.generated.annotated.chunked.mapper.PkfieldsMapper mapper = sqlSession
+                    .getMapper(mbg.test.mb3.generated.annotated.chunked.mapper.PkfieldsMapper.class);
+            for (int i = 1; i <= 5; i++) {
+                mbg.test.mb3.generated.annotated.chunked.model.Pkfields record =
+                        new mbg.test.mb3.generated.annotated.chunked.model.Pkfields();
+                record.setId1(i);
+                record.setId2(1);
+                mapper.insert(record);
+            }
+
+            mbg.test.mb3.generated.annotated.chunked.model.PkfieldsExample example =
+                    new mbg.test.mb3.generated.annotated.chunked.model.PkfieldsExample();
+            example.createCriteria().andId1LessThan(5);
+            assertEquals(4, mapper.deleteByExampleInChunks(example, 3));
+            assertEquals(1, mapper.countByExample(
+                    new mbg.test.mb3.generated.annotated.chunked.model.PkfieldsExample()));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    private void insertPkfields(PkfieldsMapper mapper) {
+        String[] lastNames = { "Flintstone", "Flintstone", "Rubble", "Flintstone", "Rubble" };
+        for (int i = 0; i < lastNames.length; i++) {
+            Pkfields record = new Pkfields();
+            record.setId1(i + 1);
+            record.setId2(1);
+            record.setLastname(lastNames[i]);
+            mapper.insert(record);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.configclass;
+
+import static mbg.test.common.util.TestUtilities.createDatabase;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import mbg.test.mb3.generated.annotated.configclass.config.AnnotatedMapperConfiguration;
+import mbg.test.mb3.generated.annotated.configclass.mapper.PkblobsMapper;
+import mbg.test.mb3.generated.annotated.configclass.mapper.PkonlyMapper;
+import mbg.test.mb3.generated.annotated.configclass.model.Pkblobs;
+import mbg.test.mb3.generated.annotated.configclass.model.PkblobsExample;
+import mbg.test.mb3.generated.annotated.configclass.model.Pkonly;
+import mbg.test.mb3.generated.annotated.configclass.model.PkonlyExample;
+import mbg.test.mb3.generated.configclass.config.XmlMapperConfiguration;
+import mbg.test.mb3.generated.configclass.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.configclass.model.Pkfields;
+import mbg.test.mb3.generated.configclass.model.PkfieldsExample;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests a MyBatis configuration that is built only by the classes of the mapper
+ * config class plugin, without a MyBatis XML configuration file. One class
+ * registers an XML mapper, the other class registers annotated mappers.
+ */
+public class MapperConfigClassTest {
+
+    private static final String PKBLOBS_NAMESPACE = PkblobsMapper.class.getName();
+
+    private Configuration configuration;
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        createDatabase();
+
+        Environment environment = new Environment("development",
+                new JdbcTransactionFactory(), new UnpooledDataSource(
+                        "org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:aname", "sa", ""));
+        configuration = new Configuration(environment);
+        new XmlMapperConfiguration().customize(configuration);
+        new AnnotatedMapperConfiguration().customize(configuration);
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @Test
+    public void testTypeAliasesAreRegistered() {
+        assertEquals(Pkfields.class, configuration.getTypeAliasRegistry().resolveAlias("Pkfields"));
+        assertEquals(Pkblobs.class, configuration.getTypeAliasRegistry().resolveAlias("Pkblobs"));
+        assertEquals(Pkonly.class, configuration.getTypeAliasRegistry().resolveAlias("Pkonly"));
+    }
+
+    @Test
+    public void testMappersAreRegistered() {
+        // the XML mapper binds its interface when the XML file is parsed
+        assertTrue(configuration.hasMapper(PkfieldsMapper.class));
+        assertTrue(configuration.hasStatement(PkfieldsMapper.class.getName() + ".selectByExample"));
+        assertTrue(configuration.hasMapper(PkblobsMapper.class));
+        assertTrue(configuration.hasMapper(PkonlyMapper.class));
+    }
+
+    @Test
+    public void testResultMapsOfAnnotatedMapperAreRegistered() {
+        ResultMap resultMap = configuration.getResultMap(PKBLOBS_NAMESPACE + ".BaseResultMap");
+        assertEquals(Pkblobs.class, resultMap.getType());
+        assertEquals(1, resultMap.getResultMappings().size());
+        assertTrue(resultMap.getMappedColumns().contains("ID"));
+        assertEquals(1, resultMap.getIdResultMappings().size());
+
+        resultMap = configuration.getResultMap(PKBLOBS_NAMESPACE + ".ResultMapWithBLOBs");
+        assertEquals(Pkblobs.class, resultMap.getType());
+        assertEquals(4, resultMap.getResultMappings().size());
+        assertTrue(resultMap.getMappedColumns().contains("BLOB1"));
+        assertTrue(resultMap.getMappedColumns().contains("CHARACTERLOB"));
+    }
+
+    @Test
+    public void testXmlMapper() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            Pkfields record = new Pkfields();
+            record.setId1(1);
+            record.setId2(2);
+            record.setFirstname("Fred");
+            record.setStringboolean(true);
+            mapper.insert(record);
+
+            List<Pkfields> answer = mapper.selectByExample(new PkfieldsExample());
+            assertEquals(1, answer.size());
+            assertEquals("Fred", answer.get(0).getFirstname());
+            assertTrue(answer.get(0).isStringboolean());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testAnnotatedMappers() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkblobsMapper mapper = sqlSession.getMapper(PkblobsMapper.class);
+            Pkblobs record = new Pkblobs();
+            record.setId(3);
+            record.setBlob1(new byte[] { 1, 2, 3 });
+            record.setCharacterlob("Fred");
+            mapper.insert(record);
+
+            List<Pkblobs> answer = mapper.selectByExampleWithBLOBs(new PkblobsExample());
+            assertEquals(1, answer.size());
+            assertArrayEquals(new byte[] { 1, 2, 3 }, answer.get(0).getBlob1());
+            assertEquals("Fred", answer.get(0).getCharacterlob());
+            assertEquals("Fred", mapper.selectByPrimaryKey(3).getCharacterlob());
+
+            PkonlyMapper pkonlyMapper = sqlSession.getMapper(PkonlyMapper.class);
+            Pkonly key = new Pkonly();
+            key.setId(1);
+            key.setSeqNum(2);
+            pkonlyMapper.insert(key);
+            assertEquals(1, pkonlyMapper.countByExample(new PkonlyExample()));
+        } finally {
+            sqlSession.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.dirty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.dirty.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.dirty.model.Pkfields;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests the updateByPrimaryKeyDirty statements, which set only the columns
+ * changed by the setters - including columns set to null.
+ */
+public class DirtyFieldsTest extends AbstractTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.dirty.mapper.PkfieldsMapper.class);
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/dirty/MapperConfig.xml";
+    }
+
+    @Test
+    public void testUpdateByPrimaryKeyDirty() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            Pkfields record = new Pkfields();
+            record.setId1(1);
+            record.setId2(2);
+            record.setFirstname("Fred");
+            record.setLastname("Flintstone");
+            record.setWierdField(11);
+            mapper.insert(record);
+
+            record = mapper.selectByPrimaryKey(2, 1);
+            record.clearDirty();
+            assertFalse(record.isDirty(0));
+            record.setLastname(null);
+            record.setWierdField(22);
+            assertEquals(1, mapper.updateByPrimaryKeyDirty(record));
+
+            Pkfields returnedRecord = mapper.selectByPrimaryKey(2, 1);
+            assertEquals("Fred", returnedRecord.getFirstname());
+            assertNull(returnedRecord.getLastname());
+            assertEquals(22, returnedRecord.getWierdField().intValue());
+
+            // a new record is only dirty in the columns that were set
+            record = new Pkfields();
+            record.setId1(1);
+            record.setId2(2);
+            record.setFirstname("Wilma");
+            assertEquals(1, mapper.updateByPrimaryKeyDirty(record));
+
+            returnedRecord = mapper.selectByPrimaryKey(2, 1);
+            assertEquals("Wilma", returnedRecord.getFirstname());
+            assertEquals(22, returnedRecord.getWierdField().intValue());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testAnnotatedUpdateByPrimaryKeyDirty() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            mbg.test.mb3.generated.annotated.dirty.mapper.PkfieldsMapper mapper = sqlSession
+                    .getMapper(mbg.test.mb3.generated.annotated.dirty.mapper.PkfieldsMapper.class);
+            mbg.test.mb3.generated.annotated.dirty.model.Pkfields record =
+                    new mbg.test.mb3.generated.annotated.dirty.model.Pkfields();
+            record.setId1(1);
+            record.setId2(2);
+            record.setFirstname("Fred");
+            record.setLastname("Flintstone");
+            mapper.insert(record);
+
+            record = mapper.selectByPrimaryKey(2, 1);
+            assertTrue(record.isDirty(0));
+            record.clearDirty();
+            record.setFirstname(null);
+            record.setStringboolean(true);
+            assertEquals(1, mapper.updateByPrimaryKeyDirty(record));
+
+            mbg.test.mb3.generated.annotated.dirty.model.Pkfields returnedRecord =
+                    mapper.selectByPrimaryKey(2, 1);
+            assertNull(returnedRecord.getFirstname());
+            assertEquals("Flintstone", returnedRecord.getLastname());
+            assertTrue(returnedRecord.isStringboolean());
+        } finally {
+            sqlSession.close();
+        }
+    }
+}
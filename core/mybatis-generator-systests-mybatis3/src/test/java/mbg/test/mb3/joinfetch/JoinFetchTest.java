@@ -0,0 +1,125 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.joinfetch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.joinfetch.mapper.JoinCustomerMapper;
+import mbg.test.mb3.generated.joinfetch.mapper.JoinOrderMapper;
+import mbg.test.mb3.generated.joinfetch.model.JoinCustomer;
+import mbg.test.mb3.generated.joinfetch.model.JoinCustomerExample;
+import mbg.test.mb3.generated.joinfetch.model.JoinOrder;
+import mbg.test.mb3.generated.joinfetch.model.JoinOrderExample;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests the statements that fetch the parent and the child records of a foreign
+ * key with a join.
+ */
+public class JoinFetchTest extends AbstractTest {
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/joinfetch/MapperConfig.xml";
+    }
+
+    @Test
+    public void testSelectWithParentByExample() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            insertRecords(sqlSession);
+            JoinOrderMapper mapper = sqlSession.getMapper(JoinOrderMapper.class);
+
+            JoinOrderExample example = new JoinOrderExample();
+            example.setOrderByClause("O.ID");
+            List<JoinOrder> answer = mapper.selectWithJoinCustomerByExample(example);
+            assertEquals(4, answer.size());
+            assertEquals("Fred", answer.get(0).getJoinCustomer().getName());
+            assertEquals("Fred", answer.get(1).getJoinCustomer().getName());
+            assertEquals("Wilma", answer.get(2).getJoinCustomer().getName());
+            assertEquals(2, answer.get(2).getJoinCustomer().getId().intValue());
+            assertNull(answer.get(3).getJoinCustomer());
+
+            example.createCriteria().andCustomerIdEqualTo(2);
+            answer = mapper.selectWithJoinCustomerByExample(example);
+            assertEquals(1, answer.size());
+            assertEquals("Book", answer.get(0).getDescription());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testSelectWithChildrenByExample() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            insertRecords(sqlSession);
+            JoinCustomerMapper mapper = sqlSession.getMapper(JoinCustomerMapper.class);
+
+            JoinCustomerExample example = new JoinCustomerExample();
+            example.setOrderByClause("C.ID, O.ID");
+            List<JoinCustomer> answer = mapper.selectWithJoinOrderListByExample(example);
+            assertEquals(3, answer.size());
+            assertEquals("Fred", answer.get(0).getName());
+            assertEquals(2, answer.get(0).getJoinOrderList().size());
+            assertEquals(10, answer.get(0).getJoinOrderList().get(0).getId().intValue());
+            assertEquals(11, answer.get(0).getJoinOrderList().get(1).getId().intValue());
+            assertEquals(1, answer.get(1).getJoinOrderList().size());
+            assertEquals("Book", answer.get(1).getJoinOrderList().get(0).getDescription());
+            assertEquals(0, size(answer.get(2).getJoinOrderList()));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    private int size(List<JoinOrder> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    private void insertRecords(SqlSession sqlSession) {
+        JoinCustomerMapper customerMapper = sqlSession.getMapper(JoinCustomerMapper.class);
+        String[] names = { "Fred", "Wilma", "Barney" };
+        for (int i = 0; i < names.length; i++) {
+            JoinCustomer customer = new JoinCustomer();
+            customer.setId(i + 1);
+            customer.setName(names[i]);
+            customerMapper.insert(customer);
+        }
+
+        JoinOrderMapper orderMapper = sqlSession.getMapper(JoinOrderMapper.class);
+        insertOrder(orderMapper, 10, 1, "Rock");
+        insertOrder(orderMapper, 11, 1, "Club");
+        insertOrder(orderMapper, 12, 2, "Book");
+        insertOrder(orderMapper, 13, null, "Sale");
+    }
+
+    private void insertOrder(JoinOrderMapper mapper, int id, Integer customerId,
+            String description) {
+        JoinOrder order = new JoinOrder();
+        order.setId(id);
+        order.setCustomerId(customerId);
+        order.setDescription(description);
+        mapper.insert(order);
+    }
+}
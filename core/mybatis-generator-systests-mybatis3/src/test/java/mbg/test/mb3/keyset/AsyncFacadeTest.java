@@ -0,0 +1,206 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.keyset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.keyset.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.keyset.mapper.PkfieldsMapperAsync;
+import mbg.test.mb3.generated.keyset.model.Pkfields;
+import mbg.test.mb3.generated.keyset.model.PkfieldsExample;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests the async facades of the XML and annotated mappers.
+ */
+public class AsyncFacadeTest extends AbstractTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.keyset.mapper.PkfieldsMapper.class);
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/keyset/MapperConfig.xml";
+    }
+
+    @Test
+    public void testMethodsCommitTheirOwnSession() throws Exception {
+        PkfieldsMapperAsync async = new PkfieldsMapperAsync(sqlSessionFactory);
+        assertEquals(1, async.insert(createRecord(1, 1)).get().intValue());
+        assertEquals(1, async.insert(createRecord(2, 1)).get().intValue());
+
+        assertEquals(2, countRows());
+
+        PkfieldsExample example = new PkfieldsExample();
+        example.createCriteria().andId1EqualTo(2);
+        List<Pkfields> answer = async.selectByExample(example).get();
+        assertEquals(1, answer.size());
+        assertEquals(2, answer.get(0).getId1().intValue());
+
+        assertEquals(1, async.deleteByExample(example).get().intValue());
+        assertEquals(1, countRows());
+    }
+
+    @Test
+    public void testSuppliedExecutorIsUsed() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executions.incrementAndGet();
+                command.run();
+            }
+        };
+
+        PkfieldsMapperAsync async = new PkfieldsMapperAsync(sqlSessionFactory, executor);
+        async.insert(createRecord(1, 1)).get();
+        async.selectByExample(new PkfieldsExample()).get();
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testDefaultExecutor() throws Exception {
+        PkfieldsMapperAsync async = new PkfieldsMapperAsync(sqlSessionFactory);
+        Thread thread = async.inTransaction(new Function<PkfieldsMapper, Thread>() {
+            @Override
+            public Thread apply(PkfieldsMapper mapper) {
+                return Thread.currentThread();
+            }
+        }).get();
+
+        assertFalse(thread == Thread.currentThread());
+        if (hasVirtualThreads()) {
+            assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+        } else {
+            // the fallback is a pool of daemon threads named after the facade
+            assertEquals("PkfieldsMapperAsync", thread.getName());
+            assertTrue(thread.isDaemon());
+        }
+    }
+
+    @Test
+    public void testInTransactionCommits() throws Exception {
+        PkfieldsMapperAsync async = new PkfieldsMapperAsync(sqlSessionFactory);
+        Integer rows = async.inTransaction(new Function<PkfieldsMapper, Integer>() {
+            @Override
+            public Integer apply(PkfieldsMapper mapper) {
+                return mapper.insert(createRecord(1, 1)) + mapper.insert(createRecord(1, 2));
+            }
+        }).get();
+
+        assertEquals(2, rows.intValue());
+        assertEquals(2, countRows());
+    }
+
+    @Test
+    public void testInTransactionRollsBackOnError() throws Exception {
+        final RuntimeException error = new RuntimeException();
+        PkfieldsMapperAsync async = new PkfieldsMapperAsync(sqlSessionFactory);
+        CompletableFuture<Integer> future = async.inTransaction(
+                new Function<PkfieldsMapper, Integer>() {
+                    @Override
+                    public Integer apply(PkfieldsMapper mapper) {
+                        mapper.insert(createRecord(1, 1));
+                        throw error;
+                    }
+                });
+
+        try {
+            future.get();
+            fail("Expected the error of the work");
+        } catch (ExecutionException e) {
+            assertSame(error, e.getCause());
+        }
+        assertEquals(0, countRows());
+    }
+
+    @Test
+    public void testCursorMethodsAreSkipped() throws Exception {
+        // the streaming plugin adds the cursor and result handler methods to the mapper
+        PkfieldsMapper.class.getMethod("selectByExampleCursor", PkfieldsExample.class);
+
+        for (Method method : PkfieldsMapperAsync.class.getDeclaredMethods()) {
+            assertFalse(method.getName(), method.getName().endsWith("Cursor"));
+        }
+        assertEquals(CompletableFuture.class, PkfieldsMapperAsync.class.getMethod(
+                "selectByExampleWithResultHandler", PkfieldsExample.class,
+                org.apache.ibatis.session.ResultHandler.class).getReturnType());
+    }
+
+    @Test
+    public void testAnnotatedFacade() throws Exception {
+        mbg.test.mb3.generated.annotated.keyset.mapper.PkfieldsMapperAsync async =
+                new mbg.test.mb3.generated.annotated.keyset.mapper.PkfieldsMapperAsync(
+                        sqlSessionFactory);
+        mbg.test.mb3.generated.annotated.keyset.model.Pkfields record =
+                new mbg.test.mb3.generated.annotated.keyset.model.Pkfields();
+        record.setId1(1);
+        record.setId2(1);
+        assertEquals(1, async.insert(record).get().intValue());
+        assertEquals(1, async.selectByExample(
+                new mbg.test.mb3.generated.annotated.keyset.model.PkfieldsExample()).get().size());
+
+        for (Method method : async.getClass().getDeclaredMethods()) {
+            assertFalse(method.getName(), method.getName().endsWith("Cursor"));
+        }
+    }
+
+    private int countRows() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+        try {
+            return (int) sqlSession.getMapper(PkfieldsMapper.class)
+                    .countByExample(new PkfieldsExample());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    private static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Pkfields createRecord(int id1, int id2) {
+        Pkfields record = new Pkfields();
+        record.setId1(id1);
+        record.setId2(id2);
+        return record;
+    }
+}
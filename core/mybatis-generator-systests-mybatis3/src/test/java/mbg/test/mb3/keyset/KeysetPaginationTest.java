@@ -0,0 +1,157 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.keyset;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.keyset.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.keyset.mapper.PkfieldsMapperAsync;
+import mbg.test.mb3.generated.keyset.model.Pkfields;
+import mbg.test.mb3.generated.keyset.model.PkfieldsExample;
+
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests the keyset pagination methods together with the streaming select methods
+ * and the async facade, which add variants of the same select methods.
+ */
+public class KeysetPaginationTest extends AbstractTest {
+
+    private static final int[][] KEYS = { { 1, 1 }, { 1, 2 }, { 2, 1 }, { 2, 2 }, { 3, 1 } };
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.keyset.mapper.PkfieldsMapper.class);
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/keyset/MapperConfig.xml";
+    }
+
+    @Test
+    public void testSelectByExampleAfterKey() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            for (int[] key : KEYS) {
+                Pkfields record = new Pkfields();
+                record.setId1(key[0]);
+                record.setId2(key[1]);
+                mapper.insert(record);
+            }
+
+            PkfieldsExample example = new PkfieldsExample();
+            List<Pkfields> page = mapper.selectByExampleAfterKey(example, null, 2);
+            assertKeys(page, 0, 2);
+            page = mapper.selectByExampleAfterKey(example, page.get(1), 2);
+            assertKeys(page, 2, 4);
+            page = mapper.selectByExampleAfterKey(example, page.get(1), 2);
+            assertKeys(page, 4, 5);
+
+            example.createCriteria().andId2EqualTo(1);
+            page = mapper.selectByExampleAfterKey(example, null, 2);
+            assertEquals(2, page.size());
+            assertEquals(1, page.get(0).getId1().intValue());
+            assertEquals(2, page.get(1).getId1().intValue());
+            page = mapper.selectByExampleAfterKey(example, page.get(1), 2);
+            assertEquals(1, page.size());
+            assertEquals(3, page.get(0).getId1().intValue());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testAnnotatedSelectByExampleAfterKey() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            mbg.test.mb3.generated.annotated.keyset.mapper.PkfieldsMapper mapper = sqlSession
+                    .getMapper(mbg.test.mb3.generated.annotated.keyset.mapper.PkfieldsMapper.class);
+            for (int[] key : KEYS) {
+                mbg.test.mb3.generated.annotated.keyset.model.Pkfields record =
+                        new mbg.test.mb3.generated.annotated.keyset.model.Pkfields();
+                record.setId1(key[0]);
+                record.setId2(key[1]);
+                mapper.insert(record);
+            }
+
+            mbg.test.mb3.generated.annotated.keyset.model.PkfieldsExample example =
+                    new mbg.test.mb3.generated.annotated.keyset.model.PkfieldsExample();
+            List<mbg.test.mb3.generated.annotated.keyset.model.Pkfields> page =
+                    mapper.selectByExampleAfterKey(example, null, 3);
+            assertEquals(3, page.size());
+            page = mapper.selectByExampleAfterKey(example, page.get(2), 3);
+            assertEquals(2, page.size());
+            assertEquals(2, page.get(0).getId1().intValue());
+            assertEquals(2, page.get(0).getId2().intValue());
+            assertEquals(3, page.get(1).getId1().intValue());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testStreamingAndAsyncMethods() throws Exception {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            for (int[] key : KEYS) {
+                Pkfields record = new Pkfields();
+                record.setId1(key[0]);
+                record.setId2(key[1]);
+                mapper.insert(record);
+            }
+            sqlSession.commit();
+
+            final List<Pkfields> records = new ArrayList<Pkfields>();
+            mapper.selectByExampleWithResultHandler(new PkfieldsExample(), new ResultHandler<Pkfields>() {
+                @Override
+                public void handleResult(ResultContext<? extends Pkfields> resultContext) {
+                    records.add(resultContext.getResultObject());
+                }
+            });
+            assertEquals(KEYS.length, records.size());
+            assertEquals(KEYS.length, mapper.selectByExample(new PkfieldsExample()).size());
+        } finally {
+            sqlSession.close();
+        }
+
+        PkfieldsMapperAsync async = new PkfieldsMapperAsync(sqlSessionFactory);
+        List<Pkfields> page = async.selectByExampleAfterKey(new PkfieldsExample(), null, 3).get();
+        assertKeys(page, 0, 3);
+    }
+
+    private void assertKeys(List<Pkfields> page, int from, int to) {
+        assertEquals(to - from, page.size());
+        for (int i = from; i < to; i++) {
+            assertEquals(KEYS[i][0], page.get(i - from).getId1().intValue());
+            assertEquals(KEYS[i][1], page.get(i - from).getId2().intValue());
+        }
+    }
+}
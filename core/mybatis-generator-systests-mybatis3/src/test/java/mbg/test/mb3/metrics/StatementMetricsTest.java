@@ -0,0 +1,263 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.metrics.interceptor.StatementMetricsInterceptor;
+import mbg.test.mb3.generated.metrics.interceptor.StatementMetricsInterceptor.StatementStats;
+import mbg.test.mb3.generated.metrics.interceptor.StatementMetricsSink;
+import mbg.test.mb3.generated.metrics.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.metrics.model.Pkfields;
+import mbg.test.mb3.generated.metrics.model.PkfieldsExample;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests the interceptor and the statement tags of the statement metrics plugin.
+ */
+public class StatementMetricsTest extends AbstractTest {
+
+    private static final String XML_MAPPER = PkfieldsMapper.class.getName();
+
+    private static final String ANNOTATED_MAPPER =
+            mbg.test.mb3.generated.annotated.metrics.mapper.PkfieldsMapper.class.getName();
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.metrics.mapper.PkfieldsMapper.class);
+        RecordingSink.clear();
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/metrics/MapperConfig.xml";
+    }
+
+    @Test
+    public void testSinkIsCreatedFromTheConfiguration() {
+        assertTrue(getInterceptor().getSink() instanceof RecordingSink);
+    }
+
+    @Test
+    public void testStatementsAreRecorded() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            for (int i = 1; i <= 3; i++) {
+                mapper.insert(createRecord(i));
+            }
+
+            PkfieldsExample example = new PkfieldsExample();
+            example.createCriteria().andId1GreaterThan(1);
+            assertEquals(2, mapper.selectByExample(example).size());
+        } finally {
+            sqlSession.close();
+        }
+
+        StatementStats stats = getInterceptor().getStatistics().get(XML_MAPPER + ".insert");
+        assertEquals(3, stats.getCount());
+        assertEquals(3, stats.getRowCount());
+        assertEquals(0, stats.getErrorCount());
+        assertTrue(stats.getTotalNanos() > 0);
+        assertEquals(stats.getCount(), sum(stats.getBucketCounts()));
+
+        stats = getInterceptor().getStatistics().get(XML_MAPPER + ".selectByExample");
+        assertEquals(1, stats.getCount());
+        assertEquals(2, stats.getRowCount());
+
+        assertEquals(4, RecordingSink.statementIds.size());
+        assertEquals(XML_MAPPER + ".insert", RecordingSink.statementIds.get(0));
+        assertEquals(XML_MAPPER + ".selectByExample", RecordingSink.statementIds.get(3));
+        assertEquals(Integer.valueOf(2), RecordingSink.rows.get(3));
+        assertNull(RecordingSink.errors.get(3));
+
+        getInterceptor().reset();
+        assertTrue(getInterceptor().getStatistics().isEmpty());
+    }
+
+    @Test
+    public void testAnnotatedStatementsAreRecorded() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            mbg.test.mb3.generated.annotated.metrics.mapper.PkfieldsMapper mapper = sqlSession
+                    .getMapper(mbg.test.mb3.generated.annotated.metrics.mapper.PkfieldsMapper.class);
+            mbg.test.mb3.generated.annotated.metrics.model.Pkfields record =
+                    new mbg.test.mb3.generated.annotated.metrics.model.Pkfields();
+            record.setId1(1);
+            record.setId2(2);
+            mapper.insert(record);
+
+            mbg.test.mb3.generated.annotated.metrics.model.PkfieldsExample example =
+                    new mbg.test.mb3.generated.annotated.metrics.model.PkfieldsExample();
+            assertEquals(1, mapper.selectByExample(example).size());
+        } finally {
+            sqlSession.close();
+        }
+
+        assertEquals(1, getInterceptor().getStatistics().get(ANNOTATED_MAPPER + ".insert")
+                .getRowCount());
+        assertEquals(1, getInterceptor().getStatistics().get(
+                ANNOTATED_MAPPER + ".selectByExample").getRowCount());
+    }
+
+    @Test
+    public void testFailedStatementIsRecorded() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            mapper.insert(createRecord(1));
+            try {
+                mapper.insert(createRecord(1));
+                fail("Expected a duplicate key error");
+            } catch (PersistenceException e) {
+                // expected
+            }
+        } finally {
+            sqlSession.close();
+        }
+
+        StatementStats stats = getInterceptor().getStatistics().get(XML_MAPPER + ".insert");
+        assertEquals(2, stats.getCount());
+        assertEquals(1, stats.getErrorCount());
+        assertEquals(1, stats.getRowCount());
+        assertNull(RecordingSink.errors.get(0));
+        assertNotNull(RecordingSink.errors.get(1));
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        long[] bounds = StatementStats.getBucketBoundsMicros();
+        TestInterceptor interceptor = new TestInterceptor();
+        interceptor.record(50000L);
+        interceptor.record(bounds[0] * 1000L);
+        interceptor.record(bounds[0] * 1000L + 1000L);
+        interceptor.record(bounds[bounds.length - 1] * 1000L + 1000L);
+
+        long[] expected = new long[bounds.length + 1];
+        expected[0] = 2;
+        expected[1] = 1;
+        expected[bounds.length] = 1;
+        StatementStats stats = interceptor.getStatistics().get("test");
+        assertArrayEquals(expected, stats.getBucketCounts());
+        assertEquals(4, stats.getCount());
+    }
+
+    @Test
+    public void testXmlStatementsAreTagged() {
+        PkfieldsExample example = new PkfieldsExample();
+        example.createCriteria().andId1EqualTo(1);
+        assertTagged("PkfieldsMapper.selectByExample", XML_MAPPER + ".selectByExample", example);
+        assertTagged("PkfieldsMapper.insert", XML_MAPPER + ".insert", createRecord(1));
+        assertTagged("PkfieldsMapper.deleteByExample", XML_MAPPER + ".deleteByExample", example);
+    }
+
+    @Test
+    public void testAnnotatedStatementsAreTagged() {
+        mbg.test.mb3.generated.annotated.metrics.model.Pkfields record =
+                new mbg.test.mb3.generated.annotated.metrics.model.Pkfields();
+        record.setId1(1);
+        record.setId2(2);
+        assertTagged("PkfieldsMapper.insert", ANNOTATED_MAPPER + ".insert", record);
+
+        // the example statements are built by the SQL provider
+        mbg.test.mb3.generated.annotated.metrics.model.PkfieldsExample example =
+                new mbg.test.mb3.generated.annotated.metrics.model.PkfieldsExample();
+        example.createCriteria().andId1EqualTo(1);
+        assertTagged("PkfieldsMapper.selectByExample", ANNOTATED_MAPPER + ".selectByExample",
+                example);
+    }
+
+    private void assertTagged(String tag, String statementId, Object parameter) {
+        MappedStatement mappedStatement =
+                sqlSessionFactory.getConfiguration().getMappedStatement(statementId);
+        String sql = mappedStatement.getBoundSql(parameter).getSql().trim();
+        assertTrue(sql, sql.startsWith("/* " + tag + " */"));
+    }
+
+    private StatementMetricsInterceptor getInterceptor() {
+        return (StatementMetricsInterceptor) sqlSessionFactory.getConfiguration()
+                .getInterceptors().get(0);
+    }
+
+    private static Pkfields createRecord(int id1) {
+        Pkfields record = new Pkfields();
+        record.setId1(id1);
+        record.setId2(1);
+        return record;
+    }
+
+    private static long sum(long[] values) {
+        long answer = 0;
+        for (long value : values) {
+            answer += value;
+        }
+        return answer;
+    }
+
+    /**
+     * Records measurements directly, so the histogram can be tested with known
+     * latencies.
+     */
+    private static class TestInterceptor extends StatementMetricsInterceptor {
+        void record(long elapsedNanos) {
+            record("test", elapsedNanos, 1, null);
+        }
+    }
+
+    /**
+     * The sink configured in the MyBatis configuration.
+     */
+    public static class RecordingSink implements StatementMetricsSink {
+        static final List<String> statementIds = new ArrayList<String>();
+
+        static final List<Integer> rows = new ArrayList<Integer>();
+
+        static final List<Throwable> errors = new ArrayList<Throwable>();
+
+        static synchronized void clear() {
+            statementIds.clear();
+            rows.clear();
+            errors.clear();
+        }
+
+        @Override
+        public void record(String statementId, long elapsedNanos, int rows, Throwable error) {
+            synchronized (RecordingSink.class) {
+                statementIds.add(statementId);
+                RecordingSink.rows.add(rows);
+                errors.add(error);
+            }
+        }
+    }
+}
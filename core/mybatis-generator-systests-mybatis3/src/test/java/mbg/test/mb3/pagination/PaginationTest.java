@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.pagination;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.pagination.mapper.PkblobsMapper;
+import mbg.test.mb3.generated.pagination.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.pagination.model.Pkblobs;
+import mbg.test.mb3.generated.pagination.model.PkblobsExample;
+import mbg.test.mb3.generated.pagination.model.Pkfields;
+import mbg.test.mb3.generated.pagination.model.PkfieldsExample;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests the limit and offset of the example classes, with the pagination clause
+ * in the XML mappers and in the SQL providers.
+ */
+public class PaginationTest extends AbstractTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.pagination.mapper.PkfieldsMapper.class);
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/pagination/MapperConfig.xml";
+    }
+
+    @Test
+    public void testSelectByExampleWithLimitAndOffset() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            for (int i = 1; i <= 5; i++) {
+                Pkfields record = new Pkfields();
+                record.setId1(i);
+                record.setId2(1);
+                mapper.insert(record);
+            }
+
+            PkfieldsExample example = new PkfieldsExample();
+            example.setOrderByClause("ID1");
+            example.setLimit(2);
+            List<Pkfields> answer = mapper.selectByExample(example);
+            assertEquals(2, answer.size());
+            assertEquals(1, answer.get(0).getId1().intValue());
+
+            example.setOffset(3);
+            answer = mapper.selectByExample(example);
+            assertEquals(2, answer.size());
+            assertEquals(4, answer.get(0).getId1().intValue());
+            assertEquals(5, answer.get(1).getId1().intValue());
+
+            // an offset without a limit skips the first rows
+            example.setLimit(null);
+            answer = mapper.selectByExample(example);
+            assertEquals(2, answer.size());
+            assertEquals(4, answer.get(0).getId1().intValue());
+
+            example.clear();
+            assertEquals(5, mapper.selectByExample(example).size());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testSelectByExampleWithBLOBsWithLimit() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkblobsMapper mapper = sqlSession.getMapper(PkblobsMapper.class);
+            for (int i = 1; i <= 3; i++) {
+                Pkblobs record = new Pkblobs();
+                record.setId(i);
+                record.setBlob1(new byte[] { (byte) i });
+                mapper.insert(record);
+            }
+
+            PkblobsExample example = new PkblobsExample();
+            example.setOrderByClause("ID desc");
+            example.setLimit(1);
+            example.setOffset(1);
+            List<Pkblobs> answer = mapper.selectByExampleWithBLOBs(example);
+            assertEquals(1, answer.size());
+            assertEquals(2, answer.get(0).getId().intValue());
+            assertEquals(2, answer.get(0).getBlob1()[0]);
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testAnnotatedSelectByExampleWithLimitAndOffset() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            mbg.test.mb3.generated.annotated.pagination.mapper.PkfieldsMapper mapper = sqlSession
+                    .getMapper(mbg.test.mb3.generated.annotated.pagination.mapper.PkfieldsMapper.class);
+            for (int i = 1; i <= 5; i++) {
+                mbg.test.mb3.generated.annotated.pagination.model.Pkfields record =
+                        new mbg.test.mb3.generated.annotated.pagination.model.Pkfields();
+                record.setId1(i);
+                record.setId2(1);
+                mapper.insert(record);
+            }
+
+            mbg.test.mb3.generated.annotated.pagination.model.PkfieldsExample example =
+                    new mbg.test.mb3.generated.annotated.pagination.model.PkfieldsExample();
+            example.createCriteria().andId1GreaterThan(1);
+            example.setOrderByClause("ID1");
+            example.setLimit(2);
+            example.setOffset(1);
+            List<mbg.test.mb3.generated.annotated.pagination.model.Pkfields> answer =
+                    mapper.selectByExample(example);
+            assertEquals(2, answer.size());
+            assertEquals(3, answer.get(0).getId1().intValue());
+            assertEquals(4, answer.get(1).getId1().intValue());
+
+            example.setLimit(null);
+            example.setOffset(2);
+            answer = mapper.selectByExample(example);
+            assertEquals(2, answer.size());
+            assertEquals(4, answer.get(0).getId1().intValue());
+            assertEquals(5, answer.get(1).getId1().intValue());
+        } finally {
+            sqlSession.close();
+        }
+    }
+}
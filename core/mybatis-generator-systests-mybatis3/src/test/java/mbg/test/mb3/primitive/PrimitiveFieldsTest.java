@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.primitive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.primitive.mapper.FieldsonlyMapper;
+import mbg.test.mb3.generated.primitive.mapper.PkfieldsMapper;
+import mbg.test.mb3.generated.primitive.model.Fieldsonly;
+import mbg.test.mb3.generated.primitive.model.FieldsonlyExample;
+import mbg.test.mb3.generated.primitive.model.Pkfields;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+/**
+ * Tests models that store numeric columns in primitive fields. Null values must
+ * survive a round trip, and must stay distinct from zero.
+ */
+public class PrimitiveFieldsTest extends AbstractTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.primitive.mapper.PkfieldsMapper.class);
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/primitive/MapperConfig.xml";
+    }
+
+    @Test
+    public void testNewRecordIsNull() {
+        Pkfields record = new Pkfields();
+        assertNull(record.getId1());
+        assertTrue(record.isId1Null());
+
+        record.setId1(0);
+        assertEquals(0, record.getId1().intValue());
+        assertFalse(record.isId1Null());
+
+        record.setId1(null);
+        assertNull(record.getId1());
+    }
+
+    @Test
+    public void testNullAndZeroValues() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            PkfieldsMapper mapper = sqlSession.getMapper(PkfieldsMapper.class);
+            Pkfields record = new Pkfields();
+            record.setId1(1);
+            record.setId2(2);
+            record.setWierdField(0);
+            record.setDecimal60field(6);
+            record.setDecimal100field(10L);
+            mapper.insert(record);
+
+            Pkfields returnedRecord = mapper.selectByPrimaryKey(2, 1);
+            assertEquals(0, returnedRecord.getWierdField().intValue());
+            assertFalse(returnedRecord.isWierdFieldNull());
+            assertEquals(6, returnedRecord.getDecimal60field().intValue());
+            assertEquals(10L, returnedRecord.getDecimal100field().longValue());
+            assertNull(returnedRecord.getDecimal30field());
+            assertTrue(returnedRecord.isDecimal30fieldNull());
+
+            returnedRecord.setWierdField(null);
+            assertEquals(1, mapper.updateByPrimaryKey(returnedRecord));
+            returnedRecord = mapper.selectByPrimaryKey(2, 1);
+            assertNull(returnedRecord.getWierdField());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testSelectByExampleWithNullColumns() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            FieldsonlyMapper mapper = sqlSession.getMapper(FieldsonlyMapper.class);
+            Fieldsonly record = new Fieldsonly();
+            record.setIntegerfield(0);
+            record.setDoublefield(1.5);
+            mapper.insert(record);
+
+            record = new Fieldsonly();
+            record.setIntegerfield(5);
+            mapper.insert(record);
+
+            FieldsonlyExample example = new FieldsonlyExample();
+            example.createCriteria().andDoublefieldIsNull();
+            List<Fieldsonly> answer = mapper.selectByExample(example);
+            assertEquals(1, answer.size());
+            assertEquals(5, answer.get(0).getIntegerfield().intValue());
+            assertNull(answer.get(0).getDoublefield());
+            assertNull(answer.get(0).getFloatfield());
+
+            example.clear();
+            example.createCriteria().andIntegerfieldEqualTo(0);
+            answer = mapper.selectByExample(example);
+            assertEquals(1, answer.size());
+            assertEquals(1.5, answer.get(0).getDoublefield(), 0.001);
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testAnnotatedInsertSelective() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            mbg.test.mb3.generated.annotated.primitive.mapper.PkfieldsMapper mapper = sqlSession
+                    .getMapper(mbg.test.mb3.generated.annotated.primitive.mapper.PkfieldsMapper.class);
+            mbg.test.mb3.generated.annotated.primitive.model.Pkfields record =
+                    new mbg.test.mb3.generated.annotated.primitive.model.Pkfields();
+            record.setId1(1);
+            record.setId2(2);
+            record.setDecimal30field((short) 0);
+            mapper.insertSelective(record);
+
+            mbg.test.mb3.generated.annotated.primitive.model.Pkfields returnedRecord =
+                    mapper.selectByPrimaryKey(2, 1);
+            assertEquals(0, returnedRecord.getDecimal30field().shortValue());
+            assertNull(returnedRecord.getWierdField());
+            assertNull(returnedRecord.getDecimal60field());
+        } finally {
+            sqlSession.close();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ *    Copyright 2006-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package mbg.test.mb3.sharded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import mbg.test.mb3.AbstractTest;
+import mbg.test.mb3.generated.sharded.mapper.ShardEventMapper;
+import mbg.test.mb3.generated.sharded.mapper.ShardEventMapperShards;
+import mbg.test.mb3.generated.sharded.model.ShardEvent;
+import mbg.test.mb3.generated.sharded.model.ShardEventExample;
+import mbg.test.mb3.generated.sharded.shard.ShardContext;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the routing of the statements of a sharded table. The records are
+ * placed in the shards ShardEvent_000 and ShardEvent_001 by the remainder of
+ * their id.
+ */
+public class ShardedTableTest extends AbstractTest {
+
+    private ExecutorService executor;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        sqlSessionFactory.getConfiguration().addMapper(
+                mbg.test.mb3.generated.annotated.sharded.mapper.ShardEventMapper.class);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String getMyBatisConfigFile() {
+        return "mbg/test/mb3/sharded/MapperConfig.xml";
+    }
+
+    @Test
+    public void testInShardAndAcrossShards() {
+        ShardEventMapperShards shards = new ShardEventMapperShards(sqlSessionFactory, executor);
+        for (int i = 1; i <= 5; i++) {
+            final ShardEvent record = new ShardEvent();
+            record.setId(i);
+            record.setName("Event" + i);
+            assertEquals(1, shards.inShard(i, mapper -> mapper.insert(record)).intValue());
+        }
+
+        assertEquals(2L, shards.inShardSuffix("_000",
+                mapper -> mapper.countByExample(new ShardEventExample())).longValue());
+        assertEquals(3L, shards.inShardSuffix("_001",
+                mapper -> mapper.countByExample(new ShardEventExample())).longValue());
+        assertEquals("Event3", shards.inShard(3,
+                mapper -> mapper.selectByPrimaryKey(3)).getName());
+
+        ShardEventExample example = new ShardEventExample();
+        assertEquals(5, shards.countByExampleAcrossShards(example));
+
+        example.createCriteria().andIdGreaterThan(1);
+        example.setOrderByClause("ID");
+        List<ShardEvent> answer = shards.selectByExampleAcrossShards(example);
+        assertEquals(4, answer.size());
+        // the shards are concatenated in the order of their suffixes
+        assertEquals(2, answer.get(0).getId().intValue());
+        assertEquals(4, answer.get(1).getId().intValue());
+        assertEquals(3, answer.get(2).getId().intValue());
+        assertEquals(5, answer.get(3).getId().intValue());
+    }
+
+    @Test(expected = PersistenceException.class)
+    public void testStatementOutsideOfShard() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+
+        try {
+            ShardEventMapper mapper = sqlSession.getMapper(ShardEventMapper.class);
+            mapper.countByExample(new ShardEventExample());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void testMaliciousSuffixIsRejected() {
+        ShardEventMapperShards shards = new ShardEventMapperShards(sqlSessionFactory, executor);
+        final AtomicBoolean called = new AtomicBoolean();
+        try {
+            shards.inShardSuffix("_000 where 1 = 1; drop table ShardEvent_001; --", mapper -> {
+                called.set(true);
+                return mapper.countByExample(new ShardEventExample());
+            });
+            fail("Expected the suffix to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertFalse(called.get());
+
+        for (String suffix : new String[] { "", "_000 ", "_000)", "_000/**/", null }) {
+            try {
+                ShardContext.callInShard(suffix, () -> {
+                    called.set(true);
+                    return null;
+                });
+                fail("Expected the suffix to be rejected: " + suffix);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        assertFalse(called.get());
+
+        // the shards are intact and can still be used
+        assertEquals(0L, shards.inShardSuffix("_001",
+                mapper -> mapper.countByExample(new ShardEventExample())).longValue());
+    }
+
+    @Test
+    public void testAnnotatedInShardAndAcrossShards() {
+        mbg.test.mb3.generated.annotated.sharded.mapper.ShardEventMapperShards shards =
+                new mbg.test.mb3.generated.annotated.sharded.mapper.ShardEventMapperShards(
+                        sqlSessionFactory, executor);
+        for (int i = 1; i <= 3; i++) {
+            final mbg.test.mb3.generated.annotated.sharded.model.ShardEvent record =
+                    new mbg.test.mb3.generated.annotated.sharded.model.ShardEvent();
+            record.setId(i);
+            record.setName("Event" + i);
+            shards.inShard(i, mapper -> mapper.insert(record));
+        }
+
+        assertEquals(1L, shards.inShardSuffix("_000", mapper -> mapper.countByExample(
+                new mbg.test.mb3.generated.annotated.sharded.model.ShardEventExample())).longValue());
+        assertEquals(3, shards.countByExampleAcrossShards(
+                new mbg.test.mb3.generated.annotated.sharded.model.ShardEventExample()));
+    }
+}